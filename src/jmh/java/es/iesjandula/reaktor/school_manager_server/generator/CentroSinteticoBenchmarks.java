@@ -0,0 +1,152 @@
+package es.iesjandula.reaktor.school_manager_server.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import es.iesjandula.reaktor.school_manager_server.generator.configuracion.ConfiguracionGenerador;
+import es.iesjandula.reaktor.school_manager_server.generator.sesiones.IndiceBloquesOptativas;
+import es.iesjandula.reaktor.school_manager_server.generator.sintetico.GeneradorCentroSintetico;
+import es.iesjandula.reaktor.school_manager_server.generator.sintetico.ParametrosCentroSintetico;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.ControlHilosGenerador;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.HorarioThreadParams;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.MatrizAsignaciones;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
+import es.iesjandula.reaktor.school_manager_server.utils.SchoolManagerServerException;
+
+/**
+ * Centro sintético de los benchmarks del generador: lo construye GeneradorCentroSintetico, igual que en el banco de pruebas,
+ * y se configura con ConfiguracionGenerador, igual que en el servidor.
+ * <p>Todos los grupos son matutinos de ESO, sin optativas ni tutorías, para que la matriz completa se pueda llenar grupo a grupo.</p>
+ */
+public class CentroSinteticoBenchmarks
+{
+    /** Semilla de los centros de los benchmarks, para que todos midan sobre el mismo centro */
+    public static final long SEMILLA = 20250901L;
+
+    /** Probabilidad de evitar cada tramo: de media, un día y tramo por profesor */
+    private static final double DENSIDAD_PREFERENCIAS = 1.0d / (Constants.NUMERO_DIAS_SEMANA * Constants.NUMERO_TRAMOS_HORARIOS);
+
+    private final ConfiguracionGenerador configuracionGenerador;
+
+    /** Sesiones de cada grupo */
+    private final List<List<SesionBase>> sesionesPorGrupo = new ArrayList<>();
+
+    /**
+     * @param numeroGrupos número de grupos del centro
+     * @throws SchoolManagerServerException si no se puede generar o configurar el centro
+     */
+    public CentroSinteticoBenchmarks(int numeroGrupos) throws SchoolManagerServerException
+    {
+        ParametrosCentroSintetico parametrosCentroSintetico = new ParametrosCentroSintetico.Builder()
+                                                                                           .setSemilla(SEMILLA)
+                                                                                           .setNumeroGruposEso(numeroGrupos)
+                                                                                           .setNumeroGruposFp(0)
+                                                                                           .setNumeroBloquesOptativas(0)
+                                                                                           .setDensidadPreferencias(DENSIDAD_PREFERENCIAS)
+                                                                                           .setProbabilidadConciliacion(0.0d)
+                                                                                           .setTutorias(false)
+                                                                                           .build();
+
+        configuracionGenerador = new ConfiguracionGenerador(new GeneradorCentroSintetico(parametrosCentroSintetico).generar());
+        configuracionGenerador.configurar();
+
+        // Agrupamos las sesiones creadas por grupo, en el orden en que se han creado
+        for (int i = 0; i < numeroGrupos; i++)
+        {
+            sesionesPorGrupo.add(new ArrayList<>());
+        }
+        for (List<SesionBase> sublista : getListaDeListaSesiones())
+        {
+            for (SesionBase sesion : sublista)
+            {
+                sesionesPorGrupo.get(sesion.getRestriccionHorariaInit().getIndiceCursoDiaInicial() / Constants.NUMERO_DIAS_SEMANA).add(sesion);
+            }
+        }
+    }
+
+    /**
+     * @return parámetros de un hilo del generador en el modo de optimización por tiempo, para que ninguna solución se guarde en BBDD
+     */
+    public HorarioThreadParams crearHorarioThreadParams()
+    {
+        return new HorarioThreadParams.Builder()
+                .setMapCorrelacionadorCursosMatutinos(configuracionGenerador.getMapCorrelacionadorCursosMatutinos())
+                .setMapCorrelacionadorCursosVespertinos(configuracionGenerador.getMapCorrelacionadorCursosVespertinos())
+                .setIndiceBloquesOptativas(getIndiceBloquesOptativas())
+                .setUmbralMinimoSolucion(0)
+                .setControlHilosGenerador(new ControlHilosGenerador(1, TimeUnit.DAYS.toSeconds(1), 1))
+                .setNumeroProfesores(getNumeroProfesores())
+                .setEstrategiaBusqueda(Constants.VALOR_GENERADOR_ESTRATEGIA_BUSQUEDA)
+                .setMaximoSaltosAtras(Integer.parseInt(Constants.VALOR_GENERADOR_MAXIMO_SALTOS_ATRAS))
+                .setBusquedaLocal(Constants.VALOR_GENERADOR_BUSQUEDA_LOCAL)
+                .setIteracionesBusquedaLocal(Integer.parseInt(Constants.VALOR_GENERADOR_ITERACIONES_BUSQUEDA_LOCAL))
+                .setOrdenSesiones(Constants.VALOR_GENERADOR_ORDEN_SESIONES)
+                .setPropagacionRestricciones(Boolean.parseBoolean(Constants.VALOR_GENERADOR_PROPAGACION_RESTRICCIONES))
+                .setSemilla(SEMILLA)
+                .build();
+    }
+
+    /**
+     * Coloca las sesiones de cada grupo en orden, de lunes a viernes y de primera a última hora. No comprueba ninguna restricción:
+     * sirve para tener una matriz llena con la que medir las comprobaciones y la puntuación
+     *
+     * @return matriz de asignaciones matutinas con todas las sesiones
+     */
+    public MatrizAsignaciones crearMatrizCompleta()
+    {
+        MatrizAsignaciones matriz = new MatrizAsignaciones(getNumeroGrupos(), MatrizAsignaciones.indexarSesiones(getListaDeListaSesiones()));
+
+        for (int grupo = 0; grupo < getNumeroGrupos(); grupo++)
+        {
+            List<SesionBase> sesiones = sesionesPorGrupo.get(grupo);
+
+            for (int i = 0; i < sesiones.size(); i++)
+            {
+                matriz.asignar(grupo * Constants.NUMERO_DIAS_SEMANA + i % Constants.NUMERO_DIAS_SEMANA, i / Constants.NUMERO_DIAS_SEMANA, sesiones.get(i));
+            }
+        }
+
+        return matriz;
+    }
+
+    /**
+     * @return sesiones de todos los grupos, con su restricción horaria thread inicializada
+     */
+    public List<SesionBase> obtenerSesiones()
+    {
+        List<SesionBase> sesiones = new ArrayList<>();
+
+        for (List<SesionBase> sublista : sesionesPorGrupo)
+        {
+            for (SesionBase sesion : sublista)
+            {
+                sesion.inicializarRestriccionHorariaThread();
+                sesiones.add(sesion);
+            }
+        }
+
+        return sesiones;
+    }
+
+    public List<List<SesionBase>> getListaDeListaSesiones()
+    {
+        return configuracionGenerador.getCreadorSesiones().getListaDeListaSesiones();
+    }
+
+    public IndiceBloquesOptativas getIndiceBloquesOptativas()
+    {
+        return configuracionGenerador.getIndiceBloquesOptativas();
+    }
+
+    public int getNumeroProfesores()
+    {
+        return configuracionGenerador.getCreadorSesiones().getNumeroProfesores();
+    }
+
+    public int getNumeroGrupos()
+    {
+        return sesionesPorGrupo.size();
+    }
+}
@@ -0,0 +1,52 @@
+package es.iesjandula.reaktor.school_manager_server.generator.puntuacion;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import es.iesjandula.reaktor.school_manager_server.generator.CentroSinteticoBenchmarks;
+import es.iesjandula.reaktor.school_manager_server.generator.Horario;
+import es.iesjandula.reaktor.school_manager_server.utils.SchoolManagerServerException;
+
+/**
+ * Puntuación en memoria de una solución con todas las sesiones asignadas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculadorPuntuacionBenchmark
+{
+    @Param({"10", "30", "60"})
+    public int numeroGrupos;
+
+    private CalculadorPuntuacion calculadorPuntuacion;
+
+    private Horario horario;
+
+    @Setup(Level.Trial)
+    public void configurar() throws SchoolManagerServerException
+    {
+        calculadorPuntuacion = new CalculadorPuntuacion();
+        horario              = new Horario(new CentroSinteticoBenchmarks(numeroGrupos).crearMatrizCompleta(), null);
+    }
+
+    @Benchmark
+    public PuntuacionHorario calcularPuntuacion()
+    {
+        return calculadorPuntuacion.calcularPuntuacion(horario);
+    }
+}
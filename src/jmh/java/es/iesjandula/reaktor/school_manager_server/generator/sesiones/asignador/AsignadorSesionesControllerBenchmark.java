@@ -0,0 +1,152 @@
+package es.iesjandula.reaktor.school_manager_server.generator.sesiones.asignador;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import es.iesjandula.reaktor.school_manager_server.generator.CentroSinteticoBenchmarks;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.DominiosSesiones;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.MatrizAsignaciones;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.OcupacionCursos;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.OcurrenciasAsignaturas;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.OcupacionProfesores;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.UltimaAsignacion;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
+import es.iesjandula.reaktor.school_manager_server.utils.SchoolManagerServerException;
+
+/**
+ * Asignación de una sesión con la matriz a medio llenar, como a mitad de un intento
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AsignadorSesionesControllerBenchmark
+{
+    @Param({"10", "30", "60"})
+    public int numeroGrupos;
+
+    private AsignadorSesionesController asignadorSesionesController;
+
+    private MatrizAsignaciones matriz;
+
+    /** Sesiones sin asignar que todavía tienen algún hueco en la matriz */
+    private List<SesionBase> sesionesPendientes;
+
+    private int contador;
+
+    @Setup(Level.Trial)
+    public void configurar() throws SchoolManagerServerException
+    {
+        CentroSinteticoBenchmarks centroSintetico = new CentroSinteticoBenchmarks(numeroGrupos);
+
+        OcupacionProfesores ocupacionProfesores = new OcupacionProfesores(centroSintetico.getNumeroProfesores());
+        OcupacionCursos ocupacionCursos         = new OcupacionCursos(numeroGrupos, 0);
+
+        asignadorSesionesController = new AsignadorSesionesController(centroSintetico.getIndiceBloquesOptativas(),
+                                                                      ocupacionProfesores,
+                                                                      ocupacionCursos,
+                                                                      new OcurrenciasAsignaturas(numeroGrupos, 0, centroSintetico.getIndiceBloquesOptativas().getNumeroAsignaturas()),
+                                                                      new DominiosSesiones(centroSintetico.getListaDeListaSesiones(), centroSintetico.getNumeroProfesores(),
+                                                                                           numeroGrupos, 0, ocupacionProfesores, ocupacionCursos),
+                                                                      new SplittableRandom(CentroSinteticoBenchmarks.SEMILLA));
+        matriz = new MatrizAsignaciones(numeroGrupos, MatrizAsignaciones.indexarSesiones(centroSintetico.getListaDeListaSesiones()));
+
+        List<SesionBase> sesiones = centroSintetico.obtenerSesiones();
+        Collections.shuffle(sesiones, new Random(CentroSinteticoBenchmarks.SEMILLA));
+
+        // Asignamos la mitad de las sesiones
+        List<SesionBase> sesionesSinAsignar = new ArrayList<>();
+        for (int i = 0; i < sesiones.size(); i++)
+        {
+            if (i % 2 != 0 || asignar(sesiones.get(i)) == null)
+            {
+                sesionesSinAsignar.add(sesiones.get(i));
+            }
+        }
+
+        // Nos quedamos con las que se pueden asignar, dejando la matriz como estaba
+        sesionesPendientes = new ArrayList<>();
+        for (SesionBase sesion : sesionesSinAsignar)
+        {
+            UltimaAsignacion ultimaAsignacion = asignar(sesion);
+            if (ultimaAsignacion != null)
+            {
+                asignadorSesionesController.deshacerAsignacion(matriz, sesion, ultimaAsignacion.getIndicesAsignacionSesion());
+                sesionesPendientes.add(sesion);
+            }
+            sesion.getRestriccionHorariaThread().reiniciar();
+        }
+    }
+
+    @Benchmark
+    public UltimaAsignacion asignarSesion() throws SchoolManagerServerException
+    {
+        SesionBase sesion = siguienteSesionPendiente();
+
+        UltimaAsignacion ultimaAsignacion = asignadorSesionesController.asignarSesion(matriz, sesion);
+
+        // Deshacemos la asignación para que todas las invocaciones partan de la misma matriz
+        asignadorSesionesController.deshacerAsignacion(matriz, sesion, ultimaAsignacion.getIndicesAsignacionSesion());
+        sesion.getRestriccionHorariaThread().reiniciar();
+
+        return ultimaAsignacion;
+    }
+
+    @Benchmark
+    public boolean profesorSinSesionEnEstaHora()
+    {
+        SesionBase sesion = siguienteSesionPendiente();
+
+        int posicion = contador % (Constants.NUMERO_DIAS_SEMANA * Constants.NUMERO_TRAMOS_HORARIOS);
+
+        return asignadorSesionesController.profesorSinSesionEnEstaHora(sesion,
+                                                                       sesion.getRestriccionHorariaInit().getIndiceCursoDiaInicial() + posicion % Constants.NUMERO_DIAS_SEMANA,
+                                                                       posicion / Constants.NUMERO_DIAS_SEMANA);
+    }
+
+    private SesionBase siguienteSesionPendiente()
+    {
+        contador++;
+
+        return sesionesPendientes.get(contador % sesionesPendientes.size());
+    }
+
+    /**
+     * @return la asignación de la sesión, o null si no le queda ningún hueco
+     */
+    private UltimaAsignacion asignar(SesionBase sesion)
+    {
+        UltimaAsignacion outcome = null;
+
+        try
+        {
+            outcome = asignadorSesionesController.asignarSesion(matriz, sesion);
+        }
+        catch (SchoolManagerServerException schoolManagerServerException)
+        {
+            // La sesión no tiene hueco con la matriz actual
+        }
+
+        return outcome;
+    }
+}
@@ -0,0 +1,59 @@
+package es.iesjandula.reaktor.school_manager_server.generator.threads;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import es.iesjandula.reaktor.school_manager_server.generator.CentroSinteticoBenchmarks;
+import es.iesjandula.reaktor.school_manager_server.utils.SchoolManagerServerException;
+
+/**
+ * Intento completo de un hilo del generador con los parámetros por defecto: desde la matriz vacía hasta
+ * encontrar una solución (búsqueda local incluida) o llegar a un callejón sin salida.
+ * Las soluciones se quedan en memoria, en el modo de optimización por tiempo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HorarioThreadBenchmark
+{
+    @Param({"10", "30", "60"})
+    public int numeroGrupos;
+
+    private HorarioThread horarioThread;
+
+    private EstadisticasGenerador estadisticasGenerador;
+
+    @Setup(Level.Trial)
+    public void configurar() throws SchoolManagerServerException
+    {
+        CentroSinteticoBenchmarks centroSintetico = new CentroSinteticoBenchmarks(numeroGrupos);
+        HorarioThreadParams horarioThreadParams = centroSintetico.crearHorarioThreadParams();
+
+        // El hilo no se arranca: cada invocación realiza un intento en el hilo del benchmark
+        horarioThread         = new HorarioThread(horarioThreadParams, centroSintetico.getListaDeListaSesiones(), 0);
+        estadisticasGenerador = horarioThreadParams.getControlHilosGenerador().getEstadisticasGenerador();
+    }
+
+    @Benchmark
+    public EstadisticasGenerador intento()
+    {
+        horarioThread.comenzarProcesoInternal();
+
+        return estadisticasGenerador;
+    }
+}
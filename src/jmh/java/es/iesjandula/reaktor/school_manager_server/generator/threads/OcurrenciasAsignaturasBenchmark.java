@@ -0,0 +1,93 @@
+package es.iesjandula.reaktor.school_manager_server.generator.threads;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import es.iesjandula.reaktor.school_manager_server.generator.CentroSinteticoBenchmarks;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionAsignatura;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
+import es.iesjandula.reaktor.school_manager_server.utils.SchoolManagerServerException;
+
+/**
+ * Comprobación de las ocurrencias de una asignatura en un día con la matriz llena
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OcurrenciasAsignaturasBenchmark
+{
+    @Param({"10", "30", "60"})
+    public int numeroGrupos;
+
+    private OcurrenciasAsignaturas ocurrenciasAsignaturas;
+
+    private List<SesionBase> sesiones;
+
+    private int contador;
+
+    @Setup(Level.Trial)
+    public void configurar() throws SchoolManagerServerException
+    {
+        CentroSinteticoBenchmarks centroSintetico = new CentroSinteticoBenchmarks(numeroGrupos);
+
+        sesiones = centroSintetico.obtenerSesiones();
+
+        // Contamos las ocurrencias de la matriz llena igual que lo hace el asignador
+        MatrizAsignaciones matriz = centroSintetico.crearMatrizCompleta();
+        ocurrenciasAsignaturas    = new OcurrenciasAsignaturas(numeroGrupos, 0, centroSintetico.getIndiceBloquesOptativas().getNumeroAsignaturas());
+        for (int indiceCursoDia = 0; indiceCursoDia < matriz.getNumeroCursosDias(); indiceCursoDia++)
+        {
+            for (int tramo = 0; tramo < Constants.NUMERO_TRAMOS_HORARIOS; tramo++)
+            {
+                contarCelda(matriz, indiceCursoDia, tramo);
+            }
+        }
+    }
+
+    private void contarCelda(MatrizAsignaciones matriz, int indiceCursoDia, int tramo)
+    {
+        // Cada asignatura cuenta una vez por celda, aunque tenga varias sesiones en ella
+        List<Integer> asignaturasContadas = new ArrayList<>();
+        for (SesionBase sesion : matriz.obtenerSesiones(indiceCursoDia, tramo))
+        {
+            if (sesion instanceof SesionAsignatura)
+            {
+                int indiceAsignatura = ((SesionAsignatura) sesion).getIndiceAsignatura();
+                if (!asignaturasContadas.contains(indiceAsignatura))
+                {
+                    ocurrenciasAsignaturas.incrementar(true, indiceCursoDia, indiceAsignatura);
+                    asignaturasContadas.add(indiceAsignatura);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean sesionSinMasXOcurrenciasElMismoDia()
+    {
+        contador++;
+
+        SesionBase sesion  = sesiones.get(contador % sesiones.size());
+        int indiceCursoDia = sesion.getRestriccionHorariaInit().getIndiceCursoDiaInicial() + contador % Constants.NUMERO_DIAS_SEMANA;
+
+        return ocurrenciasAsignaturas.sesionSinMasXOcurrenciasElMismoDia(indiceCursoDia, sesion);
+    }
+}
@@ -0,0 +1,64 @@
+package es.iesjandula.reaktor.school_manager_server.models.no_jpa.restrictions;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import es.iesjandula.reaktor.school_manager_server.generator.CentroSinteticoBenchmarks;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
+import es.iesjandula.reaktor.school_manager_server.utils.SchoolManagerServerException;
+
+/**
+ * Elección aleatoria del siguiente día y tramo de una sesión a partir de su restricción horaria inicial
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RestriccionHorariaThreadBenchmark
+{
+    @Param({"10", "30", "60"})
+    public int numeroGrupos;
+
+    private List<SesionBase> sesiones;
+
+    private SplittableRandom random;
+
+    private int contador;
+
+    @Setup(Level.Trial)
+    public void configurar() throws SchoolManagerServerException
+    {
+        sesiones = new CentroSinteticoBenchmarks(numeroGrupos).obtenerSesiones();
+        random   = new SplittableRandom(CentroSinteticoBenchmarks.SEMILLA);
+    }
+
+    @Benchmark
+    public RestriccionHorariaItem obtenerRestriccionHorariaItem() throws SchoolManagerServerException
+    {
+        contador++;
+
+        SesionBase sesion = sesiones.get(contador % sesiones.size());
+
+        // Volvemos a la restricción inicial, ya que obtener el item lo elimina de la restricción
+        RestriccionHorariaThread restriccionHorariaThread = sesion.getRestriccionHorariaThread();
+        restriccionHorariaThread.reiniciar();
+
+        return restriccionHorariaThread.obtenerRestriccionHorariaItem(sesion, random);
+    }
+}
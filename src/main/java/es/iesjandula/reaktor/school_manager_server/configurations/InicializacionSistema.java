@@ -25,6 +25,7 @@ import es.iesjandula.reaktor.school_manager_server.models.CursoAcademico;
 import es.iesjandula.reaktor.school_manager_server.models.DiaTramoTipoHorario;
 import es.iesjandula.reaktor.school_manager_server.repositories.ICursoAcademicoRepository;
 import es.iesjandula.reaktor.school_manager_server.repositories.IDiaTramoTipoHorarioRepository;
+import es.iesjandula.reaktor.school_manager_server.services.manager.DiaTramoTipoHorarioService;
 import es.iesjandula.reaktor.school_manager_server.utils.Constants;
 import es.iesjandula.reaktor.school_manager_server.utils.SchoolManagerServerException;
 import jakarta.annotation.PostConstruct;
@@ -37,6 +38,9 @@ public class InicializacionSistema
 	@Autowired
 	private IDiaTramoTipoHorarioRepository diaTramoTipoHorarioRepository ;
 
+	@Autowired
+	private DiaTramoTipoHorarioService diaTramoTipoHorarioService ;
+
 	@Autowired
 	private IConstantesRepository iConstantesRepository;
 
@@ -87,6 +91,9 @@ public class InicializacionSistema
 			this.inicializarCursoAcademico() ;
 		}
 
+		// Construimos el índice en memoria de los dias, tramos y tipo de horario (recién cargados o ya existentes en BBDD)
+		this.diaTramoTipoHorarioService.recargarIndiceDiasTramosTipoHorario() ;
+
 		if(Constants.MODO_INICIALIZAR_SISTEMA.equals(String.valueOf(this.reiniciarConstantes)))
 		{
 			this.inicializarSistemaConConstantes();
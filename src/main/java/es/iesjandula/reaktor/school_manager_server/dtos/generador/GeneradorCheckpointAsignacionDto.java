@@ -0,0 +1,29 @@
+package es.iesjandula.reaktor.school_manager_server.dtos.generador;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Celda ocupada de una matriz de asignaciones en un punto de control del generador
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GeneradorCheckpointAsignacionDto
+{
+    /** Columna de la matriz (curso por número de días más día) */
+    private int indiceCursoDia ;
+
+    /** Fila de la matriz (tramo horario) */
+    private int tramo ;
+
+    /** True si la asignación es de optativas */
+    private boolean optativas ;
+
+    /** Clave de cada una de las sesiones de la celda */
+    private List<String> clavesSesiones = new ArrayList<String>() ;
+}
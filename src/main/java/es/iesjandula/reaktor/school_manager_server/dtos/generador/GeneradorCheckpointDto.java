@@ -0,0 +1,50 @@
+package es.iesjandula.reaktor.school_manager_server.dtos.generador;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Punto de control en JSON de un trabajo del generador en curso, que permite reanudarlo tras un reinicio del servidor.
+ * <p>No guarda las sesiones: al reanudar se vuelven a crear a partir de la BBDD y la huella del problema comprueba que
+ * los datos no han cambiado desde entonces.</p>
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GeneradorCheckpointDto
+{
+    /** Identificador del generador en BBDD */
+    private int idGenerador ;
+
+    /** Curso académico con cuyos datos se lanzó la generación */
+    private String cursoAcademico ;
+
+    /** Modo del generador: primera solución que supera el umbral u optimización por tiempo */
+    private String modo ;
+
+    /** Número de hilos que usaba el trabajo */
+    private int numeroHilos ;
+
+    /** Segundos de búsqueda que quedaban en el modo de optimización por tiempo */
+    private long segundosRestantes ;
+
+    /** Número de mejores soluciones que se guardan en el modo de optimización por tiempo */
+    private int numeroMejoresSoluciones ;
+
+    /** Huella de las sesiones de la generación */
+    private String huellaProblema ;
+
+    /** Contadores de la búsqueda hasta el punto de control */
+    private GeneradorEstadisticasDto estadisticas ;
+
+    /** Mejores soluciones encontradas hasta el punto de control (solo en el modo de optimización por tiempo) */
+    private List<GeneradorCheckpointSolucionDto> soluciones = new ArrayList<GeneradorCheckpointSolucionDto>() ;
+
+    /** Fecha del punto de control */
+    private Date fechaCheckpoint ;
+}
@@ -0,0 +1,29 @@
+package es.iesjandula.reaktor.school_manager_server.dtos.generador;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Solución guardada en un punto de control del generador, con sus celdas ocupadas
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GeneradorCheckpointSolucionDto
+{
+    /** Puntuación de la solución */
+    private int puntuacion ;
+
+    /** Semilla del hilo que encontró la solución (null si se desconoce) */
+    private Long semilla ;
+
+    /** Celdas ocupadas de la matriz de asignaciones matutinas */
+    private List<GeneradorCheckpointAsignacionDto> asignacionesMatutinas = new ArrayList<GeneradorCheckpointAsignacionDto>() ;
+
+    /** Celdas ocupadas de la matriz de asignaciones vespertinas */
+    private List<GeneradorCheckpointAsignacionDto> asignacionesVespertinas = new ArrayList<GeneradorCheckpointAsignacionDto>() ;
+}
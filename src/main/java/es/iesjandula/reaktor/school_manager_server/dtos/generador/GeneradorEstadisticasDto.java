@@ -0,0 +1,34 @@
+package es.iesjandula.reaktor.school_manager_server.dtos.generador;
+
+import lombok.Data;
+
+@Data
+public class GeneradorEstadisticasDto
+{
+    /** Intentos comenzados por todos los hilos */
+    private long intentos ;
+
+    /** Callejones sin salida encontrados (sesiones que no se han podido asignar) */
+    private long callejonesSinSalida ;
+
+    /** Saltos atrás realizados (solo con la estrategia de salto atrás) */
+    private long saltosAtras ;
+
+    /** Asignaciones rechazadas por dejar sin huecos a una sesión pendiente (solo con la propagación de restricciones) */
+    private long vaciadosDominio ;
+
+    /** Sesiones asignadas antes del último callejón sin salida */
+    private int profundidadUltimoCallejon ;
+
+    /** Máximo de sesiones asignadas antes de un callejón sin salida */
+    private int profundidadMaximaCallejon ;
+
+    /** Media de sesiones asignadas antes de cada callejón sin salida */
+    private double profundidadMediaCallejon ;
+
+    /** Segundos desde que se lanzó el generador */
+    private double segundosEnCurso ;
+
+    /** Intentos por segundo desde que se lanzó el generador */
+    private double intentosPorSegundo ;
+}
@@ -0,0 +1,37 @@
+package es.iesjandula.reaktor.school_manager_server.dtos.generador;
+
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Evento de un trabajo del generador que se envía a los clientes suscritos a GET /schoolManager/generador/eventos
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GeneradorEventoDto
+{
+    /** Tipo de evento (en cola, arrancado, progreso, solución o terminado) */
+    private String tipo ;
+
+    /** Identificador del generador en BBDD */
+    private int idGenerador ;
+
+    /** Curso académico con cuyos datos se lanzó la generación */
+    private String cursoAcademico ;
+
+    /** Estado del trabajo al producirse el evento */
+    private String estado ;
+
+    /** Puntuación de la solución encontrada (solo en los eventos de solución) */
+    private Integer puntuacion ;
+
+    /** Contadores de la búsqueda (null mientras el trabajo está en cola) */
+    private GeneradorEstadisticasDto estadisticas ;
+
+    /** Fecha del evento */
+    private Date fecha ;
+}
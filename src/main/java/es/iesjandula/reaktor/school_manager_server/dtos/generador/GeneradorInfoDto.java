@@ -37,4 +37,10 @@ public class GeneradorInfoDto
      * <p>Representa la lista de soluciones.</p>
      */
     private List<GeneradorInstanciaDto> soluciones ;
+
+    /**
+     * Estadísticas de la búsqueda.
+     * <p>Contadores de la última generación lanzada desde que arrancó el servidor (null si no se ha lanzado ninguna).</p>
+     */
+    private GeneradorEstadisticasDto estadisticas ;
 }
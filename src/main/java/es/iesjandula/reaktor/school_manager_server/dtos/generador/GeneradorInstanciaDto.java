@@ -17,6 +17,12 @@ public class GeneradorInstanciaDto
     /** Solución elegida */
     private Boolean solucionElegida ;
 
+    /** Semilla del hilo que encontró la solución, con la que se puede repetir (null si se desconoce) */
+    private Long semilla ;
+
+    /** Indica si la solución es de una repetición del generador, que no se puede seleccionar */
+    private boolean repeticion ;
+
     /** Puntuaciones desglosadas de la instancia del generador (general y por profesor) */
     private List<GeneradorInstanciaSolucionInfoGeneralDto> puntuacionesDesglosadas ;
 
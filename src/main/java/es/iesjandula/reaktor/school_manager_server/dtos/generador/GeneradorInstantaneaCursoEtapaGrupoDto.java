@@ -0,0 +1,26 @@
+package es.iesjandula.reaktor.school_manager_server.dtos.generador;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GeneradorInstantaneaCursoEtapaGrupoDto
+{
+    /** Curso */
+    private int curso ;
+
+    /** Etapa */
+    private String etapa ;
+
+    /** Grupo */
+    private String grupo ;
+
+    /** True si el grupo tiene horario matutino */
+    private boolean horarioMatutino ;
+
+    /** True si es de ESO o Bachillerato */
+    private boolean esoBachillerato ;
+}
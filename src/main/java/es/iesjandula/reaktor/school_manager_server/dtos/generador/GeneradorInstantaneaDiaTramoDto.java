@@ -0,0 +1,20 @@
+package es.iesjandula.reaktor.school_manager_server.dtos.generador;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GeneradorInstantaneaDiaTramoDto
+{
+    /** Número de la sesión a la que aplica (desde 1), o 0 si no aplica a una sesión concreta */
+    private int numeroRestriccion ;
+
+    /** Día de la semana (desde 0) */
+    private int dia ;
+
+    /** Tramo horario (desde 0) */
+    private int tramo ;
+}
@@ -0,0 +1,33 @@
+package es.iesjandula.reaktor.school_manager_server.dtos.generador;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Instantánea en JSON de los datos de entrada del generador de un curso académico, con los profesores anonimizados.
+ * Permite reproducir una generación en el banco de pruebas del generador sin BBDD
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GeneradorInstantaneaDto
+{
+    /** Curso académico del que se obtuvo la instantánea */
+    private String cursoAcademico ;
+
+    /** Cursos, etapas y grupos que participan en la generación, sin los grupos de optativas */
+    private List<GeneradorInstantaneaCursoEtapaGrupoDto> cursosEtapasGrupos = new ArrayList<GeneradorInstantaneaCursoEtapaGrupoDto>() ;
+
+    /** Profesores que imparten alguna asignatura o tienen alguna reducción */
+    private List<GeneradorInstantaneaProfesorDto> profesores = new ArrayList<GeneradorInstantaneaProfesorDto>() ;
+
+    /** Asignaturas a impartir por cada profesor */
+    private List<GeneradorInstantaneaImpartirDto> impartir = new ArrayList<GeneradorInstantaneaImpartirDto>() ;
+
+    /** Reducciones de los profesores con su día y tramo */
+    private List<GeneradorInstantaneaReduccionDto> reducciones = new ArrayList<GeneradorInstantaneaReduccionDto>() ;
+}
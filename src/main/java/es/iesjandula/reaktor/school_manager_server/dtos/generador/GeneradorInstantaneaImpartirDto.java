@@ -0,0 +1,44 @@
+package es.iesjandula.reaktor.school_manager_server.dtos.generador;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GeneradorInstantaneaImpartirDto
+{
+    /** Identificador anónimo del profesor en la instantánea */
+    private String profesor ;
+
+    /** Nombre de la asignatura */
+    private String asignatura ;
+
+    /** Curso de la asignatura */
+    private int curso ;
+
+    /** Etapa de la asignatura */
+    private String etapa ;
+
+    /** Grupo de la asignatura (el grupo de optativas si es optativa) */
+    private String grupo ;
+
+    /** True si el grupo de la asignatura tiene horario matutino */
+    private boolean horarioMatutino ;
+
+    /** True si la asignatura es de ESO o Bachillerato */
+    private boolean esoBachillerato ;
+
+    /** Horas semanales de la asignatura */
+    private int horas ;
+
+    /** Bloque de la asignatura optativa (null si no es optativa) */
+    private Long bloque ;
+
+    /** Día y tramo concreto de las sesiones restringidas */
+    private List<GeneradorInstantaneaDiaTramoDto> restricciones = new ArrayList<GeneradorInstantaneaDiaTramoDto>() ;
+}
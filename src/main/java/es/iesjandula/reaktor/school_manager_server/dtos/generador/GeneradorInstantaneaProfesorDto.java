@@ -0,0 +1,26 @@
+package es.iesjandula.reaktor.school_manager_server.dtos.generador;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GeneradorInstantaneaProfesorDto
+{
+    /** Identificador anónimo del profesor en la instantánea */
+    private String profesor ;
+
+    /** True si el profesor ha solicitado conciliación */
+    private boolean conciliacion ;
+
+    /** True si el profesor prefiere no tener clase a primera hora */
+    private boolean sinClasePrimeraHora ;
+
+    /** Días y tramos que le gustaría evitar al profesor */
+    private List<GeneradorInstantaneaDiaTramoDto> preferencias = new ArrayList<GeneradorInstantaneaDiaTramoDto>() ;
+}
@@ -0,0 +1,35 @@
+package es.iesjandula.reaktor.school_manager_server.dtos.generador;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GeneradorInstantaneaReduccionDto
+{
+    /** Identificador anónimo del profesor en la instantánea */
+    private String profesor ;
+
+    /** Nombre de la reducción */
+    private String reduccion ;
+
+    /** Horas de la reducción */
+    private int horas ;
+
+    /** Curso del grupo de la reducción */
+    private int curso ;
+
+    /** Etapa del grupo de la reducción */
+    private String etapa ;
+
+    /** Grupo de la reducción */
+    private String grupo ;
+
+    /** Día de la semana (desde 0) */
+    private int dia ;
+
+    /** Tramo horario (desde 0) */
+    private int tramo ;
+}
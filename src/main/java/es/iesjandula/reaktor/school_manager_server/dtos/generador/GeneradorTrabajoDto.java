@@ -0,0 +1,30 @@
+package es.iesjandula.reaktor.school_manager_server.dtos.generador;
+
+import java.util.Date;
+
+import lombok.Data;
+
+@Data
+public class GeneradorTrabajoDto
+{
+    /** Identificador del generador en BBDD */
+    private int idGenerador ;
+
+    /** Curso académico con cuyos datos se lanzó la generación */
+    private String cursoAcademico ;
+
+    /** Estado del trabajo (en cola, en curso o detenido a la espera de que terminen sus hilos) */
+    private String estado ;
+
+    /** Número de hilos (y de núcleos) que usa el trabajo */
+    private int numeroHilos ;
+
+    /** Fecha en la que se lanzó la generación */
+    private Date fechaLanzamiento ;
+
+    /** Semilla de la generación (el hilo i usa la semilla + i) */
+    private long semilla ;
+
+    /** Estadísticas de la búsqueda (null mientras está en cola) */
+    private GeneradorEstadisticasDto estadisticas ;
+}
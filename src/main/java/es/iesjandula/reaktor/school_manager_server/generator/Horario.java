@@ -1,18 +1,17 @@
 package es.iesjandula.reaktor.school_manager_server.generator;
 
-import java.util.Arrays;
 import java.util.Objects;
 
-import es.iesjandula.reaktor.school_manager_server.models.no_jpa.Asignacion;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.MatrizAsignaciones;
 import es.iesjandula.reaktor.school_manager_server.utils.Constants;
 
 public class Horario implements Comparable<Horario>
 {
 	/** Matriz de asignaciones matutinas */
-    private Asignacion[][] matrizAsignacionesMatutinas ;
+    private MatrizAsignaciones matrizAsignacionesMatutinas ;
 
     /** Matriz de asignaciones vespertinas */
-    private Asignacion[][] matrizAsignacionesVespertinas ;
+    private MatrizAsignaciones matrizAsignacionesVespertinas ;
     
     /** Penalizaciones que se encuentran en esta solución */
     private int puntuacion ;
@@ -21,7 +20,7 @@ public class Horario implements Comparable<Horario>
      * @param matrizAsignacionesMatutinas matriz de asignaciones matutinas
      * @param matrizAsignacionesVespertinas matriz de asignaciones vespertinas
      */
-    public Horario(Asignacion[][] matrizAsignacionesMatutinas, Asignacion[][] matrizAsignacionesVespertinas)
+    public Horario(MatrizAsignaciones matrizAsignacionesMatutinas, MatrizAsignaciones matrizAsignacionesVespertinas)
     {
         this.matrizAsignacionesMatutinas   = matrizAsignacionesMatutinas ;
         this.matrizAsignacionesVespertinas = matrizAsignacionesVespertinas ;
@@ -30,7 +29,7 @@ public class Horario implements Comparable<Horario>
     /**
      * @return matriz de asignaciones matutinas
      */
-    public Asignacion[][] getMatrizAsignacionesMatutinas()
+    public MatrizAsignaciones getMatrizAsignacionesMatutinas()
     {
         return this.matrizAsignacionesMatutinas ;
     }
@@ -38,11 +37,27 @@ public class Horario implements Comparable<Horario>
     /**
      * @return matriz de asignaciones vespertinas
      */
-    public Asignacion[][] getMatrizAsignacionesVespertinas()
+    public MatrizAsignaciones getMatrizAsignacionesVespertinas()
     {
         return this.matrizAsignacionesVespertinas ;
     }
 
+    /**
+     * @return puntuación de esta solución
+     */
+    public int getPuntuacion()
+    {
+        return this.puntuacion ;
+    }
+
+    /**
+     * @param puntuacion puntuación de esta solución
+     */
+    public void setPuntuacion(int puntuacion)
+    {
+        this.puntuacion = puntuacion ;
+    }
+
     @Override
     public String toString()
     {
@@ -53,7 +68,7 @@ public class Horario implements Comparable<Horario>
         // Si solo hay horario matutino, se realiza solo sobre este
         if (this.matrizAsignacionesMatutinas != null && this.matrizAsignacionesVespertinas == null)
         {
-            for (int j = 0; j < this.matrizAsignacionesMatutinas[0].length; j++)
+            for (int j = 0; j < Constants.NUMERO_TRAMOS_HORARIOS; j++)
             {
                 this.toStringEnMatriz(this.matrizAsignacionesMatutinas, stringBuilder, j, anchoCeldas) ;
 
@@ -62,7 +77,7 @@ public class Horario implements Comparable<Horario>
         }
         else if (this.matrizAsignacionesMatutinas == null && this.matrizAsignacionesVespertinas != null)
         {
-            for (int j = 0; j < this.matrizAsignacionesVespertinas[0].length; j++)
+            for (int j = 0; j < Constants.NUMERO_TRAMOS_HORARIOS; j++)
             {
                 this.toStringEnMatriz(this.matrizAsignacionesVespertinas, stringBuilder, j, anchoCeldas) ;
 
@@ -71,7 +86,7 @@ public class Horario implements Comparable<Horario>
         }
         else if (this.matrizAsignacionesMatutinas != null && this.matrizAsignacionesVespertinas != null)
         {
-            for (int j = 0; j < this.matrizAsignacionesMatutinas[0].length; j++)
+            for (int j = 0; j < Constants.NUMERO_TRAMOS_HORARIOS; j++)
             {
                 // Construimos la primera línea del tramo horario para todos los cursos matutinos
                 this.toStringEnMatriz(this.matrizAsignacionesMatutinas, stringBuilder, j, anchoCeldas) ;
@@ -92,9 +107,9 @@ public class Horario implements Comparable<Horario>
      * @param j tramo horario
      * @param anchoCeldas ancho de las celdas
      */
-    private void toStringEnMatriz(Asignacion[][] matrizAsignaciones, StringBuilder stringBuilder, int j, int anchoCeldas)
+    private void toStringEnMatriz(MatrizAsignaciones matrizAsignaciones, StringBuilder stringBuilder, int j, int anchoCeldas)
     {
-        for (int i = 0; i < matrizAsignaciones.length; i++)
+        for (int i = 0; i < matrizAsignaciones.getNumeroCursosDias(); i++)
         {
             boolean nuevoCurso = i % Constants.NUMERO_DIAS_SEMANA == 0 ;
 
@@ -103,10 +118,10 @@ public class Horario implements Comparable<Horario>
                 stringBuilder.append("|") ;
             }
 
-            if (matrizAsignaciones[i][j] != null)
+            if (!matrizAsignaciones.celdaVacia(i, j))
             {
                 // Alinea el texto con una longitud fija
-                stringBuilder.append(String.format("%-" + anchoCeldas + "s", matrizAsignaciones[i][j].toString())) ;
+                stringBuilder.append(String.format("%-" + anchoCeldas + "s", matrizAsignaciones.celdaToString(i, j))) ;
             }
             else
             {
@@ -147,14 +162,14 @@ public class Horario implements Comparable<Horario>
         
         Horario horario = (Horario) object ;
         
-        return Arrays.deepEquals(this.matrizAsignacionesMatutinas, horario.getMatrizAsignacionesMatutinas()) &&
-               Arrays.deepEquals(this.matrizAsignacionesVespertinas, horario.getMatrizAsignacionesVespertinas()) ;
+        return Objects.equals(this.matrizAsignacionesMatutinas, horario.getMatrizAsignacionesMatutinas()) &&
+               Objects.equals(this.matrizAsignacionesVespertinas, horario.getMatrizAsignacionesVespertinas()) ;
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(Arrays.deepHashCode(matrizAsignacionesMatutinas), Arrays.deepHashCode(matrizAsignacionesVespertinas), this.puntuacion) ;
+        return Objects.hash(this.matrizAsignacionesMatutinas, this.matrizAsignacionesVespertinas, this.puntuacion) ;
     }
 }
 
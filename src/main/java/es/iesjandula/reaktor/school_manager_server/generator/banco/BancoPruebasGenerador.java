@@ -0,0 +1,308 @@
+package es.iesjandula.reaktor.school_manager_server.generator.banco;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import es.iesjandula.reaktor.school_manager_server.dtos.ErroresDatosDto;
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorEstadisticasDto;
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorInstantaneaDto;
+import es.iesjandula.reaktor.school_manager_server.generator.configuracion.ConfiguracionGenerador;
+import es.iesjandula.reaktor.school_manager_server.generator.configuracion.IFuenteDatosGenerador;
+import es.iesjandula.reaktor.school_manager_server.generator.configuracion.InstantaneaGeneradorUtils;
+import es.iesjandula.reaktor.school_manager_server.generator.factibilidad.AnalizadorFactibilidadGenerador;
+import es.iesjandula.reaktor.school_manager_server.generator.sintetico.GeneradorCentroSintetico;
+import es.iesjandula.reaktor.school_manager_server.generator.sintetico.ParametrosCentroSintetico;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.ControlHilosGenerador;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.HorarioThread;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.HorarioThreadParams;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Banco de pruebas del generador de horarios: lanza los hilos del generador sin BBDD, sin Spring y sin colas, sobre un
+ * centro sintético o sobre una instantánea exportada desde producción (GET /schoolManager/generador/instantanea), e informa
+ * de los intentos por segundo, del tiempo hasta la primera solución y de la puntuación final.
+ * <p>Los argumentos son pares clave=valor:</p>
+ * <ul>
+ *   <li>Datos: instantanea=ruta.json, o un centro sintético con semilla, gruposEso, gruposFp, profesores, bloquesOptativas,
+ *       modulosFp, densidadPreferencias, probabilidadConciliacion y tutorias. Con exportar=ruta.json se guarda la instantánea
+ *       de los datos usados</li>
+ *   <li>Generador: hilos, modo, segundos (límite en el modo de primera solución y duración en el de optimización por tiempo),
+ *       mejoresSoluciones, umbral, estrategiaBusqueda, maximoSaltosAtras, busquedaLocal, iteracionesBusquedaLocal,
+ *       ordenSesiones y propagacionRestricciones. Por defecto, los mismos valores que en el servidor. Con semillaGenerador se
+ *       repite una ejecución anterior (por defecto se elige una al azar y se muestra al comenzar)</li>
+ * </ul>
+ * <p>Uso: mvn compile exec:java -Dexec.mainClass=es.iesjandula.reaktor.school_manager_server.generator.banco.BancoPruebasGenerador
+ * -Dexec.args="gruposEso=32 hilos=4 segundos=60"</p>
+ */
+@Slf4j
+public class BancoPruebasGenerador
+{
+    /** Segundos por defecto que se deja buscar al generador */
+    private static final String VALOR_SEGUNDOS = "60" ;
+
+    /** Milisegundos entre cada comprobación del estado de los hilos */
+    private static final long MILISEGUNDOS_COMPROBACION = 10L ;
+
+    /** Argumentos clave=valor */
+    private final Map<String, String> argumentos ;
+
+    /**
+     * @param argumentos argumentos clave=valor
+     */
+    public BancoPruebasGenerador(Map<String, String> argumentos)
+    {
+        this.argumentos = argumentos ;
+    }
+
+    /**
+     * @param args argumentos clave=valor
+     */
+    public static void main(String[] args)
+    {
+        // Sin la configuración de Spring Boot, logback registraría también los mensajes de depuración de los hilos
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO) ;
+
+        Map<String, String> argumentos = new HashMap<String, String>() ;
+        for (String argumento : args)
+        {
+            int separador = argumento.indexOf('=') ;
+            if (separador > 0)
+            {
+                argumentos.put(argumento.substring(0, separador), argumento.substring(separador + 1)) ;
+            }
+            else
+            {
+                log.warn("Argumento {} ignorado: se esperaba clave=valor", argumento) ;
+            }
+        }
+
+        try
+        {
+            new BancoPruebasGenerador(argumentos).ejecutar() ;
+        }
+        catch (Exception exception)
+        {
+            log.error("ERROR - No se pudo ejecutar el banco de pruebas del generador", exception) ;
+            System.exit(1) ;
+        }
+    }
+
+    /**
+     * Obtiene los datos, configura el generador, lanza sus hilos y espera a que terminen para informar del resultado
+     * @throws Exception con un error al obtener los datos o al configurar el generador
+     */
+    public void ejecutar() throws Exception
+    {
+        IFuenteDatosGenerador fuenteDatosGenerador = this.obtenerFuenteDatos() ;
+
+        // Configuramos el generador igual que en el servidor
+        ConfiguracionGenerador configuracionGenerador = new ConfiguracionGenerador(fuenteDatosGenerador) ;
+        configuracionGenerador.configurar() ;
+
+        // Avisamos si los datos no admiten ningún horario, aunque se lanza igualmente para poder perfilar el generador con ellos
+        List<ErroresDatosDto> erroresFactibilidad = AnalizadorFactibilidadGenerador.analizar(configuracionGenerador.getCreadorSesiones().getListaDeListaSesiones()) ;
+        if (!erroresFactibilidad.isEmpty())
+        {
+            log.warn("No puede existir ningún horario con estos datos, los hilos no encontrarán solución: {}", erroresFactibilidad) ;
+        }
+
+        int numeroHilos = Integer.parseInt(this.obtener("hilos", Constants.VALOR_GENERADOR_NUMERO_HILOS)) ;
+        if (numeroHilos <= 0)
+        {
+            numeroHilos = Runtime.getRuntime().availableProcessors() ;
+        }
+
+        String modo   = this.obtener("modo", Constants.VALOR_GENERADOR_MODO) ;
+        long segundos = Long.parseLong(this.obtener("segundos", VALOR_SEGUNDOS)) ;
+
+        boolean optimizacionPorTiempo = Constants.MODO_GENERADOR_OPTIMIZACION_POR_TIEMPO.equals(modo) ;
+
+        ControlHilosGenerador controlHilosGenerador = null ;
+        if (optimizacionPorTiempo)
+        {
+            controlHilosGenerador = new ControlHilosGenerador(numeroHilos, segundos,
+                                                              Integer.parseInt(this.obtener("mejoresSoluciones", Constants.VALOR_GENERADOR_NUMERO_MEJORES_SOLUCIONES))) ;
+        }
+        else
+        {
+            controlHilosGenerador = new ControlHilosGenerador(numeroHilos) ;
+        }
+
+        GeneradorServiceEnMemoria generadorServiceEnMemoria = new GeneradorServiceEnMemoria() ;
+
+        long semillaGenerador = Long.parseLong(this.obtener("semillaGenerador", String.valueOf(new SplittableRandom().nextLong()))) ;
+
+        HorarioThreadParams horarioThreadParams =
+                              new HorarioThreadParams.Builder()
+                                                     .setGeneradorService(generadorServiceEnMemoria)
+                                                     .setMapCorrelacionadorCursosMatutinos(configuracionGenerador.getMapCorrelacionadorCursosMatutinos())
+                                                     .setMapCorrelacionadorCursosVespertinos(configuracionGenerador.getMapCorrelacionadorCursosVespertinos())
+                                                     .setIndiceBloquesOptativas(configuracionGenerador.getIndiceBloquesOptativas())
+                                                     .setUmbralMinimoSolucion(Integer.parseInt(this.obtener("umbral", "0")))
+                                                     .setControlHilosGenerador(controlHilosGenerador)
+                                                     .setNumeroProfesores(configuracionGenerador.getCreadorSesiones().getNumeroProfesores())
+                                                     .setEstrategiaBusqueda(this.obtener("estrategiaBusqueda", Constants.VALOR_GENERADOR_ESTRATEGIA_BUSQUEDA))
+                                                     .setMaximoSaltosAtras(Integer.parseInt(this.obtener("maximoSaltosAtras", Constants.VALOR_GENERADOR_MAXIMO_SALTOS_ATRAS)))
+                                                     .setBusquedaLocal(this.obtener("busquedaLocal", Constants.VALOR_GENERADOR_BUSQUEDA_LOCAL))
+                                                     .setIteracionesBusquedaLocal(Integer.parseInt(this.obtener("iteracionesBusquedaLocal", Constants.VALOR_GENERADOR_ITERACIONES_BUSQUEDA_LOCAL)))
+                                                     .setOrdenSesiones(this.obtener("ordenSesiones", Constants.VALOR_GENERADOR_ORDEN_SESIONES))
+                                                     .setPropagacionRestricciones(Boolean.parseBoolean(this.obtener("propagacionRestricciones", Constants.VALOR_GENERADOR_PROPAGACION_RESTRICCIONES)))
+                                                     .setSemilla(semillaGenerador)
+                                                     .build() ;
+
+        log.info("Banco de pruebas: {} grupos, {} profesores, {} hilos, modo {}, {} segundos, semillaGenerador={}",
+                 configuracionGenerador.getMapCorrelacionadorCursosMatutinos().size() + configuracionGenerador.getMapCorrelacionadorCursosVespertinos().size(),
+                 configuracionGenerador.getCreadorSesiones().getNumeroProfesores(), numeroHilos, modo, segundos, semillaGenerador) ;
+
+        // Creamos los hilos, cada uno con sus propias copias de las sesiones, y los lanzamos
+        List<HorarioThread> horarioThreads = new ArrayList<HorarioThread>() ;
+        for (int i = 0 ; i < numeroHilos ; i++)
+        {
+            horarioThreads.add(new HorarioThread(horarioThreadParams, configuracionGenerador.getCreadorSesiones().getListaDeListaSesiones(), i)) ;
+        }
+
+        long instanteInicio = System.nanoTime() ;
+        for (HorarioThread horarioThread : horarioThreads)
+        {
+            horarioThread.start() ;
+        }
+
+        long instantePrimeraSolucion = this.esperarHilos(horarioThreads, controlHilosGenerador, instanteInicio, segundos, optimizacionPorTiempo) ;
+
+        this.informar(controlHilosGenerador, generadorServiceEnMemoria, instanteInicio, instantePrimeraSolucion) ;
+    }
+
+    /**
+     * @return datos de entrada del generador: la instantánea indicada o un centro sintético
+     * @throws Exception con un error al leer la instantánea o al generar el centro
+     */
+    private IFuenteDatosGenerador obtenerFuenteDatos() throws Exception
+    {
+        IFuenteDatosGenerador fuenteDatosGenerador = null ;
+        String cursoAcademico = GeneradorCentroSintetico.CURSO_ACADEMICO ;
+
+        ObjectMapper objectMapper = new ObjectMapper() ;
+
+        String rutaInstantanea = this.argumentos.get("instantanea") ;
+        if (rutaInstantanea != null)
+        {
+            GeneradorInstantaneaDto generadorInstantaneaDto = objectMapper.readValue(new File(rutaInstantanea), GeneradorInstantaneaDto.class) ;
+
+            log.info("Instantánea {} del curso académico {}", rutaInstantanea, generadorInstantaneaDto.getCursoAcademico()) ;
+
+            fuenteDatosGenerador = InstantaneaGeneradorUtils.importar(generadorInstantaneaDto) ;
+            cursoAcademico       = generadorInstantaneaDto.getCursoAcademico() ;
+        }
+        else
+        {
+            ParametrosCentroSintetico parametrosCentroSintetico =
+                                      new ParametrosCentroSintetico.Builder()
+                                                                   .setSemilla(Long.parseLong(this.obtener("semilla", "1")))
+                                                                   .setNumeroGruposEso(Integer.parseInt(this.obtener("gruposEso", "16")))
+                                                                   .setNumeroGruposFp(Integer.parseInt(this.obtener("gruposFp", "0")))
+                                                                   .setNumeroProfesores(Integer.parseInt(this.obtener("profesores", "0")))
+                                                                   .setNumeroBloquesOptativas(Integer.parseInt(this.obtener("bloquesOptativas", "1")))
+                                                                   .setNumeroModulosFp(Integer.parseInt(this.obtener("modulosFp", "6")))
+                                                                   .setDensidadPreferencias(Double.parseDouble(this.obtener("densidadPreferencias", "0.1")))
+                                                                   .setProbabilidadConciliacion(Double.parseDouble(this.obtener("probabilidadConciliacion", "0.05")))
+                                                                   .setTutorias(Boolean.parseBoolean(this.obtener("tutorias", "true")))
+                                                                   .build() ;
+
+            fuenteDatosGenerador = new GeneradorCentroSintetico(parametrosCentroSintetico).generar() ;
+        }
+
+        // Guardamos los datos usados, por ejemplo para reproducir un centro sintético sin depender de esta versión del generador de centros
+        String rutaExportar = this.argumentos.get("exportar") ;
+        if (rutaExportar != null)
+        {
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(rutaExportar), InstantaneaGeneradorUtils.exportar(fuenteDatosGenerador, cursoAcademico)) ;
+
+            log.info("Instantánea de los datos guardada en {}", rutaExportar) ;
+        }
+
+        return fuenteDatosGenerador ;
+    }
+
+    /**
+     * Espera a que terminen los hilos, deteniéndolos si se agota el tiempo en el modo de primera solución
+     *
+     * @return instante (System.nanoTime) en el que se aceptó la primera solución (0 si no se encontró ninguna)
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    private long esperarHilos(List<HorarioThread> horarioThreads, ControlHilosGenerador controlHilosGenerador, long instanteInicio,
+                              long segundos, boolean optimizacionPorTiempo) throws InterruptedException
+    {
+        long instantePrimeraSolucion = 0L ;
+        long instanteLimite          = instanteInicio + TimeUnit.SECONDS.toNanos(segundos) ;
+
+        boolean hilosEnCurso = true ;
+        while (hilosEnCurso)
+        {
+            Thread.sleep(MILISEGUNDOS_COMPROBACION) ;
+
+            if (instantePrimeraSolucion == 0L && controlHilosGenerador.getMejorPuntuacion() >= 0)
+            {
+                instantePrimeraSolucion = System.nanoTime() ;
+
+                log.info("Primera solución aceptada a los {} segundos, con puntuación {}",
+                         String.format("%.3f", (instantePrimeraSolucion - instanteInicio) / 1e9), controlHilosGenerador.getMejorPuntuacion()) ;
+            }
+
+            if (!optimizacionPorTiempo && !controlHilosGenerador.isDetenerHilos() && System.nanoTime() - instanteLimite >= 0L)
+            {
+                log.info("Tiempo agotado sin ninguna solución que supere el umbral. Deteniendo los hilos") ;
+                controlHilosGenerador.detenerHilos() ;
+            }
+
+            hilosEnCurso = false ;
+            for (HorarioThread horarioThread : horarioThreads)
+            {
+                hilosEnCurso = hilosEnCurso || horarioThread.isAlive() ;
+            }
+        }
+
+        return instantePrimeraSolucion ;
+    }
+
+    /**
+     * Informa de los intentos por segundo, del tiempo hasta la primera solución y de la puntuación final
+     */
+    private void informar(ControlHilosGenerador controlHilosGenerador, GeneradorServiceEnMemoria generadorServiceEnMemoria, long instanteInicio,
+                          long instantePrimeraSolucion)
+    {
+        GeneradorEstadisticasDto generadorEstadisticasDto = controlHilosGenerador.getEstadisticasGenerador().obtenerEstadisticas() ;
+
+        String segundosPrimeraSolucion = instantePrimeraSolucion == 0L ? "-" : String.format("%.3f", (instantePrimeraSolucion - instanteInicio) / 1e9) ;
+
+        log.info("Resultado: {} intentos en {} segundos ({} intentos/s), primera solución a los {} segundos, puntuación final {}, {} soluciones entregadas",
+                 generadorEstadisticasDto.getIntentos(), String.format("%.3f", generadorEstadisticasDto.getSegundosEnCurso()),
+                 String.format("%.1f", generadorEstadisticasDto.getIntentosPorSegundo()), segundosPrimeraSolucion,
+                 controlHilosGenerador.getMejorPuntuacion(), generadorServiceEnMemoria.getNumeroSoluciones()) ;
+
+        log.info("Búsqueda: {} callejones sin salida (profundidad media {}, máxima {}), {} saltos atrás, {} vaciados de dominio",
+                 generadorEstadisticasDto.getCallejonesSinSalida(), String.format("%.1f", generadorEstadisticasDto.getProfundidadMediaCallejon()),
+                 generadorEstadisticasDto.getProfundidadMaximaCallejon(), generadorEstadisticasDto.getSaltosAtras(), generadorEstadisticasDto.getVaciadosDominio()) ;
+    }
+
+    /**
+     * @param clave clave del argumento
+     * @param valorPorDefecto valor si no se ha indicado
+     * @return valor del argumento
+     */
+    private String obtener(String clave, String valorPorDefecto)
+    {
+        return this.argumentos.getOrDefault(clave, valorPorDefecto) ;
+    }
+}
@@ -0,0 +1,49 @@
+package es.iesjandula.reaktor.school_manager_server.generator.banco;
+
+import java.util.List;
+
+import es.iesjandula.reaktor.school_manager_server.generator.Horario;
+import es.iesjandula.reaktor.school_manager_server.generator.puntuacion.PuntuacionHorario;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.SolucionGenerador;
+import es.iesjandula.reaktor.school_manager_server.models.GeneradorInstancia;
+import es.iesjandula.reaktor.school_manager_server.services.timetable.GeneradorService;
+
+/**
+ * Sustituto en memoria de GeneradorService para el banco de pruebas del generador: los hilos le entregan las soluciones
+ * como al servicio real, pero no se guarda nada en BBDD. No es un bean de Spring, se crea a mano en el banco de pruebas
+ */
+public class GeneradorServiceEnMemoria extends GeneradorService
+{
+    /** Número de soluciones entregadas por los hilos */
+    private volatile int numeroSoluciones ;
+
+    @Override
+    public GeneradorInstancia guardarSolucion(int idGenerador, Horario horario, PuntuacionHorario puntuacionHorario, Long semilla)
+    {
+        this.registrarSoluciones(1) ;
+
+        return null ;
+    }
+
+    @Override
+    public void guardarMejoresSoluciones(int idGenerador, List<SolucionGenerador> soluciones)
+    {
+        this.registrarSoluciones(soluciones.size()) ;
+    }
+
+    /**
+     * @param numeroSoluciones número de soluciones entregadas
+     */
+    private synchronized void registrarSoluciones(int numeroSoluciones)
+    {
+        this.numeroSoluciones = this.numeroSoluciones + numeroSoluciones ;
+    }
+
+    /**
+     * @return número de soluciones entregadas por los hilos
+     */
+    public int getNumeroSoluciones()
+    {
+        return this.numeroSoluciones ;
+    }
+}
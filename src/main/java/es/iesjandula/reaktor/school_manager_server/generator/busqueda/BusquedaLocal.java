@@ -0,0 +1,526 @@
+package es.iesjandula.reaktor.school_manager_server.generator.busqueda;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import es.iesjandula.reaktor.school_manager_server.generator.puntuacion.CalculadorPuntuacion;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.MatrizAsignaciones;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.OcupacionProfesores;
+import es.iesjandula.reaktor.school_manager_server.models.Profesor;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionAsignatura;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.restrictions.RestriccionHorariaInit;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Búsqueda local que mejora un horario completo antes de puntuarlo.
+ * <p>Cada movimiento intercambia dos celdas de la semana de un mismo curso (si una está vacía, es mover la sesión a un hueco libre).
+ * Solo se mueven las celdas que no son de optativas, para no romper la alineación de los bloques, y el movimiento se descarta
+ * si alguna sesión queda fuera de sus restricciones horarias iniciales, si un profesor queda con dos sesiones a la vez o si no se cumplen
+ * las ocurrencias máximas por día y la continuidad de los módulos de FP.</p>
+ * <p>La puntuación se actualiza de forma incremental: solo se recalcula la aportación de los profesores de las celdas movidas.</p>
+ */
+@Slf4j
+public class BusquedaLocal
+{
+    /** Búsqueda local: ninguna, ascenso de colina o recocido simulado */
+    private final String busquedaLocal ;
+
+    /** Número de movimientos que se prueban en cada matriz de asignaciones */
+    private final int iteraciones ;
+
+    /** Número de profesores que participan en la generación */
+    private final int numeroProfesores ;
+
+    /** Ocupación de los profesores del hilo, que se mantiene al día con cada movimiento */
+    private final OcupacionProfesores ocupacionProfesores ;
+
+    /** Calculador de la aportación de cada profesor a la puntuación */
+    private final CalculadorPuntuacion calculadorPuntuacion ;
+
+    /** Generador de números aleatorios del hilo */
+    private final SplittableRandom random ;
+
+    /**
+     * @param busquedaLocal búsqueda local: ninguna, ascenso de colina o recocido simulado
+     * @param iteraciones número de movimientos que se prueban en cada matriz de asignaciones
+     * @param numeroProfesores número de profesores que participan en la generación
+     * @param ocupacionProfesores ocupación de los profesores del hilo
+     * @param calculadorPuntuacion calculador de la puntuación del hilo
+     * @param random generador de números aleatorios del hilo
+     */
+    public BusquedaLocal(String busquedaLocal, int iteraciones, int numeroProfesores,
+                         OcupacionProfesores ocupacionProfesores, CalculadorPuntuacion calculadorPuntuacion, SplittableRandom random)
+    {
+        this.busquedaLocal        = busquedaLocal ;
+        this.iteraciones          = iteraciones ;
+        this.numeroProfesores     = numeroProfesores ;
+        this.ocupacionProfesores  = ocupacionProfesores ;
+        this.calculadorPuntuacion = calculadorPuntuacion ;
+        this.random               = random ;
+    }
+
+    /**
+     * Mejora el horario moviendo sesiones directamente sobre sus matrices de asignaciones
+     *
+     * @param matrizAsignacionesMatutinas matriz de asignaciones matutinas
+     * @param matrizAsignacionesVespertinas matriz de asignaciones vespertinas
+     * @return puntos que ha ganado el horario
+     */
+    public int mejorarHorario(MatrizAsignaciones matrizAsignacionesMatutinas, MatrizAsignaciones matrizAsignacionesVespertinas)
+    {
+        int outcome = 0 ;
+
+        if (!Constants.BUSQUEDA_LOCAL_NINGUNA.equals(this.busquedaLocal) && this.iteraciones > 0)
+        {
+            outcome = this.mejorarMatriz(matrizAsignacionesMatutinas, true) + this.mejorarMatriz(matrizAsignacionesVespertinas, false) ;
+
+            log.debug("Búsqueda local {}: el horario ha ganado {} puntos", this.busquedaLocal, outcome) ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @param matrizAsignaciones matriz de asignaciones
+     * @param esMatutino indica si es matutino
+     * @return puntos que ha ganado la matriz
+     */
+    private int mejorarMatriz(MatrizAsignaciones matrizAsignaciones, boolean esMatutino)
+    {
+        int outcome = 0 ;
+
+        if (matrizAsignaciones != null && matrizAsignaciones.getNumeroCursosDias() > 0)
+        {
+            boolean recocidoSimulado = Constants.BUSQUEDA_LOCAL_RECOCIDO_SIMULADO.equals(this.busquedaLocal) ;
+
+            // Contamos las sesiones de asignaturas de cada profesor por día y tramo, que se mantienen al día con cada movimiento
+            Profesor[] profesores          = new Profesor[this.numeroProfesores] ;
+            int[][][] sesionesProfesores   = new int[this.numeroProfesores][Constants.NUMERO_DIAS_SEMANA][Constants.NUMERO_TRAMOS_HORARIOS] ;
+            this.contarSesionesProfesores(matrizAsignaciones, profesores, sesionesProfesores) ;
+
+            // Con el recocido simulado la matriz puede empeorar, así que guardamos la mejor encontrada
+            MatrizAsignaciones mejorMatriz = recocidoSimulado ? matrizAsignaciones.copiar() : null ;
+            int diferenciaActual           = 0 ;
+
+            double temperatura        = Constants.TEMPERATURA_INICIAL_RECOCIDO_SIMULADO ;
+            double factorEnfriamiento = Math.pow(Constants.TEMPERATURA_FINAL_RECOCIDO_SIMULADO / Constants.TEMPERATURA_INICIAL_RECOCIDO_SIMULADO, 1.0d / this.iteraciones) ;
+
+            int numeroCursos = matrizAsignaciones.getNumeroCursosDias() / Constants.NUMERO_DIAS_SEMANA ;
+
+            for (int i = 0 ; i < this.iteraciones ; i++)
+            {
+                // Elegimos dos celdas de la semana de un mismo curso
+                int indiceCursoDiaInicial = this.random.nextInt(numeroCursos) * Constants.NUMERO_DIAS_SEMANA ;
+
+                int indiceCursoDiaOrigen  = indiceCursoDiaInicial + this.random.nextInt(Constants.NUMERO_DIAS_SEMANA) ;
+                int tramoOrigen           = this.random.nextInt(Constants.NUMERO_TRAMOS_HORARIOS) ;
+                int indiceCursoDiaDestino = indiceCursoDiaInicial + this.random.nextInt(Constants.NUMERO_DIAS_SEMANA) ;
+                int tramoDestino          = this.random.nextInt(Constants.NUMERO_TRAMOS_HORARIOS) ;
+
+                if (this.movimientoPosible(matrizAsignaciones, esMatutino, indiceCursoDiaOrigen, tramoOrigen, indiceCursoDiaDestino, tramoDestino))
+                {
+                    int diferencia = this.intercambiarCeldas(matrizAsignaciones, esMatutino, indiceCursoDiaOrigen, tramoOrigen,
+                                                             indiceCursoDiaDestino, tramoDestino, profesores, sesionesProfesores) ;
+
+                    if (this.aceptarMovimiento(diferencia, recocidoSimulado, temperatura))
+                    {
+                        diferenciaActual = diferenciaActual + diferencia ;
+
+                        if (recocidoSimulado && diferenciaActual > outcome)
+                        {
+                            outcome = diferenciaActual ;
+                            mejorMatriz.restaurar(matrizAsignaciones) ;
+                        }
+                    }
+                    else
+                    {
+                        // El intercambio es su propio inverso, así que volver a aplicarlo lo deshace
+                        this.intercambiarCeldas(matrizAsignaciones, esMatutino, indiceCursoDiaOrigen, tramoOrigen,
+                                                indiceCursoDiaDestino, tramoDestino, profesores, sesionesProfesores) ;
+                    }
+                }
+
+                temperatura = temperatura * factorEnfriamiento ;
+            }
+
+            if (!recocidoSimulado)
+            {
+                // Con el ascenso de colina la matriz nunca empeora, así que la actual es la mejor
+                outcome = diferenciaActual ;
+            }
+            else if (diferenciaActual < outcome)
+            {
+                this.restaurarMatriz(matrizAsignaciones, mejorMatriz, esMatutino) ;
+            }
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @param matrizAsignaciones matriz de asignaciones
+     * @param profesores profesores por su índice, que se rellenan aquí
+     * @param sesionesProfesores número de sesiones de asignaturas de cada profesor por día y tramo, que se rellenan aquí
+     */
+    private void contarSesionesProfesores(MatrizAsignaciones matrizAsignaciones, Profesor[] profesores, int[][][] sesionesProfesores)
+    {
+        for (int i = 0 ; i < matrizAsignaciones.getNumeroCursosDias() ; i++)
+        {
+            for (int tramo = 0 ; tramo < Constants.NUMERO_TRAMOS_HORARIOS ; tramo++)
+            {
+                int indiceSesion = matrizAsignaciones.obtenerPrimeraSesion(i, tramo) ;
+                while (indiceSesion != MatrizAsignaciones.SIN_SESION)
+                {
+                    SesionBase sesion = matrizAsignaciones.obtenerSesion(indiceSesion) ;
+
+                    // Solo las sesiones de asignaturas se tienen en cuenta en la puntuación
+                    if (sesion instanceof SesionAsignatura)
+                    {
+                        profesores[sesion.getIndiceProfesor()] = sesion.getProfesor() ;
+                        sesionesProfesores[sesion.getIndiceProfesor()][i % Constants.NUMERO_DIAS_SEMANA][tramo]++ ;
+                    }
+
+                    indiceSesion = matrizAsignaciones.obtenerSiguienteSesion(indiceSesion) ;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param matrizAsignaciones matriz de asignaciones
+     * @param esMatutino indica si es matutino
+     * @param indiceCursoDiaOrigen índice del curso y día de la celda de origen
+     * @param tramoOrigen tramo de la celda de origen
+     * @param indiceCursoDiaDestino índice del curso y día de la celda de destino
+     * @param tramoDestino tramo de la celda de destino
+     * @return true si se pueden intercambiar las dos celdas sin incumplir ninguna restricción
+     */
+    boolean movimientoPosible(MatrizAsignaciones matrizAsignaciones, boolean esMatutino,
+                              int indiceCursoDiaOrigen, int tramoOrigen, int indiceCursoDiaDestino, int tramoDestino)
+    {
+        int primeraSesionOrigen  = matrizAsignaciones.obtenerPrimeraSesion(indiceCursoDiaOrigen, tramoOrigen) ;
+        int primeraSesionDestino = matrizAsignaciones.obtenerPrimeraSesion(indiceCursoDiaDestino, tramoDestino) ;
+
+        // Tiene que haber algo que mover, en otra celda, y ninguna de las dos puede ser de optativas
+        boolean outcome = primeraSesionOrigen != MatrizAsignaciones.SIN_SESION && primeraSesionOrigen != primeraSesionDestino &&
+                          !matrizAsignaciones.isOptativas(indiceCursoDiaOrigen, tramoOrigen) &&
+                          !matrizAsignaciones.isOptativas(indiceCursoDiaDestino, tramoDestino) ;
+
+        // Cada sesión tiene que poder ir a la otra celda según sus restricciones iniciales y con su profesor libre
+        outcome = outcome && this.celdaPuedeMoverse(matrizAsignaciones, primeraSesionOrigen, esMatutino, indiceCursoDiaDestino, tramoDestino) &&
+                             this.celdaPuedeMoverse(matrizAsignaciones, primeraSesionDestino, esMatutino, indiceCursoDiaOrigen, tramoOrigen) ;
+
+        if (outcome)
+        {
+            // Probamos el intercambio para verificar las ocurrencias por día y la continuidad de FP en los días afectados.
+            // Cada asignatura movida se comprueba en los dos días: en el de destino por las ocurrencias y en el de origen
+            // porque sacar una sesión intermedia de un módulo de FP rompe la continuidad de las que se quedan
+            matrizAsignaciones.intercambiarCeldas(indiceCursoDiaOrigen, tramoOrigen, indiceCursoDiaDestino, tramoDestino) ;
+
+            outcome = this.cumpleOcurrenciasDia(matrizAsignaciones, indiceCursoDiaDestino, primeraSesionOrigen) &&
+                      this.cumpleOcurrenciasDia(matrizAsignaciones, indiceCursoDiaOrigen, primeraSesionOrigen) &&
+                      this.cumpleOcurrenciasDia(matrizAsignaciones, indiceCursoDiaOrigen, primeraSesionDestino) &&
+                      this.cumpleOcurrenciasDia(matrizAsignaciones, indiceCursoDiaDestino, primeraSesionDestino) ;
+
+            matrizAsignaciones.intercambiarCeldas(indiceCursoDiaOrigen, tramoOrigen, indiceCursoDiaDestino, tramoDestino) ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @param matrizAsignaciones matriz de asignaciones, todavía sin intercambiar
+     * @param primeraSesion primera sesión de la celda que se mueve (puede ser SIN_SESION)
+     * @param esMatutino indica si es matutino
+     * @param indiceCursoDia índice del curso y día de destino
+     * @param tramo tramo de destino
+     * @return true si todas las sesiones de la celda pueden ir al día y tramo de destino
+     */
+    private boolean celdaPuedeMoverse(MatrizAsignaciones matrizAsignaciones, int primeraSesion, boolean esMatutino, int indiceCursoDia, int tramo)
+    {
+        boolean outcome = true ;
+
+        int indiceSesion = primeraSesion ;
+        while (indiceSesion != MatrizAsignaciones.SIN_SESION && outcome)
+        {
+            SesionBase sesion = matrizAsignaciones.obtenerSesion(indiceSesion) ;
+
+            RestriccionHorariaInit restriccionHorariaInit = sesion.getRestriccionHorariaInit() ;
+
+            // El día y tramo tienen que estar entre los permitidos antes de comenzar la generación
+            outcome = (restriccionHorariaInit.getRestriccionesHorarias() & restriccionHorariaInit.obtenerMascaraPosicion(indiceCursoDia, tramo)) != 0L ;
+
+            // El profesor tiene que estar libre, salvo que sea él quien deja libre ese día y tramo
+            outcome = outcome && (!this.ocupacionProfesores.profesorOcupado(sesion.getIndiceProfesor(), esMatutino, indiceCursoDia % Constants.NUMERO_DIAS_SEMANA, tramo) ||
+                                  matrizAsignaciones.contieneProfesor(indiceCursoDia, tramo, sesion.getIndiceProfesor())) ;
+
+            indiceSesion = matrizAsignaciones.obtenerSiguienteSesion(indiceSesion) ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @param matrizAsignaciones matriz de asignaciones, ya con la celda en el día
+     * @param indiceCursoDia índice del curso y día
+     * @param primeraSesion primera sesión de la celda que se ha movido al día o desde él (puede ser SIN_SESION)
+     * @return true si las asignaturas de la celda no superan las ocurrencias máximas del día y, si son de FP, son continuas
+     */
+    private boolean cumpleOcurrenciasDia(MatrizAsignaciones matrizAsignaciones, int indiceCursoDia, int primeraSesion)
+    {
+        boolean outcome = true ;
+
+        int indiceSesion = primeraSesion ;
+        while (indiceSesion != MatrizAsignaciones.SIN_SESION && outcome)
+        {
+            SesionBase sesion = matrizAsignaciones.obtenerSesion(indiceSesion) ;
+
+            if (sesion instanceof SesionAsignatura)
+            {
+                outcome = this.cumpleOcurrenciasDiaAsignatura(matrizAsignaciones, indiceCursoDia, (SesionAsignatura) sesion) ;
+            }
+
+            indiceSesion = matrizAsignaciones.obtenerSiguienteSesion(indiceSesion) ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @param matrizAsignaciones matriz de asignaciones
+     * @param indiceCursoDia índice del curso y día
+     * @param sesionAsignatura sesión de la asignatura
+     * @return true si la asignatura no supera las ocurrencias máximas del día y, si es de FP, sus sesiones del día son continuas
+     */
+    private boolean cumpleOcurrenciasDiaAsignatura(MatrizAsignaciones matrizAsignaciones, int indiceCursoDia, SesionAsignatura sesionAsignatura)
+    {
+        int numeroMaximoOcurrenciasPorDia = Constants.NUMERO_MAXIMO_OCURRENCIAS_POR_DIA_FP ;
+        if (sesionAsignatura.isEsoBachillerato())
+        {
+            numeroMaximoOcurrenciasPorDia = Constants.NUMERO_MAXIMO_OCURRENCIAS_POR_DIA_ESO_BACH ;
+        }
+
+        int ocurrencias = 0 ;
+        int tramoMinimo = -1 ;
+        int tramoMaximo = -1 ;
+
+        for (int tramo = 0 ; tramo < Constants.NUMERO_TRAMOS_HORARIOS ; tramo++)
+        {
+            if (matrizAsignaciones.contieneAsignatura(indiceCursoDia, tramo, sesionAsignatura.getIndiceAsignatura()))
+            {
+                if (tramoMinimo == -1)
+                {
+                    tramoMinimo = tramo ;
+                }
+
+                tramoMaximo = tramo ;
+                ocurrencias++ ;
+            }
+        }
+
+        // Las sesiones de un mismo módulo de FP en un día tienen que ir seguidas
+        return ocurrencias <= numeroMaximoOcurrenciasPorDia && (sesionAsignatura.isEsoBachillerato() || ocurrencias == 0 || tramoMaximo - tramoMinimo + 1 == ocurrencias) ;
+    }
+
+    /**
+     * Intercambia dos celdas actualizando la ocupación y las sesiones de los profesores afectados
+     *
+     * @param matrizAsignaciones matriz de asignaciones
+     * @param esMatutino indica si es matutino
+     * @param indiceCursoDiaOrigen índice del curso y día de la celda de origen
+     * @param tramoOrigen tramo de la celda de origen
+     * @param indiceCursoDiaDestino índice del curso y día de la celda de destino
+     * @param tramoDestino tramo de la celda de destino
+     * @param profesores profesores por su índice
+     * @param sesionesProfesores número de sesiones de asignaturas de cada profesor por día y tramo
+     * @return diferencia de puntuación que provoca el intercambio
+     */
+    private int intercambiarCeldas(MatrizAsignaciones matrizAsignaciones, boolean esMatutino,
+                                   int indiceCursoDiaOrigen, int tramoOrigen, int indiceCursoDiaDestino, int tramoDestino,
+                                   Profesor[] profesores, int[][][] sesionesProfesores)
+    {
+        int primeraSesionOrigen  = matrizAsignaciones.obtenerPrimeraSesion(indiceCursoDiaOrigen, tramoOrigen) ;
+        int primeraSesionDestino = matrizAsignaciones.obtenerPrimeraSesion(indiceCursoDiaDestino, tramoDestino) ;
+
+        int diaOrigen  = indiceCursoDiaOrigen  % Constants.NUMERO_DIAS_SEMANA ;
+        int diaDestino = indiceCursoDiaDestino % Constants.NUMERO_DIAS_SEMANA ;
+
+        // Solo cambia la aportación de los profesores de las dos celdas
+        List<Integer> profesoresAfectados = new ArrayList<Integer>() ;
+        this.agregarProfesoresAfectados(matrizAsignaciones, primeraSesionOrigen, profesoresAfectados) ;
+        this.agregarProfesoresAfectados(matrizAsignaciones, primeraSesionDestino, profesoresAfectados) ;
+
+        int aportacionAnterior = this.calcularAportacion(profesoresAfectados, profesores, sesionesProfesores) ;
+
+        // Primero liberamos las dos celdas, por si el mismo profesor está en ambas, y después ocupamos las nuevas
+        this.liberarCelda(matrizAsignaciones, primeraSesionOrigen, esMatutino, diaOrigen, tramoOrigen, sesionesProfesores) ;
+        this.liberarCelda(matrizAsignaciones, primeraSesionDestino, esMatutino, diaDestino, tramoDestino, sesionesProfesores) ;
+
+        this.ocuparCelda(matrizAsignaciones, primeraSesionOrigen, esMatutino, diaDestino, tramoDestino, sesionesProfesores) ;
+        this.ocuparCelda(matrizAsignaciones, primeraSesionDestino, esMatutino, diaOrigen, tramoOrigen, sesionesProfesores) ;
+
+        matrizAsignaciones.intercambiarCeldas(indiceCursoDiaOrigen, tramoOrigen, indiceCursoDiaDestino, tramoDestino) ;
+
+        return this.calcularAportacion(profesoresAfectados, profesores, sesionesProfesores) - aportacionAnterior ;
+    }
+
+    /**
+     * @param matrizAsignaciones matriz de asignaciones
+     * @param primeraSesion primera sesión de la celda (puede ser SIN_SESION)
+     * @param profesoresAfectados índices de los profesores afectados, sin repetir
+     */
+    private void agregarProfesoresAfectados(MatrizAsignaciones matrizAsignaciones, int primeraSesion, List<Integer> profesoresAfectados)
+    {
+        int indiceSesion = primeraSesion ;
+        while (indiceSesion != MatrizAsignaciones.SIN_SESION)
+        {
+            SesionBase sesion = matrizAsignaciones.obtenerSesion(indiceSesion) ;
+
+            if (sesion instanceof SesionAsignatura && !profesoresAfectados.contains(sesion.getIndiceProfesor()))
+            {
+                profesoresAfectados.add(sesion.getIndiceProfesor()) ;
+            }
+
+            indiceSesion = matrizAsignaciones.obtenerSiguienteSesion(indiceSesion) ;
+        }
+    }
+
+    /**
+     * @param profesoresAfectados índices de los profesores afectados
+     * @param profesores profesores por su índice
+     * @param sesionesProfesores número de sesiones de asignaturas de cada profesor por día y tramo
+     * @return suma de las aportaciones a la puntuación de los profesores afectados
+     */
+    private int calcularAportacion(List<Integer> profesoresAfectados, Profesor[] profesores, int[][][] sesionesProfesores)
+    {
+        int outcome = 0 ;
+
+        for (int indiceProfesor : profesoresAfectados)
+        {
+            outcome = outcome + this.calculadorPuntuacion.calcularAportacionProfesor(profesores[indiceProfesor], sesionesProfesores[indiceProfesor]) ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @param matrizAsignaciones matriz de asignaciones
+     * @param primeraSesion primera sesión de la celda (puede ser SIN_SESION)
+     * @param esMatutino indica si es matutino
+     * @param dia día de la semana (0-4)
+     * @param tramo tramo horario (0-5)
+     * @param sesionesProfesores número de sesiones de asignaturas de cada profesor por día y tramo
+     */
+    private void liberarCelda(MatrizAsignaciones matrizAsignaciones, int primeraSesion, boolean esMatutino, int dia, int tramo, int[][][] sesionesProfesores)
+    {
+        int indiceSesion = primeraSesion ;
+        while (indiceSesion != MatrizAsignaciones.SIN_SESION)
+        {
+            SesionBase sesion = matrizAsignaciones.obtenerSesion(indiceSesion) ;
+
+            this.ocupacionProfesores.liberar(sesion.getIndiceProfesor(), esMatutino, dia, tramo) ;
+
+            if (sesion instanceof SesionAsignatura)
+            {
+                sesionesProfesores[sesion.getIndiceProfesor()][dia][tramo]-- ;
+            }
+
+            indiceSesion = matrizAsignaciones.obtenerSiguienteSesion(indiceSesion) ;
+        }
+    }
+
+    /**
+     * @param matrizAsignaciones matriz de asignaciones
+     * @param primeraSesion primera sesión de la celda (puede ser SIN_SESION)
+     * @param esMatutino indica si es matutino
+     * @param dia día de la semana (0-4)
+     * @param tramo tramo horario (0-5)
+     * @param sesionesProfesores número de sesiones de asignaturas de cada profesor por día y tramo
+     */
+    private void ocuparCelda(MatrizAsignaciones matrizAsignaciones, int primeraSesion, boolean esMatutino, int dia, int tramo, int[][][] sesionesProfesores)
+    {
+        int indiceSesion = primeraSesion ;
+        while (indiceSesion != MatrizAsignaciones.SIN_SESION)
+        {
+            SesionBase sesion = matrizAsignaciones.obtenerSesion(indiceSesion) ;
+
+            this.ocupacionProfesores.ocupar(sesion.getIndiceProfesor(), esMatutino, dia, tramo) ;
+
+            if (sesion instanceof SesionAsignatura)
+            {
+                sesionesProfesores[sesion.getIndiceProfesor()][dia][tramo]++ ;
+            }
+
+            indiceSesion = matrizAsignaciones.obtenerSiguienteSesion(indiceSesion) ;
+        }
+    }
+
+    /**
+     * @param diferencia diferencia de puntuación del movimiento
+     * @param recocidoSimulado true si es recocido simulado
+     * @param temperatura temperatura actual del recocido simulado
+     * @return true si se acepta el movimiento
+     */
+    private boolean aceptarMovimiento(int diferencia, boolean recocidoSimulado, double temperatura)
+    {
+        // Los movimientos que no empeoran siempre se aceptan, así se puede avanzar por las mesetas de puntuación
+        boolean outcome = diferencia >= 0 ;
+
+        if (!outcome && recocidoSimulado)
+        {
+            outcome = this.random.nextDouble() < Math.exp(diferencia / temperatura) ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * Devuelve la matriz a la mejor situación encontrada, con la ocupación de los profesores correspondiente
+     *
+     * @param matrizAsignaciones matriz de asignaciones
+     * @param mejorMatriz mejor matriz encontrada
+     * @param esMatutino indica si es matutino
+     */
+    private void restaurarMatriz(MatrizAsignaciones matrizAsignaciones, MatrizAsignaciones mejorMatriz, boolean esMatutino)
+    {
+        this.ocuparProfesores(matrizAsignaciones, esMatutino, false) ;
+
+        matrizAsignaciones.restaurar(mejorMatriz) ;
+
+        this.ocuparProfesores(matrizAsignaciones, esMatutino, true) ;
+    }
+
+    /**
+     * @param matrizAsignaciones matriz de asignaciones
+     * @param esMatutino indica si es matutino
+     * @param ocupar true para ocupar a los profesores de todas las celdas, false para liberarlos
+     */
+    private void ocuparProfesores(MatrizAsignaciones matrizAsignaciones, boolean esMatutino, boolean ocupar)
+    {
+        for (int i = 0 ; i < matrizAsignaciones.getNumeroCursosDias() ; i++)
+        {
+            for (int tramo = 0 ; tramo < Constants.NUMERO_TRAMOS_HORARIOS ; tramo++)
+            {
+                int indiceSesion = matrizAsignaciones.obtenerPrimeraSesion(i, tramo) ;
+                while (indiceSesion != MatrizAsignaciones.SIN_SESION)
+                {
+                    int indiceProfesor = matrizAsignaciones.obtenerSesion(indiceSesion).getIndiceProfesor() ;
+
+                    if (ocupar)
+                    {
+                        this.ocupacionProfesores.ocupar(indiceProfesor, esMatutino, i % Constants.NUMERO_DIAS_SEMANA, tramo) ;
+                    }
+                    else
+                    {
+                        this.ocupacionProfesores.liberar(indiceProfesor, esMatutino, i % Constants.NUMERO_DIAS_SEMANA, tramo) ;
+                    }
+
+                    indiceSesion = matrizAsignaciones.obtenerSiguienteSesion(indiceSesion) ;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package es.iesjandula.reaktor.school_manager_server.generator.checkpoint;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorCheckpointAsignacionDto;
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorCheckpointSolucionDto;
+import es.iesjandula.reaktor.school_manager_server.generator.Horario;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.MatrizAsignaciones;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.SolucionGenerador;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionAsignatura;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionReduccion;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
+import es.iesjandula.reaktor.school_manager_server.utils.SchoolManagerServerException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exportación e importación de las soluciones de un punto de control del generador.
+ * <p>Las sesiones se guardan por su clave (curso, etapa, grupo, asignatura o reducción y profesor), ya que al reanudar se vuelven
+ * a crear a partir de la BBDD. Las sesiones con la misma clave son intercambiables, así que da igual cuál ocupe cada celda.</p>
+ */
+@Slf4j
+public class CheckpointGeneradorUtils
+{
+    /**
+     * @param sesion sesión
+     * @return clave de la sesión, igual para todas sus copias y para la misma sesión creada de nuevo a partir de la BBDD
+     */
+    public static String obtenerClaveSesion(SesionBase sesion)
+    {
+        String outcome = null ;
+
+        if (sesion instanceof SesionAsignatura)
+        {
+            outcome = "A|" + sesion.getCursoEtapaGrupoString() + "|" + ((SesionAsignatura) sesion).getAsignatura().getIdAsignatura().getNombre() ;
+        }
+        else
+        {
+            outcome = "R|" + sesion.getCursoEtapaGrupoString() + "|" + ((SesionReduccion) sesion).getReduccion().getIdReduccion().getNombre() ;
+        }
+
+        return outcome + "|" + sesion.isTipoHorarioMatutino() + "|" + sesion.getProfesor().getEmail() ;
+    }
+
+    /**
+     * @param listaDeListaSesiones sesiones de la generación
+     * @return huella de las sesiones de la generación, que cambia si se añade, quita o modifica alguna
+     * @throws SchoolManagerServerException con un error al calcular la huella
+     */
+    public static String calcularHuellaProblema(List<List<SesionBase>> listaDeListaSesiones) throws SchoolManagerServerException
+    {
+        // Ordenamos las claves para que la huella no dependa del orden en el que se crean las sesiones
+        List<String> clavesSesiones = new ArrayList<String>() ;
+        for (List<SesionBase> sublista : listaDeListaSesiones)
+        {
+            for (SesionBase sesion : sublista)
+            {
+                clavesSesiones.add(CheckpointGeneradorUtils.obtenerClaveSesion(sesion)) ;
+            }
+        }
+
+        Collections.sort(clavesSesiones) ;
+
+        try
+        {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256") ;
+
+            for (String claveSesion : clavesSesiones)
+            {
+                messageDigest.update(claveSesion.getBytes(StandardCharsets.UTF_8)) ;
+                messageDigest.update((byte) '\n') ;
+            }
+
+            return HexFormat.of().formatHex(messageDigest.digest()) ;
+        }
+        catch (NoSuchAlgorithmException noSuchAlgorithmException)
+        {
+            String mensajeError = "ERROR - No se pudo calcular la huella de las sesiones del generador" ;
+
+            log.error(mensajeError, noSuchAlgorithmException) ;
+            throw new SchoolManagerServerException(Constants.ERROR_CODE_CHECKPOINT_GENERADOR_INCORRECTO, mensajeError, noSuchAlgorithmException) ;
+        }
+    }
+
+    /**
+     * @param solucionGenerador solución encontrada
+     * @return solución con las claves de las sesiones de cada celda ocupada
+     */
+    public static GeneradorCheckpointSolucionDto exportarSolucion(SolucionGenerador solucionGenerador)
+    {
+        Horario horario = solucionGenerador.getHorario() ;
+
+        GeneradorCheckpointSolucionDto generadorCheckpointSolucionDto = new GeneradorCheckpointSolucionDto() ;
+        generadorCheckpointSolucionDto.setPuntuacion(horario.getPuntuacion()) ;
+        generadorCheckpointSolucionDto.setSemilla(solucionGenerador.getSemilla()) ;
+
+        CheckpointGeneradorUtils.exportarMatriz(horario.getMatrizAsignacionesMatutinas(), generadorCheckpointSolucionDto.getAsignacionesMatutinas()) ;
+        CheckpointGeneradorUtils.exportarMatriz(horario.getMatrizAsignacionesVespertinas(), generadorCheckpointSolucionDto.getAsignacionesVespertinas()) ;
+
+        return generadorCheckpointSolucionDto ;
+    }
+
+    /**
+     * @param generadorCheckpointSolucionDto solución del punto de control
+     * @param listaDeListaSesiones sesiones de la generación, creadas de nuevo a partir de la BBDD
+     * @param numeroCursosMatutinos número de cursos matutinos de la generación
+     * @param numeroCursosVespertinos número de cursos vespertinos de la generación
+     * @return horario de la solución con las sesiones de la generación (sin puntuar), o null si alguna celda no encaja con ellas
+     */
+    public static Horario importarSolucion(GeneradorCheckpointSolucionDto generadorCheckpointSolucionDto, List<List<SesionBase>> listaDeListaSesiones,
+                                           int numeroCursosMatutinos, int numeroCursosVespertinos)
+    {
+        // Sesiones disponibles por clave. Cada sesión solo puede ocupar una celda de la solución
+        Map<String, Deque<SesionBase>> sesionesPorClave = new HashMap<String, Deque<SesionBase>>() ;
+        for (List<SesionBase> sublista : listaDeListaSesiones)
+        {
+            for (SesionBase sesion : sublista)
+            {
+                sesionesPorClave.computeIfAbsent(CheckpointGeneradorUtils.obtenerClaveSesion(sesion), clave -> new ArrayDeque<SesionBase>()).add(sesion) ;
+            }
+        }
+
+        // Las dos matrices comparten la tabla de sesiones por su índice
+        SesionBase[] sesiones = MatrizAsignaciones.indexarSesiones(listaDeListaSesiones) ;
+
+        MatrizAsignaciones matrizAsignacionesMatutinas   = CheckpointGeneradorUtils.importarMatriz(generadorCheckpointSolucionDto.getAsignacionesMatutinas(),
+                                                                                                   numeroCursosMatutinos, sesiones, sesionesPorClave) ;
+        MatrizAsignaciones matrizAsignacionesVespertinas = CheckpointGeneradorUtils.importarMatriz(generadorCheckpointSolucionDto.getAsignacionesVespertinas(),
+                                                                                                   numeroCursosVespertinos, sesiones, sesionesPorClave) ;
+
+        Horario outcome = null ;
+
+        if ((numeroCursosMatutinos == 0 || matrizAsignacionesMatutinas != null) && (numeroCursosVespertinos == 0 || matrizAsignacionesVespertinas != null))
+        {
+            outcome = new Horario(matrizAsignacionesMatutinas, matrizAsignacionesVespertinas) ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @param matrizAsignaciones matriz de asignaciones (null si no hay cursos de ese tipo de horario)
+     * @param asignaciones lista donde se añaden las celdas ocupadas
+     */
+    private static void exportarMatriz(MatrizAsignaciones matrizAsignaciones, List<GeneradorCheckpointAsignacionDto> asignaciones)
+    {
+        if (matrizAsignaciones != null)
+        {
+            for (int indiceCursoDia = 0 ; indiceCursoDia < matrizAsignaciones.getNumeroCursosDias() ; indiceCursoDia++)
+            {
+                for (int tramo = 0 ; tramo < Constants.NUMERO_TRAMOS_HORARIOS ; tramo++)
+                {
+                    if (!matrizAsignaciones.celdaVacia(indiceCursoDia, tramo))
+                    {
+                        GeneradorCheckpointAsignacionDto generadorCheckpointAsignacionDto = new GeneradorCheckpointAsignacionDto() ;
+                        generadorCheckpointAsignacionDto.setIndiceCursoDia(indiceCursoDia) ;
+                        generadorCheckpointAsignacionDto.setTramo(tramo) ;
+                        generadorCheckpointAsignacionDto.setOptativas(matrizAsignaciones.isOptativas(indiceCursoDia, tramo)) ;
+
+                        for (SesionBase sesion : matrizAsignaciones.obtenerSesiones(indiceCursoDia, tramo))
+                        {
+                            generadorCheckpointAsignacionDto.getClavesSesiones().add(CheckpointGeneradorUtils.obtenerClaveSesion(sesion)) ;
+                        }
+
+                        asignaciones.add(generadorCheckpointAsignacionDto) ;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param asignaciones celdas ocupadas de la matriz
+     * @param numeroCursos número de cursos de ese tipo de horario
+     * @param sesiones sesiones de la generación por su índice
+     * @param sesionesPorClave sesiones disponibles por clave, de donde se van sacando las que ocupan cada celda
+     * @return matriz de asignaciones, o null si no hay cursos de ese tipo de horario o alguna celda no encaja con las sesiones
+     */
+    private static MatrizAsignaciones importarMatriz(List<GeneradorCheckpointAsignacionDto> asignaciones, int numeroCursos,
+                                                     SesionBase[] sesiones, Map<String, Deque<SesionBase>> sesionesPorClave)
+    {
+        MatrizAsignaciones outcome = null ;
+
+        if (numeroCursos > 0)
+        {
+            outcome = new MatrizAsignaciones(numeroCursos, sesiones) ;
+
+            for (int i = 0 ; i < asignaciones.size() && outcome != null ; i++)
+            {
+                GeneradorCheckpointAsignacionDto generadorCheckpointAsignacionDto = asignaciones.get(i) ;
+
+                List<SesionBase> listaSesiones = CheckpointGeneradorUtils.importarAsignacion(generadorCheckpointAsignacionDto, sesionesPorClave) ;
+
+                if (listaSesiones == null ||
+                    generadorCheckpointAsignacionDto.getIndiceCursoDia() >= outcome.getNumeroCursosDias() ||
+                    generadorCheckpointAsignacionDto.getTramo() >= Constants.NUMERO_TRAMOS_HORARIOS)
+                {
+                    log.warn("La celda {} - {} del punto de control no encaja con las sesiones actuales del generador",
+                             generadorCheckpointAsignacionDto.getIndiceCursoDia(), generadorCheckpointAsignacionDto.getTramo()) ;
+
+                    outcome = null ;
+                }
+                else
+                {
+                    // La marca de optativas se deduce de las sesiones al asignarlas
+                    for (SesionBase sesion : listaSesiones)
+                    {
+                        outcome.asignar(generadorCheckpointAsignacionDto.getIndiceCursoDia(), generadorCheckpointAsignacionDto.getTramo(), sesion) ;
+                    }
+                }
+            }
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @param generadorCheckpointAsignacionDto celda ocupada de la matriz
+     * @param sesionesPorClave sesiones disponibles por clave
+     * @return sesiones de la celda, o null si alguna de sus claves no tiene sesiones disponibles
+     */
+    private static List<SesionBase> importarAsignacion(GeneradorCheckpointAsignacionDto generadorCheckpointAsignacionDto,
+                                                       Map<String, Deque<SesionBase>> sesionesPorClave)
+    {
+        List<SesionBase> outcome = new ArrayList<SesionBase>() ;
+
+        for (int i = 0 ; i < generadorCheckpointAsignacionDto.getClavesSesiones().size() && outcome != null ; i++)
+        {
+            Deque<SesionBase> sesionesDisponibles = sesionesPorClave.get(generadorCheckpointAsignacionDto.getClavesSesiones().get(i)) ;
+
+            if (sesionesDisponibles == null || sesionesDisponibles.isEmpty())
+            {
+                outcome = null ;
+            }
+            else
+            {
+                outcome.add(sesionesDisponibles.poll()) ;
+            }
+        }
+
+        return outcome ;
+    }
+}
@@ -0,0 +1,122 @@
+package es.iesjandula.reaktor.school_manager_server.generator.configuracion;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorReduccionConRestriccionesDto;
+import es.iesjandula.reaktor.school_manager_server.models.CursoEtapaGrupo;
+import es.iesjandula.reaktor.school_manager_server.models.DiaTramoTipoHorario;
+import es.iesjandula.reaktor.school_manager_server.models.Impartir;
+
+/**
+ * Datos de entrada del generador construidos en memoria, sin BBDD.
+ * <p>Los usan el banco de pruebas del generador y los centros sintéticos, y también se obtienen al importar una instantánea.</p>
+ */
+public class FuenteDatosEnMemoria implements IFuenteDatosGenerador
+{
+    /** Cursos, etapas y grupos que participan en la generación, sin los grupos de optativas */
+    private final List<CursoEtapaGrupo> cursosEtapasGrupos ;
+
+    /** Asignaturas a impartir por cada profesor */
+    private final List<Impartir> impartirList ;
+
+    /** Reducciones de los profesores con su día y tramo */
+    private final List<GeneradorReduccionConRestriccionesDto> reducciones ;
+
+    /** Día y tramo concreto de cada sesión restringida, por Impartir (por identidad, ya que Impartir es una entidad @Data) y número de sesión */
+    private final Map<Impartir, Map<Integer, DiaTramoTipoHorario>> restriccionesImpartir ;
+
+    /**
+     * Constructor vacío
+     */
+    public FuenteDatosEnMemoria()
+    {
+        this.cursosEtapasGrupos    = new ArrayList<CursoEtapaGrupo>() ;
+        this.impartirList          = new ArrayList<Impartir>() ;
+        this.reducciones           = new ArrayList<GeneradorReduccionConRestriccionesDto>() ;
+        this.restriccionesImpartir = new IdentityHashMap<Impartir, Map<Integer, DiaTramoTipoHorario>>() ;
+    }
+
+    /**
+     * @param cursoEtapaGrupo curso, etapa y grupo que participa en la generación (no debe ser un grupo de optativas)
+     */
+    public void anadirCursoEtapaGrupo(CursoEtapaGrupo cursoEtapaGrupo)
+    {
+        this.cursosEtapasGrupos.add(cursoEtapaGrupo) ;
+    }
+
+    /**
+     * @param impartir asignatura a impartir por un profesor
+     */
+    public void anadirImpartir(Impartir impartir)
+    {
+        this.impartirList.add(impartir) ;
+    }
+
+    /**
+     * @param impartir impartir ya añadido
+     * @param numeroRestriccion número de la sesión de la asignatura (desde 1)
+     * @param diaTramoTipoHorario día y tramo concreto en el que debe impartirse esa sesión
+     */
+    public void anadirRestriccionImpartir(Impartir impartir, int numeroRestriccion, DiaTramoTipoHorario diaTramoTipoHorario)
+    {
+        this.restriccionesImpartir.computeIfAbsent(impartir, clave -> new HashMap<Integer, DiaTramoTipoHorario>())
+                                  .put(numeroRestriccion, diaTramoTipoHorario) ;
+    }
+
+    /**
+     * @param generadorReduccionConRestriccionesDto reducción de un profesor con su día y tramo
+     */
+    public void anadirReduccion(GeneradorReduccionConRestriccionesDto generadorReduccionConRestriccionesDto)
+    {
+        this.reducciones.add(generadorReduccionConRestriccionesDto) ;
+    }
+
+    @Override
+    public List<CursoEtapaGrupo> obtenerCursosEtapasGrupos()
+    {
+        return this.cursosEtapasGrupos ;
+    }
+
+    @Override
+    public List<Impartir> obtenerImpartir()
+    {
+        return this.impartirList ;
+    }
+
+    @Override
+    public List<CursoEtapaGrupo> obtenerCursosEtapasGruposOptativa(Impartir impartir)
+    {
+        List<CursoEtapaGrupo> outcome = new ArrayList<CursoEtapaGrupo>() ;
+
+        // Como en BBDD, son los grupos del mismo curso y etapa que la optativa
+        for (CursoEtapaGrupo cursoEtapaGrupo : this.cursosEtapasGrupos)
+        {
+            if (cursoEtapaGrupo.getIdCursoEtapaGrupo().getCurso() == impartir.getCurso() &&
+                cursoEtapaGrupo.getIdCursoEtapaGrupo().getEtapa().equals(impartir.getEtapa()))
+            {
+                outcome.add(cursoEtapaGrupo) ;
+            }
+        }
+
+        return outcome ;
+    }
+
+    @Override
+    public Optional<DiaTramoTipoHorario> obtenerRestriccionImpartir(int numeroRestriccion, Impartir impartir)
+    {
+        Map<Integer, DiaTramoTipoHorario> restricciones = this.restriccionesImpartir.get(impartir) ;
+
+        return restricciones == null ? Optional.empty() : Optional.ofNullable(restricciones.get(numeroRestriccion)) ;
+    }
+
+    @Override
+    public List<GeneradorReduccionConRestriccionesDto> obtenerReduccionesConRestricciones()
+    {
+        return this.reducciones ;
+    }
+}
@@ -0,0 +1,48 @@
+package es.iesjandula.reaktor.school_manager_server.generator.configuracion;
+
+import java.util.List;
+import java.util.Optional;
+
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorReduccionConRestriccionesDto;
+import es.iesjandula.reaktor.school_manager_server.models.CursoEtapaGrupo;
+import es.iesjandula.reaktor.school_manager_server.models.DiaTramoTipoHorario;
+import es.iesjandula.reaktor.school_manager_server.models.Impartir;
+import es.iesjandula.reaktor.school_manager_server.utils.SchoolManagerServerException;
+
+/**
+ * Datos de entrada con los que se configura el generador de horarios.
+ * <p>En el servidor se obtienen de BBDD (GeneradorConfigService), pero también pueden construirse en memoria
+ * (FuenteDatosEnMemoria), por ejemplo a partir de un centro sintético o de una instantánea exportada en JSON.</p>
+ */
+public interface IFuenteDatosGenerador
+{
+    /**
+     * @return cursos, etapas y grupos que participan en la generación, sin los grupos de optativas
+     * @throws SchoolManagerServerException con un error
+     */
+    List<CursoEtapaGrupo> obtenerCursosEtapasGrupos() throws SchoolManagerServerException ;
+
+    /**
+     * @return asignaturas a impartir por cada profesor, con las preferencias horarias del profesor cargadas
+     * @throws SchoolManagerServerException con un error
+     */
+    List<Impartir> obtenerImpartir() throws SchoolManagerServerException ;
+
+    /**
+     * @param impartir impartir de una asignatura optativa
+     * @return grupos del curso y etapa de la optativa, en cada uno de los cuales se crearán sus sesiones
+     */
+    List<CursoEtapaGrupo> obtenerCursosEtapasGruposOptativa(Impartir impartir) ;
+
+    /**
+     * @param numeroRestriccion número de la sesión de la asignatura (desde 1)
+     * @param impartir impartir
+     * @return día y tramo concreto en el que debe impartirse esa sesión, si lo hay
+     */
+    Optional<DiaTramoTipoHorario> obtenerRestriccionImpartir(int numeroRestriccion, Impartir impartir) ;
+
+    /**
+     * @return reducciones de los profesores con el día y tramo en el que deben asignarse
+     */
+    List<GeneradorReduccionConRestriccionesDto> obtenerReduccionesConRestricciones() ;
+}
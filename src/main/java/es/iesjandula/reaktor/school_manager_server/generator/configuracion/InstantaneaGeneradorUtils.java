@@ -0,0 +1,363 @@
+package es.iesjandula.reaktor.school_manager_server.generator.configuracion;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorInstantaneaCursoEtapaGrupoDto;
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorInstantaneaDiaTramoDto;
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorInstantaneaDto;
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorInstantaneaImpartirDto;
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorInstantaneaProfesorDto;
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorInstantaneaReduccionDto;
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorReduccionConRestriccionesDto;
+import es.iesjandula.reaktor.school_manager_server.models.Asignatura;
+import es.iesjandula.reaktor.school_manager_server.models.Bloque;
+import es.iesjandula.reaktor.school_manager_server.models.CursoEtapaGrupo;
+import es.iesjandula.reaktor.school_manager_server.models.DiaTramoTipoHorario;
+import es.iesjandula.reaktor.school_manager_server.models.Impartir;
+import es.iesjandula.reaktor.school_manager_server.models.ObservacionesAdicionales;
+import es.iesjandula.reaktor.school_manager_server.models.PreferenciasHorariasProfesor;
+import es.iesjandula.reaktor.school_manager_server.models.Profesor;
+import es.iesjandula.reaktor.school_manager_server.models.Reduccion;
+import es.iesjandula.reaktor.school_manager_server.models.ids.IdAsignatura;
+import es.iesjandula.reaktor.school_manager_server.models.ids.IdCursoEtapaGrupo;
+import es.iesjandula.reaktor.school_manager_server.models.ids.IdReduccion;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
+import es.iesjandula.reaktor.school_manager_server.utils.SchoolManagerServerException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exportación e importación de los datos de entrada del generador como una instantánea en JSON.
+ * <p>Al exportar, los profesores se sustituyen por un identificador anónimo: la instantánea solo conserva lo que usa el generador.</p>
+ */
+@Slf4j
+public class InstantaneaGeneradorUtils
+{
+    /** Prefijo de los identificadores anónimos de los profesores */
+    private static final String PREFIJO_PROFESOR = "profesor" ;
+
+    /**
+     * @param fuenteDatosGenerador datos de entrada del generador
+     * @param cursoAcademico curso académico de los datos
+     * @return instantánea de los datos de entrada del generador, con los profesores anonimizados
+     * @throws SchoolManagerServerException con un error al obtener los datos
+     */
+    public static GeneradorInstantaneaDto exportar(IFuenteDatosGenerador fuenteDatosGenerador, String cursoAcademico) throws SchoolManagerServerException
+    {
+        GeneradorInstantaneaDto generadorInstantaneaDto = new GeneradorInstantaneaDto() ;
+        generadorInstantaneaDto.setCursoAcademico(cursoAcademico) ;
+
+        // Cursos, etapas y grupos
+        for (CursoEtapaGrupo cursoEtapaGrupo : fuenteDatosGenerador.obtenerCursosEtapasGrupos())
+        {
+            IdCursoEtapaGrupo idCursoEtapaGrupo = cursoEtapaGrupo.getIdCursoEtapaGrupo() ;
+
+            generadorInstantaneaDto.getCursosEtapasGrupos().add(new GeneradorInstantaneaCursoEtapaGrupoDto(idCursoEtapaGrupo.getCurso(),
+                                                                                                           idCursoEtapaGrupo.getEtapa(),
+                                                                                                           idCursoEtapaGrupo.getGrupo(),
+                                                                                                           Boolean.TRUE.equals(cursoEtapaGrupo.getHorarioMatutino()),
+                                                                                                           Boolean.TRUE.equals(cursoEtapaGrupo.getEsoBachillerato()))) ;
+        }
+
+        // Identificador anónimo de cada profesor, en el orden en que aparecen
+        Map<Profesor, String> identificadoresProfesores = new HashMap<Profesor, String>() ;
+
+        // Asignaturas a impartir con las restricciones de sus sesiones
+        for (Impartir impartir : fuenteDatosGenerador.obtenerImpartir())
+        {
+            Asignatura asignatura = impartir.getAsignatura() ;
+
+            GeneradorInstantaneaImpartirDto generadorInstantaneaImpartirDto = new GeneradorInstantaneaImpartirDto() ;
+            generadorInstantaneaImpartirDto.setProfesor(InstantaneaGeneradorUtils.exportarProfesor(impartir.getProfesor(), identificadoresProfesores, generadorInstantaneaDto)) ;
+            generadorInstantaneaImpartirDto.setAsignatura(asignatura.getIdAsignatura().getNombre()) ;
+            generadorInstantaneaImpartirDto.setCurso(impartir.getCurso()) ;
+            generadorInstantaneaImpartirDto.setEtapa(impartir.getEtapa()) ;
+            generadorInstantaneaImpartirDto.setGrupo(impartir.getCursoEtapaGrupo().getIdCursoEtapaGrupo().getGrupo()) ;
+            generadorInstantaneaImpartirDto.setHorarioMatutino(impartir.isHorarioMatutino()) ;
+            generadorInstantaneaImpartirDto.setEsoBachillerato(asignatura.isEsoBachillerato()) ;
+            generadorInstantaneaImpartirDto.setHoras(asignatura.getHoras()) ;
+            generadorInstantaneaImpartirDto.setBloque(asignatura.isOptativa() ? asignatura.getBloqueId().getId() : null) ;
+
+            for (int numeroRestriccion = 1 ; numeroRestriccion <= asignatura.getHoras() ; numeroRestriccion++)
+            {
+                Optional<DiaTramoTipoHorario> diaTramoTipoHorarioOptional = fuenteDatosGenerador.obtenerRestriccionImpartir(numeroRestriccion, impartir) ;
+
+                if (diaTramoTipoHorarioOptional.isPresent())
+                {
+                    generadorInstantaneaImpartirDto.getRestricciones().add(new GeneradorInstantaneaDiaTramoDto(numeroRestriccion,
+                                                                                                               diaTramoTipoHorarioOptional.get().getDia(),
+                                                                                                               diaTramoTipoHorarioOptional.get().getTramo())) ;
+                }
+            }
+
+            generadorInstantaneaDto.getImpartir().add(generadorInstantaneaImpartirDto) ;
+        }
+
+        // Reducciones con su día y tramo
+        for (GeneradorReduccionConRestriccionesDto generadorReduccionConRestriccionesDto : fuenteDatosGenerador.obtenerReduccionesConRestricciones())
+        {
+            IdReduccion idReduccion             = generadorReduccionConRestriccionesDto.getReduccion().getIdReduccion() ;
+            IdCursoEtapaGrupo idCursoEtapaGrupo = generadorReduccionConRestriccionesDto.getCursoEtapaGrupo().getIdCursoEtapaGrupo() ;
+
+            generadorInstantaneaDto.getReducciones().add(new GeneradorInstantaneaReduccionDto(InstantaneaGeneradorUtils.exportarProfesor(generadorReduccionConRestriccionesDto.getProfesor(),
+                                                                                                                                         identificadoresProfesores,
+                                                                                                                                         generadorInstantaneaDto),
+                                                                                              idReduccion.getNombre(),
+                                                                                              idReduccion.getHoras(),
+                                                                                              idCursoEtapaGrupo.getCurso(),
+                                                                                              idCursoEtapaGrupo.getEtapa(),
+                                                                                              idCursoEtapaGrupo.getGrupo(),
+                                                                                              generadorReduccionConRestriccionesDto.getDiaTramoTipoHorario().getDia(),
+                                                                                              generadorReduccionConRestriccionesDto.getDiaTramoTipoHorario().getTramo())) ;
+        }
+
+        return generadorInstantaneaDto ;
+    }
+
+    /**
+     * @param profesor profesor
+     * @param identificadoresProfesores identificador anónimo de los profesores ya exportados
+     * @param generadorInstantaneaDto instantánea en la que se añade el profesor la primera vez que aparece
+     * @return identificador anónimo del profesor
+     */
+    private static String exportarProfesor(Profesor profesor, Map<Profesor, String> identificadoresProfesores, GeneradorInstantaneaDto generadorInstantaneaDto)
+    {
+        String identificador = identificadoresProfesores.get(profesor) ;
+
+        if (identificador == null)
+        {
+            identificador = PREFIJO_PROFESOR + (identificadoresProfesores.size() + 1) ;
+            identificadoresProfesores.put(profesor, identificador) ;
+
+            GeneradorInstantaneaProfesorDto generadorInstantaneaProfesorDto = new GeneradorInstantaneaProfesorDto() ;
+            generadorInstantaneaProfesorDto.setProfesor(identificador) ;
+            generadorInstantaneaProfesorDto.setConciliacion(Boolean.TRUE.equals(profesor.getObservacionesAdicionales().getConciliacion())) ;
+            generadorInstantaneaProfesorDto.setSinClasePrimeraHora(Boolean.TRUE.equals(profesor.getObservacionesAdicionales().getSinClasePrimeraHora())) ;
+
+            if (profesor.getPreferenciasHorariasProfesor() != null)
+            {
+                for (PreferenciasHorariasProfesor preferenciasHorariasProfesor : profesor.getPreferenciasHorariasProfesor())
+                {
+                    generadorInstantaneaProfesorDto.getPreferencias().add(new GeneradorInstantaneaDiaTramoDto(0,
+                                                                                                              preferenciasHorariasProfesor.getDiaTramoTipoHorario().getDia(),
+                                                                                                              preferenciasHorariasProfesor.getDiaTramoTipoHorario().getTramo())) ;
+                }
+            }
+
+            generadorInstantaneaDto.getProfesores().add(generadorInstantaneaProfesorDto) ;
+        }
+
+        return identificador ;
+    }
+
+    /**
+     * @param generadorInstantaneaDto instantánea de los datos de entrada del generador
+     * @return datos de entrada del generador en memoria
+     * @throws SchoolManagerServerException si la instantánea hace referencia a un profesor o a un grupo que no contiene
+     */
+    public static FuenteDatosEnMemoria importar(GeneradorInstantaneaDto generadorInstantaneaDto) throws SchoolManagerServerException
+    {
+        FuenteDatosEnMemoria fuenteDatosEnMemoria = new FuenteDatosEnMemoria() ;
+
+        String cursoAcademico = generadorInstantaneaDto.getCursoAcademico() ;
+
+        // Cursos, etapas y grupos por su representación en texto
+        Map<String, CursoEtapaGrupo> cursosEtapasGrupos = new HashMap<String, CursoEtapaGrupo>() ;
+        for (GeneradorInstantaneaCursoEtapaGrupoDto generadorInstantaneaCursoEtapaGrupoDto : generadorInstantaneaDto.getCursosEtapasGrupos())
+        {
+            CursoEtapaGrupo cursoEtapaGrupo = InstantaneaGeneradorUtils.crearCursoEtapaGrupo(cursoAcademico,
+                                                                                             generadorInstantaneaCursoEtapaGrupoDto.getCurso(),
+                                                                                             generadorInstantaneaCursoEtapaGrupoDto.getEtapa(),
+                                                                                             generadorInstantaneaCursoEtapaGrupoDto.getGrupo(),
+                                                                                             generadorInstantaneaCursoEtapaGrupoDto.isHorarioMatutino(),
+                                                                                             generadorInstantaneaCursoEtapaGrupoDto.isEsoBachillerato()) ;
+
+            cursosEtapasGrupos.put(cursoEtapaGrupo.getCursoEtapaGrupoString(), cursoEtapaGrupo) ;
+            fuenteDatosEnMemoria.anadirCursoEtapaGrupo(cursoEtapaGrupo) ;
+        }
+
+        // Profesores por su identificador
+        Map<String, Profesor> profesores = new HashMap<String, Profesor>() ;
+        for (GeneradorInstantaneaProfesorDto generadorInstantaneaProfesorDto : generadorInstantaneaDto.getProfesores())
+        {
+            profesores.put(generadorInstantaneaProfesorDto.getProfesor(), InstantaneaGeneradorUtils.importarProfesor(cursoAcademico, generadorInstantaneaProfesorDto)) ;
+        }
+
+        // Los grupos de optativas, los bloques y las asignaturas se comparten entre todos los Impartir que los referencian
+        Map<String, CursoEtapaGrupo> gruposOptativas = new HashMap<String, CursoEtapaGrupo>() ;
+        Map<Long, Bloque> bloques                    = new HashMap<Long, Bloque>() ;
+        Map<String, Asignatura> asignaturas          = new HashMap<String, Asignatura>() ;
+
+        for (GeneradorInstantaneaImpartirDto generadorInstantaneaImpartirDto : generadorInstantaneaDto.getImpartir())
+        {
+            String claveCursoEtapaGrupo = generadorInstantaneaImpartirDto.getCurso() + " " + generadorInstantaneaImpartirDto.getEtapa() + " " +
+                                          generadorInstantaneaImpartirDto.getGrupo() ;
+
+            CursoEtapaGrupo cursoEtapaGrupo = cursosEtapasGrupos.get(claveCursoEtapaGrupo) ;
+            if (cursoEtapaGrupo == null)
+            {
+                // El grupo de optativas no participa en la generación, solo agrupa las asignaturas optativas
+                cursoEtapaGrupo = gruposOptativas.computeIfAbsent(claveCursoEtapaGrupo,
+                                                                  clave -> InstantaneaGeneradorUtils.crearCursoEtapaGrupo(cursoAcademico,
+                                                                                                                          generadorInstantaneaImpartirDto.getCurso(),
+                                                                                                                          generadorInstantaneaImpartirDto.getEtapa(),
+                                                                                                                          generadorInstantaneaImpartirDto.getGrupo(),
+                                                                                                                          generadorInstantaneaImpartirDto.isHorarioMatutino(),
+                                                                                                                          generadorInstantaneaImpartirDto.isEsoBachillerato())) ;
+            }
+
+            CursoEtapaGrupo cursoEtapaGrupoAsignatura = cursoEtapaGrupo ;
+            Asignatura asignatura = asignaturas.computeIfAbsent(claveCursoEtapaGrupo + " " + generadorInstantaneaImpartirDto.getAsignatura(), clave ->
+            {
+                Asignatura nuevaAsignatura = new Asignatura() ;
+                nuevaAsignatura.setIdAsignatura(new IdAsignatura(cursoEtapaGrupoAsignatura, generadorInstantaneaImpartirDto.getAsignatura())) ;
+                nuevaAsignatura.setHoras(generadorInstantaneaImpartirDto.getHoras()) ;
+                nuevaAsignatura.setEsoBachillerato(generadorInstantaneaImpartirDto.isEsoBachillerato()) ;
+
+                if (generadorInstantaneaImpartirDto.getBloque() != null)
+                {
+                    nuevaAsignatura.setBloqueId(bloques.computeIfAbsent(generadorInstantaneaImpartirDto.getBloque(), id -> new Bloque(id, null))) ;
+                }
+
+                return nuevaAsignatura ;
+            }) ;
+
+            Impartir impartir = new Impartir() ;
+            impartir.setAsignatura(asignatura) ;
+            impartir.setProfesor(InstantaneaGeneradorUtils.buscarProfesor(profesores, generadorInstantaneaImpartirDto.getProfesor())) ;
+            fuenteDatosEnMemoria.anadirImpartir(impartir) ;
+
+            for (GeneradorInstantaneaDiaTramoDto restriccion : generadorInstantaneaImpartirDto.getRestricciones())
+            {
+                fuenteDatosEnMemoria.anadirRestriccionImpartir(impartir, restriccion.getNumeroRestriccion(),
+                                                               InstantaneaGeneradorUtils.crearDiaTramoTipoHorario(restriccion.getDia(), restriccion.getTramo(), asignatura)) ;
+            }
+        }
+
+        // Reducciones, que siempre pertenecen a uno de los grupos que participan en la generación
+        Map<String, Reduccion> reducciones = new HashMap<String, Reduccion>() ;
+        for (GeneradorInstantaneaReduccionDto generadorInstantaneaReduccionDto : generadorInstantaneaDto.getReducciones())
+        {
+            String claveCursoEtapaGrupo = generadorInstantaneaReduccionDto.getCurso() + " " + generadorInstantaneaReduccionDto.getEtapa() + " " +
+                                          generadorInstantaneaReduccionDto.getGrupo() ;
+
+            CursoEtapaGrupo cursoEtapaGrupo = cursosEtapasGrupos.get(claveCursoEtapaGrupo) ;
+            if (cursoEtapaGrupo == null)
+            {
+                String mensajeError = "La reducción " + generadorInstantaneaReduccionDto.getReduccion() + " de la instantánea pertenece al grupo " +
+                                      claveCursoEtapaGrupo + ", que no está entre sus cursos, etapas y grupos" ;
+
+                log.error(mensajeError) ;
+                throw new SchoolManagerServerException(Constants.ERROR_CODE_INSTANTANEA_GENERADOR_INCORRECTA, mensajeError) ;
+            }
+
+            Reduccion reduccion = reducciones.computeIfAbsent(claveCursoEtapaGrupo + " " + generadorInstantaneaReduccionDto.getReduccion() + " " +
+                                                              generadorInstantaneaReduccionDto.getHoras(), clave ->
+            {
+                Reduccion nuevaReduccion = new Reduccion() ;
+                nuevaReduccion.setIdReduccion(new IdReduccion(cursoAcademico, generadorInstantaneaReduccionDto.getReduccion(), generadorInstantaneaReduccionDto.getHoras())) ;
+                nuevaReduccion.setCursoEtapaGrupo(cursoEtapaGrupo) ;
+
+                return nuevaReduccion ;
+            }) ;
+
+            DiaTramoTipoHorario diaTramoTipoHorario = new DiaTramoTipoHorario() ;
+            diaTramoTipoHorario.setDia(generadorInstantaneaReduccionDto.getDia()) ;
+            diaTramoTipoHorario.setTramo(generadorInstantaneaReduccionDto.getTramo()) ;
+            diaTramoTipoHorario.setHorarioMatutino(cursoEtapaGrupo.getHorarioMatutino()) ;
+
+            fuenteDatosEnMemoria.anadirReduccion(new GeneradorReduccionConRestriccionesDto(reduccion,
+                                                                                          InstantaneaGeneradorUtils.buscarProfesor(profesores, generadorInstantaneaReduccionDto.getProfesor()),
+                                                                                          cursoEtapaGrupo,
+                                                                                          diaTramoTipoHorario)) ;
+        }
+
+        return fuenteDatosEnMemoria ;
+    }
+
+    /**
+     * @param cursoAcademico curso académico
+     * @param generadorInstantaneaProfesorDto profesor de la instantánea
+     * @return profesor con sus observaciones adicionales y preferencias horarias
+     */
+    private static Profesor importarProfesor(String cursoAcademico, GeneradorInstantaneaProfesorDto generadorInstantaneaProfesorDto)
+    {
+        Profesor profesor = new Profesor() ;
+        profesor.setCursoAcademico(cursoAcademico) ;
+        profesor.setEmail(generadorInstantaneaProfesorDto.getProfesor()) ;
+        profesor.setNombre(generadorInstantaneaProfesorDto.getProfesor()) ;
+        profesor.setApellidos("") ;
+
+        ObservacionesAdicionales observacionesAdicionales = new ObservacionesAdicionales() ;
+        observacionesAdicionales.setConciliacion(generadorInstantaneaProfesorDto.isConciliacion()) ;
+        observacionesAdicionales.setSinClasePrimeraHora(generadorInstantaneaProfesorDto.isSinClasePrimeraHora()) ;
+        profesor.setObservacionesAdicionales(observacionesAdicionales) ;
+
+        List<PreferenciasHorariasProfesor> preferenciasHorariasProfesor = new ArrayList<PreferenciasHorariasProfesor>() ;
+        for (GeneradorInstantaneaDiaTramoDto preferencia : generadorInstantaneaProfesorDto.getPreferencias())
+        {
+            DiaTramoTipoHorario diaTramoTipoHorario = new DiaTramoTipoHorario() ;
+            diaTramoTipoHorario.setDia(preferencia.getDia()) ;
+            diaTramoTipoHorario.setTramo(preferencia.getTramo()) ;
+
+            PreferenciasHorariasProfesor preferenciasHorariasProfesorItem = new PreferenciasHorariasProfesor() ;
+            preferenciasHorariasProfesorItem.setProfesor(profesor) ;
+            preferenciasHorariasProfesorItem.setDiaTramoTipoHorario(diaTramoTipoHorario) ;
+
+            preferenciasHorariasProfesor.add(preferenciasHorariasProfesorItem) ;
+        }
+        profesor.setPreferenciasHorariasProfesor(preferenciasHorariasProfesor) ;
+
+        return profesor ;
+    }
+
+    /**
+     * @param profesores profesores de la instantánea por su identificador
+     * @param identificador identificador del profesor
+     * @return profesor
+     * @throws SchoolManagerServerException si la instantánea no contiene el profesor
+     */
+    private static Profesor buscarProfesor(Map<String, Profesor> profesores, String identificador) throws SchoolManagerServerException
+    {
+        Profesor profesor = profesores.get(identificador) ;
+
+        if (profesor == null)
+        {
+            String mensajeError = "El profesor " + identificador + " no está entre los profesores de la instantánea" ;
+
+            log.error(mensajeError) ;
+            throw new SchoolManagerServerException(Constants.ERROR_CODE_INSTANTANEA_GENERADOR_INCORRECTA, mensajeError) ;
+        }
+
+        return profesor ;
+    }
+
+    /**
+     * @return curso, etapa y grupo con sus datos
+     */
+    private static CursoEtapaGrupo crearCursoEtapaGrupo(String cursoAcademico, int curso, String etapa, String grupo, boolean horarioMatutino, boolean esoBachillerato)
+    {
+        CursoEtapaGrupo cursoEtapaGrupo = new CursoEtapaGrupo() ;
+        cursoEtapaGrupo.setIdCursoEtapaGrupo(new IdCursoEtapaGrupo(cursoAcademico, curso, etapa, grupo)) ;
+        cursoEtapaGrupo.setHorarioMatutino(horarioMatutino) ;
+        cursoEtapaGrupo.setEsoBachillerato(esoBachillerato) ;
+
+        return cursoEtapaGrupo ;
+    }
+
+    /**
+     * @return día y tramo del tipo de horario del grupo de la asignatura
+     */
+    private static DiaTramoTipoHorario crearDiaTramoTipoHorario(int dia, int tramo, Asignatura asignatura)
+    {
+        DiaTramoTipoHorario diaTramoTipoHorario = new DiaTramoTipoHorario() ;
+        diaTramoTipoHorario.setDia(dia) ;
+        diaTramoTipoHorario.setTramo(tramo) ;
+        diaTramoTipoHorario.setHorarioMatutino(asignatura.getIdAsignatura().getCursoEtapaGrupo().getHorarioMatutino()) ;
+
+        return diaTramoTipoHorario ;
+    }
+}
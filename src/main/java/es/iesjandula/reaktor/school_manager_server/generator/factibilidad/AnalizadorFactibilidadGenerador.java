@@ -0,0 +1,385 @@
+package es.iesjandula.reaktor.school_manager_server.generator.factibilidad;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import es.iesjandula.reaktor.school_manager_server.dtos.ErroresDatosDto;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionAsignatura;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionReduccion;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
+
+/**
+ * Análisis previo al lanzamiento del generador que detecta, en milisegundos, los datos con los que no puede existir ningún horario.
+ * <p>Solo usa las restricciones que el generador nunca incumple: los días y tramos posibles de cada sesión (tras la conciliación
+ * y los días y tramos concretos de impartir y de las reducciones), que un profesor no puede tener dos sesiones a la vez y que
+ * un grupo no puede tener dos asignaturas no optativas en la misma celda. Con ellas se comprueba por conteo (principio del palomar) y por emparejamiento
+ * máximo entre sesiones y huecos de la semana, por profesor y por grupo. Si el emparejamiento no cubre todas las sesiones,
+ * las sesiones alcanzables desde una sin hueco forman el conjunto exacto que no cabe en sus huecos, y es el que se devuelve.</p>
+ * <p>Es un análisis necesario pero no suficiente: si no encuentra conflictos, el generador aún puede no encontrar solución
+ * por las optativas, los módulos de FP o el número de ocurrencias diarias de las asignaturas.</p>
+ */
+public class AnalizadorFactibilidadGenerador
+{
+    /** Número de posiciones de la semana (días * tramos) */
+    private static final int NUMERO_POSICIONES_SEMANA = Constants.NUMERO_DIAS_SEMANA * Constants.NUMERO_TRAMOS_HORARIOS ;
+
+    /** Máscara con todas las posiciones de la semana */
+    private static final long MASCARA_SEMANA = (1L << NUMERO_POSICIONES_SEMANA) - 1L ;
+
+    /**
+     * @param listaDeListaSesiones sesiones de la generación
+     * @return conflictos encontrados, con las entidades implicadas (vacío si no se ha encontrado ninguno)
+     */
+    public static List<ErroresDatosDto> analizar(List<List<SesionBase>> listaDeListaSesiones)
+    {
+        ErroresDatosDto sesionesSinHuecos   = new ErroresDatosDto("Sesiones sin ningún día y tramo posible") ;
+        ErroresDatosDto profesoresSinHuecos = new ErroresDatosDto("Profesores con más sesiones que días y tramos posibles") ;
+        ErroresDatosDto gruposSinHuecos     = new ErroresDatosDto("Grupos con más sesiones que días y tramos posibles") ;
+
+        // Agrupamos las sesiones por profesor y por grupo, en cada tipo de horario, manteniendo el orden de creación
+        Map<String, List<SesionBase>> sesionesPorProfesor = new LinkedHashMap<String, List<SesionBase>>() ;
+        Map<String, List<SesionBase>> sesionesPorGrupo    = new LinkedHashMap<String, List<SesionBase>>() ;
+        Map<String, Integer> sesionesSinHuecosContadas    = new LinkedHashMap<String, Integer>() ;
+
+        for (List<SesionBase> sublista : listaDeListaSesiones)
+        {
+            for (SesionBase sesion : sublista)
+            {
+                // Una sesión sin días y tramos posibles ya hace imposible el horario, así que no entra en el resto de comprobaciones
+                if (AnalizadorFactibilidadGenerador.obtenerHuecosPosibles(sesion) == 0L)
+                {
+                    sesionesSinHuecosContadas.merge(AnalizadorFactibilidadGenerador.describirSesion(sesion, true), 1, Integer::sum) ;
+                }
+                else
+                {
+                    String tipoHorario = AnalizadorFactibilidadGenerador.describirTipoHorario(sesion.isTipoHorarioMatutino()) ;
+
+                    sesionesPorProfesor.computeIfAbsent(sesion.getIndiceProfesor() + "|" + tipoHorario, clave -> new ArrayList<SesionBase>()).add(sesion) ;
+                    sesionesPorGrupo.computeIfAbsent(sesion.getCursoEtapaGrupoString() + "|" + tipoHorario, clave -> new ArrayList<SesionBase>()).add(sesion) ;
+                }
+            }
+        }
+
+        AnalizadorFactibilidadGenerador.agregarValoresContados(sesionesSinHuecos, sesionesSinHuecosContadas) ;
+
+        // Un profesor no puede tener dos sesiones en el mismo día y tramo, sean del grupo que sean
+        for (List<SesionBase> sesionesProfesor : sesionesPorProfesor.values())
+        {
+            SesionBase primeraSesion = sesionesProfesor.get(0) ;
+            String profesor          = "Profesor " + primeraSesion.getProfesor().getNombre() + " " + primeraSesion.getProfesor().getApellidos() +
+                                       " (" + AnalizadorFactibilidadGenerador.describirTipoHorario(primeraSesion.isTipoHorarioMatutino()) + ")" ;
+
+            AnalizadorFactibilidadGenerador.analizarSesionesExclusivas(profesoresSinHuecos, profesor, sesionesProfesor, 0, 0L, false) ;
+        }
+
+        // En un grupo, las asignaturas no optativas ocupan la celda entera; las optativas la comparten con las de su bloque,
+        // pero cada bloque necesita tantas celdas libres de las demás como horas tiene su optativa con más horas, y las
+        // reducciones no ocupan la celda
+        for (List<SesionBase> sesionesGrupo : sesionesPorGrupo.values())
+        {
+            List<SesionBase> sesionesNoOptativas              = new ArrayList<SesionBase>() ;
+            Map<Long, Map<String, Integer>> sesionesPorBloque = new LinkedHashMap<Long, Map<String, Integer>>() ;
+            long huecosOptativas                              = 0L ;
+
+            for (SesionBase sesion : sesionesGrupo)
+            {
+                if (sesion instanceof SesionAsignatura && !((SesionAsignatura) sesion).isOptativa())
+                {
+                    sesionesNoOptativas.add(sesion) ;
+                }
+                else if (sesion instanceof SesionAsignatura)
+                {
+                    huecosOptativas = huecosOptativas | AnalizadorFactibilidadGenerador.obtenerHuecosPosibles(sesion) ;
+
+                    // Contamos las horas de cada optativa y profesor por separado, para no sumar las de una optativa con varios profesores
+                    SesionAsignatura sesionAsignatura = (SesionAsignatura) sesion ;
+                    sesionesPorBloque.computeIfAbsent(sesionAsignatura.getAsignatura().getBloqueId().getId(), bloque -> new LinkedHashMap<String, Integer>())
+                                     .merge(sesionAsignatura.getAsignatura().getIdAsignatura().getNombre() + "|" + sesion.getIndiceProfesor(), 1, Integer::sum) ;
+                }
+            }
+
+            int celdasOptativas = 0 ;
+            for (Map<String, Integer> sesionesBloque : sesionesPorBloque.values())
+            {
+                celdasOptativas = celdasOptativas + Collections.max(sesionesBloque.values()) ;
+            }
+
+            if (!sesionesNoOptativas.isEmpty())
+            {
+                SesionBase primeraSesion = sesionesNoOptativas.get(0) ;
+                String grupo             = "Grupo " + primeraSesion.getCursoEtapaGrupoString() +
+                                           " (" + AnalizadorFactibilidadGenerador.describirTipoHorario(primeraSesion.isTipoHorarioMatutino()) + ")" ;
+
+                AnalizadorFactibilidadGenerador.analizarSesionesExclusivas(gruposSinHuecos, grupo, sesionesNoOptativas, celdasOptativas, huecosOptativas, true) ;
+            }
+        }
+
+        List<ErroresDatosDto> outcome = new ArrayList<ErroresDatosDto>() ;
+
+        for (ErroresDatosDto erroresDatosDto : Arrays.asList(sesionesSinHuecos, profesoresSinHuecos, gruposSinHuecos))
+        {
+            if (!erroresDatosDto.getValoresImplicados().isEmpty())
+            {
+                outcome.add(erroresDatosDto) ;
+            }
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * Comprueba que unas sesiones que no pueden coincidir en el mismo día y tramo caben en sus días y tramos posibles
+     *
+     * @param erroresDatosDto error al que se añade el conflicto, si lo hay
+     * @param entidad descripción del profesor o grupo de las sesiones
+     * @param sesiones sesiones que no pueden coincidir entre sí
+     * @param celdasAdicionales celdas que además necesitan otras sesiones de la entidad (las optativas del grupo)
+     * @param huecosAdicionales días y tramos posibles de esas otras sesiones
+     * @param indicarProfesor true si en la descripción de las sesiones se indica el profesor (en los grupos)
+     */
+    private static void analizarSesionesExclusivas(ErroresDatosDto erroresDatosDto, String entidad, List<SesionBase> sesiones,
+                                                   int celdasAdicionales, long huecosAdicionales, boolean indicarProfesor)
+    {
+        long[] huecosSesiones = new long[sesiones.size()] ;
+        long huecosEntidad    = huecosAdicionales ;
+
+        for (int i = 0 ; i < sesiones.size() ; i++)
+        {
+            huecosSesiones[i] = AnalizadorFactibilidadGenerador.obtenerHuecosPosibles(sesiones.get(i)) ;
+            huecosEntidad     = huecosEntidad | huecosSesiones[i] ;
+        }
+
+        int numeroSesiones = sesiones.size() + celdasAdicionales ;
+        int numeroHuecos   = Long.bitCount(huecosEntidad) ;
+
+        // Principio del palomar: más sesiones que días y tramos posibles en total
+        if (numeroSesiones > numeroHuecos)
+        {
+            erroresDatosDto.agregarValorImplicado(entidad + ": " + numeroSesiones + " sesiones para " + numeroHuecos + " días y tramos posibles") ;
+        }
+        else
+        {
+            // Emparejamiento máximo entre sesiones y días y tramos, con caminos de aumento
+            int[] sesionPorHueco = new int[NUMERO_POSICIONES_SEMANA] ;
+            Arrays.fill(sesionPorHueco, -1) ;
+
+            int sesionSinHueco = -1 ;
+            int i              = 0 ;
+            while (i < huecosSesiones.length && sesionSinHueco == -1)
+            {
+                if (!AnalizadorFactibilidadGenerador.buscarCaminoAumento(i, huecosSesiones, sesionPorHueco, new long[1]))
+                {
+                    sesionSinHueco = i ;
+                }
+
+                i++ ;
+            }
+
+            if (sesionSinHueco != -1)
+            {
+                AnalizadorFactibilidadGenerador.agregarConjuntoSinHuecos(erroresDatosDto, entidad, sesiones, huecosSesiones, sesionPorHueco,
+                                                                        sesionSinHueco, indicarProfesor) ;
+            }
+        }
+    }
+
+    /**
+     * @param sesion índice de la sesión a emparejar
+     * @param huecosSesiones días y tramos posibles de cada sesión
+     * @param sesionPorHueco sesión emparejada con cada día y tramo (-1 si está libre)
+     * @param visitados días y tramos ya visitados en esta búsqueda (un único elemento)
+     * @return true si se ha encontrado un camino de aumento y la sesión ha quedado emparejada
+     */
+    private static boolean buscarCaminoAumento(int sesion, long[] huecosSesiones, int[] sesionPorHueco, long[] visitados)
+    {
+        boolean outcome = false ;
+
+        long pendientes = huecosSesiones[sesion] & ~visitados[0] ;
+        while (pendientes != 0L && !outcome)
+        {
+            int hueco  = Long.numberOfTrailingZeros(pendientes) ;
+            pendientes = pendientes & (pendientes - 1L) ;
+
+            visitados[0] = visitados[0] | (1L << hueco) ;
+
+            // El hueco está libre o la sesión que lo ocupa puede moverse a otro
+            if (sesionPorHueco[hueco] == -1 || AnalizadorFactibilidadGenerador.buscarCaminoAumento(sesionPorHueco[hueco], huecosSesiones, sesionPorHueco, visitados))
+            {
+                sesionPorHueco[hueco] = sesion ;
+                outcome               = true ;
+            }
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * Con el emparejamiento máximo, las sesiones alcanzables desde la que se ha quedado sin hueco por caminos alternados solo
+     * pueden ir a días y tramos ya ocupados por otras de ellas, así que son una sesión más que sus días y tramos posibles
+     *
+     * @param erroresDatosDto error al que se añade el conflicto
+     * @param entidad descripción del profesor o grupo de las sesiones
+     * @param sesiones sesiones que no pueden coincidir entre sí
+     * @param huecosSesiones días y tramos posibles de cada sesión
+     * @param sesionPorHueco emparejamiento máximo entre días y tramos y sesiones
+     * @param sesionSinHueco sesión que se ha quedado sin emparejar
+     * @param indicarProfesor true si en la descripción de las sesiones se indica el profesor
+     */
+    private static void agregarConjuntoSinHuecos(ErroresDatosDto erroresDatosDto, String entidad, List<SesionBase> sesiones, long[] huecosSesiones,
+                                                 int[] sesionPorHueco, int sesionSinHueco, boolean indicarProfesor)
+    {
+        boolean[] sesionesConjunto = new boolean[sesiones.size()] ;
+        long huecosConjunto        = 0L ;
+
+        Deque<Integer> pendientes = new ArrayDeque<Integer>() ;
+        pendientes.add(sesionSinHueco) ;
+        sesionesConjunto[sesionSinHueco] = true ;
+
+        while (!pendientes.isEmpty())
+        {
+            long huecosNuevos = huecosSesiones[pendientes.poll()] & ~huecosConjunto ;
+            huecosConjunto    = huecosConjunto | huecosNuevos ;
+
+            while (huecosNuevos != 0L)
+            {
+                int hueco    = Long.numberOfTrailingZeros(huecosNuevos) ;
+                huecosNuevos = huecosNuevos & (huecosNuevos - 1L) ;
+
+                int sesionHueco = sesionPorHueco[hueco] ;
+                if (!sesionesConjunto[sesionHueco])
+                {
+                    sesionesConjunto[sesionHueco] = true ;
+                    pendientes.add(sesionHueco) ;
+                }
+            }
+        }
+
+        Map<String, Integer> sesionesContadas = new LinkedHashMap<String, Integer>() ;
+        for (int i = 0 ; i < sesiones.size() ; i++)
+        {
+            if (sesionesConjunto[i])
+            {
+                sesionesContadas.merge(AnalizadorFactibilidadGenerador.describirSesion(sesiones.get(i), indicarProfesor), 1, Integer::sum) ;
+            }
+        }
+
+        StringBuilder valor = new StringBuilder(entidad) ;
+        valor.append(": ").append(Long.bitCount(huecosConjunto) + 1).append(" sesiones solo pueden ir en ")
+             .append(AnalizadorFactibilidadGenerador.describirHuecos(huecosConjunto)).append(" - ") ;
+
+        String separador = "" ;
+        for (Map.Entry<String, Integer> sesionContada : sesionesContadas.entrySet())
+        {
+            valor.append(separador).append(AnalizadorFactibilidadGenerador.describirValorContado(sesionContada.getKey(), sesionContada.getValue())) ;
+            separador = ", " ;
+        }
+
+        erroresDatosDto.agregarValorImplicado(valor.toString()) ;
+    }
+
+    /**
+     * @param sesion sesión
+     * @return máscara con los días y tramos donde podría asignarse la sesión sin incumplir sus restricciones iniciales
+     */
+    private static long obtenerHuecosPosibles(SesionBase sesion)
+    {
+        long outcome = MASCARA_SEMANA ;
+
+        if (sesion.getRestriccionHorariaInit() != null)
+        {
+            outcome = sesion.getRestriccionHorariaInit().getRestriccionesHorarias() ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @param sesion sesión
+     * @param indicarProfesor true si se indica el profesor de la sesión
+     * @return descripción de la sesión (asignatura o reducción y grupo)
+     */
+    private static String describirSesion(SesionBase sesion, boolean indicarProfesor)
+    {
+        String outcome = null ;
+
+        if (sesion instanceof SesionAsignatura)
+        {
+            outcome = ((SesionAsignatura) sesion).getAsignatura().getIdAsignatura().getNombre() ;
+        }
+        else
+        {
+            outcome = "Reducción " + ((SesionReduccion) sesion).getReduccion().getIdReduccion().getNombre() ;
+        }
+
+        outcome = outcome + " en " + sesion.getCursoEtapaGrupoString() ;
+
+        if (indicarProfesor)
+        {
+            outcome = outcome + " con " + sesion.getProfesor().getNombre() + " " + sesion.getProfesor().getApellidos() ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @param huecos máscara de días y tramos
+     * @return descripción de los días y tramos (día y tramo empezando en 1)
+     */
+    private static String describirHuecos(long huecos)
+    {
+        StringBuilder outcome = new StringBuilder() ;
+        outcome.append(Long.bitCount(huecos)).append(" días y tramos (") ;
+
+        String separador = "" ;
+        long pendientes  = huecos ;
+        while (pendientes != 0L)
+        {
+            int posicion = Long.numberOfTrailingZeros(pendientes) ;
+            pendientes   = pendientes & (pendientes - 1L) ;
+
+            outcome.append(separador).append("día ").append((posicion / Constants.NUMERO_TRAMOS_HORARIOS) + 1)
+                   .append(" tramo ").append((posicion % Constants.NUMERO_TRAMOS_HORARIOS) + 1) ;
+            separador = ", " ;
+        }
+
+        return outcome.append(")").toString() ;
+    }
+
+    /**
+     * @param tipoHorarioMatutino true si es horario matutino
+     * @return descripción del tipo de horario
+     */
+    private static String describirTipoHorario(boolean tipoHorarioMatutino)
+    {
+        return tipoHorarioMatutino ? "matutino" : "vespertino" ;
+    }
+
+    /**
+     * @param erroresDatosDto error al que se añaden los valores
+     * @param valoresContados valores con el número de veces que aparecen
+     */
+    private static void agregarValoresContados(ErroresDatosDto erroresDatosDto, Map<String, Integer> valoresContados)
+    {
+        for (Map.Entry<String, Integer> valorContado : valoresContados.entrySet())
+        {
+            erroresDatosDto.agregarValorImplicado(AnalizadorFactibilidadGenerador.describirValorContado(valorContado.getKey(), valorContado.getValue())) ;
+        }
+    }
+
+    /**
+     * @param valor valor
+     * @param veces número de veces que aparece
+     * @return el valor, indicando cuántas veces aparece si es más de una
+     */
+    private static String describirValorContado(String valor, int veces)
+    {
+        return veces > 1 ? valor + " (x" + veces + ")" : valor ;
+    }
+}
@@ -0,0 +1,343 @@
+package es.iesjandula.reaktor.school_manager_server.generator.puntuacion;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import es.iesjandula.reaktor.school_manager_server.generator.Horario;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.MatrizAsignaciones;
+import es.iesjandula.reaktor.school_manager_server.models.PreferenciasHorariasProfesor;
+import es.iesjandula.reaktor.school_manager_server.models.Profesor;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionAsignatura;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
+
+/**
+ * Calcula la puntuación de un horario directamente sobre sus matrices de asignaciones, sin pasar por BBDD.
+ * <p>Cuenta los huecos entre sesiones y las preferencias diarias y concretas de cada profesor
+ * únicamente con las sesiones de asignaturas y no con las de reducciones.</p>
+ */
+public class CalculadorPuntuacion
+{
+    /**
+     * @param horario horario a puntuar
+     * @return puntuación del horario con su desglose general y por profesor
+     */
+    public PuntuacionHorario calcularPuntuacion(Horario horario)
+    {
+        PuntuacionHorario puntuacionHorario = new PuntuacionHorario() ;
+
+        // Calculamos la puntuación total matutina
+        int puntuacionTotal = this.calcularPuntuacionTipoHorario(horario.getMatrizAsignacionesMatutinas(), true, puntuacionHorario) ;
+
+        // Añadimos la puntuación total vespertina
+        puntuacionTotal     = puntuacionTotal + this.calcularPuntuacionTipoHorario(horario.getMatrizAsignacionesVespertinas(), false, puntuacionHorario) ;
+
+        puntuacionHorario.setPuntuacionTotal(puntuacionTotal) ;
+
+        return puntuacionHorario ;
+    }
+
+    /**
+     * Aportación de un profesor a la puntuación de su tipo de horario, sin contar la parte constante que depende del número de profesores.
+     * <p>La puntuación de un tipo de horario es esa parte constante más la suma de las aportaciones de sus profesores, así que
+     * la diferencia de puntuación al mover sesiones es la diferencia de las aportaciones de los profesores afectados.</p>
+     *
+     * @param profesor profesor
+     * @param sesiones número de sesiones del profesor por día y tramo
+     * @return aciertos en las preferencias diarias y concretas menos los huecos entre sesiones
+     */
+    public int calcularAportacionProfesor(Profesor profesor, int[][] sesiones)
+    {
+        return this.contarHitsPreferenciasDiarias(profesor, sesiones) +
+               this.contarHitsPreferenciasConcretas(profesor, sesiones) -
+               this.contarHuecosEntreSesiones(sesiones) ;
+    }
+
+    /**
+     * @param matrizAsignaciones matriz de asignaciones
+     * @param esMatutino indica si es matutino
+     * @param puntuacionHorario puntuación del horario donde se registra el desglose
+     * @return puntuación de un tipo de horario
+     */
+    private int calcularPuntuacionTipoHorario(MatrizAsignaciones matrizAsignaciones, boolean esMatutino, PuntuacionHorario puntuacionHorario)
+    {
+        int puntuacionTotal = 0 ;
+
+        // Obtenemos las sesiones de cada profesor por día y tramo
+        Map<Profesor, int[][]> sesionesProfesores = this.obtenerSesionesProfesores(matrizAsignaciones) ;
+
+        // Si hay profesores, calculamos la puntuación
+        if (!sesionesProfesores.isEmpty())
+        {
+            // Obtenemos el número de profesores
+            int numeroProfesores = sesionesProfesores.size() ;
+
+            int generalHuecosEntreSesiones       = 0 ;
+            int generalHitsPreferenciasDiarias   = 0 ;
+            int generalHitsPreferenciasConcretas = 0 ;
+
+            // Iteramos por cada profesor
+            for (Map.Entry<Profesor, int[][]> entry : sesionesProfesores.entrySet())
+            {
+                Profesor profesor = entry.getKey() ;
+                int[][] sesiones  = entry.getValue() ;
+
+                generalHuecosEntreSesiones       = generalHuecosEntreSesiones       + this.calcularHuecosEntreSesionesProfesor(profesor, sesiones, esMatutino, puntuacionHorario) ;
+                generalHitsPreferenciasDiarias   = generalHitsPreferenciasDiarias   + this.calcularHitsPreferenciasDiariasProfesor(profesor, sesiones, esMatutino, puntuacionHorario) ;
+                generalHitsPreferenciasConcretas = generalHitsPreferenciasConcretas + this.calcularHitsPreferenciasConcretasProfesor(profesor, sesiones, esMatutino, puntuacionHorario) ;
+            }
+
+            // Calculamos las puntuaciones generales y las sumamos
+            puntuacionTotal = this.calcularPuntuacionHuecosEntreSesionesGeneral(esMatutino, numeroProfesores, generalHuecosEntreSesiones, puntuacionHorario) +
+                              this.calcularPuntuacionHitsPreferenciasDiariasGeneral(esMatutino, numeroProfesores, generalHitsPreferenciasDiarias, puntuacionHorario) +
+                              this.calcularPuntuacionHitsPreferenciasConcretasGeneral(esMatutino, numeroProfesores, generalHitsPreferenciasConcretas, puntuacionHorario) ;
+        }
+
+        return puntuacionTotal ;
+    }
+
+    /**
+     * @param matrizAsignaciones matriz de asignaciones
+     * @return mapa con el número de sesiones de asignaturas de cada profesor por día y tramo
+     */
+    private Map<Profesor, int[][]> obtenerSesionesProfesores(MatrizAsignaciones matrizAsignaciones)
+    {
+        Map<Profesor, int[][]> sesionesProfesores = new LinkedHashMap<Profesor, int[][]>() ;
+
+        if (matrizAsignaciones != null)
+        {
+            for (int i = 0 ; i < matrizAsignaciones.getNumeroCursosDias() ; i++)
+            {
+                // Aplicamos el módulo 5 al día
+                int dia = i % Constants.NUMERO_DIAS_SEMANA ;
+
+                for (int tramo = 0 ; tramo < Constants.NUMERO_TRAMOS_HORARIOS ; tramo++)
+                {
+                    int indiceSesion = matrizAsignaciones.obtenerPrimeraSesion(i, tramo) ;
+                    while (indiceSesion != MatrizAsignaciones.SIN_SESION)
+                    {
+                        SesionBase sesion = matrizAsignaciones.obtenerSesion(indiceSesion) ;
+
+                        // Solo las sesiones de asignaturas se tienen en cuenta en la puntuación
+                        if (sesion instanceof SesionAsignatura)
+                        {
+                            sesionesProfesores.computeIfAbsent(sesion.getProfesor(),
+                                                               profesor -> new int[Constants.NUMERO_DIAS_SEMANA][Constants.NUMERO_TRAMOS_HORARIOS])[dia][tramo]++ ;
+                        }
+
+                        indiceSesion = matrizAsignaciones.obtenerSiguienteSesion(indiceSesion) ;
+                    }
+                }
+            }
+        }
+
+        return sesionesProfesores ;
+    }
+
+    /**
+     * @param profesor profesor
+     * @param sesiones número de sesiones del profesor por día y tramo
+     * @param esMatutino indica si es matutino
+     * @param puntuacionHorario puntuación del horario donde se registra el desglose
+     * @return huecos entre sesiones del profesor
+     */
+    private int calcularHuecosEntreSesionesProfesor(Profesor profesor, int[][] sesiones, boolean esMatutino, PuntuacionHorario puntuacionHorario)
+    {
+        int huecosEntreSesionesProfesor = this.contarHuecosEntreSesiones(sesiones) ;
+
+        // Calculamos el factor de puntuación
+        double porcentajeHuecosEntreSesionesProfesor = 100.00d * (((double) huecosEntreSesionesProfesor / Constants.FACTOR_HUECOS) / Constants.FACTOR_DIVISOR_HUECOS) ;
+
+        puntuacionHorario.registrarInfoProfesor(profesor, Constants.SOL_INFO_HUECOS, esMatutino, huecosEntreSesionesProfesor, porcentajeHuecosEntreSesionesProfesor) ;
+
+        return huecosEntreSesionesProfesor ;
+    }
+
+    /**
+     * @param sesiones número de sesiones del profesor por día y tramo
+     * @return huecos entre sesiones del profesor
+     */
+    private int contarHuecosEntreSesiones(int[][] sesiones)
+    {
+        int huecosEntreSesionesProfesor = 0 ;
+
+        for (int dia = 0 ; dia < Constants.NUMERO_DIAS_SEMANA ; dia++)
+        {
+            int tramoMinimo    = -1 ;
+            int tramoMaximo    = -1 ;
+            int numeroSesiones = 0 ;
+
+            for (int tramo = 0 ; tramo < Constants.NUMERO_TRAMOS_HORARIOS ; tramo++)
+            {
+                if (sesiones[dia][tramo] > 0)
+                {
+                    if (tramoMinimo == -1)
+                    {
+                        tramoMinimo = tramo ;
+                    }
+
+                    tramoMaximo    = tramo ;
+                    numeroSesiones = numeroSesiones + sesiones[dia][tramo] ;
+                }
+            }
+
+            // Un hueco es un tramo libre entre la primera y la última sesión del día
+            if (numeroSesiones > 0)
+            {
+                huecosEntreSesionesProfesor = huecosEntreSesionesProfesor + (tramoMaximo - tramoMinimo + 1) - numeroSesiones ;
+            }
+        }
+
+        return huecosEntreSesionesProfesor ;
+    }
+
+    /**
+     * @param profesor profesor
+     * @param sesiones número de sesiones del profesor por día y tramo
+     * @param esMatutino indica si es matutino
+     * @param puntuacionHorario puntuación del horario donde se registra el desglose
+     * @return aciertos en la preferencia de no tener clase a primera hora o no tener clase a última hora
+     */
+    private int calcularHitsPreferenciasDiariasProfesor(Profesor profesor, int[][] sesiones, boolean esMatutino, PuntuacionHorario puntuacionHorario)
+    {
+        int preferenciasDiariasProfesor = this.contarHitsPreferenciasDiarias(profesor, sesiones) ;
+
+        // Calculamos el factor de puntuación
+        double porcentajePreferenciasDiariasProfesor = 100.00d * ((double) preferenciasDiariasProfesor / Constants.NUMERO_DIAS_SEMANA) ;
+
+        puntuacionHorario.registrarInfoProfesor(profesor, Constants.SOL_INFO_PREFERENCIAS_DIARIAS, esMatutino, preferenciasDiariasProfesor, porcentajePreferenciasDiariasProfesor) ;
+
+        return preferenciasDiariasProfesor ;
+    }
+
+    /**
+     * @param profesor profesor
+     * @param sesiones número de sesiones del profesor por día y tramo
+     * @return aciertos en la preferencia de no tener clase a primera hora o no tener clase a última hora
+     */
+    private int contarHitsPreferenciasDiarias(Profesor profesor, int[][] sesiones)
+    {
+        // Elegimos el tramo que el profesor prefiere evitar
+        int tramoEvitar = Constants.TRAMO_HORARIO_SEXTA_HORA ;
+        if (profesor.getObservacionesAdicionales().getSinClasePrimeraHora())
+        {
+            tramoEvitar = Constants.TRAMO_HORARIO_PRIMERA_HORA ;
+        }
+
+        // Contamos las sesiones que tiene en ese tramo
+        int sesionesEnTramoEvitar = 0 ;
+        for (int dia = 0 ; dia < Constants.NUMERO_DIAS_SEMANA ; dia++)
+        {
+            sesionesEnTramoEvitar = sesionesEnTramoEvitar + sesiones[dia][tramoEvitar] ;
+        }
+
+        // Invertimos el valor ya que lo que encuentra es lo que no quería
+        return Constants.NUMERO_DIAS_SEMANA - sesionesEnTramoEvitar ;
+    }
+
+    /**
+     * @param profesor profesor
+     * @param sesiones número de sesiones del profesor por día y tramo
+     * @param esMatutino indica si es matutino
+     * @param puntuacionHorario puntuación del horario donde se registra el desglose
+     * @return aciertos en la preferencia de no tener clase en unas horas determinadas
+     */
+    private int calcularHitsPreferenciasConcretasProfesor(Profesor profesor, int[][] sesiones, boolean esMatutino, PuntuacionHorario puntuacionHorario)
+    {
+        int hitsPreferenciasConcretasProfesor = this.contarHitsPreferenciasConcretas(profesor, sesiones) ;
+
+        // Calculamos el factor de puntuación
+        double porcentajePreferenciasConcretasProfesor = 100.00d * ((double) hitsPreferenciasConcretasProfesor / Constants.NUMERO_MAXIMO_PREFERENCIAS_CONCRETAS) ;
+
+        puntuacionHorario.registrarInfoProfesor(profesor, Constants.SOL_INFO_PREFERENCIAS_CONCRETAS, esMatutino, hitsPreferenciasConcretasProfesor, porcentajePreferenciasConcretasProfesor) ;
+
+        return hitsPreferenciasConcretasProfesor ;
+    }
+
+    /**
+     * @param profesor profesor
+     * @param sesiones número de sesiones del profesor por día y tramo
+     * @return aciertos en la preferencia de no tener clase en unas horas determinadas
+     */
+    private int contarHitsPreferenciasConcretas(Profesor profesor, int[][] sesiones)
+    {
+        int hitsPreferenciasConcretasProfesor = 0 ;
+
+        List<PreferenciasHorariasProfesor> preferenciasHorariasProfesor = profesor.getPreferenciasHorariasProfesor() ;
+
+        if (preferenciasHorariasProfesor != null)
+        {
+            for (PreferenciasHorariasProfesor preferenciaHorariaProfesor : preferenciasHorariasProfesor)
+            {
+                int dia   = preferenciaHorariaProfesor.getDiaTramoTipoHorario().getDia() ;
+                int tramo = preferenciaHorariaProfesor.getDiaTramoTipoHorario().getTramo() ;
+
+                // Si no tiene sesión en ese día y tramo es cuando cuenta como hit
+                boolean tieneSesion = dia >= 0 && dia < Constants.NUMERO_DIAS_SEMANA && tramo >= 0 && tramo < Constants.NUMERO_TRAMOS_HORARIOS &&
+                                      sesiones[dia][tramo] > 0 ;
+                if (!tieneSesion)
+                {
+                    hitsPreferenciasConcretasProfesor++ ;
+                }
+            }
+        }
+
+        return hitsPreferenciasConcretasProfesor ;
+    }
+
+    /**
+     * @param esMatutino indica si es matutino
+     * @param numeroProfesores número de profesores
+     * @param generalHuecosEntreSesiones huecos entre sesiones de todos los profesores
+     * @param puntuacionHorario puntuación del horario donde se registra el desglose
+     * @return puntuación general basada en los huecos entre sesiones
+     */
+    private int calcularPuntuacionHuecosEntreSesionesGeneral(boolean esMatutino, int numeroProfesores, int generalHuecosEntreSesiones, PuntuacionHorario puntuacionHorario)
+    {
+        // Calculamos el porcentaje de huecos entre sesiones de entre todos los profesores
+        double porcentajeHuecosEntreSesionesGeneral = 100.00d * ((generalHuecosEntreSesiones / Constants.FACTOR_HUECOS) / (Constants.FACTOR_DIVISOR_HUECOS * numeroProfesores)) ;
+
+        puntuacionHorario.registrarInfoGeneral(Constants.SOL_INFO_HUECOS, esMatutino, generalHuecosEntreSesiones, porcentajeHuecosEntreSesionesGeneral) ;
+
+        // Devolvemos la puntuación basada en que el peor escenario sería que hubiera 12 huecos entre sesiones de cada profesor
+        return (int) ((Constants.FACTOR_HUECOS * Constants.FACTOR_DIVISOR_HUECOS * numeroProfesores) - generalHuecosEntreSesiones) ;
+    }
+
+    /**
+     * @param esMatutino indica si es matutino
+     * @param numeroProfesores número de profesores
+     * @param generalHitsPreferenciasDiarias aciertos en las preferencias diarias de todos los profesores
+     * @param puntuacionHorario puntuación del horario donde se registra el desglose
+     * @return puntuación general basada en la preferencia de no tener clase a primera hora o no tener clase a última hora
+     */
+    private int calcularPuntuacionHitsPreferenciasDiariasGeneral(boolean esMatutino, int numeroProfesores, int generalHitsPreferenciasDiarias, PuntuacionHorario puntuacionHorario)
+    {
+        // Se mantiene la división entera original para obtener exactamente el mismo porcentaje
+        double numeradorOperacion = (double) (generalHitsPreferenciasDiarias / Constants.NUMERO_DIAS_SEMANA) ;
+
+        // Calculamos el porcentaje de preferencia de no tener clase a primera hora o no tener clase a última hora
+        double porcentajePreferenciasDiariasGeneral = 100.00d * (numeradorOperacion / numeroProfesores) ;
+
+        puntuacionHorario.registrarInfoGeneral(Constants.SOL_INFO_PREFERENCIAS_DIARIAS, esMatutino, generalHitsPreferenciasDiarias, porcentajePreferenciasDiariasGeneral) ;
+
+        return generalHitsPreferenciasDiarias ;
+    }
+
+    /**
+     * @param esMatutino indica si es matutino
+     * @param numeroProfesores número de profesores
+     * @param generalHitsPreferenciasConcretas aciertos en las preferencias concretas de todos los profesores
+     * @param puntuacionHorario puntuación del horario donde se registra el desglose
+     * @return puntuación general basada en la preferencia de no tener clase en unas horas determinadas
+     */
+    private int calcularPuntuacionHitsPreferenciasConcretasGeneral(boolean esMatutino, int numeroProfesores, int generalHitsPreferenciasConcretas, PuntuacionHorario puntuacionHorario)
+    {
+        // Calculamos el porcentaje de preferencia de no tener clase en unas horas determinadas
+        double porcentajePreferenciasConcretasGeneral = 100.00d * ((double) generalHitsPreferenciasConcretas / (Constants.NUMERO_MAXIMO_PREFERENCIAS_CONCRETAS * numeroProfesores)) ;
+
+        puntuacionHorario.registrarInfoGeneral(Constants.SOL_INFO_PREFERENCIAS_CONCRETAS, esMatutino, generalHitsPreferenciasConcretas, porcentajePreferenciasConcretasGeneral) ;
+
+        return generalHitsPreferenciasConcretas ;
+    }
+}
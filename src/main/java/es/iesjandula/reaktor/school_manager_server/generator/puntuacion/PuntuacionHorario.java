@@ -0,0 +1,90 @@
+package es.iesjandula.reaktor.school_manager_server.generator.puntuacion;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import es.iesjandula.reaktor.school_manager_server.models.Profesor;
+
+/**
+ * Resultado de puntuar un horario en memoria. Contiene la puntuación total y el desglose general y por profesor
+ * que se guardará en BBDD únicamente si la solución se acepta
+ */
+public class PuntuacionHorario
+{
+    /** Puntuación total (matutina + vespertina) */
+    private int puntuacionTotal ;
+
+    /** Información general por tipo de información de la solución */
+    private Map<String, PuntuacionHorarioInfo> infoGeneral ;
+
+    /** Información de cada profesor por tipo de información de la solución */
+    private Map<Profesor, Map<String, PuntuacionHorarioInfo>> infoProfesores ;
+
+    /**
+     * Constructor de la clase
+     */
+    public PuntuacionHorario()
+    {
+        this.puntuacionTotal = 0 ;
+        this.infoGeneral     = new LinkedHashMap<String, PuntuacionHorarioInfo>() ;
+        this.infoProfesores  = new LinkedHashMap<Profesor, Map<String, PuntuacionHorarioInfo>>() ;
+    }
+
+    /**
+     * @return puntuación total (matutina + vespertina)
+     */
+    public int getPuntuacionTotal()
+    {
+        return this.puntuacionTotal ;
+    }
+
+    /**
+     * @param puntuacionTotal puntuación total (matutina + vespertina)
+     */
+    public void setPuntuacionTotal(int puntuacionTotal)
+    {
+        this.puntuacionTotal = puntuacionTotal ;
+    }
+
+    /**
+     * @return información general por tipo de información de la solución
+     */
+    public Map<String, PuntuacionHorarioInfo> getInfoGeneral()
+    {
+        return this.infoGeneral ;
+    }
+
+    /**
+     * @return información de cada profesor por tipo de información de la solución
+     */
+    public Map<Profesor, Map<String, PuntuacionHorarioInfo>> getInfoProfesores()
+    {
+        return this.infoProfesores ;
+    }
+
+    /**
+     * @param tipo tipo de información de la solución
+     * @param esMatutino true si es horario matutino
+     * @param puntuacion puntuación
+     * @param porcentaje porcentaje
+     */
+    public void registrarInfoGeneral(String tipo, boolean esMatutino, double puntuacion, double porcentaje)
+    {
+        this.infoGeneral.computeIfAbsent(tipo, clave -> new PuntuacionHorarioInfo())
+                        .asignar(esMatutino, puntuacion, porcentaje) ;
+    }
+
+    /**
+     * @param profesor profesor
+     * @param tipo tipo de información de la solución
+     * @param esMatutino true si es horario matutino
+     * @param puntuacion puntuación
+     * @param porcentaje porcentaje
+     */
+    public void registrarInfoProfesor(Profesor profesor, String tipo, boolean esMatutino, double puntuacion, double porcentaje)
+    {
+        this.infoProfesores.computeIfAbsent(profesor, clave -> new LinkedHashMap<String, PuntuacionHorarioInfo>())
+                           .computeIfAbsent(tipo, clave -> new PuntuacionHorarioInfo())
+                           .asignar(esMatutino, puntuacion, porcentaje) ;
+    }
+}
@@ -0,0 +1,42 @@
+package es.iesjandula.reaktor.school_manager_server.generator.puntuacion;
+
+import lombok.Data;
+
+/**
+ * Puntuación y porcentaje de un tipo de información de la solución (huecos, preferencias diarias o concretas),
+ * distinguiendo entre horario matutino y vespertino
+ */
+@Data
+public class PuntuacionHorarioInfo
+{
+    /** Puntuación matutina */
+    private double puntuacionMatutina ;
+
+    /** Puntuación vespertina */
+    private double puntuacionVespertina ;
+
+    /** Porcentaje matutino */
+    private double porcentajeMatutina ;
+
+    /** Porcentaje vespertino */
+    private double porcentajeVespertina ;
+
+    /**
+     * @param esMatutino true si es horario matutino
+     * @param puntuacion puntuación
+     * @param porcentaje porcentaje
+     */
+    public void asignar(boolean esMatutino, double puntuacion, double porcentaje)
+    {
+        if (esMatutino)
+        {
+            this.puntuacionMatutina = puntuacion ;
+            this.porcentajeMatutina = porcentaje ;
+        }
+        else
+        {
+            this.puntuacionVespertina = puntuacion ;
+            this.porcentajeVespertina = porcentaje ;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package es.iesjandula.reaktor.school_manager_server.generator.sesiones;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import es.iesjandula.reaktor.school_manager_server.models.Asignatura;
+
+/**
+ * Índice inmutable de los bloques de optativas de las asignaturas que participan en la generación.
+ * <p>Se construye una única vez al configurar el generador y lo comparten todos los hilos, de forma que
+ * saber si dos asignaturas son optativas del mismo bloque no requiere ninguna consulta a BBDD.</p>
+ */
+public class IndiceBloquesOptativas
+{
+    /** Para cada índice de asignatura, las asignaturas de su mismo bloque de optativas (sin incluirse a sí misma) */
+    private final BitSet[] optativasRelacionadas ;
+
+    /**
+     * @param indicesAsignaturas índice asignado a cada asignatura que participa en la generación
+     */
+    public IndiceBloquesOptativas(Map<Asignatura, Integer> indicesAsignaturas)
+    {
+        this.optativasRelacionadas = new BitSet[indicesAsignaturas.size()] ;
+
+        // Agrupamos las asignaturas optativas por su bloque
+        Map<Long, BitSet> asignaturasPorBloque = new HashMap<Long, BitSet>() ;
+        for (Map.Entry<Asignatura, Integer> entry : indicesAsignaturas.entrySet())
+        {
+            if (entry.getKey().isOptativa())
+            {
+                asignaturasPorBloque.computeIfAbsent(entry.getKey().getBloqueId().getId(), clave -> new BitSet())
+                                    .set(entry.getValue()) ;
+            }
+        }
+
+        // Para cada asignatura, guardamos el resto de asignaturas de su bloque
+        for (Map.Entry<Asignatura, Integer> entry : indicesAsignaturas.entrySet())
+        {
+            BitSet relacionadas = new BitSet() ;
+
+            if (entry.getKey().isOptativa())
+            {
+                relacionadas.or(asignaturasPorBloque.get(entry.getKey().getBloqueId().getId())) ;
+                relacionadas.clear(entry.getValue()) ;
+            }
+
+            this.optativasRelacionadas[entry.getValue()] = relacionadas ;
+        }
+    }
+
+    /**
+     * @param indiceAsignatura índice de la asignatura
+     * @param indiceOtraAsignatura índice de la otra asignatura
+     * @return true si la otra asignatura es una optativa distinta del mismo bloque que la asignatura
+     */
+    public boolean optativasRelacionadas(int indiceAsignatura, int indiceOtraAsignatura)
+    {
+        return this.optativasRelacionadas[indiceAsignatura].get(indiceOtraAsignatura) ;
+    }
+
+    /**
+     * @return número de asignaturas que participan en la generación
+     */
+    public int getNumeroAsignaturas()
+    {
+        return this.optativasRelacionadas.length ;
+    }
+}
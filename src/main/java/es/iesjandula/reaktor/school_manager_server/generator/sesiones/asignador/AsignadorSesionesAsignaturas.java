@@ -1,98 +1,81 @@
 package es.iesjandula.reaktor.school_manager_server.generator.sesiones.asignador;
 
-import java.util.Iterator;
-import java.util.List;
-
-import es.iesjandula.reaktor.school_manager_server.generator.sesiones.SesionesUtils;
-import es.iesjandula.reaktor.school_manager_server.models.Asignatura;
-import es.iesjandula.reaktor.school_manager_server.models.no_jpa.Asignacion;
+import es.iesjandula.reaktor.school_manager_server.generator.sesiones.IndiceBloquesOptativas;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.MatrizAsignaciones;
 import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionAsignatura;
-import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
 import es.iesjandula.reaktor.school_manager_server.models.no_jpa.restrictions.RestriccionHorariaItem;
 import es.iesjandula.reaktor.school_manager_server.models.no_jpa.restrictions.RestriccionHorariaThread;
-import es.iesjandula.reaktor.school_manager_server.services.manager.AsignaturaService;
 import es.iesjandula.reaktor.school_manager_server.utils.Constants;
 
 public class AsignadorSesionesAsignaturas
 {
-	/** Asignatura service */
-	private AsignaturaService asignaturaService ;
+	/** Índice de los bloques de optativas */
+	private IndiceBloquesOptativas indiceBloquesOptativas ;
 
    	/**
 	 * Constructor de la clase
 	 * 
-	 * @param asignaturaService asignatura service
+	 * @param indiceBloquesOptativas índice de los bloques de optativas
 	 */
-	public AsignadorSesionesAsignaturas(AsignaturaService asignaturaService)
+	public AsignadorSesionesAsignaturas(IndiceBloquesOptativas indiceBloquesOptativas)
     {
-		this.asignaturaService = asignaturaService ;
+		this.indiceBloquesOptativas = indiceBloquesOptativas ;
     }
 
-	/**
-	 * @return asignatura service
-	 */
-	protected AsignaturaService getAsignaturaService()
-	{
-		return this.asignaturaService ;
-	}
-
 	/**
 	 * @param matrizAsignaciones matriz de asignaciones
-	 * @param asignatura asignatura
+	 * @param sesionAsignatura sesión de asignatura
 	 * @param restriccionHorariaIteracion restriccion horaria iteracion
 	 * @return true si la restricción es incompatible
 	 */
-	protected boolean obtenerRestriccionHorariaDeSesionPorDiaTramo(Asignacion[][] matrizAsignaciones,
-		                                                           Asignatura asignatura,
+	protected boolean obtenerRestriccionHorariaDeSesionPorDiaTramo(MatrizAsignaciones matrizAsignaciones,
+		                                                           SesionAsignatura sesionAsignatura,
 																   RestriccionHorariaItem restriccionHorariaItem)
 	{
 		boolean restriccionIncompatible = false ;
 
 		// Si la sesión no es optativa ...
-		if (!asignatura.isOptativa())
+		if (!sesionAsignatura.isOptativa())
 		{
 			// ... y hay algo asignado, entonces no es compatible
-			restriccionIncompatible = matrizAsignaciones[restriccionHorariaItem.getIndiceDia()][restriccionHorariaItem.getTramoHorario()] != null ;
+			restriccionIncompatible = !matrizAsignaciones.celdaVacia(restriccionHorariaItem.getIndiceDia(), restriccionHorariaItem.getTramoHorario()) ;
 		}
 		else
 		{
-			// Si es optativa ...
-			
-			// ... Obtenemos la asignación actual
-			Asignacion asignacion = matrizAsignaciones[restriccionHorariaItem.getIndiceDia()][restriccionHorariaItem.getTramoHorario()] ;
-
-			// ... y vemos que la misma asignatura no esté ya asignada
-			restriccionIncompatible = asignacion != null && 
-										this.asignaturaEnBloqueDeOptativas(this.asignaturaService.buscaOptativasRelacionadas(asignatura), 
-																			asignacion.getListaSesiones()) ;						
+			// Si es optativa, vemos que ninguna asignatura de su bloque de optativas esté ya asignada
+			restriccionIncompatible = this.asignaturaEnBloqueDeOptativas(sesionAsignatura.getIndiceAsignatura(), matrizAsignaciones,
+																		 restriccionHorariaItem.getIndiceDia(), restriccionHorariaItem.getTramoHorario()) ;
 		}					  
 
 		return restriccionIncompatible ;
 	}
 
     /**
-     * @param bloqueOptativas bloque de optativas
-     * @param listaSesiones lista de sesiones a verificar si alguna de las asignaturas pertenece al bloque de optativas
-     * @return true si alguna de las asignaturas pertenece al bloque de optativas
+     * @param indiceAsignatura índice de la asignatura cuyo bloque de optativas se busca
+     * @param matrizAsignaciones matriz de asignaciones
+     * @param indiceCursoDia índice del curso y día de la celda a verificar
+     * @param tramo tramo de la celda a verificar
+     * @return true si alguna de las asignaturas de la celda pertenece al bloque de optativas
      */
-	private boolean asignaturaEnBloqueDeOptativas(List<Asignatura> bloqueOptativas, List<SesionBase> listaSesiones)
+	private boolean asignaturaEnBloqueDeOptativas(int indiceAsignatura, MatrizAsignaciones matrizAsignaciones, int indiceCursoDia, int tramo)
 	{
 		boolean outcome = false ;
+
+		int indiceSesion = matrizAsignaciones.obtenerPrimeraSesion(indiceCursoDia, tramo) ;
 		
-		// Vemos si la lista de sesiones tiene elementos de tipo SesionAsignatura
-		if (listaSesiones.size() > 0 && listaSesiones.get(0) instanceof SesionAsignatura)
+		// Vemos si la celda tiene sesiones de tipo SesionAsignatura
+		if (indiceSesion != MatrizAsignaciones.SIN_SESION && matrizAsignaciones.obtenerSesion(indiceSesion) instanceof SesionAsignatura)
 		{
-			// Iteramos sobre todas las sesiones de esta asignación para ver si son del bloque de optativas
-			int k = 0 ;
-			while (k < listaSesiones.size() && !outcome)
+			// Iteramos sobre todas las sesiones de esta celda para ver si son del bloque de optativas
+			while (indiceSesion != MatrizAsignaciones.SIN_SESION && !outcome)
 			{
-				// Obtenemos la sesión de esta asignación
-				SesionAsignatura sesionAsignatura = (SesionAsignatura) listaSesiones.get(k) ;
+				// Obtenemos la sesión de esta celda
+				SesionAsignatura sesionAsignatura = (SesionAsignatura) matrizAsignaciones.obtenerSesion(indiceSesion) ;
 				
 				// Verificamos si pertenece la asignatura al bloque de optativas que estamos buscando
-				outcome = bloqueOptativas.contains(sesionAsignatura.getAsignatura()) ;
+				outcome = this.indiceBloquesOptativas.optativasRelacionadas(indiceAsignatura, sesionAsignatura.getIndiceAsignatura()) ;
 
-				k++ ;
+				indiceSesion = matrizAsignaciones.obtenerSiguienteSesion(indiceSesion) ;
 			}
 		}
 
@@ -101,36 +84,41 @@ public class AsignadorSesionesAsignaturas
 
     /**
 	 * @param matrizAsignaciones matriz de asignaciones
-     * @param asignatura asignatura
+     * @param indiceAsignatura índice de la asignatura
 	 * @param restriccionHorariaThread restriccion horaria thread
-	 * @param restriccionesHorarias restricciones horarias
+	 * @param restriccionesHorarias máscara con las restricciones horarias a recorrer
      * @return true si se ha encontrado la misma asignatura en el índice
      */
-	protected boolean obtenerRestriccionHorariaDeSesionPorOptativas(Asignacion[][] matrizAsignaciones,
-		                                                            Asignatura asignatura,
+	protected boolean obtenerRestriccionHorariaDeSesionPorOptativas(MatrizAsignaciones matrizAsignaciones,
+		                                                            int indiceAsignatura,
 																	RestriccionHorariaThread restriccionHorariaThread,
-																	List<RestriccionHorariaItem> restriccionesHorarias)
+																	long restriccionesHorarias)
 	{
 		boolean encontrado = false ;
 
 		// Iteramos y obtenemos las sesiones actualmente asociadas a cada día
-		Iterator<RestriccionHorariaItem> iterator = restriccionesHorarias.iterator() ;
-		while (iterator.hasNext() && !encontrado)
+		long pendientes = restriccionesHorarias ;
+		while (pendientes != 0L && !encontrado)
 		{
 			// Obtenemos el siguiente item de la restricción horaria
-			RestriccionHorariaItem restriccionHorariaItem = iterator.next() ;
+			int posicion = Long.numberOfTrailingZeros(pendientes) ;
+			pendientes   = pendientes & (pendientes - 1L) ;
+
+			RestriccionHorariaItem restriccionHorariaItem = restriccionHorariaThread.getRestriccionHorariaItem(posicion) ;
+
+			int indiceCursoDia = restriccionHorariaItem.getIndiceDia() ;
+			int tramo 		   = restriccionHorariaItem.getTramoHorario() ;
+			int primeraSesion  = matrizAsignaciones.obtenerPrimeraSesion(indiceCursoDia, tramo) ;
 
 			// Si:
-				// justo en este día y tramo horario hay alguna asignación y
-				// la lista de sesiones es mayor que cero y
+				// justo en este día y tramo horario hay alguna sesión y
 				// es una asignatura y
 				// es optativa y 
 				// no es la misma que la que estamos buscando ...
-			encontrado = matrizAsignaciones[restriccionHorariaItem.getIndiceDia()][restriccionHorariaItem.getTramoHorario()] != null &&
-						 matrizAsignaciones[restriccionHorariaItem.getIndiceDia()][restriccionHorariaItem.getTramoHorario()].getListaSesiones().size() > 0 &&
-						 matrizAsignaciones[restriccionHorariaItem.getIndiceDia()][restriccionHorariaItem.getTramoHorario()].getListaSesiones().get(0) instanceof SesionAsignatura &&
-						 matrizAsignaciones[restriccionHorariaItem.getIndiceDia()][restriccionHorariaItem.getTramoHorario()].isOptativas() &&
-						!SesionesUtils.buscarAsignaturaEnAsignacion(matrizAsignaciones[restriccionHorariaItem.getIndiceDia()][restriccionHorariaItem.getTramoHorario()], asignatura) ;
+			encontrado = primeraSesion != MatrizAsignaciones.SIN_SESION &&
+						 matrizAsignaciones.obtenerSesion(primeraSesion) instanceof SesionAsignatura &&
+						 matrizAsignaciones.isOptativas(indiceCursoDia, tramo) &&
+						!matrizAsignaciones.contieneAsignatura(indiceCursoDia, tramo, indiceAsignatura) ;
 
 			// ... y si, además:
 				
@@ -138,10 +126,10 @@ public class AsignadorSesionesAsignaturas
 			if (encontrado)
 			{
 				// Obtenemos la sesión de asignatura
-				SesionAsignatura sesionAsignatura = (SesionAsignatura) matrizAsignaciones[restriccionHorariaItem.getIndiceDia()][restriccionHorariaItem.getTramoHorario()].getListaSesiones().get(0) ;
+				SesionAsignatura sesionAsignatura = (SesionAsignatura) matrizAsignaciones.obtenerSesion(primeraSesion) ;
 
 				// ... y si la asignatura es del bloque de optativas ...
-				encontrado = sesionAsignatura.getAsignatura().getBloqueId().getId() == asignatura.getBloqueId().getId() ;
+				encontrado = this.indiceBloquesOptativas.optativasRelacionadas(indiceAsignatura, sesionAsignatura.getIndiceAsignatura()) ;
 				if (encontrado)
 				{
 					// ... entonces la hacemos coincidir con la optativa del bloque
@@ -155,34 +143,37 @@ public class AsignadorSesionesAsignaturas
 
     /**
 	 * @param matrizAsignaciones matriz de asignaciones
-     * @param asignatura asignatura
+     * @param indiceAsignatura índice de la asignatura
      * @param restriccionHorariaThread restriccion horaria thread
-     * @param restriccionesHorarias restricciones horarias
+     * @param restriccionesHorarias máscara con las restricciones horarias a recorrer
      * @return true si se ha encontrado la misma asignatura en el índice
      */
-    protected boolean obtenerRestriccionHorariaDeSesionPorModuloFp(Asignacion[][] matrizAsignaciones,
-		                                                           Asignatura asignatura,
+    protected boolean obtenerRestriccionHorariaDeSesionPorModuloFp(MatrizAsignaciones matrizAsignaciones,
+		                                                           int indiceAsignatura,
 																   RestriccionHorariaThread restriccionHorariaThread,
-																   List<RestriccionHorariaItem> restriccionesHorarias)
+																   long restriccionesHorarias)
     {
 		boolean encontrado = false ;
 
 		// Iteramos y obtenemos las sesiones actualmente asociadas a cada día
-		Iterator<RestriccionHorariaItem> iterator = restriccionesHorarias.iterator() ;
-		while (iterator.hasNext() && !encontrado)
+		long pendientes = restriccionesHorarias ;
+		while (pendientes != 0L && !encontrado)
 		{
 			// Obtenemos el siguiente item de la restricción horaria
-			RestriccionHorariaItem restriccionHorariaItem = iterator.next() ;
+			int posicion = Long.numberOfTrailingZeros(pendientes) ;
+			pendientes   = pendientes & (pendientes - 1L) ;
+
+			RestriccionHorariaItem restriccionHorariaItem = restriccionHorariaThread.getRestriccionHorariaItem(posicion) ;
 
 			// Si justo en este día y tramo horario hay una asignación, la borramos de las restricciones horarias
-			if (matrizAsignaciones[restriccionHorariaItem.getIndiceDia()][restriccionHorariaItem.getTramoHorario()] != null)
+			if (!matrizAsignaciones.celdaVacia(restriccionHorariaItem.getIndiceDia(), restriccionHorariaItem.getTramoHorario()))
 			{
 				restriccionHorariaThread.eliminarRestriccionHorariaItem(restriccionHorariaItem) ;
 			}
 			else
 			{
 				// Verificamos si hay un índice donde se pueda realizar la asignación de la asignatura
-				encontrado = this.obtenerRestriccionHorariaDeSesionPorModuloFpEncontrarIndice(matrizAsignaciones, asignatura, restriccionHorariaThread, restriccionHorariaItem) ;
+				encontrado = this.obtenerRestriccionHorariaDeSesionPorModuloFpEncontrarIndice(matrizAsignaciones, indiceAsignatura, restriccionHorariaThread, restriccionHorariaItem) ;
 			}
 		}
 
@@ -191,13 +182,13 @@ public class AsignadorSesionesAsignaturas
 
 	/**
 	 * @param matrizAsignaciones matriz de asignaciones
-	 * @param asignatura asignatura
+	 * @param indiceAsignatura índice de la asignatura
 	 * @param restriccionHorariaThread restriccion horaria thread
 	 * @param restriccionHorariaItem restriccion horaria item
 	 * @return true si se ha encontrado el índice
 	 */
-	private boolean obtenerRestriccionHorariaDeSesionPorModuloFpEncontrarIndice(Asignacion[][] matrizAsignaciones,
-		                                                                        Asignatura asignatura,
+	private boolean obtenerRestriccionHorariaDeSesionPorModuloFpEncontrarIndice(MatrizAsignaciones matrizAsignaciones,
+		                                                                        int indiceAsignatura,
 																				RestriccionHorariaThread restriccionHorariaThread,
 																				RestriccionHorariaItem restriccionHorariaItem)
 	{
@@ -207,7 +198,7 @@ public class AsignadorSesionesAsignaturas
 		int indiceCursoDia = restriccionHorariaItem.getIndiceDia() ;
 
 		// Buscamos la asignatura en el día concreto
-		int indiceTramoAsignaturaEncontrado = this.buscarIndiceTramoAsignaturaEnDiaConcreto(matrizAsignaciones, indiceCursoDia, asignatura) ;
+		int indiceTramoAsignaturaEncontrado = this.buscarIndiceTramoAsignaturaEnDiaConcreto(matrizAsignaciones, indiceCursoDia, indiceAsignatura) ;
 
 		// Si no se ha encontrado, es porque en este día no está la asignatura aún en este día
 		// Por ello, verificamos esta restricción horaria por si se puede incluir como asignación
@@ -227,18 +218,18 @@ public class AsignadorSesionesAsignaturas
 	/**
 	 * @param matrizAsignaciones matriz de asignaciones
 	 * @param indiceCursoDia índice curso día
-	 * @param asignatura asignatura
+	 * @param indiceAsignatura índice de la asignatura
 	 * @return índice del tramo de la asignatura en el día
 	 */
-	private int buscarIndiceTramoAsignaturaEnDiaConcreto(Asignacion[][] matrizAsignaciones, int indiceCursoDia, Asignatura asignatura)
+	private int buscarIndiceTramoAsignaturaEnDiaConcreto(MatrizAsignaciones matrizAsignaciones, int indiceCursoDia, int indiceAsignatura)
 	{
 		int indiceTramoAsignaturaEncontrado = -1 ;
 		int i = 0 ;
 		// Iteramos este día sobre la matriz de asignaciones y buscamos aquella que posea la misma asignatura
-		while (i < matrizAsignaciones[indiceCursoDia].length && indiceTramoAsignaturaEncontrado == -1)
+		while (i < Constants.NUMERO_TRAMOS_HORARIOS && indiceTramoAsignaturaEncontrado == -1)
 		{
-			// Si hay una asignación y es la misma asignatura de esta sesion, la hemos encontrado
-			if (matrizAsignaciones[indiceCursoDia][i] != null && SesionesUtils.buscarAsignaturaEnAsignacion(matrizAsignaciones[indiceCursoDia][i], asignatura))
+			// Si hay una sesión de la misma asignatura de esta sesion, la hemos encontrado
+			if (matrizAsignaciones.contieneAsignatura(indiceCursoDia, i, indiceAsignatura))
 			{
 				indiceTramoAsignaturaEncontrado = i ;
 			}
@@ -255,12 +246,12 @@ public class AsignadorSesionesAsignaturas
 	 * @param restriccionHorariaThread restriccion horaria thread
 	 * @return true si se ha asignado la restricción horaria item
 	 */
-	private boolean asignarRestriccionHorariaItemSiAunNoAsignadoAlDia(Asignacion[][] matrizAsignaciones,
+	private boolean asignarRestriccionHorariaItemSiAunNoAsignadoAlDia(MatrizAsignaciones matrizAsignaciones,
 																     RestriccionHorariaItem restriccionHorariaItem, 
 																	 RestriccionHorariaThread restriccionHorariaThread)
 	{
 		// Vemos si la matriz está vacía en el día y tramo de la restricción horaria que viene como parámetro 
-		boolean outcome = matrizAsignaciones[restriccionHorariaItem.getIndiceDia()][restriccionHorariaItem.getTramoHorario()] == null ;
+		boolean outcome = matrizAsignaciones.celdaVacia(restriccionHorariaItem.getIndiceDia(), restriccionHorariaItem.getTramoHorario()) ;
 		
 		if (outcome)
 		{
@@ -284,7 +275,7 @@ public class AsignadorSesionesAsignaturas
 	 * @param indiceTramoAsignaturaEncontrado indice del tramo de la asignatura
 	 * @return true si se ha asignado la restricción horaria item
 	 */
-	private boolean asignarRestriccionHorariaItemSiAsignadoAlDia(Asignacion[][] matrizAsignaciones,
+	private boolean asignarRestriccionHorariaItemSiAsignadoAlDia(MatrizAsignaciones matrizAsignaciones,
 															     RestriccionHorariaItem restriccionHorariaItem,
 																 RestriccionHorariaThread restriccionHorariaThread,
 															     int indiceTramoAsignaturaEncontrado)
@@ -299,26 +290,26 @@ public class AsignadorSesionesAsignaturas
 		if (indiceIntermedio)
 		{
 			// ... y la posición previa está vacía, se probará aquí si hay restricción horaria
-			if (matrizAsignaciones[restriccionHorariaItem.getIndiceDia()][indiceTramoAsignaturaEncontrado - 1] == null)
+			if (matrizAsignaciones.celdaVacia(restriccionHorariaItem.getIndiceDia(), indiceTramoAsignaturaEncontrado - 1))
 			{
 				restriccionHorariaItemEncontrada = restriccionHorariaThread.buscarRestriccionHorariaPorDiaTramo(restriccionHorariaItem.getIndiceDia(), indiceTramoAsignaturaEncontrado - 1) ;
 			}
 			
 			// Si en el anterior if no se encontró y la siguiente posición está vacía, se probará aquí si hay restricción horaria
-			if (restriccionHorariaItemEncontrada == null && matrizAsignaciones[restriccionHorariaItem.getIndiceDia()][indiceTramoAsignaturaEncontrado + 1] == null)
+			if (restriccionHorariaItemEncontrada == null && matrizAsignaciones.celdaVacia(restriccionHorariaItem.getIndiceDia(), indiceTramoAsignaturaEncontrado + 1))
 			{
 				restriccionHorariaItemEncontrada = restriccionHorariaThread.buscarRestriccionHorariaPorDiaTramo(restriccionHorariaItem.getIndiceDia(), indiceTramoAsignaturaEncontrado + 1) ;
 			}
 		}
 		// Si es el primer índice y el segundo está vacío, se puede considerar como posible índice
 		else if (indiceTramoAsignaturaEncontrado == 0 &&
-				 matrizAsignaciones[restriccionHorariaItem.getIndiceDia()][1] == null)
+				 matrizAsignaciones.celdaVacia(restriccionHorariaItem.getIndiceDia(), 1))
 		{
 			restriccionHorariaItemEncontrada = restriccionHorariaThread.buscarRestriccionHorariaPorDiaTramo(restriccionHorariaItem.getIndiceDia(), 1) ;
 		}
 		// Si es el último índice y el penúltimo está vacío, se puede considerar como posible índice
 		else if (indiceTramoAsignaturaEncontrado == Constants.NUMERO_TRAMOS_HORARIOS - 1 &&
-				 matrizAsignaciones[restriccionHorariaItem.getIndiceDia()][Constants.NUMERO_TRAMOS_HORARIOS - 2] == null)
+				 matrizAsignaciones.celdaVacia(restriccionHorariaItem.getIndiceDia(), Constants.NUMERO_TRAMOS_HORARIOS - 2))
 		{
 			restriccionHorariaItemEncontrada = restriccionHorariaThread.buscarRestriccionHorariaPorDiaTramo(restriccionHorariaItem.getIndiceDia(), Constants.NUMERO_TRAMOS_HORARIOS - 2) ;
 		}
@@ -1,23 +1,22 @@
 package es.iesjandula.reaktor.school_manager_server.generator.sesiones.asignador;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.util.SplittableRandom;
 
-import es.iesjandula.reaktor.school_manager_server.models.Asignatura;
 import es.iesjandula.reaktor.school_manager_server.models.PreferenciasHorariasProfesor;
-import es.iesjandula.reaktor.school_manager_server.models.Profesor;
-import es.iesjandula.reaktor.school_manager_server.models.no_jpa.Asignacion;
 import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionAsignatura;
 import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
 import es.iesjandula.reaktor.school_manager_server.models.no_jpa.restrictions.RestriccionHorariaThread;
 import es.iesjandula.reaktor.school_manager_server.models.no_jpa.restrictions.RestriccionHorariaItem;
-import es.iesjandula.reaktor.school_manager_server.services.manager.AsignaturaService;
 import es.iesjandula.reaktor.school_manager_server.utils.Constants;
 import es.iesjandula.reaktor.school_manager_server.utils.SchoolManagerServerException;
 import es.iesjandula.reaktor.school_manager_server.generator.threads.UltimaAsignacion;
-import es.iesjandula.reaktor.school_manager_server.generator.sesiones.SesionesUtils;
+import es.iesjandula.reaktor.school_manager_server.generator.sesiones.IndiceBloquesOptativas;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.DominiosSesiones;
 import es.iesjandula.reaktor.school_manager_server.generator.threads.IndicesAsignacionSesion;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.MatrizAsignaciones;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.OcurrenciasAsignaturas;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.OcupacionCursos;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.OcupacionProfesores;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -27,64 +26,82 @@ public class AsignadorSesionesController
 	/** Asignador de sesiones de asignaturas */
 	private AsignadorSesionesAsignaturas asignadorSesionesAsignaturas ;
 
+	/** Ocupación de los profesores en el intento actual del hilo */
+	private OcupacionProfesores ocupacionProfesores ;
+
+	/** Ocupación de los cursos en el intento actual del hilo */
+	private OcupacionCursos ocupacionCursos ;
+
+	/** Ocurrencias por día de las asignaturas en el intento actual del hilo */
+	private OcurrenciasAsignaturas ocurrenciasAsignaturas ;
+
+	/** Dominios de las sesiones pendientes en el intento actual del hilo */
+	private DominiosSesiones dominiosSesiones ;
+
+	/** Generador de números aleatorios del hilo, con el que se elige el hueco de cada sesión */
+	private SplittableRandom random ;
+
 	/**
 	 * Constructor de la clase
 	 * 
-	 * @param asignaturaService asignatura service
+	 * @param indiceBloquesOptativas índice de los bloques de optativas
+	 * @param ocupacionProfesores ocupación de los profesores del hilo
+	 * @param ocupacionCursos ocupación de los cursos del hilo
+	 * @param ocurrenciasAsignaturas ocurrencias por día de las asignaturas del hilo
+	 * @param dominiosSesiones dominios de las sesiones pendientes del hilo
+	 * @param random generador de números aleatorios del hilo
 	 */
-	public AsignadorSesionesController(AsignaturaService asignaturaService)
+	public AsignadorSesionesController(IndiceBloquesOptativas indiceBloquesOptativas, OcupacionProfesores ocupacionProfesores,
+									   OcupacionCursos ocupacionCursos, OcurrenciasAsignaturas ocurrenciasAsignaturas,
+									   DominiosSesiones dominiosSesiones, SplittableRandom random)
 	{
-		this.asignadorSesionesAsignaturas = new AsignadorSesionesAsignaturas(asignaturaService) ;
+		this.asignadorSesionesAsignaturas = new AsignadorSesionesAsignaturas(indiceBloquesOptativas) ;
+		this.ocupacionProfesores          = ocupacionProfesores ;
+		this.ocupacionCursos              = ocupacionCursos ;
+		this.ocurrenciasAsignaturas       = ocurrenciasAsignaturas ;
+		this.dominiosSesiones             = dominiosSesiones ;
+		this.random                       = random ;
 	}
 				
 	/**
 	 * @param matrizAsignaciones matriz de asignaciones
      * @param sesion sesión
-     * @param numeroCursos número de cursos
-	 * @param indiceCursoDiaInicial índice del curso y día inicial
 	 * @return ultima asignacion
      * @throws SchoolManagerServerException con un error
      */
-    public UltimaAsignacion asignarSesion(Asignacion[][] matrizAsignaciones,
-										  SesionBase sesion,
-										  int numeroCursos,
-										  int indiceCursoDiaInicial) throws SchoolManagerServerException
+    public UltimaAsignacion asignarSesion(MatrizAsignaciones matrizAsignaciones, SesionBase sesion) throws SchoolManagerServerException
     {
         // Obtener restricción horaria de iteración de esa sesion
-		RestriccionHorariaThread restriccionHorariaThread = 
-			this.obtenerRestriccionHorariaDeSesion(matrizAsignaciones, sesion, numeroCursos, indiceCursoDiaInicial) ;
+		RestriccionHorariaThread restriccionHorariaThread = this.obtenerRestriccionHorariaDeSesion(matrizAsignaciones, sesion) ;
 
 		// Obtenemos el siguiente item de la restricción horaria
-		RestriccionHorariaItem restriccionHorariaItem = restriccionHorariaThread.obtenerRestriccionHorariaItem(sesion) ;
+		RestriccionHorariaItem restriccionHorariaItem = restriccionHorariaThread.obtenerRestriccionHorariaItem(sesion, this.random) ;
 		
 		// Creamos una nueva instancia de indicesAsignacionSesion
 		IndicesAsignacionSesion indicesAsignacionSesion = new IndicesAsignacionSesion(restriccionHorariaItem.getIndiceDia(), restriccionHorariaItem.getTramoHorario()) ;
 
 		// Asignamos la sesión
-		Asignacion asignacion = this.asignarSesion(matrizAsignaciones, sesion, indicesAsignacionSesion) ;
+		this.asignarSesion(matrizAsignaciones, sesion, indicesAsignacionSesion) ;
 
-		// Devolvemos la última asignación
-        return new UltimaAsignacion(indicesAsignacionSesion, asignacion) ;
+		// Devolvemos la última asignación con la primera sesión de su celda
+		int primeraSesion = matrizAsignaciones.obtenerPrimeraSesion(indicesAsignacionSesion.getIndiceCursoDia(), indicesAsignacionSesion.getIndiceTramoHorario()) ;
+
+        return new UltimaAsignacion(indicesAsignacionSesion, matrizAsignaciones.obtenerSesion(primeraSesion)) ;
     }
     
     /**
      * @param matrizAsignaciones matriz de asignaciones
      * @param sesion sesion
-	 * @param numeroCursos número de cursos
-     * @param indiceCursoDiaInicial índice del curso y día inicial
      * @return una nueva instancia que restringe los horarios (días y horas)
      * @throws SchoolManagerServerException con un error
      */
-    private RestriccionHorariaThread obtenerRestriccionHorariaDeSesion(Asignacion[][] matrizAsignaciones,
-		                                                               SesionBase sesion,
-																       int numeroCursos,
-    															       int indiceCursoDiaInicial) throws SchoolManagerServerException
+    private RestriccionHorariaThread obtenerRestriccionHorariaDeSesion(MatrizAsignaciones matrizAsignaciones, SesionBase sesion) throws SchoolManagerServerException
     {
 		// Obtenemos la posible restricción horaria iteración impuesta sobre la sesión
 		RestriccionHorariaThread restriccionHorariaThread = sesion.getRestriccionHorariaThread() ;
 
 		// Obtenemos las restricciones relacionadas con el día y tramo horario
-		this.obtenerRestriccionHorariaDeSesionPorDiaTramo(matrizAsignaciones, sesion, numeroCursos, restriccionHorariaThread) ;
+		this.obtenerRestriccionHorariaDeSesionPorDiaTramo(matrizAsignaciones, sesion, restriccionHorariaThread) ;
 
 		// Ahora vemos si la sesión es de tipo asignatura
 		boolean esAsignatura = sesion instanceof SesionAsignatura ;
@@ -93,15 +110,15 @@ public class AsignadorSesionesController
 			SesionAsignatura sesionAsignatura = (SesionAsignatura) sesion ;
 
 			// Ahora vemos si hay que restringir por bloques de asignaturas (optativas) si es que es una optativa
-			if (sesionAsignatura.getAsignatura().isOptativa())
+			if (sesionAsignatura.isOptativa())
 			{
-				this.obtenerRestriccionHorariaDeSesionPorOptativas(matrizAsignaciones, sesionAsignatura.getAsignatura(), restriccionHorariaThread) ;
+				this.obtenerRestriccionHorariaDeSesionPorOptativas(matrizAsignaciones, sesionAsignatura.getIndiceAsignatura(), restriccionHorariaThread) ;
 			}
 
 			// Si no es ESO ni BACHILLERATO, la restricción será a nivel de FP
 			if (!sesionAsignatura.isEsoBachillerato())
 			{
-				this.obtenerRestriccionHorariaDeSesionPorModuloFp(matrizAsignaciones, sesionAsignatura.getAsignatura(), restriccionHorariaThread) ;
+				this.obtenerRestriccionHorariaDeSesionPorModuloFp(matrizAsignaciones, sesionAsignatura.getIndiceAsignatura(), restriccionHorariaThread) ;
 			}
 		}
 		else // Entonces es una reducción
@@ -115,29 +132,27 @@ public class AsignadorSesionesController
 	/**
 	 * @param matrizAsignaciones matriz de asignaciones
 	 * @param sesion sesion
-	 * @param numeroCursos número de cursos
 	 * @param restriccionHorariaThread restriccion horaria thread
 	 */
-	private void obtenerRestriccionHorariaDeSesionPorDiaTramo(Asignacion[][] matrizAsignaciones,
+	private void obtenerRestriccionHorariaDeSesionPorDiaTramo(MatrizAsignaciones matrizAsignaciones,
 															  SesionBase sesion,
-															  int numeroCursos,
 															  RestriccionHorariaThread restriccionHorariaThread)
 	{
-		// Introducimos en una misma lista las restricciones no evitables y las evitables
-		List<RestriccionHorariaItem> restriccionesHorarias = new ArrayList<>() ;
-		restriccionesHorarias.addAll(restriccionHorariaThread.getRestriccionesHorariasNoEvitables()) ;
-		restriccionesHorarias.addAll(restriccionHorariaThread.getRestriccionesHorariasEvitables()) ;
+		// Tomamos en una misma máscara las restricciones no evitables y las evitables
+		long restriccionesHorarias = restriccionHorariaThread.getRestriccionesHorarias() ;
 
 		// Iteramos y quitamos todos aquellos items incompatibles
-		Iterator<RestriccionHorariaItem> iterator = restriccionesHorarias.iterator() ;
-		while (iterator.hasNext())
+		while (restriccionesHorarias != 0L)
 		{
-			RestriccionHorariaItem restriccionHorariaItem = iterator.next() ;
+			int posicion          = Long.numberOfTrailingZeros(restriccionesHorarias) ;
+			restriccionesHorarias = restriccionesHorarias & (restriccionesHorarias - 1L) ;
+
+			RestriccionHorariaItem restriccionHorariaItem = restriccionHorariaThread.getRestriccionHorariaItem(posicion) ;
 
 			// Vemos si se cumple el número máximo de ocurrencias por día y si el profesor no tiene sesión en esta hora ya asignada
 			boolean restriccionIncompatible = 
-			  !SesionesUtils.sesionSinMasXOcurrenciasElMismoDia(matrizAsignaciones, restriccionHorariaItem.getIndiceDia(), sesion) ||
-			  !this.profesorSinSesionEnEstaHora(matrizAsignaciones, numeroCursos, restriccionHorariaItem.getIndiceDia(), restriccionHorariaItem.getTramoHorario(), sesion.getProfesor()) ;
+			  !this.ocurrenciasAsignaturas.sesionSinMasXOcurrenciasElMismoDia(restriccionHorariaItem.getIndiceDia(), sesion) ||
+			  !this.profesorSinSesionEnEstaHora(sesion, restriccionHorariaItem.getIndiceDia(), restriccionHorariaItem.getTramoHorario()) ;
 
 			// Si todavía es compatible la restricción ...
 			if (!restriccionIncompatible)
@@ -145,7 +160,7 @@ public class AsignadorSesionesController
 				if (sesion instanceof SesionAsignatura)
 				{
 					restriccionIncompatible = 
-					  this.asignadorSesionesAsignaturas.obtenerRestriccionHorariaDeSesionPorDiaTramo(matrizAsignaciones, ((SesionAsignatura) sesion).getAsignatura(), restriccionHorariaItem) ;
+					  this.asignadorSesionesAsignaturas.obtenerRestriccionHorariaDeSesionPorDiaTramo(matrizAsignaciones, (SesionAsignatura) sesion, restriccionHorariaItem) ;
 				}
 			}
 
@@ -158,133 +173,140 @@ public class AsignadorSesionesController
 
 	/**
 	 * @param matrizAsignaciones matriz de asignaciones
-	 * @param asignatura asignatura
+	 * @param indiceAsignatura índice de la asignatura
 	 * @param restriccionHorariaThread restriccion horaria thread
 	 */
-	private void obtenerRestriccionHorariaDeSesionPorOptativas(Asignacion[][] matrizAsignaciones, Asignatura asignatura, RestriccionHorariaThread restriccionHorariaThread)
+	private void obtenerRestriccionHorariaDeSesionPorOptativas(MatrizAsignaciones matrizAsignaciones, int indiceAsignatura, RestriccionHorariaThread restriccionHorariaThread)
 	{
-		// Creamos un nuevo ArrayList de RestriccionHorariaItem sobre las restricciones no evitables
-		List<RestriccionHorariaItem> restriccionesHorariasNoEvitables = new ArrayList<>(restriccionHorariaThread.getRestriccionesHorariasNoEvitables()) ;
+		// Tomamos la máscara de las restricciones no evitables antes de modificarlas
+		long restriccionesHorariasNoEvitables = restriccionHorariaThread.getRestriccionesHorariasNoEvitables() ;
 
 		// Obtenemos las restricciones de sesión por optativas en las no evitables
-		boolean encontrado = this.asignadorSesionesAsignaturas.obtenerRestriccionHorariaDeSesionPorOptativas(matrizAsignaciones, asignatura, restriccionHorariaThread, restriccionesHorariasNoEvitables) ;
+		boolean encontrado = this.asignadorSesionesAsignaturas.obtenerRestriccionHorariaDeSesionPorOptativas(matrizAsignaciones, indiceAsignatura, restriccionHorariaThread, restriccionesHorariasNoEvitables) ;
 
 		// Obtenemos las restricciones de sesión por optativas en las evitables
 		if (!encontrado)
 		{
-			// Creamos un nuevo ArrayList de RestriccionHorariaItem sobre las restricciones evitables
-			List<RestriccionHorariaItem> restriccionesHorariasEvitables = new ArrayList<>(restriccionHorariaThread.getRestriccionesHorariasEvitables()) ;
+			// Tomamos la máscara de las restricciones evitables
+			long restriccionesHorariasEvitables = restriccionHorariaThread.getRestriccionesHorariasEvitables() ;
 
 			// Obtenemos las restricciones de sesión por optativas en las evitables
-			encontrado = this.asignadorSesionesAsignaturas.obtenerRestriccionHorariaDeSesionPorOptativas(matrizAsignaciones, asignatura, restriccionHorariaThread, restriccionesHorariasEvitables) ;
+			encontrado = this.asignadorSesionesAsignaturas.obtenerRestriccionHorariaDeSesionPorOptativas(matrizAsignaciones, indiceAsignatura, restriccionHorariaThread, restriccionesHorariasEvitables) ;
 		}
 	}
 
 	/**
 	 * @param matrizAsignaciones matriz de asignaciones
-	 * @param asignatura asignatura
+	 * @param indiceAsignatura índice de la asignatura
 	 * @param restriccionHorariaThread restriccion horaria thread
 	 */
-	private void obtenerRestriccionHorariaDeSesionPorModuloFp(Asignacion[][] matrizAsignaciones, Asignatura asignatura, RestriccionHorariaThread restriccionHorariaThread)
+	private void obtenerRestriccionHorariaDeSesionPorModuloFp(MatrizAsignaciones matrizAsignaciones, int indiceAsignatura, RestriccionHorariaThread restriccionHorariaThread)
 	{
-		// Creamos un nuevo ArrayList de RestriccionHorariaItem sobre las restricciones no evitables
-		List<RestriccionHorariaItem> restriccionesHorariasNoEvitables = new ArrayList<>(restriccionHorariaThread.getRestriccionesHorariasNoEvitables()) ;
+		// Tomamos la máscara de las restricciones no evitables antes de modificarlas
+		long restriccionesHorariasNoEvitables = restriccionHorariaThread.getRestriccionesHorariasNoEvitables() ;
 
 		// Obtenemos las restricciones de sesión por módulo FP en las no evitables
-		boolean encontrado = this.asignadorSesionesAsignaturas.obtenerRestriccionHorariaDeSesionPorModuloFp(matrizAsignaciones, asignatura, restriccionHorariaThread, restriccionesHorariasNoEvitables) ;
+		boolean encontrado = this.asignadorSesionesAsignaturas.obtenerRestriccionHorariaDeSesionPorModuloFp(matrizAsignaciones, indiceAsignatura, restriccionHorariaThread, restriccionesHorariasNoEvitables) ;
 
 		// Si no se ha encontrado en las no evitables, se intenta en las evitables
 		if (!encontrado)
 		{
 			// Obtenemos las restricciones de sesión por módulo FP en las evitables
-			List<RestriccionHorariaItem> restriccionesHorariasEvitables = new ArrayList<>(restriccionHorariaThread.getRestriccionesHorariasEvitables()) ;
+			long restriccionesHorariasEvitables = restriccionHorariaThread.getRestriccionesHorariasEvitables() ;
 
 			// Obtenemos las restricciones de sesión por módulo FP en las evitables
-			encontrado = this.asignadorSesionesAsignaturas.obtenerRestriccionHorariaDeSesionPorModuloFp(matrizAsignaciones, asignatura, restriccionHorariaThread, restriccionesHorariasEvitables) ;
+			encontrado = this.asignadorSesionesAsignaturas.obtenerRestriccionHorariaDeSesionPorModuloFp(matrizAsignaciones, indiceAsignatura, restriccionHorariaThread, restriccionesHorariasEvitables) ;
 		}
 	}
 	
 	/**
-	 * @param matrizAsignaciones matriz de asignaciones
-     * @param numeroCursos numero de cursos
+	 * @param sesion sesión con el profesor a verificar
      * @param indiceCursoDia índice curso día
      * @param indiceTramoHorario hora sobre la que verificar
-	 * @param profesor profesor
-	 * @return true si el profesor ya tiene una clase asignada a esa misma hora
+	 * @return true si el profesor no tiene ninguna clase asignada a esa misma hora
 	 */
-	private boolean profesorSinSesionEnEstaHora(Asignacion[][] matrizAsignaciones, int numeroCursos, int indiceCursoDia, int indiceTramoHorario, Profesor profesor)
+	boolean profesorSinSesionEnEstaHora(SesionBase sesion, int indiceCursoDia, int indiceTramoHorario)
 	{
-        boolean profesorSinSesionEnEstaHora = true ;
-        
-        // Obtengo el número entre 0-5 que equivale al día
+        // Obtengo el número entre 0-4 que equivale al día
         int diaExacto = indiceCursoDia % Constants.NUMERO_DIAS_SEMANA ;
-        
-        int i = 0 ;
-        
-        // Tendremos que buscar en ese día actual en otros cursos
-        while (i < numeroCursos && profesorSinSesionEnEstaHora)
-        {
-        	// Vamos iterando por el mismo día pero en diferentes cursos, en el día de la semana concreto
-        	int indiceCursoBusqueda = diaExacto + (i * Constants.NUMERO_DIAS_SEMANA) ;
-        	
-    		// Si es true es porque el profesor NO tiene clase asignada a esa misma hora
-    		profesorSinSesionEnEstaHora = matrizAsignaciones[indiceCursoBusqueda][indiceTramoHorario] == null ||
-    									 !this.buscarProfesor(matrizAsignaciones[indiceCursoBusqueda][indiceTramoHorario], profesor) ;
-            i++ ;
-        }
-        
-        return profesorSinSesionEnEstaHora ;
-	}
 
-	/**
-	 * @param asignacion asignación
-	 * @param profesor profesor
-	 * @return true si se encuentra el profesor en las asignaciones
-	 */
-    private boolean buscarProfesor(Asignacion asignacion, Profesor profesor)
-    {
-    	boolean outcome = false ;
-    	
-    	int i = 0 ;
-    	while (i < asignacion.getListaSesiones().size() && !outcome)
-    	{
-    		outcome = asignacion.getListaSesiones().get(i).getProfesor().equals(profesor) ;
-    		
-    		i++ ;
-    	}
-    	
-		return outcome ;
+        // Consultamos el índice de ocupación en lugar de recorrer la matriz en el resto de cursos
+        return !this.ocupacionProfesores.profesorOcupado(sesion.getIndiceProfesor(), sesion.isTipoHorarioMatutino(), diaExacto, indiceTramoHorario) ;
 	}
 
 	/**
 	 * @param matrizAsignaciones matriz de asignaciones
      * @param sesion sesión
-     * @param asignacionSesion asignacion sesion
-	 * @return asignacion con la sesión asignada
+     * @param indicesAsignacionSesion índices donde se asigna la sesión
      * @throws SchoolManagerServerException con un error
      */
-	protected Asignacion asignarSesion(Asignacion[][] matrizAsignaciones, SesionBase sesion, IndicesAsignacionSesion indicesAsignacionSesion) throws SchoolManagerServerException
+	protected void asignarSesion(MatrizAsignaciones matrizAsignaciones, SesionBase sesion, IndicesAsignacionSesion indicesAsignacionSesion) throws SchoolManagerServerException
 	{
-		// Obtenemos la asignación actual
-		Asignacion asignacion = matrizAsignaciones[indicesAsignacionSesion.getIndiceCursoDia()][indicesAsignacionSesion.getIndiceTramoHorario()] ;
-		
-		// Si no hay ninguna asignación, inicializamos la instancia
-		if (asignacion == null)
+		int indiceCursoDia = indicesAsignacionSesion.getIndiceCursoDia() ;
+		int tramo 		   = indicesAsignacionSesion.getIndiceTramoHorario() ;
+
+		// Si la celda está vacía, marcamos el día y tramo como ocupado en la semana del curso
+		if (matrizAsignaciones.celdaVacia(indiceCursoDia, tramo))
 		{
-			asignacion = new Asignacion() ;
-			matrizAsignaciones[indicesAsignacionSesion.getIndiceCursoDia()][indicesAsignacionSesion.getIndiceTramoHorario()] = asignacion ;
+			this.ocupacionCursos.ocupar(sesion.isTipoHorarioMatutino(), indiceCursoDia, tramo) ;
 		}
 		
-		// Si es una asignatura ...
-		if (sesion instanceof SesionAsignatura)
+		// Si es una asignatura que no estaba ya en este tramo, tiene una ocurrencia más en el día
+		if (sesion instanceof SesionAsignatura &&
+			!matrizAsignaciones.contieneAsignatura(indiceCursoDia, tramo, ((SesionAsignatura) sesion).getIndiceAsignatura()))
 		{
-			// ... y es optativa, lo indicamos en la asignación
-			asignacion.setOptativas(((SesionAsignatura) sesion).getAsignatura().isOptativa()) ;
+			this.ocurrenciasAsignaturas.incrementar(sesion.isTipoHorarioMatutino(), indiceCursoDia, ((SesionAsignatura) sesion).getIndiceAsignatura()) ;
 		}
 		
-		// Introducimos la sesion en la lista
-		asignacion.getListaSesiones().add(sesion) ;
-		
-		return asignacion ;
+		// Introducimos la sesión al final de la celda, que indica si es de optativas
+		matrizAsignaciones.asignar(indiceCursoDia, tramo, sesion) ;
+
+		// Marcamos al profesor como ocupado en este día y tramo
+		this.ocupacionProfesores.ocupar(sesion.getIndiceProfesor(),
+									    sesion.isTipoHorarioMatutino(),
+									    indicesAsignacionSesion.getIndiceCursoDia() % Constants.NUMERO_DIAS_SEMANA,
+									    indicesAsignacionSesion.getIndiceTramoHorario()) ;
+
+		// Marcamos la sesión como asignada y actualizamos los huecos libres de las sesiones pendientes afectadas
+		this.dominiosSesiones.asignarSesion(sesion, indicesAsignacionSesion) ;
+	}
+
+	/**
+	 * Deshace la asignación de una sesión. Las asignaciones se deshacen en orden inverso al que se hicieron,
+	 * por lo que la sesión es siempre la última de su celda
+	 * 
+	 * @param matrizAsignaciones matriz de asignaciones
+	 * @param sesion sesión a desasignar
+	 * @param indicesAsignacionSesion índices donde se asignó la sesión
+	 */
+	public void deshacerAsignacion(MatrizAsignaciones matrizAsignaciones, SesionBase sesion, IndicesAsignacionSesion indicesAsignacionSesion)
+	{
+		int indiceCursoDia = indicesAsignacionSesion.getIndiceCursoDia() ;
+		int tramo 		   = indicesAsignacionSesion.getIndiceTramoHorario() ;
+
+		// Quitamos la sesión, que es la última que se introdujo
+		matrizAsignaciones.quitarUltimaSesion(indiceCursoDia, tramo) ;
+
+		// Si era una asignatura que ya no queda en este tramo, tiene una ocurrencia menos en el día
+		if (sesion instanceof SesionAsignatura &&
+			!matrizAsignaciones.contieneAsignatura(indiceCursoDia, tramo, ((SesionAsignatura) sesion).getIndiceAsignatura()))
+		{
+			this.ocurrenciasAsignaturas.decrementar(sesion.isTipoHorarioMatutino(), indiceCursoDia, ((SesionAsignatura) sesion).getIndiceAsignatura()) ;
+		}
+
+		// Si no quedan sesiones, el día y tramo vuelve a estar libre en la semana del curso
+		if (matrizAsignaciones.celdaVacia(indiceCursoDia, tramo))
+		{
+			this.ocupacionCursos.liberar(sesion.isTipoHorarioMatutino(), indiceCursoDia, tramo) ;
+		}
+
+		// Liberamos al profesor en este día y tramo
+		this.ocupacionProfesores.liberar(sesion.getIndiceProfesor(),
+									     sesion.isTipoHorarioMatutino(),
+									     indicesAsignacionSesion.getIndiceCursoDia() % Constants.NUMERO_DIAS_SEMANA,
+									     indicesAsignacionSesion.getIndiceTramoHorario()) ;
+
+		// Volvemos a marcar la sesión como pendiente y actualizamos los huecos libres de las sesiones pendientes afectadas
+		this.dominiosSesiones.deshacerAsignacion(sesion, indicesAsignacionSesion) ;
 	}
 }
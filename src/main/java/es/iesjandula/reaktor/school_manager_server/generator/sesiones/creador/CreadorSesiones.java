@@ -11,7 +11,10 @@ import es.iesjandula.reaktor.school_manager_server.models.no_jpa.restrictions.Re
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 public class CreadorSesiones
@@ -28,6 +31,15 @@ public class CreadorSesiones
     /** Sesiones sin restricciones */
     private List<SesionBase> sesionesSinRestricciones ;
 
+    /** Índice asignado a cada profesor que participa en la generación */
+    private Map<Profesor, Integer> indicesProfesores ;
+
+    /** Índice asignado a cada asignatura que participa en la generación */
+    private Map<Asignatura, Integer> indicesAsignaturas ;
+
+    /** Número de sesiones creadas, que es también el índice de la siguiente sesión */
+    private int numeroSesiones ;
+
     /**
      * Constructor vacío
      */
@@ -37,6 +49,8 @@ public class CreadorSesiones
         this.sesionesConConciliaciones        = new ArrayList<SesionBase>() ;
         this.sesionesConOptativas             = new ArrayList<SesionBase>() ;
         this.sesionesSinRestricciones         = new ArrayList<SesionBase>() ;
+        this.indicesProfesores                = new HashMap<Profesor, Integer>() ;
+        this.indicesAsignaturas               = new HashMap<Asignatura, Integer>() ;
     }
 
     /**
@@ -69,8 +83,14 @@ public class CreadorSesiones
             listaSesionesElegida = this.sesionesConOptativas ;
         }
 
+        // Creamos la sesión con su índice y el de su profesor y su asignatura
+        SesionAsignatura sesion = new SesionAsignatura(cursoEtapaGrupo, asignatura, profesor, tipoHorarioMatutino, restriccionHorariaInit) ;
+        sesion.setIndiceSesion(this.numeroSesiones++) ;
+        sesion.setIndiceProfesor(this.obtenerIndiceProfesor(profesor)) ;
+        sesion.setIndiceAsignatura(this.indicesAsignaturas.computeIfAbsent(asignatura, clave -> this.indicesAsignaturas.size())) ;
+
         // Añadimos la sesión a la lista elegida
-        listaSesionesElegida.add(new SesionAsignatura(cursoEtapaGrupo, asignatura, profesor, tipoHorarioMatutino, restriccionHorariaInit)) ;
+        listaSesionesElegida.add(sesion) ;
     }
 
     /**
@@ -98,8 +118,38 @@ public class CreadorSesiones
             listaSesionesElegida = this.sesionesConConciliaciones ;
         }
 
+        // Creamos la sesión con su índice y el de su profesor
+        SesionBase sesion = new SesionReduccion(cursoEtapaGrupo, reduccion, profesor, tipoHorarioMatutino, restriccionHorariaInit) ;
+        sesion.setIndiceSesion(this.numeroSesiones++) ;
+        sesion.setIndiceProfesor(this.obtenerIndiceProfesor(profesor)) ;
+
         // Añadimos la sesión a la lista elegida
-        listaSesionesElegida.add(new SesionReduccion(cursoEtapaGrupo, reduccion, profesor, tipoHorarioMatutino, restriccionHorariaInit)) ;
+        listaSesionesElegida.add(sesion) ;
+    }
+
+    /**
+     * @param profesor profesor
+     * @return índice del profesor, asignándole uno nuevo si es la primera vez que aparece
+     */
+    private int obtenerIndiceProfesor(Profesor profesor)
+    {
+        return this.indicesProfesores.computeIfAbsent(profesor, clave -> this.indicesProfesores.size()) ;
+    }
+
+    /**
+     * @return índice asignado a cada asignatura que participa en la generación
+     */
+    public Map<Asignatura, Integer> getIndicesAsignaturas()
+    {
+        return Collections.unmodifiableMap(this.indicesAsignaturas) ;
+    }
+
+    /**
+     * @return número de profesores que participan en la generación
+     */
+    public int getNumeroProfesores()
+    {
+        return this.indicesProfesores.size() ;
     }
 
     /**
@@ -1,32 +1,42 @@
 package es.iesjandula.reaktor.school_manager_server.generator.sesiones.selector;
 
-import java.util.Collections;
 import java.util.List;
+import java.util.SplittableRandom;
 
+import es.iesjandula.reaktor.school_manager_server.generator.sesiones.IndiceBloquesOptativas;
 import es.iesjandula.reaktor.school_manager_server.generator.sesiones.SesionesUtils;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.OcurrenciasAsignaturas;
 import es.iesjandula.reaktor.school_manager_server.generator.threads.UltimaAsignacion;
-import es.iesjandula.reaktor.school_manager_server.models.Asignatura;
-import es.iesjandula.reaktor.school_manager_server.models.no_jpa.Asignacion;
 import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionAsignatura;
 import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
-import es.iesjandula.reaktor.school_manager_server.services.manager.AsignaturaService;
 
 public class SelectorSesionesAsignaturas
 {
-	/** Asignatura service */
-	private AsignaturaService asignaturaService ;
+	/** Índice de los bloques de optativas */
+	private IndiceBloquesOptativas indiceBloquesOptativas ;
+
+	/** Ocurrencias por día de las asignaturas en el intento actual del hilo */
+	private OcurrenciasAsignaturas ocurrenciasAsignaturas ;
 
 	/** Ultima asignación */
 	private UltimaAsignacion ultimaAsignacion ;
 
+	/** Generador de números aleatorios del hilo */
+	private SplittableRandom random ;
+
    	/**
 	 * Constructor de la clase
 	 * 
-	 * @param asignaturaService asignatura service
+	 * @param indiceBloquesOptativas índice de los bloques de optativas
+	 * @param ocurrenciasAsignaturas ocurrencias por día de las asignaturas del hilo
+	 * @param random generador de números aleatorios del hilo
 	 */
-	public SelectorSesionesAsignaturas(AsignaturaService asignaturaService)
+	public SelectorSesionesAsignaturas(IndiceBloquesOptativas indiceBloquesOptativas, OcurrenciasAsignaturas ocurrenciasAsignaturas,
+									   SplittableRandom random)
     {        
-        this.asignaturaService = asignaturaService ;
+        this.indiceBloquesOptativas = indiceBloquesOptativas ;
+        this.ocurrenciasAsignaturas = ocurrenciasAsignaturas ;
+        this.random                 = random ;
     } 
 
     /**
@@ -34,36 +44,32 @@ public class SelectorSesionesAsignaturas
 	 * @return una sesión de FP asociada a la asignatura de la última asignación
 	 */
 	protected SesionBase obtenerSesionRelacionadaConUltimaAsignacion(List<SesionBase> listaDeSesiones,
-	                                                                 Asignacion[][] matrizAsignacionesMatutinas,
-																	 Asignacion[][] matrizAsignacionesVespertinas,
 																	 UltimaAsignacion ultimaAsignacion)
 	{
 		SesionBase outcome = null ;
 
         // Primero vemos si hay una última asignación y si es una asignatura
-        if (this.ultimaAsignacion != null && this.ultimaAsignacion.getAsignacion().getListaSesiones().get(0) instanceof SesionAsignatura)
+        if (this.ultimaAsignacion != null && this.ultimaAsignacion.getPrimeraSesion() instanceof SesionAsignatura)
         {
 			// Obtenemos la sesión de asignatura de la última asignación
-			SesionBase ultimaAsignacionSesionBase = this.ultimaAsignacion.getAsignacion().getListaSesiones().get(0) ;
+			SesionBase ultimaAsignacionSesionBase = this.ultimaAsignacion.getPrimeraSesion() ;
 
 			// Obtenemos la asignatura de la última asignación
-            SesionAsignatura ultimaAsignacionSesionAsignatura = (SesionAsignatura) this.ultimaAsignacion.getAsignacion().getListaSesiones().get(0) ;
+            SesionAsignatura ultimaAsignacionSesionAsignatura = (SesionAsignatura) this.ultimaAsignacion.getPrimeraSesion() ;
 
             // Si es FP ...
             if (!ultimaAsignacionSesionAsignatura.getAsignatura().isEsoBachillerato())
             {
 				// ... tratamos de obtener la sesión que sea del mismo módulo que la última asignación
                 outcome = this.obtenerSesionRelacionadaConUltimaAsignacionFP(listaDeSesiones,
-																		     matrizAsignacionesMatutinas,
-																		     matrizAsignacionesVespertinas,
 																			 ultimaAsignacionSesionBase,
 																			 ultimaAsignacionSesionAsignatura) ;
             }
-			else if (ultimaAsignacionSesionAsignatura.getAsignatura().isOptativa())
+			else if (ultimaAsignacionSesionAsignatura.isOptativa())
 			{
 				// ... tratamos de obtener la sesión que sea de la misma asignatura que la última asignación
 				outcome = this.obtenerSesionParaAsignarEnOptativasInternal(listaDeSesiones,
-																		   ultimaAsignacionSesionAsignatura.getAsignatura()) ;
+																		   ultimaAsignacionSesionAsignatura) ;
 			}
         }
 
@@ -72,36 +78,27 @@ public class SelectorSesionesAsignaturas
 
 	/**
 	 * @param listaDeSesiones lista de sesiones
-	 * @param matrizAsignacionesMatutinas matriz de asignaciones matutinas
-	 * @param matrizAsignacionesVespertinas matriz de asignaciones vespertinas
 	 * @param ultimaAsignacionSesionBase sesión base de la última asignación
 	 * @param ultimaAsignacionSesionAsignatura sesión de asignatura de la última asignación
 	 * @return una sesión de FP asociada a la asignatura de la última asignación
 	 */
 	private SesionBase obtenerSesionRelacionadaConUltimaAsignacionFP(List<SesionBase> listaDeSesiones,
-																	 Asignacion[][] matrizAsignacionesMatutinas,
-																	 Asignacion[][] matrizAsignacionesVespertinas,
 																	 SesionBase ultimaAsignacionSesionBase,
 																	 SesionAsignatura ultimaAsignacionSesionAsignatura)
 	{
 		SesionBase outcome = null ;
 
-		// Obtenemos la asignatura de la última asignación
-		Asignatura ultimaAsignacionAsignatura = ultimaAsignacionSesionAsignatura.getAsignatura() ;
+		// Obtenemos el índice de la asignatura de la última asignación
+		int indiceUltimaAsignacionAsignatura = ultimaAsignacionSesionAsignatura.getIndiceAsignatura() ;
 
 		// Obtenemos el índice del curso-día de la última asignación
 		int indiceCursoDia = this.ultimaAsignacion.getIndicesAsignacionSesion().getIndiceCursoDia() ;
 
-		// Asignamos previamente la matriz de sesiones ya que nos basamos en la asignación anterior
-		Asignacion[][] matrizAsignaciones = this.seleccionarMatrizAsignaciones(matrizAsignacionesMatutinas,
-																			   matrizAsignacionesVespertinas,
-																			   ultimaAsignacionSesionAsignatura) ;
-
-		// Validamos si el día de la sesión es correcto
-		if (SesionesUtils.sesionSinMasXOcurrenciasElMismoDia(matrizAsignaciones, indiceCursoDia, ultimaAsignacionSesionBase))
+		// Validamos si el día de la sesión es correcto consultando las ocurrencias del día
+		if (this.ocurrenciasAsignaturas.sesionSinMasXOcurrenciasElMismoDia(indiceCursoDia, ultimaAsignacionSesionBase))
 		{
 			// Si es válido, tratamos de obtener la sesión
-			outcome = this.obtenerAsignaturaFPInternal(listaDeSesiones, ultimaAsignacionAsignatura) ;
+			outcome = this.obtenerAsignaturaFPInternal(listaDeSesiones, indiceUltimaAsignacionAsignatura) ;
 		}
 
 		return outcome ;
@@ -110,10 +107,10 @@ public class SelectorSesionesAsignaturas
 	/**
      * Tratamos de obtener una sesión de FP asociada a la asignatura de la última asignación
 	 * @param listaDeSesiones lista de sesiones
-	 * @param ultimaAsignacionAsignatura asignatura de la última asignación
+	 * @param indiceUltimaAsignacionAsignatura índice de la asignatura de la última asignación
 	 * @return una sesión de FP asociada a la asignatura de la última asignación
 	 */
-	private SesionBase obtenerAsignaturaFPInternal(List<SesionBase> listaDeSesiones, Asignatura ultimaAsignacionAsignatura)
+	private SesionBase obtenerAsignaturaFPInternal(List<SesionBase> listaDeSesiones, int indiceUltimaAsignacionAsignatura)
 	{
 		SesionBase outcome = null ;
 
@@ -131,7 +128,7 @@ public class SelectorSesionesAsignaturas
                 SesionAsignatura tempSesionAsignatura = (SesionAsignatura) tempSesionBase ;
 
                 // Si la asignatura de la sesión de asignatura es la misma que la asignatura pasada por parámetro ...
-                if (tempSesionAsignatura.getAsignatura().equals(ultimaAsignacionAsignatura))
+                if (tempSesionAsignatura.getIndiceAsignatura() == indiceUltimaAsignacionAsignatura)
                 {
                     // ... encontramos la sesión
                     indiceSesionEncontrada = i ;
@@ -153,15 +150,15 @@ public class SelectorSesionesAsignaturas
 
 	/**
 	 * @param listaDeSesiones lista de sesiones
-	 * @param ultimaAsignacionAsignatura asignatura de la última asignación
+	 * @param ultimaAsignacionSesionAsignatura sesión de asignatura de la última asignación
 	 * @return una sesión de optativas
 	 */
-	private SesionBase obtenerSesionParaAsignarEnOptativasInternal(List<SesionBase> listaDeSesiones, Asignatura ultimaAsignacionAsignatura)
+	private SesionBase obtenerSesionParaAsignarEnOptativasInternal(List<SesionBase> listaDeSesiones, SesionAsignatura ultimaAsignacionSesionAsignatura)
 	{
 		SesionBase outcome = null ;
 		
-		// Obtenemos la/s optativa/s de la última asignación
-		List<Asignatura> bloqueOptativas = this.asignaturaService.buscaOptativasRelacionadas(ultimaAsignacionAsignatura) ;
+		// Obtenemos el índice de la asignatura de la última asignación para buscar sus optativas relacionadas
+		int indiceUltimaAsignacionAsignatura = ultimaAsignacionSesionAsignatura.getIndiceAsignatura() ;
 		
 		// Iteramos en la lista de sesiones pendientes
 		int i = 0 ;
@@ -173,11 +170,11 @@ public class SelectorSesionesAsignaturas
             // Si la sesión base es una sesión de asignatura ...
             if (tempSesionBase instanceof SesionAsignatura)
             {
-                // Obtenemos la asignatura de la sesión de asignatura
-                Asignatura tempAsignatura = ((SesionAsignatura) tempSesionBase).getAsignatura() ;
+                // Obtenemos el índice de la asignatura de la sesión de asignatura
+                int tempIndiceAsignatura = ((SesionAsignatura) tempSesionBase).getIndiceAsignatura() ;
 
                 // Si la asignatura de la sesión de asignatura es una de las optativas que no es la de la última asignación ...
-                if (bloqueOptativas.contains(tempAsignatura) && !ultimaAsignacionAsignatura.equals(tempAsignatura))
+                if (this.indiceBloquesOptativas.optativasRelacionadas(indiceUltimaAsignacionAsignatura, tempIndiceAsignatura))
                 {
                     // ... encontramos la sesión
                     indiceSesionEncontrada = i ;
@@ -208,36 +205,8 @@ public class SelectorSesionesAsignaturas
 		SesionBase sesion = listaDeSesiones.remove(indiceElemento) ;
 
 		// Mezclamos aleatoriamente todas ellas
-		Collections.shuffle(listaDeSesiones) ;
+		SesionesUtils.mezclar(listaDeSesiones, this.random) ;
 
 		return sesion ;
 	}
-
-	/**
-     * Selecciona la matriz de asignaciones apropiada basada en el tipo de horario
-	 * 
-	 * @param matrizAsignacionesMatutinas matriz de asignaciones matutinas
-	 * @param matrizAsignacionesVespertinas matriz de asignaciones vespertinas
-	 * @param sesion sesión
-     */
-    private Asignacion[][] seleccionarMatrizAsignaciones(Asignacion[][] matrizAsignacionesMatutinas,
-														 Asignacion[][] matrizAsignacionesVespertinas,
-														 SesionBase sesion)
-    {
-		Asignacion[][] outcome = null ;
-		
-		// Si es matutino ...
-		if (sesion.isTipoHorarioMatutino())
-		{
-        	// ... elegimos la matriz de asignaciones matutinas
-			outcome = matrizAsignacionesMatutinas ;
-        }
-        else
-        {
-            // ... elegimos la matriz de asignaciones vespertinas
-            outcome = matrizAsignacionesVespertinas ;
-        }
-
-		return outcome ;
-    }
 }
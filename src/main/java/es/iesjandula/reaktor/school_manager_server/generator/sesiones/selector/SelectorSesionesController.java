@@ -1,12 +1,15 @@
 package es.iesjandula.reaktor.school_manager_server.generator.sesiones.selector;
 
-import java.util.Collections;
 import java.util.List;
+import java.util.SplittableRandom;
 
-import es.iesjandula.reaktor.school_manager_server.models.no_jpa.Asignacion;
 import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
-import es.iesjandula.reaktor.school_manager_server.services.manager.AsignaturaService;
+import es.iesjandula.reaktor.school_manager_server.generator.sesiones.IndiceBloquesOptativas;
+import es.iesjandula.reaktor.school_manager_server.generator.sesiones.SesionesUtils;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.DominiosSesiones;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.OcurrenciasAsignaturas;
 import es.iesjandula.reaktor.school_manager_server.generator.threads.UltimaAsignacion;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -16,42 +19,111 @@ public class SelectorSesionesController
 	/** Selector de sesiones de asignaturas */
 	private SelectorSesionesAsignaturas selectorSesionesAsignaturas ;
 
+	/** True si se elige siempre la sesión con menos huecos libres (DSatur) en lugar de una aleatoria de la sublista con más restricciones */
+	private boolean ordenMasRestringida ;
+
+	/** Dominios de las sesiones pendientes en el intento actual del hilo */
+	private DominiosSesiones dominiosSesiones ;
+
+	/** Índice dentro de su sublista de la sesión con menos huecos libres, obtenido con buscarIndiceSublistaParaAsignar */
+	private int indiceSesionMasRestringida ;
+
+	/** Generador de números aleatorios del hilo */
+	private SplittableRandom random ;
+
 	/**
 	 * Constructor de la clase
 	 * 
-	 * @param asignaturaService asignatura service
+	 * @param indiceBloquesOptativas índice de los bloques de optativas
+	 * @param ordenSesiones orden en el que se eligen las sesiones pendientes
+	 * @param dominiosSesiones dominios de las sesiones pendientes del hilo
+	 * @param ocurrenciasAsignaturas ocurrencias por día de las asignaturas del hilo
+	 * @param random generador de números aleatorios del hilo
 	 */
-	public SelectorSesionesController(AsignaturaService asignaturaService)
+	public SelectorSesionesController(IndiceBloquesOptativas indiceBloquesOptativas, String ordenSesiones,
+									  DominiosSesiones dominiosSesiones, OcurrenciasAsignaturas ocurrenciasAsignaturas,
+									  SplittableRandom random)
 	{
-		this.selectorSesionesAsignaturas = new SelectorSesionesAsignaturas(asignaturaService) ;
+		this.selectorSesionesAsignaturas = new SelectorSesionesAsignaturas(indiceBloquesOptativas, ocurrenciasAsignaturas, random) ;
+		this.ordenMasRestringida 		 = Constants.ORDEN_SESIONES_MAS_RESTRINGIDA.equals(ordenSesiones) ;
+		this.dominiosSesiones 			 = dominiosSesiones ;
+		this.random 					 = random ;
 	}
 
 	/**
+	 * Con DSatur, guarda además el índice de la sesión con menos huecos libres dentro de la sublista,
+	 * para no tener que buscarla de nuevo al obtenerla
+	 * 
 	 * @param sesionesPendientes sesiones pendientes
-	 * @param matrizAsignacionesMatutinas matriz de asignaciones matutinas
-	 * @param matrizAsignacionesVespertinas matriz de asignaciones vespertinas
+	 * @return índice de la sublista de la que saldrá la siguiente sesión a asignar
+	 */
+	public int buscarIndiceSublistaParaAsignar(List<List<SesionBase>> sesionesPendientes)
+	{
+		int outcome = -1 ;
+
+		if (this.ordenMasRestringida)
+		{
+			// La sublista donde está la sesión con menos huecos libres
+			long mejorPrioridad = Long.MAX_VALUE ;
+			int empates 		= 0 ;
+
+			for (int i = 0 ; i < sesionesPendientes.size() ; i++)
+			{
+				List<SesionBase> sublista = sesionesPendientes.get(i) ;
+
+				for (int j = 0 ; j < sublista.size() ; j++)
+				{
+					long prioridad = this.calcularPrioridad(sublista.get(j)) ;
+
+					// Entre las que empatan, nos quedamos con una al azar
+					if (prioridad < mejorPrioridad)
+					{
+						mejorPrioridad 					= prioridad ;
+						empates 	   					= 1 ;
+						outcome 	   					= i ;
+						this.indiceSesionMasRestringida = j ;
+					}
+					else if (prioridad == mejorPrioridad && this.random.nextInt(++empates) == 0)
+					{
+						outcome 						= i ;
+						this.indiceSesionMasRestringida = j ;
+					}
+				}
+			}
+		}
+		else
+		{
+			// Buscamos el último índice que tenga elementos en la lista de sesiones pendientes
+			outcome = this.buscarUltimoIndiceConElementosEnListaDeSesionesPendientes(sesionesPendientes) ;
+		}
+
+		return outcome ;
+	}
+
+	/**
+	 * @param sesionesPendientes sesiones pendientes
+	 * @param indiceSublista índice de la sublista de la que sale la sesión (obtenido con buscarIndiceSublistaParaAsignar)
 	 * @param ultimaAsignacion ultima asignación
      * @return una de las sesiones pendientes de asignar
      */
     public SesionBase obtenerSesionParaAsignar(List<List<SesionBase>> sesionesPendientes,
-										       Asignacion[][] matrizAsignacionesMatutinas,
-											   Asignacion[][] matrizAsignacionesVespertinas,
+											   int indiceSublista,
 											   UltimaAsignacion ultimaAsignacion)
     {
-		// Buscamos el último índice que tenga elementos en la lista de sesiones pendientes
-		int ultimoIndiceConElementos = this.buscarUltimoIndiceConElementosEnListaDeSesionesPendientes(sesionesPendientes) ;
-
-		// Nos vamos a la lista que tenga más restricciones
-		List<SesionBase> listaDeSesiones = sesionesPendientes.get(ultimoIndiceConElementos) ;
+		// Nos vamos a la lista elegida (sin DSatur, la que tenga más restricciones)
+		List<SesionBase> listaDeSesiones = sesionesPendientes.get(indiceSublista) ;
     	
 		// Tratamos de obtener una sesión de asignaturas relacionadas con la última asignación
 		SesionBase outcome = this.selectorSesionesAsignaturas.obtenerSesionRelacionadaConUltimaAsignacion(listaDeSesiones,
-																									      matrizAsignacionesMatutinas,
-																									      matrizAsignacionesVespertinas,
 																									      ultimaAsignacion) ;
 
 		// Llegados a este punto, no encontramos ninguna sesión válida ...
-		if (outcome == null)
+		if (outcome == null && this.ordenMasRestringida)
+		{
+			// ... elegimos la que tenga menos huecos libres, que ya se encontró al buscar la sublista
+			outcome = listaDeSesiones.remove(this.indiceSesionMasRestringida) ;
+		}
+		else if (outcome == null)
 		{
 			// ... elegimos una aleatoria
 			outcome = this.obtenerSesionBorrarYmezclar(listaDeSesiones, 0) ;
@@ -61,7 +133,7 @@ public class SelectorSesionesController
 		if (listaDeSesiones.size() == 0)
 		{
 			// Borramos la sublista
-			sesionesPendientes.remove(ultimoIndiceConElementos) ;
+			sesionesPendientes.remove(indiceSublista) ;
 		}
 				
 		return outcome ;
@@ -71,7 +143,7 @@ public class SelectorSesionesController
 	 * @param sesionesPendientes sesiones pendientes
      * @return el último índice que tenga elementos
      */
-	private int buscarUltimoIndiceConElementosEnListaDeSesionesPendientes(List<List<SesionBase>> sesionesPendientes)
+	public int buscarUltimoIndiceConElementosEnListaDeSesionesPendientes(List<List<SesionBase>> sesionesPendientes)
 	{
 		int ultimoIndiceConElementos = -1 ;
     	
@@ -89,6 +161,16 @@ public class SelectorSesionesController
 		return ultimoIndiceConElementos ;
 	}
 
+	/**
+	 * @param sesion sesión pendiente
+	 * @return prioridad de la sesión (menor es antes): primero los huecos libres y, a igualdad, el profesor con más sesiones pendientes
+	 */
+	private long calcularPrioridad(SesionBase sesion)
+	{
+		// Las sesiones pendientes del profesor caben de sobra en los bits bajos (como mucho, 60 días y tramos)
+		return ((long) this.dominiosSesiones.obtenerHuecosLibres(sesion) << 8) - this.dominiosSesiones.obtenerSesionesPendientesProfesor(sesion.getIndiceProfesor()) ;
+	}
+
 	/**
 	 * @param listaDeSesiones lista de sesiones
 	 * @param indiceElemento índice del elemento a eliminar
@@ -100,7 +182,7 @@ public class SelectorSesionesController
 		SesionBase sesion = listaDeSesiones.remove(indiceElemento) ;
 
 		// Mezclamos aleatoriamente todas ellas
-		Collections.shuffle(listaDeSesiones) ;
+		SesionesUtils.mezclar(listaDeSesiones, this.random) ;
 
 		return sesion ;
 	}
@@ -0,0 +1,424 @@
+package es.iesjandula.reaktor.school_manager_server.generator.sintetico;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorReduccionConRestriccionesDto;
+import es.iesjandula.reaktor.school_manager_server.generator.configuracion.FuenteDatosEnMemoria;
+import es.iesjandula.reaktor.school_manager_server.models.Asignatura;
+import es.iesjandula.reaktor.school_manager_server.models.Bloque;
+import es.iesjandula.reaktor.school_manager_server.models.CursoEtapaGrupo;
+import es.iesjandula.reaktor.school_manager_server.models.DiaTramoTipoHorario;
+import es.iesjandula.reaktor.school_manager_server.models.Impartir;
+import es.iesjandula.reaktor.school_manager_server.models.ObservacionesAdicionales;
+import es.iesjandula.reaktor.school_manager_server.models.PreferenciasHorariasProfesor;
+import es.iesjandula.reaktor.school_manager_server.models.Profesor;
+import es.iesjandula.reaktor.school_manager_server.models.Reduccion;
+import es.iesjandula.reaktor.school_manager_server.models.ids.IdAsignatura;
+import es.iesjandula.reaktor.school_manager_server.models.ids.IdCursoEtapaGrupo;
+import es.iesjandula.reaktor.school_manager_server.models.ids.IdReduccion;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
+import es.iesjandula.reaktor.school_manager_server.utils.SchoolManagerServerException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Genera en memoria los datos de entrada del generador de un centro sintético, sin BBDD.
+ * <p>Los grupos de ESO son matutinos, con asignaturas comunes de 2 a 4 horas, una tutoría y 2 horas por cada bloque
+ * de optativas de su curso. Los grupos de FP son vespertinos y reparten sus horas entre sus módulos. Cada profesor
+ * imparte asignaturas de un único departamento hasta completar su horario lectivo, salvo que se fije el número de
+ * profesores, en cuyo caso cada asignatura se asigna al profesor con menos carga.</p>
+ */
+@Slf4j
+public class GeneradorCentroSintetico
+{
+    /** Curso académico de los centros sintéticos */
+    public static final String CURSO_ACADEMICO = "2025-26" ;
+
+    /** Etapa de los grupos matutinos */
+    private static final String ETAPA_ESO = "ESO" ;
+
+    /** Etapa de los grupos vespertinos */
+    private static final String ETAPA_FP = "FP" ;
+
+    /** Número de cursos de ESO */
+    private static final int NUMERO_CURSOS_ESO = 4 ;
+
+    /** Número de cursos de FP */
+    private static final int NUMERO_CURSOS_FP = 2 ;
+
+    /** Asignaturas comunes de ESO */
+    private static final String[] ASIGNATURAS_ESO = { "Lengua", "Matemáticas", "Inglés", "Geografía", "Biología", "Educación Física", "Tecnología", "Música" } ;
+
+    /** Horas de cada asignatura común de ESO */
+    private static final int[] HORAS_ASIGNATURAS_ESO = { 4, 4, 4, 3, 3, 2, 2, 2 } ;
+
+    /** Horas de cada asignatura optativa */
+    private static final int HORAS_OPTATIVA = 2 ;
+
+    /** Asignaturas optativas de cada bloque */
+    private static final int OPTATIVAS_POR_BLOQUE = 2 ;
+
+    /** Horas semanales de los grupos de FP */
+    private static final int HORAS_SEMANALES_FP = 28 ;
+
+    /** Horas de la tutoría de cada grupo de ESO */
+    private static final int HORAS_TUTORIA = 1 ;
+
+    /** Parámetros del centro */
+    private final ParametrosCentroSintetico parametros ;
+
+    /** Generador de números aleatorios con la semilla de los parámetros */
+    private final Random random ;
+
+    /** Datos de entrada del generador que se van construyendo */
+    private FuenteDatosEnMemoria fuenteDatosEnMemoria ;
+
+    /** Profesores del centro */
+    private List<Profesor> profesores ;
+
+    /** Horas lectivas asignadas a cada profesor */
+    private Map<Profesor, Integer> cargaProfesores ;
+
+    /** Profesor de cada departamento al que se le siguen asignando asignaturas mientras tenga horas libres */
+    private Map<String, Profesor> profesorActualDepartamento ;
+
+    /**
+     * @param parametros parámetros del centro
+     */
+    public GeneradorCentroSintetico(ParametrosCentroSintetico parametros)
+    {
+        this.parametros = parametros ;
+        this.random     = new Random(parametros.getSemilla()) ;
+    }
+
+    /**
+     * @return datos de entrada del generador del centro sintético
+     * @throws SchoolManagerServerException si los parámetros no permiten construir un horario semanal
+     */
+    public FuenteDatosEnMemoria generar() throws SchoolManagerServerException
+    {
+        this.validarParametros() ;
+
+        this.fuenteDatosEnMemoria       = new FuenteDatosEnMemoria() ;
+        this.profesores                 = new ArrayList<Profesor>() ;
+        this.cargaProfesores            = new HashMap<Profesor, Integer>() ;
+        this.profesorActualDepartamento = new HashMap<String, Profesor>() ;
+
+        // Con el número de profesores fijado, se crean todos antes de asignarles asignaturas
+        for (int i = 0 ; i < this.parametros.getNumeroProfesores() ; i++)
+        {
+            this.crearProfesor() ;
+        }
+
+        this.generarEso() ;
+        this.generarFp() ;
+
+        log.info("Centro sintético ({}): {} grupos, {} profesores, {} asignaturas a impartir y {} reducciones", this.parametros,
+                 this.fuenteDatosEnMemoria.obtenerCursosEtapasGrupos().size(), this.profesores.size(),
+                 this.fuenteDatosEnMemoria.obtenerImpartir().size(), this.fuenteDatosEnMemoria.obtenerReduccionesConRestricciones().size()) ;
+
+        return this.fuenteDatosEnMemoria ;
+    }
+
+    /**
+     * @throws SchoolManagerServerException si las horas de algún grupo no caben en la semana
+     */
+    private void validarParametros() throws SchoolManagerServerException
+    {
+        int horasSemana = Constants.NUMERO_DIAS_SEMANA * Constants.NUMERO_TRAMOS_HORARIOS ;
+
+        int horasEso = HORAS_TUTORIA + this.parametros.getNumeroBloquesOptativas() * HORAS_OPTATIVA ;
+        for (int horas : HORAS_ASIGNATURAS_ESO)
+        {
+            horasEso = horasEso + horas ;
+        }
+
+        String mensajeError = null ;
+        if (this.parametros.getNumeroGruposEso() < 0 || this.parametros.getNumeroGruposFp() < 0 || this.parametros.getNumeroProfesores() < 0)
+        {
+            mensajeError = "El número de grupos y de profesores no puede ser negativo" ;
+        }
+        else if (this.parametros.getNumeroBloquesOptativas() < 0 || horasEso > horasSemana)
+        {
+            mensajeError = "Con " + this.parametros.getNumeroBloquesOptativas() + " bloques de optativas los grupos de ESO tendrían " + horasEso +
+                           " horas, y la semana solo tiene " + horasSemana ;
+        }
+        else if (this.parametros.getNumeroGruposFp() > 0 &&
+                 (this.parametros.getNumeroModulosFp() <= 0 ||
+                  (HORAS_SEMANALES_FP + this.parametros.getNumeroModulosFp() - 1) / this.parametros.getNumeroModulosFp() >
+                  Constants.NUMERO_MAXIMO_OCURRENCIAS_POR_DIA_FP * Constants.NUMERO_DIAS_SEMANA))
+        {
+            mensajeError = "Con " + this.parametros.getNumeroModulosFp() + " módulos los grupos de FP tendrían módulos que no caben en la semana" ;
+        }
+
+        if (mensajeError != null)
+        {
+            log.error(mensajeError) ;
+            throw new SchoolManagerServerException(Constants.ERROR_CODE_CENTRO_SINTETICO_INCORRECTO, mensajeError) ;
+        }
+    }
+
+    /**
+     * Genera los grupos de ESO con sus asignaturas comunes, optativas y tutorías
+     */
+    private void generarEso()
+    {
+        // Grupos de cada curso de ESO
+        List<List<CursoEtapaGrupo>> gruposPorCurso = new ArrayList<List<CursoEtapaGrupo>>() ;
+        for (int curso = 0 ; curso < NUMERO_CURSOS_ESO ; curso++)
+        {
+            gruposPorCurso.add(new ArrayList<CursoEtapaGrupo>()) ;
+        }
+
+        for (int i = 0 ; i < this.parametros.getNumeroGruposEso() ; i++)
+        {
+            CursoEtapaGrupo cursoEtapaGrupo = this.crearCursoEtapaGrupo(1 + i % NUMERO_CURSOS_ESO, ETAPA_ESO, String.valueOf((char) ('A' + i / NUMERO_CURSOS_ESO)), true) ;
+
+            this.fuenteDatosEnMemoria.anadirCursoEtapaGrupo(cursoEtapaGrupo) ;
+            gruposPorCurso.get(i % NUMERO_CURSOS_ESO).add(cursoEtapaGrupo) ;
+        }
+
+        // Asignaturas comunes, recorriendo los grupos por departamento para que cada profesor imparta la misma asignatura en varios grupos
+        Map<CursoEtapaGrupo, Profesor> tutores = new HashMap<CursoEtapaGrupo, Profesor>() ;
+        for (int i = 0 ; i < ASIGNATURAS_ESO.length ; i++)
+        {
+            for (List<CursoEtapaGrupo> grupos : gruposPorCurso)
+            {
+                for (CursoEtapaGrupo cursoEtapaGrupo : grupos)
+                {
+                    Impartir impartir = this.crearImpartir(cursoEtapaGrupo, ASIGNATURAS_ESO[i], HORAS_ASIGNATURAS_ESO[i], null, ASIGNATURAS_ESO[i]) ;
+
+                    // El tutor del grupo es su profesor de la primera asignatura
+                    tutores.putIfAbsent(cursoEtapaGrupo, impartir.getProfesor()) ;
+                }
+            }
+        }
+
+        // Optativas: cada bloque tiene varias optativas que se imparten a la vez en todos los grupos del curso
+        long idBloque = 1L ;
+        for (int curso = 0 ; curso < NUMERO_CURSOS_ESO ; curso++)
+        {
+            if (!gruposPorCurso.get(curso).isEmpty())
+            {
+                CursoEtapaGrupo grupoOptativas = this.crearCursoEtapaGrupo(curso + 1, ETAPA_ESO, Constants.GRUPO_OPTATIVAS, true) ;
+
+                for (int bloque = 0 ; bloque < this.parametros.getNumeroBloquesOptativas() ; bloque++)
+                {
+                    Bloque bloqueOptativas = new Bloque(idBloque++, null) ;
+
+                    for (int optativa = 0 ; optativa < OPTATIVAS_POR_BLOQUE ; optativa++)
+                    {
+                        this.crearImpartir(grupoOptativas, "Optativa " + (bloque + 1) + "." + (optativa + 1), HORAS_OPTATIVA, bloqueOptativas, "Optativas") ;
+                    }
+                }
+            }
+        }
+
+        // Tutorías en un día y tramo concreto, sin que un tutor tenga dos a la vez
+        if (this.parametros.isTutorias())
+        {
+            Map<Profesor, Set<Integer>> tramosTutores = new HashMap<Profesor, Set<Integer>>() ;
+
+            for (List<CursoEtapaGrupo> grupos : gruposPorCurso)
+            {
+                for (CursoEtapaGrupo cursoEtapaGrupo : grupos)
+                {
+                    Profesor tutor           = tutores.get(cursoEtapaGrupo) ;
+                    Set<Integer> tramosTutor = tramosTutores.computeIfAbsent(tutor, clave -> new HashSet<Integer>()) ;
+
+                    // Con muy pocos profesores, un tutor puede no tener ya tramos libres para otra tutoría
+                    if (tramosTutor.size() < Constants.NUMERO_DIAS_SEMANA * (Constants.NUMERO_TRAMOS_HORARIOS - 2))
+                    {
+                        this.crearTutoria(cursoEtapaGrupo, tutor, tramosTutor) ;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Genera los grupos de FP, que reparten sus horas semanales entre sus módulos
+     */
+    private void generarFp()
+    {
+        for (int i = 0 ; i < this.parametros.getNumeroGruposFp() ; i++)
+        {
+            int curso = 1 + i % NUMERO_CURSOS_FP ;
+
+            CursoEtapaGrupo cursoEtapaGrupo = this.crearCursoEtapaGrupo(curso, ETAPA_FP, String.valueOf((char) ('A' + i / NUMERO_CURSOS_FP)), false) ;
+            this.fuenteDatosEnMemoria.anadirCursoEtapaGrupo(cursoEtapaGrupo) ;
+
+            int numeroModulos = this.parametros.getNumeroModulosFp() ;
+            for (int modulo = 0 ; modulo < numeroModulos ; modulo++)
+            {
+                int horas = HORAS_SEMANALES_FP / numeroModulos + (modulo < HORAS_SEMANALES_FP % numeroModulos ? 1 : 0) ;
+
+                // Cada curso de FP es un departamento, como en un ciclo formativo
+                this.crearImpartir(cursoEtapaGrupo, "Módulo " + curso + "." + (modulo + 1), horas, null, ETAPA_FP + " " + curso) ;
+            }
+        }
+    }
+
+    /**
+     * @return curso, etapa y grupo del centro sintético
+     */
+    private CursoEtapaGrupo crearCursoEtapaGrupo(int curso, String etapa, String grupo, boolean horarioMatutino)
+    {
+        CursoEtapaGrupo cursoEtapaGrupo = new CursoEtapaGrupo() ;
+        cursoEtapaGrupo.setIdCursoEtapaGrupo(new IdCursoEtapaGrupo(CURSO_ACADEMICO, curso, etapa, grupo)) ;
+        cursoEtapaGrupo.setHorarioMatutino(horarioMatutino) ;
+        cursoEtapaGrupo.setEsoBachillerato(ETAPA_ESO.equals(etapa)) ;
+
+        return cursoEtapaGrupo ;
+    }
+
+    /**
+     * @param cursoEtapaGrupo grupo de la asignatura
+     * @param nombre nombre de la asignatura
+     * @param horas horas semanales de la asignatura
+     * @param bloque bloque de la asignatura optativa (null si no es optativa)
+     * @param departamento departamento de la asignatura
+     * @return asignatura a impartir, ya añadida a los datos de entrada
+     */
+    private Impartir crearImpartir(CursoEtapaGrupo cursoEtapaGrupo, String nombre, int horas, Bloque bloque, String departamento)
+    {
+        Asignatura asignatura = new Asignatura() ;
+        asignatura.setIdAsignatura(new IdAsignatura(cursoEtapaGrupo, nombre)) ;
+        asignatura.setHoras(horas) ;
+        asignatura.setEsoBachillerato(cursoEtapaGrupo.getEsoBachillerato()) ;
+        asignatura.setBloqueId(bloque) ;
+
+        Impartir impartir = new Impartir() ;
+        impartir.setAsignatura(asignatura) ;
+        impartir.setProfesor(this.asignarProfesor(departamento, horas)) ;
+        impartir.setCupoHoras(horas) ;
+
+        this.fuenteDatosEnMemoria.anadirImpartir(impartir) ;
+
+        return impartir ;
+    }
+
+    /**
+     * @param cursoEtapaGrupo grupo de la tutoría
+     * @param tutor tutor del grupo
+     * @param tramosTutor días y tramos de las tutorías que ya tiene el tutor
+     */
+    private void crearTutoria(CursoEtapaGrupo cursoEtapaGrupo, Profesor tutor, Set<Integer> tramosTutor)
+    {
+        IdCursoEtapaGrupo idCursoEtapaGrupo = cursoEtapaGrupo.getIdCursoEtapaGrupo() ;
+
+        Reduccion reduccion = new Reduccion() ;
+        reduccion.setIdReduccion(new IdReduccion(CURSO_ACADEMICO,
+                                                 Constants.PREFIJO_REDUCCION_TUTORIA + idCursoEtapaGrupo.getCurso() + "º " + idCursoEtapaGrupo.getEtapa() + " " + idCursoEtapaGrupo.getGrupo(),
+                                                 HORAS_TUTORIA)) ;
+        reduccion.setDecideDireccion(true) ;
+        reduccion.setCursoEtapaGrupo(cursoEtapaGrupo) ;
+
+        // Ni a primera ni a última hora, para no chocar con la conciliación del tutor
+        int dia   = 0 ;
+        int tramo = 0 ;
+        do
+        {
+            dia   = this.random.nextInt(Constants.NUMERO_DIAS_SEMANA) ;
+            tramo = 1 + this.random.nextInt(Constants.NUMERO_TRAMOS_HORARIOS - 2) ;
+        }
+        while (!tramosTutor.add(dia * Constants.NUMERO_TRAMOS_HORARIOS + tramo)) ;
+
+        DiaTramoTipoHorario diaTramoTipoHorario = new DiaTramoTipoHorario() ;
+        diaTramoTipoHorario.setDia(dia) ;
+        diaTramoTipoHorario.setTramo(tramo) ;
+        diaTramoTipoHorario.setHorarioMatutino(cursoEtapaGrupo.getHorarioMatutino()) ;
+
+        this.cargaProfesores.merge(tutor, HORAS_TUTORIA, Integer::sum) ;
+
+        this.fuenteDatosEnMemoria.anadirReduccion(new GeneradorReduccionConRestriccionesDto(reduccion, tutor, cursoEtapaGrupo, diaTramoTipoHorario)) ;
+    }
+
+    /**
+     * @param departamento departamento de la asignatura
+     * @param horas horas de la asignatura
+     * @return profesor que impartirá la asignatura, con su carga ya actualizada
+     */
+    private Profesor asignarProfesor(String departamento, int horas)
+    {
+        Profesor profesor = null ;
+
+        if (this.parametros.getNumeroProfesores() > 0)
+        {
+            // Con el número de profesores fijado, el que tenga menos carga
+            for (Profesor candidato : this.profesores)
+            {
+                if (profesor == null || this.cargaProfesores.get(candidato) < this.cargaProfesores.get(profesor))
+                {
+                    profesor = candidato ;
+                }
+            }
+        }
+        else
+        {
+            // Si no, el profesor actual del departamento mientras no complete su horario lectivo
+            profesor = this.profesorActualDepartamento.get(departamento) ;
+
+            if (profesor == null || this.cargaProfesores.get(profesor) + horas > Constants.HORAS_LECTIVAS_PROFESOR)
+            {
+                profesor = this.crearProfesor() ;
+                this.profesorActualDepartamento.put(departamento, profesor) ;
+            }
+        }
+
+        this.cargaProfesores.merge(profesor, horas, Integer::sum) ;
+
+        return profesor ;
+    }
+
+    /**
+     * @return nuevo profesor con sus observaciones adicionales y sus preferencias horarias aleatorias
+     */
+    private Profesor crearProfesor()
+    {
+        int indice = this.profesores.size() + 1 ;
+
+        Profesor profesor = new Profesor() ;
+        profesor.setCursoAcademico(CURSO_ACADEMICO) ;
+        profesor.setEmail("profesor" + indice + "@centro-sintetico.es") ;
+        profesor.setNombre("Profesor") ;
+        profesor.setApellidos(String.valueOf(indice)) ;
+
+        ObservacionesAdicionales observacionesAdicionales = new ObservacionesAdicionales() ;
+        observacionesAdicionales.setConciliacion(this.random.nextDouble() < this.parametros.getProbabilidadConciliacion()) ;
+        observacionesAdicionales.setSinClasePrimeraHora(this.random.nextBoolean()) ;
+        profesor.setObservacionesAdicionales(observacionesAdicionales) ;
+
+        // Cada tramo de la semana se prefiere evitar con la densidad de preferencias indicada
+        List<PreferenciasHorariasProfesor> preferenciasHorariasProfesor = new ArrayList<PreferenciasHorariasProfesor>() ;
+        for (int dia = 0 ; dia < Constants.NUMERO_DIAS_SEMANA ; dia++)
+        {
+            for (int tramo = 0 ; tramo < Constants.NUMERO_TRAMOS_HORARIOS ; tramo++)
+            {
+                if (this.random.nextDouble() < this.parametros.getDensidadPreferencias())
+                {
+                    DiaTramoTipoHorario diaTramoTipoHorario = new DiaTramoTipoHorario() ;
+                    diaTramoTipoHorario.setDia(dia) ;
+                    diaTramoTipoHorario.setTramo(tramo) ;
+
+                    PreferenciasHorariasProfesor preferencia = new PreferenciasHorariasProfesor() ;
+                    preferencia.setProfesor(profesor) ;
+                    preferencia.setDiaTramoTipoHorario(diaTramoTipoHorario) ;
+
+                    preferenciasHorariasProfesor.add(preferencia) ;
+                }
+            }
+        }
+        profesor.setPreferenciasHorariasProfesor(preferenciasHorariasProfesor) ;
+
+        this.profesores.add(profesor) ;
+        this.cargaProfesores.put(profesor, 0) ;
+
+        return profesor ;
+    }
+}
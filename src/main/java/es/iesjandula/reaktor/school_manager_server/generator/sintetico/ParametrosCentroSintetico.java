@@ -0,0 +1,275 @@
+package es.iesjandula.reaktor.school_manager_server.generator.sintetico;
+
+/**
+ * Parámetros de un centro sintético del banco de pruebas del generador. La misma semilla y los mismos parámetros
+ * generan siempre el mismo centro
+ */
+public class ParametrosCentroSintetico
+{
+    /** Semilla del generador de números aleatorios */
+    private long semilla ;
+
+    /** Número de grupos de ESO (matutinos), repartidos entre los cuatro cursos */
+    private int numeroGruposEso ;
+
+    /** Número de grupos de FP (vespertinos), repartidos entre los dos cursos */
+    private int numeroGruposFp ;
+
+    /** Número de profesores (0 para crear los que necesite cada departamento) */
+    private int numeroProfesores ;
+
+    /** Número de bloques de optativas de cada curso de ESO */
+    private int numeroBloquesOptativas ;
+
+    /** Número de módulos de cada grupo de FP */
+    private int numeroModulosFp ;
+
+    /** Probabilidad de que un profesor prefiera evitar cada uno de los tramos de la semana */
+    private double densidadPreferencias ;
+
+    /** Probabilidad de que un profesor solicite conciliación */
+    private double probabilidadConciliacion ;
+
+    /** True si cada grupo de ESO tiene una reducción de tutoría en un día y tramo concreto */
+    private boolean tutorias ;
+
+    /**
+     * Constructor privado para forzar el uso del Builder
+     *
+     * @param builder builder interno
+     */
+    private ParametrosCentroSintetico(Builder builder)
+    {
+        this.semilla                  = builder.semilla ;
+        this.numeroGruposEso          = builder.numeroGruposEso ;
+        this.numeroGruposFp           = builder.numeroGruposFp ;
+        this.numeroProfesores         = builder.numeroProfesores ;
+        this.numeroBloquesOptativas   = builder.numeroBloquesOptativas ;
+        this.numeroModulosFp          = builder.numeroModulosFp ;
+        this.densidadPreferencias     = builder.densidadPreferencias ;
+        this.probabilidadConciliacion = builder.probabilidadConciliacion ;
+        this.tutorias                 = builder.tutorias ;
+    }
+
+    /**
+     * @return semilla del generador de números aleatorios
+     */
+    public long getSemilla()
+    {
+        return this.semilla ;
+    }
+
+    /**
+     * @return número de grupos de ESO (matutinos)
+     */
+    public int getNumeroGruposEso()
+    {
+        return this.numeroGruposEso ;
+    }
+
+    /**
+     * @return número de grupos de FP (vespertinos)
+     */
+    public int getNumeroGruposFp()
+    {
+        return this.numeroGruposFp ;
+    }
+
+    /**
+     * @return número de profesores (0 para crear los que necesite cada departamento)
+     */
+    public int getNumeroProfesores()
+    {
+        return this.numeroProfesores ;
+    }
+
+    /**
+     * @return número de bloques de optativas de cada curso de ESO
+     */
+    public int getNumeroBloquesOptativas()
+    {
+        return this.numeroBloquesOptativas ;
+    }
+
+    /**
+     * @return número de módulos de cada grupo de FP
+     */
+    public int getNumeroModulosFp()
+    {
+        return this.numeroModulosFp ;
+    }
+
+    /**
+     * @return probabilidad de que un profesor prefiera evitar cada uno de los tramos de la semana
+     */
+    public double getDensidadPreferencias()
+    {
+        return this.densidadPreferencias ;
+    }
+
+    /**
+     * @return probabilidad de que un profesor solicite conciliación
+     */
+    public double getProbabilidadConciliacion()
+    {
+        return this.probabilidadConciliacion ;
+    }
+
+    /**
+     * @return true si cada grupo de ESO tiene una reducción de tutoría en un día y tramo concreto
+     */
+    public boolean isTutorias()
+    {
+        return this.tutorias ;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "semilla=" + this.semilla + ", gruposEso=" + this.numeroGruposEso + ", gruposFp=" + this.numeroGruposFp +
+               ", profesores=" + this.numeroProfesores + ", bloquesOptativas=" + this.numeroBloquesOptativas +
+               ", modulosFp=" + this.numeroModulosFp + ", densidadPreferencias=" + this.densidadPreferencias +
+               ", probabilidadConciliacion=" + this.probabilidadConciliacion + ", tutorias=" + this.tutorias ;
+    }
+
+    /**
+     * Builder de los parámetros, con los valores por defecto de un centro mediano de ESO
+     */
+    public static class Builder
+    {
+        /** Semilla del generador de números aleatorios */
+        private long semilla = 1L ;
+
+        /** Número de grupos de ESO (matutinos) */
+        private int numeroGruposEso = 16 ;
+
+        /** Número de grupos de FP (vespertinos) */
+        private int numeroGruposFp = 0 ;
+
+        /** Número de profesores (0 para crear los que necesite cada departamento) */
+        private int numeroProfesores = 0 ;
+
+        /** Número de bloques de optativas de cada curso de ESO */
+        private int numeroBloquesOptativas = 1 ;
+
+        /** Número de módulos de cada grupo de FP */
+        private int numeroModulosFp = 6 ;
+
+        /** Probabilidad de que un profesor prefiera evitar cada uno de los tramos de la semana */
+        private double densidadPreferencias = 0.1d ;
+
+        /** Probabilidad de que un profesor solicite conciliación */
+        private double probabilidadConciliacion = 0.05d ;
+
+        /** True si cada grupo de ESO tiene una reducción de tutoría */
+        private boolean tutorias = true ;
+
+        /**
+         * @param semilla semilla del generador de números aleatorios
+         * @return builder
+         */
+        public Builder setSemilla(long semilla)
+        {
+            this.semilla = semilla ;
+
+            return this ;
+        }
+
+        /**
+         * @param numeroGruposEso número de grupos de ESO (matutinos)
+         * @return builder
+         */
+        public Builder setNumeroGruposEso(int numeroGruposEso)
+        {
+            this.numeroGruposEso = numeroGruposEso ;
+
+            return this ;
+        }
+
+        /**
+         * @param numeroGruposFp número de grupos de FP (vespertinos)
+         * @return builder
+         */
+        public Builder setNumeroGruposFp(int numeroGruposFp)
+        {
+            this.numeroGruposFp = numeroGruposFp ;
+
+            return this ;
+        }
+
+        /**
+         * @param numeroProfesores número de profesores (0 para crear los que necesite cada departamento)
+         * @return builder
+         */
+        public Builder setNumeroProfesores(int numeroProfesores)
+        {
+            this.numeroProfesores = numeroProfesores ;
+
+            return this ;
+        }
+
+        /**
+         * @param numeroBloquesOptativas número de bloques de optativas de cada curso de ESO
+         * @return builder
+         */
+        public Builder setNumeroBloquesOptativas(int numeroBloquesOptativas)
+        {
+            this.numeroBloquesOptativas = numeroBloquesOptativas ;
+
+            return this ;
+        }
+
+        /**
+         * @param numeroModulosFp número de módulos de cada grupo de FP
+         * @return builder
+         */
+        public Builder setNumeroModulosFp(int numeroModulosFp)
+        {
+            this.numeroModulosFp = numeroModulosFp ;
+
+            return this ;
+        }
+
+        /**
+         * @param densidadPreferencias probabilidad de que un profesor prefiera evitar cada uno de los tramos de la semana
+         * @return builder
+         */
+        public Builder setDensidadPreferencias(double densidadPreferencias)
+        {
+            this.densidadPreferencias = densidadPreferencias ;
+
+            return this ;
+        }
+
+        /**
+         * @param probabilidadConciliacion probabilidad de que un profesor solicite conciliación
+         * @return builder
+         */
+        public Builder setProbabilidadConciliacion(double probabilidadConciliacion)
+        {
+            this.probabilidadConciliacion = probabilidadConciliacion ;
+
+            return this ;
+        }
+
+        /**
+         * @param tutorias true si cada grupo de ESO tiene una reducción de tutoría
+         * @return builder
+         */
+        public Builder setTutorias(boolean tutorias)
+        {
+            this.tutorias = tutorias ;
+
+            return this ;
+        }
+
+        /**
+         * Método build que construye el objeto final
+         * @return una instancia de ParametrosCentroSintetico
+         */
+        public ParametrosCentroSintetico build()
+        {
+            return new ParametrosCentroSintetico(this) ;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package es.iesjandula.reaktor.school_manager_server.generator.threads;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorEstadisticasDto;
+
+/**
+ * Estado compartido por todos los hilos del generador que trabajan en paralelo.
+ * <p>Contiene la bandera de detención común y la mejor puntuación encontrada hasta el momento,
+ * de forma que el primer hilo que supere el umbral detiene al resto.</p>
+ * <p>En el modo de optimización por tiempo ninguna solución detiene a los hilos: buscan hasta que se agota el tiempo
+ * y las mejores soluciones se van quedando en memoria, hasta que el último hilo en terminar las guarda.</p>
+ */
+public class ControlHilosGenerador
+{
+    /** Bandera para indicar si se deben detener todos los hilos */
+    private volatile boolean detenerHilos ;
+
+    /** True si ya se ha guardado en BBDD el resultado de la búsqueda: la solución aceptada o las mejores soluciones */
+    private volatile boolean resultadoGuardado ;
+
+    /** Mejor puntuación aceptada hasta el momento (-1 si aún no hay ninguna) */
+    private int mejorPuntuacion ;
+
+    /** Contadores de la búsqueda de todos los hilos */
+    private final EstadisticasGenerador estadisticasGenerador ;
+
+    /** Hilos que todavía no han terminado de buscar */
+    private final AtomicInteger hilosEnCurso ;
+
+    /** Mejores soluciones encontradas, solo en el modo de optimización por tiempo (null en otro caso) */
+    private final MejoresSoluciones mejoresSoluciones ;
+
+    /** Instante (System.nanoTime) en el que se agota el tiempo de búsqueda, solo en el modo de optimización por tiempo */
+    private final long instanteFinOptimizacion ;
+
+    /**
+     * Constructor para el modo en el que la primera solución que supera el umbral detiene a todos los hilos
+     *
+     * @param numeroHilos número de hilos que buscan en paralelo
+     */
+    public ControlHilosGenerador(int numeroHilos)
+    {
+        this(numeroHilos, null, 0L) ;
+    }
+
+    /**
+     * Constructor para el modo de optimización por tiempo
+     *
+     * @param numeroHilos número de hilos que buscan en paralelo
+     * @param segundosOptimizacion segundos que dura la búsqueda
+     * @param numeroMejoresSoluciones número de mejores soluciones que se guardan
+     */
+    public ControlHilosGenerador(int numeroHilos, long segundosOptimizacion, int numeroMejoresSoluciones)
+    {
+        this(numeroHilos, new MejoresSoluciones(numeroMejoresSoluciones), System.nanoTime() + TimeUnit.SECONDS.toNanos(segundosOptimizacion)) ;
+    }
+
+    /**
+     * @param numeroHilos número de hilos que buscan en paralelo
+     * @param mejoresSoluciones mejores soluciones encontradas (null si no es el modo de optimización por tiempo)
+     * @param instanteFinOptimizacion instante en el que se agota el tiempo de búsqueda
+     */
+    private ControlHilosGenerador(int numeroHilos, MejoresSoluciones mejoresSoluciones, long instanteFinOptimizacion)
+    {
+        this.detenerHilos            = false ;
+        this.resultadoGuardado       = false ;
+        this.mejorPuntuacion         = -1 ;
+        this.estadisticasGenerador   = new EstadisticasGenerador() ;
+        this.hilosEnCurso            = new AtomicInteger(numeroHilos) ;
+        this.mejoresSoluciones       = mejoresSoluciones ;
+        this.instanteFinOptimizacion = instanteFinOptimizacion ;
+    }
+
+    /**
+     * @return true si se deben detener todos los hilos
+     */
+    public boolean isDetenerHilos()
+    {
+        return this.detenerHilos ;
+    }
+
+    /**
+     * @return true si los hilos deben dejar de buscar, porque se ha pedido su detención o porque se ha agotado el tiempo de búsqueda
+     */
+    public boolean isBusquedaFinalizada()
+    {
+        return this.detenerHilos || (this.isOptimizacionPorTiempo() && System.nanoTime() - this.instanteFinOptimizacion >= 0L) ;
+    }
+
+    /**
+     * @return true si es el modo de optimización por tiempo
+     */
+    public boolean isOptimizacionPorTiempo()
+    {
+        return this.mejoresSoluciones != null ;
+    }
+
+    /**
+     * Método que indica a todos los hilos que deben detenerse
+     */
+    public void detenerHilos()
+    {
+        this.detenerHilos = true ;
+    }
+
+    /**
+     * @return true si ya se ha guardado en BBDD el resultado de la búsqueda
+     */
+    public boolean isResultadoGuardado()
+    {
+        return this.resultadoGuardado ;
+    }
+
+    /**
+     * Método que indica que el resultado de la búsqueda ya se ha guardado en BBDD
+     */
+    public void marcarResultadoGuardado()
+    {
+        this.resultadoGuardado = true ;
+    }
+
+    /**
+     * Trata de registrar una solución como la mejor encontrada. Solo uno de los hilos podrá registrarla,
+     * y en ese caso se indica al resto que deben detenerse
+     *
+     * @param puntuacion puntuación de la solución
+     * @param umbralMinimoSolucion umbral mínimo para considerar una solución válida
+     * @return true si la solución se ha registrado, false si no supera el umbral o si otro hilo ya registró una
+     */
+    public synchronized boolean registrarSolucion(int puntuacion, int umbralMinimoSolucion)
+    {
+        boolean outcome = !this.detenerHilos && puntuacion > umbralMinimoSolucion ;
+
+        if (outcome)
+        {
+            // Guardamos la mejor puntuación y paramos el resto de hilos
+            this.mejorPuntuacion = puntuacion ;
+            this.detenerHilos    = true ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * Trata de agregar una solución a las mejores encontradas en el modo de optimización por tiempo, sin detener a ningún hilo
+     *
+     * @param solucionGenerador solución encontrada
+     * @param umbralMinimoSolucion umbral mínimo para considerar una solución válida
+     * @return true si la solución supera el umbral y está entre las mejores encontradas
+     */
+    public synchronized boolean registrarSolucionOptimizacion(SolucionGenerador solucionGenerador, int umbralMinimoSolucion)
+    {
+        int puntuacion = solucionGenerador.getHorario().getPuntuacion() ;
+
+        boolean outcome = puntuacion > umbralMinimoSolucion && this.mejoresSoluciones.agregar(solucionGenerador) ;
+
+        if (outcome && puntuacion > this.mejorPuntuacion)
+        {
+            this.mejorPuntuacion = puntuacion ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * Restaura lo encontrado antes de un punto de control: las mejores soluciones y los contadores de la búsqueda.
+     * Se llama antes de arrancar los hilos
+     *
+     * @param soluciones mejores soluciones del punto de control (solo se usan en el modo de optimización por tiempo)
+     * @param generadorEstadisticasDto contadores de la búsqueda del punto de control
+     */
+    public synchronized void restaurar(List<SolucionGenerador> soluciones, GeneradorEstadisticasDto generadorEstadisticasDto)
+    {
+        if (this.isOptimizacionPorTiempo())
+        {
+            for (SolucionGenerador solucionGenerador : soluciones)
+            {
+                if (this.mejoresSoluciones.agregar(solucionGenerador) && solucionGenerador.getHorario().getPuntuacion() > this.mejorPuntuacion)
+                {
+                    this.mejorPuntuacion = solucionGenerador.getHorario().getPuntuacion() ;
+                }
+            }
+        }
+
+        if (generadorEstadisticasDto != null)
+        {
+            this.estadisticasGenerador.acumular(generadorEstadisticasDto) ;
+        }
+    }
+
+    /**
+     * @return segundos de búsqueda que quedan en el modo de optimización por tiempo (0 en otro caso o si ya se han agotado)
+     */
+    public long obtenerSegundosRestantes()
+    {
+        long outcome = 0L ;
+
+        if (this.isOptimizacionPorTiempo())
+        {
+            outcome = Math.max(0L, TimeUnit.NANOSECONDS.toSeconds(this.instanteFinOptimizacion - System.nanoTime())) ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @return mejores soluciones encontradas, solo en el modo de optimización por tiempo (null en otro caso)
+     */
+    public MejoresSoluciones getMejoresSoluciones()
+    {
+        return this.mejoresSoluciones ;
+    }
+
+    /**
+     * Cada hilo debe llamar a este método una única vez, cuando termina de buscar
+     *
+     * @return true si es el último hilo en terminar
+     */
+    public boolean finalizarHilo()
+    {
+        return this.hilosEnCurso.decrementAndGet() == 0 ;
+    }
+
+    /**
+     * @return mejor puntuación aceptada hasta el momento (-1 si aún no hay ninguna)
+     */
+    public synchronized int getMejorPuntuacion()
+    {
+        return this.mejorPuntuacion ;
+    }
+
+    /**
+     * @return contadores de la búsqueda de todos los hilos
+     */
+    public EstadisticasGenerador getEstadisticasGenerador()
+    {
+        return this.estadisticasGenerador ;
+    }
+}
@@ -0,0 +1,332 @@
+package es.iesjandula.reaktor.school_manager_server.generator.threads;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionAsignatura;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
+
+/**
+ * Dominios de las sesiones pendientes de un hilo del generador: los días y tramos donde todavía podrían asignarse.
+ * <p>El dominio de una sesión es su restricción horaria thread sin los días y tramos en los que ya está ocupado su profesor
+ * ni, si necesita la celda vacía, su curso. Se obtiene con operaciones de bits sobre los índices de ocupación, que el asignador
+ * mantiene al día, así que quitar un hueco de los dominios al asignar una sesión no modifica ninguna sesión pendiente
+ * y deshacer la asignación lo devuelve sin más.</p>
+ * <p>Las sesiones del hilo se agrupan una única vez por profesor y por curso, ya que al asignar una sesión solo pueden perder
+ * huecos las de su mismo profesor o curso. El asignador avisa de cada asignación y de cada asignación deshecha, así que aquí
+ * se lleva la cuenta de los huecos libres de esas sesiones pendientes y de las sesiones pendientes de cada profesor,
+ * sin recorrer todas las sesiones pendientes al elegir la siguiente.</p>
+ */
+public class DominiosSesiones
+{
+    /** Ocupación de los profesores en el intento actual del hilo */
+    private final OcupacionProfesores ocupacionProfesores ;
+
+    /** Ocupación de los cursos en el intento actual del hilo */
+    private final OcupacionCursos ocupacionCursos ;
+
+    /** Número de cursos matutinos, que van antes que los vespertinos en las sesiones por curso */
+    private final int numeroCursosMatutinos ;
+
+    /** Sesiones del hilo de cada profesor, indexadas por el índice del profesor */
+    private final SesionBase[][] sesionesPorProfesor ;
+
+    /** Sesiones del hilo de cada curso, indexadas por el número de curso (primero los matutinos y luego los vespertinos) */
+    private final SesionBase[][] sesionesPorCurso ;
+
+    /** True si la sesión está asignada en el intento actual, indexado por el índice de la sesión */
+    private final boolean[] sesionesAsignadas ;
+
+    /** Huecos libres de cada sesión pendiente, indexados por el índice de la sesión */
+    private final int[] huecosLibres ;
+
+    /** Sesiones pendientes de cada profesor en el intento actual, indexadas por el índice del profesor */
+    private final int[] sesionesPendientesProfesores ;
+
+    /**
+     * @param sesiones sesiones del hilo
+     * @param numeroProfesores número de profesores que participan en la generación
+     * @param numeroCursosMatutinos número de cursos matutinos
+     * @param numeroCursosVespertinos número de cursos vespertinos
+     * @param ocupacionProfesores ocupación de los profesores del hilo
+     * @param ocupacionCursos ocupación de los cursos del hilo
+     */
+    public DominiosSesiones(List<List<SesionBase>> sesiones, int numeroProfesores, int numeroCursosMatutinos, int numeroCursosVespertinos,
+                            OcupacionProfesores ocupacionProfesores, OcupacionCursos ocupacionCursos)
+    {
+        this.ocupacionProfesores   = ocupacionProfesores ;
+        this.ocupacionCursos       = ocupacionCursos ;
+        this.numeroCursosMatutinos = numeroCursosMatutinos ;
+
+        List<List<SesionBase>> sesionesPorProfesor = DominiosSesiones.crearGrupos(numeroProfesores) ;
+        List<List<SesionBase>> sesionesPorCurso    = DominiosSesiones.crearGrupos(numeroCursosMatutinos + numeroCursosVespertinos) ;
+
+        int numeroSesiones = 0 ;
+        for (List<SesionBase> sublista : sesiones)
+        {
+            for (SesionBase sesion : sublista)
+            {
+                sesionesPorProfesor.get(sesion.getIndiceProfesor()).add(sesion) ;
+                sesionesPorCurso.get(this.obtenerCurso(sesion)).add(sesion) ;
+
+                numeroSesiones = Math.max(numeroSesiones, sesion.getIndiceSesion() + 1) ;
+            }
+        }
+
+        this.sesionesPorProfesor = DominiosSesiones.convertirGrupos(sesionesPorProfesor) ;
+        this.sesionesPorCurso    = DominiosSesiones.convertirGrupos(sesionesPorCurso) ;
+        this.sesionesAsignadas   = new boolean[numeroSesiones] ;
+        this.huecosLibres        = new int[numeroSesiones] ;
+
+        this.sesionesPendientesProfesores = new int[numeroProfesores] ;
+    }
+
+    /**
+     * @param numeroGrupos número de grupos
+     * @return lista con tantos grupos de sesiones vacíos como se indica
+     */
+    private static List<List<SesionBase>> crearGrupos(int numeroGrupos)
+    {
+        List<List<SesionBase>> outcome = new ArrayList<List<SesionBase>>() ;
+
+        for (int i = 0 ; i < numeroGrupos ; i++)
+        {
+            outcome.add(new ArrayList<SesionBase>()) ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @param grupos grupos de sesiones
+     * @return los grupos de sesiones como arrays, que se recorren sin iteradores en cada asignación
+     */
+    private static SesionBase[][] convertirGrupos(List<List<SesionBase>> grupos)
+    {
+        SesionBase[][] outcome = new SesionBase[grupos.size()][] ;
+
+        for (int i = 0 ; i < grupos.size() ; i++)
+        {
+            outcome[i] = grupos.get(i).toArray(new SesionBase[0]) ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @param sesion sesión
+     * @return número de curso de la sesión (primero los matutinos y luego los vespertinos)
+     */
+    private int obtenerCurso(SesionBase sesion)
+    {
+        int curso = sesion.getRestriccionHorariaInit().getIndiceCursoDiaInicial() / Constants.NUMERO_DIAS_SEMANA ;
+
+        return sesion.isTipoHorarioMatutino() ? curso : this.numeroCursosMatutinos + curso ;
+    }
+
+    /**
+     * Marca todas las sesiones como pendientes y cuenta sus huecos libres (al comenzar un nuevo intento,
+     * con la ocupación ya liberada y las restricciones horarias thread ya inicializadas)
+     */
+    public void limpiar()
+    {
+        Arrays.fill(this.sesionesAsignadas, false) ;
+
+        for (int indiceProfesor = 0 ; indiceProfesor < this.sesionesPorProfesor.length ; indiceProfesor++)
+        {
+            this.sesionesPendientesProfesores[indiceProfesor] = this.sesionesPorProfesor[indiceProfesor].length ;
+
+            for (SesionBase sesion : this.sesionesPorProfesor[indiceProfesor])
+            {
+                this.actualizarHuecosLibres(sesion) ;
+            }
+        }
+    }
+
+    /**
+     * @param sesion sesión que el asignador acaba de asignar
+     * @param indicesAsignacionSesion índices donde se ha asignado
+     */
+    public void asignarSesion(SesionBase sesion, IndicesAsignacionSesion indicesAsignacionSesion)
+    {
+        this.sesionesAsignadas[sesion.getIndiceSesion()] = true ;
+        this.sesionesPendientesProfesores[sesion.getIndiceProfesor()]-- ;
+
+        this.actualizarSesionesAfectadas(sesion, indicesAsignacionSesion) ;
+    }
+
+    /**
+     * @param sesion sesión cuya asignación acaba de deshacer el asignador
+     * @param indicesAsignacionSesion índices donde se había asignado
+     */
+    public void deshacerAsignacion(SesionBase sesion, IndicesAsignacionSesion indicesAsignacionSesion)
+    {
+        this.sesionesAsignadas[sesion.getIndiceSesion()] = false ;
+        this.sesionesPendientesProfesores[sesion.getIndiceProfesor()]++ ;
+
+        this.actualizarHuecosLibres(sesion) ;
+        this.actualizarSesionesAfectadas(sesion, indicesAsignacionSesion) ;
+    }
+
+    /**
+     * Vuelve a contar los huecos libres de una sesión pendiente cuya restricción horaria thread ha cambiado
+     * 
+     * @param sesion sesión pendiente
+     */
+    public void actualizarHuecosLibres(SesionBase sesion)
+    {
+        this.huecosLibres[sesion.getIndiceSesion()] = this.contarHuecosLibres(sesion) ;
+    }
+
+    /**
+     * Vuelve a contar los huecos libres de las sesiones pendientes del mismo profesor o del mismo curso que podían ir
+     * en el día y tramo, que son las únicas a las que les cambian al ocupar o liberar ese día y tramo
+     * 
+     * @param sesion sesión asignada o desasignada
+     * @param indicesAsignacionSesion índices de la asignación
+     */
+    private void actualizarSesionesAfectadas(SesionBase sesion, IndicesAsignacionSesion indicesAsignacionSesion)
+    {
+        long mascaraPosicion = DominiosSesiones.obtenerMascaraPosicion(indicesAsignacionSesion) ;
+
+        this.actualizarSesionesAfectadas(this.sesionesPorProfesor[sesion.getIndiceProfesor()], sesion, mascaraPosicion) ;
+        this.actualizarSesionesAfectadas(this.sesionesPorCurso[this.obtenerCurso(sesion)], sesion, mascaraPosicion) ;
+    }
+
+    /**
+     * @param sesiones sesiones del mismo profesor o del mismo curso que la sesión asignada o desasignada
+     * @param sesion sesión asignada o desasignada
+     * @param mascaraPosicion posición del día y tramo dentro de la semana
+     */
+    private void actualizarSesionesAfectadas(SesionBase[] sesiones, SesionBase sesion, long mascaraPosicion)
+    {
+        for (SesionBase sesionAfectada : sesiones)
+        {
+            if (this.afectada(sesionAfectada, sesion, mascaraPosicion))
+            {
+                this.actualizarHuecosLibres(sesionAfectada) ;
+            }
+        }
+    }
+
+    /**
+     * @param sesion sesión
+     * @param sesionAsignada sesión asignada o desasignada
+     * @param mascaraPosicion posición del día y tramo dentro de la semana
+     * @return true si la sesión está pendiente, es del mismo tipo de horario y podía ir en ese día y tramo
+     */
+    private boolean afectada(SesionBase sesion, SesionBase sesionAsignada, long mascaraPosicion)
+    {
+        return !this.sesionesAsignadas[sesion.getIndiceSesion()] &&
+               sesion.isTipoHorarioMatutino() == sesionAsignada.isTipoHorarioMatutino() &&
+               (sesion.getRestriccionHorariaThread().getRestriccionesHorarias() & mascaraPosicion) != 0L ;
+    }
+
+    /**
+     * @param indicesAsignacionSesion índices de la asignación
+     * @return máscara con la posición del día y tramo dentro de la semana, igual para todos los cursos
+     */
+    private static long obtenerMascaraPosicion(IndicesAsignacionSesion indicesAsignacionSesion)
+    {
+        return 1L << (((indicesAsignacionSesion.getIndiceCursoDia() % Constants.NUMERO_DIAS_SEMANA) * Constants.NUMERO_TRAMOS_HORARIOS) +
+                      indicesAsignacionSesion.getIndiceTramoHorario()) ;
+    }
+
+    /**
+     * @param sesion sesión pendiente
+     * @return huecos libres de la sesión, según la última cuenta
+     */
+    public int obtenerHuecosLibres(SesionBase sesion)
+    {
+        return this.huecosLibres[sesion.getIndiceSesion()] ;
+    }
+
+    /**
+     * @param indiceProfesor índice del profesor
+     * @return número de sesiones del profesor pendientes de asignar en el intento actual
+     */
+    public int obtenerSesionesPendientesProfesor(int indiceProfesor)
+    {
+        return this.sesionesPendientesProfesores[indiceProfesor] ;
+    }
+
+    /**
+     * Las optativas pueden compartir celda con las de su bloque y las reducciones no comprueban la celda, así que a ellas
+     * solo se les quitan los huecos en los que su profesor está ocupado
+     *
+     * @param sesion sesión pendiente
+     * @return máscara con los días y tramos donde todavía podría asignarse la sesión
+     */
+    private long calcularHuecosLibres(SesionBase sesion)
+    {
+        long outcome = sesion.getRestriccionHorariaThread().getRestriccionesHorarias() &
+                       ~this.ocupacionProfesores.obtenerOcupacion(sesion.getIndiceProfesor(), sesion.isTipoHorarioMatutino()) ;
+
+        if (sesion instanceof SesionAsignatura && !((SesionAsignatura) sesion).isOptativa())
+        {
+            outcome = outcome & ~this.ocupacionCursos.obtenerOcupacion(sesion.isTipoHorarioMatutino(), sesion.getRestriccionHorariaInit().getIndiceCursoDiaInicial()) ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @param sesion sesión pendiente
+     * @return número de días y tramos donde todavía podría asignarse la sesión
+     */
+    private int contarHuecosLibres(SesionBase sesion)
+    {
+        return Long.bitCount(this.calcularHuecosLibres(sesion)) ;
+    }
+
+    /**
+     * Comprobación hacia delante tras asignar una sesión: solo pueden perder huecos las sesiones pendientes
+     * de su mismo profesor o de su mismo curso, en el mismo tipo de horario, que podían ir en ese día y tramo,
+     * cuyos huecos libres ya ha vuelto a contar la asignación
+     *
+     * @param sesionAsignada sesión que se acaba de asignar
+     * @param indicesAsignacionSesion índices donde se ha asignado
+     * @return la primera sesión pendiente afectada que se ha quedado sin huecos, o null si no hay ninguna
+     */
+    public SesionBase buscarSesionSinHuecos(SesionBase sesionAsignada, IndicesAsignacionSesion indicesAsignacionSesion)
+    {
+        long mascaraPosicion = DominiosSesiones.obtenerMascaraPosicion(indicesAsignacionSesion) ;
+
+        SesionBase outcome = this.buscarSesionSinHuecos(this.sesionesPorProfesor[sesionAsignada.getIndiceProfesor()], sesionAsignada, mascaraPosicion) ;
+
+        if (outcome == null)
+        {
+            outcome = this.buscarSesionSinHuecos(this.sesionesPorCurso[this.obtenerCurso(sesionAsignada)], sesionAsignada, mascaraPosicion) ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @param sesiones sesiones del mismo profesor o del mismo curso que la sesión asignada
+     * @param sesionAsignada sesión que se acaba de asignar
+     * @param mascaraPosicion posición del día y tramo ocupados dentro de la semana
+     * @return la primera sesión pendiente afectada que se ha quedado sin huecos, o null si no hay ninguna
+     */
+    private SesionBase buscarSesionSinHuecos(SesionBase[] sesiones, SesionBase sesionAsignada, long mascaraPosicion)
+    {
+        SesionBase outcome = null ;
+
+        int i = 0 ;
+        while (i < sesiones.length && outcome == null)
+        {
+            SesionBase sesion = sesiones[i] ;
+
+            if (this.afectada(sesion, sesionAsignada, mascaraPosicion) && this.huecosLibres[sesion.getIndiceSesion()] == 0)
+            {
+                outcome = sesion ;
+            }
+
+            i++ ;
+        }
+
+        return outcome ;
+    }
+}
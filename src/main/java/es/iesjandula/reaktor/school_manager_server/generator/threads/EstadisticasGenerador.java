@@ -0,0 +1,133 @@
+package es.iesjandula.reaktor.school_manager_server.generator.threads;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorEstadisticasDto;
+
+/**
+ * Contadores de la búsqueda que comparten todos los hilos del generador.
+ * <p>Los hilos solo suman, así que se usan contadores atómicos sin bloqueos para no frenar la búsqueda.</p>
+ */
+public class EstadisticasGenerador
+{
+    /** Instante (en nanosegundos) en el que comenzó la generación */
+    private final long inicioNanos ;
+
+    /** Intentos comenzados (cada vez que se parte de la matriz vacía) */
+    private final LongAdder intentos ;
+
+    /** Callejones sin salida encontrados (sesiones que no se han podido asignar) */
+    private final LongAdder callejonesSinSalida ;
+
+    /** Saltos atrás realizados */
+    private final LongAdder saltosAtras ;
+
+    /** Asignaciones rechazadas por dejar sin huecos a una sesión pendiente */
+    private final LongAdder vaciadosDominio ;
+
+    /** Suma de las sesiones asignadas antes de cada callejón sin salida */
+    private final LongAdder sumaProfundidadCallejones ;
+
+    /** Sesiones asignadas antes del último callejón sin salida */
+    private final AtomicInteger profundidadUltimoCallejon ;
+
+    /** Máximo de sesiones asignadas antes de un callejón sin salida */
+    private final AtomicInteger profundidadMaximaCallejon ;
+
+    /** Segundos de búsqueda anteriores a la reanudación desde un punto de control */
+    private volatile double segundosAnteriores ;
+
+    /**
+     * Constructor de la clase
+     */
+    public EstadisticasGenerador()
+    {
+        this.inicioNanos               = System.nanoTime() ;
+        this.intentos                  = new LongAdder() ;
+        this.callejonesSinSalida       = new LongAdder() ;
+        this.saltosAtras               = new LongAdder() ;
+        this.vaciadosDominio           = new LongAdder() ;
+        this.sumaProfundidadCallejones = new LongAdder() ;
+        this.profundidadUltimoCallejon = new AtomicInteger() ;
+        this.profundidadMaximaCallejon = new AtomicInteger() ;
+    }
+
+    /**
+     * Registra el comienzo de un nuevo intento
+     */
+    public void registrarIntento()
+    {
+        this.intentos.increment() ;
+    }
+
+    /**
+     * Registra un callejón sin salida
+     * 
+     * @param profundidad sesiones asignadas antes del callejón sin salida
+     */
+    public void registrarCallejonSinSalida(int profundidad)
+    {
+        this.callejonesSinSalida.increment() ;
+        this.sumaProfundidadCallejones.add(profundidad) ;
+        this.profundidadUltimoCallejon.set(profundidad) ;
+        this.profundidadMaximaCallejon.accumulateAndGet(profundidad, Math::max) ;
+    }
+
+    /**
+     * Registra un salto atrás
+     */
+    public void registrarSaltoAtras()
+    {
+        this.saltosAtras.increment() ;
+    }
+
+    /**
+     * Registra una asignación rechazada por dejar sin huecos a una sesión pendiente
+     */
+    public void registrarVaciadoDominio()
+    {
+        this.vaciadosDominio.increment() ;
+    }
+
+    /**
+     * Suma a los contadores los de la búsqueda anterior a la reanudación desde un punto de control
+     *
+     * @param generadorEstadisticasDto contadores guardados en el punto de control
+     */
+    public void acumular(GeneradorEstadisticasDto generadorEstadisticasDto)
+    {
+        this.intentos.add(generadorEstadisticasDto.getIntentos()) ;
+        this.callejonesSinSalida.add(generadorEstadisticasDto.getCallejonesSinSalida()) ;
+        this.saltosAtras.add(generadorEstadisticasDto.getSaltosAtras()) ;
+        this.vaciadosDominio.add(generadorEstadisticasDto.getVaciadosDominio()) ;
+        this.sumaProfundidadCallejones.add(Math.round(generadorEstadisticasDto.getProfundidadMediaCallejon() * generadorEstadisticasDto.getCallejonesSinSalida())) ;
+        this.profundidadUltimoCallejon.set(generadorEstadisticasDto.getProfundidadUltimoCallejon()) ;
+        this.profundidadMaximaCallejon.accumulateAndGet(generadorEstadisticasDto.getProfundidadMaximaCallejon(), Math::max) ;
+        this.segundosAnteriores = this.segundosAnteriores + generadorEstadisticasDto.getSegundosEnCurso() ;
+    }
+
+    /**
+     * @return un DTO con una foto de los contadores en este momento
+     */
+    public GeneradorEstadisticasDto obtenerEstadisticas()
+    {
+        GeneradorEstadisticasDto generadorEstadisticasDto = new GeneradorEstadisticasDto() ;
+
+        long intentosRealizados = this.intentos.sum() ;
+        long callejones         = this.callejonesSinSalida.sum() ;
+        double segundos         = this.segundosAnteriores + (System.nanoTime() - this.inicioNanos) / 1_000_000_000.0d ;
+
+        generadorEstadisticasDto.setIntentos(intentosRealizados) ;
+        generadorEstadisticasDto.setCallejonesSinSalida(callejones) ;
+        generadorEstadisticasDto.setSaltosAtras(this.saltosAtras.sum()) ;
+        generadorEstadisticasDto.setVaciadosDominio(this.vaciadosDominio.sum()) ;
+        generadorEstadisticasDto.setProfundidadUltimoCallejon(this.profundidadUltimoCallejon.get()) ;
+        generadorEstadisticasDto.setProfundidadMaximaCallejon(this.profundidadMaximaCallejon.get()) ;
+        generadorEstadisticasDto.setProfundidadMediaCallejon(callejones > 0 ? (double) this.sumaProfundidadCallejones.sum() / callejones : 0.0d) ;
+        generadorEstadisticasDto.setSegundosEnCurso(segundos) ;
+        generadorEstadisticasDto.setIntentosPorSegundo(segundos > 0.0d ? intentosRealizados / segundos : 0.0d) ;
+
+        return generadorEstadisticasDto ;
+    }
+}
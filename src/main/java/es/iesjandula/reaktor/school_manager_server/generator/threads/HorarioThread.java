@@ -1,15 +1,21 @@
 package es.iesjandula.reaktor.school_manager_server.generator.threads;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.SplittableRandom;
 
 import es.iesjandula.reaktor.school_manager_server.generator.Horario;
+import es.iesjandula.reaktor.school_manager_server.generator.busqueda.BusquedaLocal;
+import es.iesjandula.reaktor.school_manager_server.generator.puntuacion.CalculadorPuntuacion;
+import es.iesjandula.reaktor.school_manager_server.generator.puntuacion.PuntuacionHorario;
 import es.iesjandula.reaktor.school_manager_server.generator.sesiones.asignador.AsignadorSesionesController;
 import es.iesjandula.reaktor.school_manager_server.generator.sesiones.selector.SelectorSesionesController;
-import es.iesjandula.reaktor.school_manager_server.models.GeneradorInstancia;
-import es.iesjandula.reaktor.school_manager_server.models.no_jpa.Asignacion;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionAsignatura;
 import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.restrictions.RestriccionHorariaInit;
 import es.iesjandula.reaktor.school_manager_server.utils.Constants;
 import es.iesjandula.reaktor.school_manager_server.utils.SchoolManagerServerException;
 import lombok.extern.slf4j.Slf4j;
@@ -27,10 +33,10 @@ public class HorarioThread extends Thread
     private List<List<SesionBase>> sesionesThread ;
     
 	/** Matriz con las asignaciones matutinas */
-    private Asignacion[][] matrizAsignacionesMatutinas ;
+    private MatrizAsignaciones matrizAsignacionesMatutinas ;
     
 	/** Matriz con las asignaciones vespertinas */
-    private Asignacion[][] matrizAsignacionesVespertinas ;
+    private MatrizAsignaciones matrizAsignacionesVespertinas ;
 
 	/** SelectorSesionesController */
 	private SelectorSesionesController selectorSesionesController ;
@@ -38,33 +44,174 @@ public class HorarioThread extends Thread
 	/** AsignadorSesionesController */
 	private AsignadorSesionesController asignadorSesionesController ;
 
-	/** Bandera para indicar si se debe detener el hilo */
-	private boolean detenerHilo ;
+	/** Calculador de la puntuación de las soluciones encontradas */
+	private CalculadorPuntuacion calculadorPuntuacion ;
+
+	/** Ocupación de los profesores en el intento actual */
+	private OcupacionProfesores ocupacionProfesores ;
+
+	/** Ocupación de los cursos en el intento actual */
+	private OcupacionCursos ocupacionCursos ;
+
+	/** Dominios de las sesiones pendientes en el intento actual */
+	private DominiosSesiones dominiosSesiones ;
+
+	/** Ocurrencias por día de las asignaturas en el intento actual */
+	private OcurrenciasAsignaturas ocurrenciasAsignaturas ;
+
+	/** True si tras cada asignación se comprueba que ninguna sesión pendiente afectada se queda sin huecos */
+	private boolean propagacionRestricciones ;
+
+	/** Búsqueda local que mejora cada solución encontrada antes de puntuarla */
+	private BusquedaLocal busquedaLocal ;
+
+	/** True si ante un callejón sin salida se salta atrás hasta el conflicto en lugar de comenzar de nuevo */
+	private boolean estrategiaSaltoAtras ;
+
+	/** Rastro de las asignaciones del intento actual (la más reciente primero), solo con la estrategia de salto atrás */
+	private Deque<PasoAsignacion> rastroAsignaciones ;
+
+	/** Paso de la sesión que se está asignando, solo con la estrategia de salto atrás */
+	private PasoAsignacion pasoEnCurso ;
+
+	/** Saltos atrás realizados en el intento actual */
+	private int saltosAtras ;
+
+	/** Sesiones asignadas en el intento actual */
+	private int sesionesAsignadas ;
+
+	/** Semilla del generador de números aleatorios del hilo, que se guarda con las soluciones que encuentra */
+	private long semillaHilo ;
+
+	/** Generador de números aleatorios propio del hilo, para que los hilos no compartan uno y cada hilo se pueda repetir con su semilla */
+	private SplittableRandom random ;
     
     /**
      * @param horarioThreadParams Clase con todos los parámetros necesarios
      * @param sesionesOriginales Lista de listas sesiones originales
+     * @param numeroHilo Número de hilo dentro del conjunto de hilos del generador
      */
     public HorarioThread(HorarioThreadParams horarioThreadParams,
-    					 List<List<SesionBase>> sesionesOriginales)
+    					 List<List<SesionBase>> sesionesOriginales,
+    					 int numeroHilo)
     {
+    	super("HorarioThread-" + numeroHilo) ;
+
     	this.horarioThreadParams = horarioThreadParams ;
-    	this.sesionesOriginales  = sesionesOriginales ;
 
-		// Creamos una nueva instancia de SelectorSesionesController y asignadorSesionesController
-		this.selectorSesionesController  = new SelectorSesionesController(this.horarioThreadParams.getAsignaturaService()) ;
-		this.asignadorSesionesController = new AsignadorSesionesController(this.horarioThreadParams.getAsignaturaService()) ;
+    	// Cada hilo trabaja con sus propias copias de las sesiones, ya que cada sesión guarda su restricción horaria thread
+    	this.sesionesOriginales  = this.copiarListaDeListaSesiones(sesionesOriginales) ;
 
-		// Inicializamos la bandera para indicar si se debe detener el hilo
-		this.detenerHilo = false ;
+		// Creamos el índice de ocupación de los profesores propio del hilo
+		this.ocupacionProfesores 		 = new OcupacionProfesores(this.horarioThreadParams.getNumeroProfesores()) ;
+
+		// Creamos el índice de ocupación de los cursos propio del hilo
+		this.ocupacionCursos 			 = new OcupacionCursos(this.horarioThreadParams.getMapCorrelacionadorCursosMatutinos().size(),
+															   this.horarioThreadParams.getMapCorrelacionadorCursosVespertinos().size()) ;
+
+		// Creamos los dominios de las sesiones pendientes, que agrupan una única vez las sesiones del hilo por profesor y por curso
+		this.dominiosSesiones 			 = new DominiosSesiones(this.sesionesOriginales,
+																this.horarioThreadParams.getNumeroProfesores(),
+																this.horarioThreadParams.getMapCorrelacionadorCursosMatutinos().size(),
+																this.horarioThreadParams.getMapCorrelacionadorCursosVespertinos().size(),
+																this.ocupacionProfesores,
+																this.ocupacionCursos) ;
+
+		// Creamos el índice de ocurrencias por día de las asignaturas propio del hilo
+		this.ocurrenciasAsignaturas 	 = new OcurrenciasAsignaturas(this.horarioThreadParams.getMapCorrelacionadorCursosMatutinos().size(),
+																	  this.horarioThreadParams.getMapCorrelacionadorCursosVespertinos().size(),
+																	  this.horarioThreadParams.getIndiceBloquesOptativas().getNumeroAsignaturas()) ;
+
+		// Creamos las matrices de asignaciones una única vez, y en cada intento se vacían
+		this.crearMatricesAsignaciones() ;
+
+		// Creamos el generador de números aleatorios propio del hilo a partir de la semilla de la generación
+		this.semillaHilo 				 = TrabajoGenerador.obtenerSemillaHilo(this.horarioThreadParams.getSemilla(), numeroHilo) ;
+		this.random 					 = new SplittableRandom(this.semillaHilo) ;
+
+		// Creamos una nueva instancia de SelectorSesionesController y asignadorSesionesController
+		this.selectorSesionesController  = new SelectorSesionesController(this.horarioThreadParams.getIndiceBloquesOptativas(),
+																		  this.horarioThreadParams.getOrdenSesiones(),
+																		  this.dominiosSesiones,
+																		  this.ocurrenciasAsignaturas,
+																		  this.random) ;
+		this.asignadorSesionesController = new AsignadorSesionesController(this.horarioThreadParams.getIndiceBloquesOptativas(),
+																		   this.ocupacionProfesores,
+																		   this.ocupacionCursos,
+																		   this.ocurrenciasAsignaturas,
+																		   this.dominiosSesiones,
+																		   this.random) ;
+
+		// Creamos el calculador de puntuación propio del hilo
+		this.calculadorPuntuacion 		 = new CalculadorPuntuacion() ;
+
+		// Creamos la búsqueda local propia del hilo, que trabaja sobre sus matrices y su ocupación de los profesores
+		this.busquedaLocal 				 = new BusquedaLocal(this.horarioThreadParams.getBusquedaLocal(),
+															 this.horarioThreadParams.getIteracionesBusquedaLocal(),
+															 this.horarioThreadParams.getNumeroProfesores(),
+															 this.ocupacionProfesores,
+															 this.calculadorPuntuacion,
+															 this.random) ;
+
+		// Vemos qué hacer ante un callejón sin salida
+		this.estrategiaSaltoAtras 		 = Constants.ESTRATEGIA_BUSQUEDA_SALTO_ATRAS.equals(this.horarioThreadParams.getEstrategiaBusqueda()) ;
+		this.rastroAsignaciones 		 = new ArrayDeque<PasoAsignacion>() ;
+
+		// Vemos si hay que comprobar hacia delante los dominios de las sesiones pendientes tras cada asignación
+		this.propagacionRestricciones 	 = this.horarioThreadParams.isPropagacionRestricciones() ;
     }
 
 	/**
-	 * Método que forza la detención del hilo del generador
+	 * Crea las matrices de asignaciones, donde cada fila representa un curso en un día, con las sesiones del hilo indexadas
+	 */
+	private void crearMatricesAsignaciones()
+	{
+        int numeroCursosMatutinos   = this.horarioThreadParams.getMapCorrelacionadorCursosMatutinos().size() ;
+    	int numeroCursosVespertinos = this.horarioThreadParams.getMapCorrelacionadorCursosVespertinos().size() ;
+
+		// Las dos matrices comparten la tabla de sesiones del hilo por su índice
+		SesionBase[] sesiones = MatrizAsignaciones.indexarSesiones(this.sesionesOriginales) ;
+
+		if (numeroCursosMatutinos > 0)
+		{
+			this.matrizAsignacionesMatutinas = new MatrizAsignaciones(numeroCursosMatutinos, sesiones) ;
+		}
+
+		if (numeroCursosVespertinos > 0)
+		{
+			this.matrizAsignacionesVespertinas = new MatrizAsignaciones(numeroCursosVespertinos, sesiones) ;
+		}
+	}
+
+	/**
+	 * @param listaDeListaSesiones lista de listas de sesiones
+	 * @return una copia de la lista de listas con copias de cada una de las sesiones
+	 */
+	private List<List<SesionBase>> copiarListaDeListaSesiones(List<List<SesionBase>> listaDeListaSesiones)
+	{
+		List<List<SesionBase>> outcome = new ArrayList<List<SesionBase>>() ;
+
+		for (List<SesionBase> sublista : listaDeListaSesiones)
+		{
+			List<SesionBase> copiaSublista = new ArrayList<SesionBase>() ;
+
+			for (SesionBase sesion : sublista)
+			{
+				copiaSublista.add(sesion.copiar()) ;
+			}
+
+			outcome.add(copiaSublista) ;
+		}
+
+		return outcome ;
+	}
+
+	/**
+	 * Método que forza la detención de todos los hilos del generador
 	 */
 	public void forzarDetencion()
 	{
-		this.detenerHilo = true ;
+		this.horarioThreadParams.getControlHilosGenerador().detenerHilos() ;
 	}
     
     @Override
@@ -75,27 +222,55 @@ public class HorarioThread extends Thread
 	}
 
 	/**
-	 * Método que comienza el proceso
+	 * Método que comienza el proceso. Cada vuelta del bucle es un intento que parte de la matriz vacía,
+	 * hasta que algún hilo encuentre una solución, se agote el tiempo de búsqueda o se fuerce la detención
 	 */
 	private void comenzarProceso()
 	{
-		while (!this.detenerHilo)
+		while (!this.horarioThreadParams.getControlHilosGenerador().isBusquedaFinalizada())
 		{
 			this.comenzarProcesoInternal() ;
 		}
+
+		// En el modo de optimización por tiempo, el último hilo en terminar guarda las mejores soluciones (salvo que se haya forzado la detención)
+		ControlHilosGenerador controlHilosGenerador = this.horarioThreadParams.getControlHilosGenerador() ;
+
+		if (controlHilosGenerador.finalizarHilo() && controlHilosGenerador.isOptimizacionPorTiempo() && !controlHilosGenerador.isDetenerHilos())
+		{
+			this.guardarMejoresSoluciones() ;
+		}
 	}
 
 	/**
-	 * Método que comienza el proceso
+	 * Método que guarda en BBDD las mejores soluciones encontradas en el modo de optimización por tiempo
 	 */
-	private void comenzarProcesoInternal()
+	private void guardarMejoresSoluciones()
 	{
-		GeneradorInstancia generadorInstancia = null;
+		List<SolucionGenerador> soluciones = this.horarioThreadParams.getControlHilosGenerador().getMejoresSoluciones().obtenerSoluciones() ;
+
+		log.info("Tiempo de optimización agotado. Guardando las {} mejores soluciones encontradas", soluciones.size()) ;
 
 		try
 		{
-			// Creamos una instancia de GeneradorInstancia
-			generadorInstancia = this.horarioThreadParams.getGeneradorService().crearGeneradorInstancia() ;
+			this.horarioThreadParams.getGeneradorService().guardarMejoresSoluciones(this.horarioThreadParams.getIdGenerador(), soluciones) ;
+
+			this.horarioThreadParams.getControlHilosGenerador().marcarResultadoGuardado() ;
+		}
+		catch (SchoolManagerServerException schoolManagerServerException)
+		{
+			log.error("ERROR - No se pudieron guardar las mejores soluciones encontradas", schoolManagerServerException) ;
+		}
+	}
+
+	/**
+	 * Método que realiza un intento completo (visible en el paquete para medirlo en los benchmarks)
+	 */
+	void comenzarProcesoInternal()
+	{
+		try
+		{
+			// Contabilizamos el nuevo intento, que se realiza por completo en memoria
+			this.horarioThreadParams.getControlHilosGenerador().getEstadisticasGenerador().registrarIntento() ;
 
 			// Configuramos las estructuras de datos
 			this.configurarEstructurasDeDatos() ;
@@ -105,44 +280,47 @@ public class HorarioThread extends Thread
 			// Este bucle es para asegurarnos que se asignen todas las sesiones
 			while (!this.todasLasSesionesAsignadas())
 			{    		
-				// Asignamos una sesión y obtenemos la última asignación
-				UltimaAsignacion nuevaUltimaAsignacion = this.asignarSesion(ultimaAsignacion) ;	
+				try
+				{
+					// Asignamos una sesión y obtenemos la última asignación
+					UltimaAsignacion nuevaUltimaAsignacion = this.asignarSesion(ultimaAsignacion) ;	
 
-				// Asignamos la nueva última asignación
-				ultimaAsignacion = nuevaUltimaAsignacion ;
+					// Asignamos la nueva última asignación
+					ultimaAsignacion = nuevaUltimaAsignacion ;
+				}
+				catch (SchoolManagerServerException schoolManagerServerException)
+				{
+					// Contabilizamos el callejón sin salida con las sesiones que se habían asignado
+					if (schoolManagerServerException.getCode() == Constants.ERR_CODE_HORARIO_NO_MAS_AMPLIABLE)
+					{
+						this.horarioThreadParams.getControlHilosGenerador().getEstadisticasGenerador().registrarCallejonSinSalida(this.sesionesAsignadas) ;
+					}
+
+					// Si no podemos saltar atrás, relanzamos la excepción para comenzar de nuevo
+					if (!this.saltarAtras(schoolManagerServerException))
+					{
+						throw schoolManagerServerException ;
+					}
+
+					// Continuamos desde la última asignación que queda en el rastro
+					ultimaAsignacion = this.rastroAsignaciones.isEmpty() ? null : this.rastroAsignaciones.peek().getUltimaAsignacion() ;
+				}
 			}
 
 			// Si se han asignado todas las sesiones ...
 			if (this.todasLasSesionesAsignadas())
 			{
 				// ... agregamos la solución encontrada
-				this.agregarHorarioSolucion(generadorInstancia) ;
+				this.agregarHorarioSolucion() ;
 			}
 		}
 		catch (SchoolManagerServerException schoolManagerServerException)
     	{
-			try
-			{
-				if (log.isDebugEnabled())
-				{
-					Horario horario = new Horario(this.matrizAsignacionesMatutinas, this.matrizAsignacionesVespertinas) ;
-					log.debug("Horario actual: \n" + horario) ;
-				}
-
-				// Borramos la instancia del generador relacionada
-				this.horarioThreadParams.getGeneradorService().eliminarGeneradorInstancia(generadorInstancia) ;
-
-				// Si sucede una excepción aquí, el sistema no tendrá más remedio que comenzar de nuevo
-				this.comenzarProceso() ;
-			}
-			catch (SchoolManagerServerException schoolManagerServerException2)
-			{
-				// Excepción ya logueada
-			}
-			catch (Throwable exception)
+			// No hay nada que borrar en BBDD, ya que solo se guardan las soluciones. El siguiente intento lo comenzará el bucle de comenzarProceso
+			if (log.isDebugEnabled())
 			{
-				String errorString = "EXCEPCIÓN NO ESPERADA CAPTURADA EN HorarioThread: " + exception.getMessage() ;
-				log.error(errorString, exception) ;
+				Horario horario = new Horario(this.matrizAsignacionesMatutinas, this.matrizAsignacionesVespertinas) ;
+				log.debug("Horario actual: \n" + horario) ;
 			}
 		}
 		catch (Throwable exception)
@@ -157,28 +335,22 @@ public class HorarioThread extends Thread
 	 */
 	private void configurarEstructurasDeDatos()
 	{
-        // Obtenemos el número de cursos matutinos que hay
-        int numeroCursosMatutinos = this.horarioThreadParams.getMapCorrelacionadorCursosMatutinos().size() ;
+        // Vaciamos las matrices del intento anterior en lugar de crearlas de nuevo
+        this.vaciarMatriz(this.matrizAsignacionesMatutinas) ;
+        this.vaciarMatriz(this.matrizAsignacionesVespertinas) ;
 
-        // Creamos las matrices de sesiones vacía, donde cada columna representa un curso en un día
-    	this.matrizAsignacionesMatutinas = null ;
-		if (numeroCursosMatutinos > 0)
-		{
-			this.matrizAsignacionesMatutinas = new Asignacion[numeroCursosMatutinos * Constants.NUMERO_DIAS_SEMANA]
-														     [Constants.NUMERO_TRAMOS_HORARIOS] ;
+        // Liberamos la ocupación de los profesores y cursos del intento anterior
+        this.ocupacionProfesores.limpiar() ;
+        this.ocupacionCursos.limpiar() ;
 
-		}
+        // Ponemos a cero las ocurrencias por día de las asignaturas del intento anterior
+        this.ocurrenciasAsignaturas.limpiar() ;
 
-		// Obtenemos el número de cursos vespertinos que hay
-    	int numeroCursosVespertinos = this.horarioThreadParams.getMapCorrelacionadorCursosVespertinos().size() ;
-
-    	this.matrizAsignacionesVespertinas = null ;
-		if (numeroCursosVespertinos > 0)
-		{
-			this.matrizAsignacionesVespertinas = new Asignacion[numeroCursosVespertinos * Constants.NUMERO_DIAS_SEMANA]
-														       [Constants.NUMERO_TRAMOS_HORARIOS] ;
-
-		}
+        // Vaciamos el rastro de asignaciones del intento anterior
+        this.rastroAsignaciones.clear() ;
+        this.pasoEnCurso       = null ;
+        this.saltosAtras       = 0 ;
+        this.sesionesAsignadas = 0 ;
 
         // Clonamos las listas de sesiones originales en las listas de sesiones del thread
         this.clonarListaDeSesionesOriginalesEnSesionesThread() ;
@@ -191,6 +363,36 @@ public class HorarioThread extends Thread
                 sesion.inicializarRestriccionHorariaThread() ;
             }
         }
+
+        // Volvemos a marcar todas las sesiones como pendientes y contamos sus huecos libres
+        this.dominiosSesiones.limpiar() ;
+	}
+
+	/**
+	 * @param matrizAsignaciones matriz de asignaciones (puede ser null si no hay cursos de ese tipo de horario)
+	 */
+	private void vaciarMatriz(MatrizAsignaciones matrizAsignaciones)
+	{
+		if (matrizAsignaciones != null)
+		{
+			matrizAsignaciones.vaciar() ;
+		}
+	}
+
+	/**
+	 * @param matrizAsignaciones matriz de asignaciones (puede ser null si no hay cursos de ese tipo de horario)
+	 * @return copia de la matriz, que no cambia aunque el hilo la vacíe en el siguiente intento
+	 */
+	private MatrizAsignaciones copiarMatriz(MatrizAsignaciones matrizAsignaciones)
+	{
+		MatrizAsignaciones outcome = null ;
+
+		if (matrizAsignaciones != null)
+		{
+			outcome = matrizAsignaciones.copiar() ;
+		}
+
+		return outcome ;
 	}
 
 	/**
@@ -248,89 +450,384 @@ public class HorarioThread extends Thread
     private UltimaAsignacion asignarSesion(UltimaAsignacion ultimaAsignacion) throws SchoolManagerServerException
     {
 		// Inicializamos las matriz de asignación
-		Asignacion[][] matrizAsignacion = null ;
+		MatrizAsignaciones matrizAsignacion = null ;
+
+		// Buscamos de qué sublista de sesiones pendientes saldrá la sesión, que guardamos por si hay que devolverla
+		int indiceSublista 				  = this.selectorSesionesController.buscarIndiceSublistaParaAsignar(this.sesionesThread) ;
+		List<SesionBase> sublistaSesiones = this.sesionesThread.get(indiceSublista) ;
 
 		// Cogemos una de las sesiones pendientes de asignar
 		SesionBase sesion = this.selectorSesionesController.obtenerSesionParaAsignar(this.sesionesThread,
-																		             this.matrizAsignacionesMatutinas,
-																		             this.matrizAsignacionesVespertinas,
+																					 indiceSublista,
 																			         ultimaAsignacion) ;
 
-		int numeroCursos 		  = -1 ;
-		int indiceCursoDiaInicial = -1 ;
+		// Si la sublista se quedó vacía, el selector la habrá eliminado
+		boolean sublistaEliminada = this.sesionesThread.size() <= indiceSublista || this.sesionesThread.get(indiceSublista) != sublistaSesiones ;
+
+		this.pasoEnCurso = new PasoAsignacion(sesion, sublistaSesiones, indiceSublista, sublistaEliminada) ;
 
-		// Si la sesión es matutina ...
+		// Cogemos la matriz de asignación según la sesión sea matutina o vespertina
 		if (sesion.isTipoHorarioMatutino())
 		{
-			// ... obtenemos el número de cursos ...
-			numeroCursos = this.horarioThreadParams.getMapCorrelacionadorCursosMatutinos().size() ;
-
-			// ... obtenemos el índice del curso/día inicial matutino
-			indiceCursoDiaInicial = this.horarioThreadParams.getMapCorrelacionadorCursosMatutinos().get(sesion.getCursoEtapaGrupoString()) ;
-
-			// Cogemos las matrices de asignación
 			matrizAsignacion = this.matrizAsignacionesMatutinas ;
 		}
 		else
 		{
-			// ... obtenemos el número de cursos ...
-			numeroCursos = this.horarioThreadParams.getMapCorrelacionadorCursosVespertinos().size() ;
+			matrizAsignacion = this.matrizAsignacionesVespertinas ;
+		}
 
-			// ... obtenemos el índice del curso/día inicial vespertino
-			indiceCursoDiaInicial = this.horarioThreadParams.getMapCorrelacionadorCursosVespertinos().get(sesion.getCursoEtapaGrupoString()) ;
+		// Asignamos la sesión
+		UltimaAsignacion nuevaUltimaAsignacion = this.asignadorSesionesController.asignarSesion(matrizAsignacion, sesion) ;
 
-			// Cogemos las matrices de asignación
-			matrizAsignacion = this.matrizAsignacionesVespertinas ;
+		// Si alguna sesión pendiente afectada se queda sin huecos, rechazamos este hueco en lugar de seguir hasta que se note
+		if (this.propagacionRestricciones && this.dominiosSesiones.buscarSesionSinHuecos(sesion, nuevaUltimaAsignacion.getIndicesAsignacionSesion()) != null)
+		{
+			this.rechazarAsignacion(matrizAsignacion, sesion, nuevaUltimaAsignacion.getIndicesAsignacionSesion()) ;
+
+			// La última asignación sigue siendo la anterior
+			return ultimaAsignacion ;
+		}
+
+		this.sesionesAsignadas++ ;
+
+		// Con la estrategia de salto atrás, la añadimos al rastro
+		if (this.estrategiaSaltoAtras)
+		{
+			this.pasoEnCurso.setUltimaAsignacion(nuevaUltimaAsignacion) ;
+			this.rastroAsignaciones.push(this.pasoEnCurso) ;
+		}
+
+		// Devolvemos la última asignación
+		return nuevaUltimaAsignacion ;
+	}
+
+	/**
+	 * Deshace la asignación que ha dejado sin huecos a una sesión pendiente y devuelve la sesión a las pendientes
+	 * sin ese día y tramo en su restricción horaria, para que al volver a elegirse pruebe en otro hueco.
+	 * Si no le queda ninguno, el asignador lanzará el callejón sin salida como con cualquier otra sesión
+	 * 
+	 * @param matrizAsignacion matriz de asignaciones de la sesión
+	 * @param sesion sesión recién asignada
+	 * @param indicesAsignacionSesion índices donde se ha asignado
+	 */
+	private void rechazarAsignacion(MatrizAsignaciones matrizAsignacion, SesionBase sesion, IndicesAsignacionSesion indicesAsignacionSesion)
+	{
+		this.asignadorSesionesController.deshacerAsignacion(matrizAsignacion, sesion, indicesAsignacionSesion) ;
+
+		sesion.getRestriccionHorariaThread().eliminarDiaTramo(indicesAsignacionSesion.getIndiceCursoDia(), indicesAsignacionSesion.getIndiceTramoHorario()) ;
+
+		this.devolverSesionAPendientes(this.pasoEnCurso) ;
+
+		// El hueco solo se descarta con las asignaciones actuales, así que se le devuelve al deshacer la más reciente
+		if (this.estrategiaSaltoAtras && !this.rastroAsignaciones.isEmpty())
+		{
+			this.rastroAsignaciones.peek().agregarSesionPodada(sesion) ;
+		}
+
+		this.horarioThreadParams.getControlHilosGenerador().getEstadisticasGenerador().registrarVaciadoDominio() ;
+
+		log.debug("Asignación de la sesión {} rechazada por dejar sin huecos a otra sesión pendiente", sesion) ;
+	}
+
+	/**
+	 * Ante un callejón sin salida, deshace las últimas asignaciones hasta la que ha provocado el conflicto
+	 * con la sesión que no se ha podido asignar (salto atrás dirigido por el conflicto)
+	 * 
+	 * @param schoolManagerServerException excepción lanzada al asignar la sesión
+	 * @return true si se ha saltado atrás, false si hay que comenzar de nuevo
+	 */
+	private boolean saltarAtras(SchoolManagerServerException schoolManagerServerException)
+	{
+		boolean outcome = this.estrategiaSaltoAtras &&
+						  schoolManagerServerException.getCode() == Constants.ERR_CODE_HORARIO_NO_MAS_AMPLIABLE &&
+						  this.saltosAtras < this.horarioThreadParams.getMaximoSaltosAtras() ;
+
+		if (outcome)
+		{
+			SesionBase sesionFallida = this.pasoEnCurso.getSesion() ;
+
+			// Buscamos en el rastro la asignación más reciente que impide asignar la sesión
+			int numeroPasos = HorarioThread.buscarNumeroPasosHastaConflicto(this.rastroAsignaciones, sesionFallida) ;
+
+			outcome = numeroPasos > 0 ;
+			if (outcome)
+			{
+				// Devolvemos la sesión que no se ha podido asignar a las pendientes, con sus restricciones iniciales
+				sesionFallida.inicializarRestriccionHorariaThread() ;
+				this.devolverSesionAPendientes(this.pasoEnCurso) ;
+
+				// Deshacemos las asignaciones desde la más reciente hasta la que provoca el conflicto
+				for (int i = 0 ; i < numeroPasos ; i++)
+				{
+					PasoAsignacion pasoAsignacion = this.rastroAsignaciones.pop() ;
+					SesionBase sesion 			  = pasoAsignacion.getSesion() ;
+
+					this.asignadorSesionesController.deshacerAsignacion(this.obtenerMatrizAsignaciones(sesion),
+																		sesion,
+																		pasoAsignacion.getUltimaAsignacion().getIndicesAsignacionSesion()) ;
+
+					// La sesión que provoca el conflicto conserva sus restricciones, donde ya no está el hueco que ocupaba,
+					// para no repetir la misma asignación. El resto vuelve a sus restricciones iniciales
+					if (i < numeroPasos - 1)
+					{
+						sesion.inicializarRestriccionHorariaThread() ;
+					}
+
+					this.devolverSesionAPendientes(pasoAsignacion) ;
+
+					// Las sesiones pendientes a las que se quitó un hueco con este paso asignado vuelven a sus restricciones iniciales
+					if (pasoAsignacion.getSesionesPodadas() != null)
+					{
+						for (SesionBase sesionPodada : pasoAsignacion.getSesionesPodadas())
+						{
+							sesionPodada.inicializarRestriccionHorariaThread() ;
+							this.dominiosSesiones.actualizarHuecosLibres(sesionPodada) ;
+						}
+					}
+				}
+
+				this.saltosAtras++ ;
+				this.sesionesAsignadas = this.sesionesAsignadas - numeroPasos ;
+				this.horarioThreadParams.getControlHilosGenerador().getEstadisticasGenerador().registrarSaltoAtras() ;
+
+				log.debug("Salto atrás de {} asignaciones por la sesión {}", numeroPasos, sesionFallida) ;
+			}
+		}
+
+		return outcome ;
+	}
+
+	/**
+	 * @param rastroAsignaciones rastro de las asignaciones del intento (la más reciente primero)
+	 * @param sesionFallida sesión que no se ha podido asignar
+	 * @return número de pasos del rastro que hay que deshacer hasta la asignación que provoca el conflicto (0 si no hay ninguna)
+	 */
+	static int buscarNumeroPasosHastaConflicto(Deque<PasoAsignacion> rastroAsignaciones, SesionBase sesionFallida)
+	{
+		int outcome = 0 ;
+
+		// Días y tramos en los que se podía asignar la sesión antes de comenzar la generación
+		long posiciones = sesionFallida.getRestriccionHorariaInit().getRestriccionesHorarias() ;
+
+		int numeroPasos = 0 ;
+		Iterator<PasoAsignacion> iterator = rastroAsignaciones.iterator() ;
+		while (iterator.hasNext() && outcome == 0)
+		{
+			PasoAsignacion pasoAsignacion = iterator.next() ;
+			numeroPasos++ ;
+
+			if (HorarioThread.provocaConflicto(pasoAsignacion, sesionFallida, posiciones))
+			{
+				outcome = numeroPasos ;
+			}
+		}
+
+		return outcome ;
+	}
+
+	/**
+	 * @param pasoAsignacion paso del rastro
+	 * @param sesionFallida sesión que no se ha podido asignar
+	 * @param posiciones días y tramos en los que se podía asignar la sesión fallida antes de comenzar la generación
+	 * @return true si la asignación del paso ocupa el curso o el profesor en un día y tramo en los que se podía asignar la sesión fallida,
+	 * o si es de su misma asignatura en un día en el que se podía asignar (por el máximo de ocurrencias por día o por las horas seguidas de FP)
+	 */
+	private static boolean provocaConflicto(PasoAsignacion pasoAsignacion, SesionBase sesionFallida, long posiciones)
+	{
+		boolean outcome = false ;
+
+		SesionBase sesion 						= pasoAsignacion.getSesion() ;
+		IndicesAsignacionSesion indicesAsignacion = pasoAsignacion.getUltimaAsignacion().getIndicesAsignacionSesion() ;
+
+		if (sesion.isTipoHorarioMatutino() == sesionFallida.isTipoHorarioMatutino())
+		{
+			RestriccionHorariaInit restriccionHorariaInit = sesionFallida.getRestriccionHorariaInit() ;
+
+			// Si es del mismo curso, ocupa un día y tramo en el que se podía asignar la sesión fallida
+			outcome = (posiciones & restriccionHorariaInit.obtenerMascaraPosicion(indicesAsignacion.getIndiceCursoDia(), indicesAsignacion.getIndiceTramoHorario())) != 0L ;
+
+			// Si es de la misma asignatura del mismo curso, limita las sesiones de ese día en el que se podía asignar la sesión fallida
+			if (!outcome && HorarioThread.mismaAsignatura(sesion, sesionFallida))
+			{
+				outcome = (posiciones & restriccionHorariaInit.obtenerMascaraDia(indicesAsignacion.getIndiceCursoDia())) != 0L ;
+			}
+
+			// Si es del mismo profesor, ocupa un día y tramo en el que se podía asignar la sesión fallida
+			if (!outcome && sesion.getIndiceProfesor() == sesionFallida.getIndiceProfesor())
+			{
+				int indiceCursoDia = restriccionHorariaInit.getIndiceCursoDiaInicial() + (indicesAsignacion.getIndiceCursoDia() % Constants.NUMERO_DIAS_SEMANA) ;
+
+				outcome = (posiciones & restriccionHorariaInit.obtenerMascaraPosicion(indiceCursoDia, indicesAsignacion.getIndiceTramoHorario())) != 0L ;
+			}
 		}
 
-		// Asignamos la sesión y devolvemos la última asignación
-		return this.asignadorSesionesController.asignarSesion(matrizAsignacion, sesion, numeroCursos, indiceCursoDiaInicial) ;					
+		return outcome ;
 	}
 
 	/**
-     * Método para agregar una solución a la lista
-     * @param generadorInstancia generador instancia
+	 * @param sesion sesión
+	 * @param otraSesion otra sesión
+	 * @return true si las dos sesiones son de la misma asignatura (los índices de asignatura ya distinguen el curso)
+	 */
+	private static boolean mismaAsignatura(SesionBase sesion, SesionBase otraSesion)
+	{
+		return sesion instanceof SesionAsignatura && otraSesion instanceof SesionAsignatura &&
+			   ((SesionAsignatura) sesion).getIndiceAsignatura() == ((SesionAsignatura) otraSesion).getIndiceAsignatura() ;
+	}
+
+	/**
+	 * Devuelve la sesión de un paso a la sublista de sesiones pendientes de la que salió
+	 * 
+	 * @param pasoAsignacion paso del rastro
+	 */
+	private void devolverSesionAPendientes(PasoAsignacion pasoAsignacion)
+	{
+		// Como se deshace en orden inverso, la lista de sesiones pendientes está igual que justo después de sacar la sesión
+		if (pasoAsignacion.isSublistaEliminada())
+		{
+			this.sesionesThread.add(pasoAsignacion.getIndiceSublista(), pasoAsignacion.getSublistaSesiones()) ;
+		}
+
+		// La ponemos la primera para que sea de las siguientes en elegirse
+		pasoAsignacion.getSublistaSesiones().add(0, pasoAsignacion.getSesion()) ;
+
+		// Su restricción horaria thread ha podido cambiar, así que volvemos a contar sus huecos libres
+		this.dominiosSesiones.actualizarHuecosLibres(pasoAsignacion.getSesion()) ;
+	}
+
+	/**
+	 * @param sesion sesión
+	 * @return matriz de asignaciones del tipo de horario de la sesión
+	 */
+	private MatrizAsignaciones obtenerMatrizAsignaciones(SesionBase sesion)
+	{
+		return sesion.isTipoHorarioMatutino() ? this.matrizAsignacionesMatutinas : this.matrizAsignacionesVespertinas ;
+	}
+
+	/**
+     * Método para agregar una solución a la lista. Solo se crea la instancia del generador en BBDD si se va a guardar la solución
      * @return true si la solución supera el umbral, false en caso contrario
 	 * @throws SchoolManagerServerException con un error
      */
-    private boolean agregarHorarioSolucion(GeneradorInstancia generadorInstancia) throws SchoolManagerServerException
+    private boolean agregarHorarioSolucion() throws SchoolManagerServerException
     {
-    	// Creamos una instancia de Horario
-		Horario horario = new Horario(this.matrizAsignacionesMatutinas, this.matrizAsignacionesVespertinas) ;
+    	// Antes de puntuar la solución, tratamos de mejorarla moviendo sesiones sin incumplir ninguna restricción
+    	this.busquedaLocal.mejorarHorario(this.matrizAsignacionesMatutinas, this.matrizAsignacionesVespertinas) ;
 
-        // Guardamos el horario en la base de datos
-        this.horarioThreadParams.getGeneradorService().guardarHorariosEnGeneradorSesionAsignada(generadorInstancia, horario) ;
-		
-    	// Calculamos las puntuación de esta solución
-        int puntuacionObtenida = this.horarioThreadParams.getGeneradorService().calcularPuntuacion(generadorInstancia) ;
+    	// Creamos una instancia de Horario con copias de las matrices, ya que el siguiente intento las vaciará
+		Horario horario = new Horario(this.copiarMatriz(this.matrizAsignacionesMatutinas), this.copiarMatriz(this.matrizAsignacionesVespertinas)) ;
+
+    	// Calculamos las puntuación de esta solución en memoria, sin necesidad de guardarla antes en BBDD
+		PuntuacionHorario puntuacionHorario = this.calculadorPuntuacion.calcularPuntuacion(horario) ;
+        int puntuacionObtenida 				= puntuacionHorario.getPuntuacionTotal() ;
+
+		horario.setPuntuacion(puntuacionObtenida) ;
 
 		// Verificamos si la solución supera el umbral
 		boolean solucionSuperaUmbral = puntuacionObtenida > this.horarioThreadParams.getUmbralMinimoSolucion() ;
    	
-        // Verificamos si la solución cumple unos mínimos
-        if (!solucionSuperaUmbral)
+        // En el modo de optimización por tiempo, la solución solo se queda en memoria si está entre las mejores
+        if (this.horarioThreadParams.getControlHilosGenerador().isOptimizacionPorTiempo())
         {
-            // Logueamos
-            log.info("Horario solución no supera la puntuación umbral: " + puntuacionObtenida + " < {} ó " + puntuacionObtenida + " < {}", 
-            		 this.horarioThreadParams.getUmbralMinimoSolucion(), puntuacionObtenida) ;
-
-            // Borramos de la tabla de generador instancia
-            this.horarioThreadParams.getGeneradorService().eliminarGeneradorInstancia(generadorInstancia) ;
+        	solucionSuperaUmbral = this.agregarHorarioSolucionOptimizacion(new SolucionGenerador(horario, puntuacionHorario, this.semillaHilo)) ;
         }
         else
         {
-        	// Logueamos
-            log.info("Horario solución supera la puntuación umbral: " + puntuacionObtenida + " > {} ó " + puntuacionObtenida + " > {}", 
-            		 this.horarioThreadParams.getUmbralMinimoSolucion(), puntuacionObtenida) ;
+            // Si la supera, tratamos de registrarla. Solo la registrará el primer hilo que lo consiga
+            if (solucionSuperaUmbral)
+            {
+            	solucionSuperaUmbral = this.horarioThreadParams.getControlHilosGenerador().registrarSolucion(puntuacionObtenida, this.horarioThreadParams.getUmbralMinimoSolucion()) ;
+            }
 
-            // Actualizamos el GeneradorInstancia y el Generador en BBDD
-            this.horarioThreadParams.getGeneradorService().actualizarGeneradorYgeneradorInstancia(generadorInstancia, Constants.MENSAJE_SOLUCION_ENCONTRADA, puntuacionObtenida) ;
+            // Verificamos si la solución cumple unos mínimos
+            if (!solucionSuperaUmbral)
+            {
+                // Logueamos
+                log.info("Horario solución no supera la puntuación umbral: " + puntuacionObtenida + " < {} ó " + puntuacionObtenida + " < {}", 
+                		 this.horarioThreadParams.getUmbralMinimoSolucion(), puntuacionObtenida) ;
+            }
+            else
+            {
+            	// Logueamos
+                log.info("Horario solución supera la puntuación umbral: " + puntuacionObtenida + " > {} ó " + puntuacionObtenida + " > {}", 
+                		 this.horarioThreadParams.getUmbralMinimoSolucion(), puntuacionObtenida) ;
 
-			// Paramos el hilo
-			this.detenerHilo = true ;
+                // Ahora sí, guardamos la solución en una única transacción: instancia del generador, horario y desglose de su puntuación
+                // (el registro de la solución ya ha indicado al resto de hilos que deben detenerse)
+                solucionSuperaUmbral = this.guardarSolucion(horario, puntuacionHorario) ;
+            }
+        }
+
+        if (solucionSuperaUmbral)
+        {
+        	this.notificarSolucionEncontrada(puntuacionObtenida) ;
         }
 
         return solucionSuperaUmbral ;
     }
+
+    /**
+     * Método que guarda en BBDD la solución aceptada. Si falla, el resto de hilos ya se han detenido, así que el generador
+     * terminará sin solución
+     * @param horario horario de la solución
+     * @param puntuacionHorario puntuación de la solución con su desglose
+     * @return true si se ha guardado la solución
+     */
+    private boolean guardarSolucion(Horario horario, PuntuacionHorario puntuacionHorario)
+    {
+    	boolean outcome = false ;
+
+    	try
+    	{
+    		this.horarioThreadParams.getGeneradorService().guardarSolucion(this.horarioThreadParams.getIdGenerador(), horario, puntuacionHorario, this.semillaHilo) ;
+
+    		this.horarioThreadParams.getControlHilosGenerador().marcarResultadoGuardado() ;
+
+    		outcome = true ;
+    	}
+    	catch (SchoolManagerServerException | RuntimeException exception)
+    	{
+    		log.error("ERROR - No se pudo guardar la solución encontrada del generador " + this.horarioThreadParams.getIdGenerador(), exception) ;
+    	}
+
+    	return outcome ;
+    }
+
+    /**
+     * Método que notifica una solución aceptada al receptor de eventos, si lo hay
+     * @param puntuacion puntuación de la solución
+     */
+    private void notificarSolucionEncontrada(int puntuacion)
+    {
+    	IEventosGenerador eventosGenerador = this.horarioThreadParams.getEventosGenerador() ;
+
+    	if (eventosGenerador != null)
+    	{
+    		eventosGenerador.solucionEncontrada(this.horarioThreadParams.getIdGenerador(), puntuacion) ;
+    	}
+    }
+
+    /**
+     * Método para agregar una solución a las mejores encontradas en el modo de optimización por tiempo. No se guarda nada en BBDD
+     * @param solucionGenerador solución encontrada
+     * @return true si la solución supera el umbral y está entre las mejores encontradas, false en caso contrario
+     */
+    private boolean agregarHorarioSolucionOptimizacion(SolucionGenerador solucionGenerador)
+    {
+    	int puntuacionObtenida = solucionGenerador.getHorario().getPuntuacion() ;
+
+    	boolean outcome = this.horarioThreadParams.getControlHilosGenerador().registrarSolucionOptimizacion(solucionGenerador, this.horarioThreadParams.getUmbralMinimoSolucion()) ;
+
+    	if (outcome)
+    	{
+    		log.info("Horario solución con puntuación {} entre las mejores encontradas", puntuacionObtenida) ;
+    	}
+    	else if (log.isDebugEnabled())
+    	{
+    		log.debug("Horario solución con puntuación {} descartado (umbral {})", puntuacionObtenida, this.horarioThreadParams.getUmbralMinimoSolucion()) ;
+    	}
+
+    	return outcome ;
+    }
 }
 
@@ -2,7 +2,7 @@ package es.iesjandula.reaktor.school_manager_server.generator.threads;
 
 import java.util.Map;
 
-import es.iesjandula.reaktor.school_manager_server.services.manager.AsignaturaService;
+import es.iesjandula.reaktor.school_manager_server.generator.sesiones.IndiceBloquesOptativas;
 import es.iesjandula.reaktor.school_manager_server.services.timetable.GeneradorService;
 
 public class HorarioThreadParams
@@ -13,8 +13,8 @@ public class HorarioThreadParams
     /** Mapa que correlaciona los nombres de los cursos vespertinos con el índice que ocupan en la matriz de sesiones */
     private Map<String, Integer> mapCorrelacionadorCursosVespertinos ;
 
-    /** Asignatura service */
-    private AsignaturaService asignaturaService ;
+    /** Índice de los bloques de optativas de las asignaturas de las sesiones */
+    private IndiceBloquesOptativas indiceBloquesOptativas ;
 
     /** Generador service */
     private GeneradorService generadorService ;
@@ -22,6 +22,39 @@ public class HorarioThreadParams
     /** Umbral mínimo para considerar una solución válida */
     private int umbralMinimoSolucion ;
 
+    /** Estado compartido por todos los hilos del generador */
+    private ControlHilosGenerador controlHilosGenerador ;
+
+    /** Número de profesores que participan en la generación */
+    private int numeroProfesores ;
+
+    /** Estrategia de búsqueda ante un callejón sin salida */
+    private String estrategiaBusqueda ;
+
+    /** Número máximo de saltos atrás en un mismo intento antes de comenzar de nuevo */
+    private int maximoSaltosAtras ;
+
+    /** Búsqueda local que mejora cada solución encontrada antes de puntuarla */
+    private String busquedaLocal ;
+
+    /** Número de movimientos que prueba la búsqueda local en cada matriz de asignaciones */
+    private int iteracionesBusquedaLocal ;
+
+    /** Orden en el que se eligen las sesiones pendientes de asignar */
+    private String ordenSesiones ;
+
+    /** True si tras cada asignación se comprueba que ninguna sesión pendiente afectada se queda sin huecos */
+    private boolean propagacionRestricciones ;
+
+    /** Identificador del generador en BBDD al que pertenecen las soluciones que encuentren los hilos */
+    private int idGenerador ;
+
+    /** Receptor de los eventos de los hilos (null si nadie los escucha) */
+    private IEventosGenerador eventosGenerador ;
+
+    /** Semilla de la generación, de la que cada hilo obtiene la de su propio generador de números aleatorios */
+    private long semilla ;
+
     /**
      * Constructor privado para forzar el uso del Builder
      * 
@@ -31,9 +64,20 @@ public class HorarioThreadParams
     {
         this.mapCorrelacionadorCursosMatutinos   = builder.mapCorrelacionadorCursosMatutinos ;
         this.mapCorrelacionadorCursosVespertinos = builder.mapCorrelacionadorCursosVespertinos ;
-        this.asignaturaService                   = builder.asignaturaService ;
+        this.indiceBloquesOptativas              = builder.indiceBloquesOptativas ;
         this.generadorService                    = builder.generadorService ;
         this.umbralMinimoSolucion                = builder.umbralMinimoSolucion ;
+        this.controlHilosGenerador               = builder.controlHilosGenerador ;
+        this.numeroProfesores                    = builder.numeroProfesores ;
+        this.estrategiaBusqueda                  = builder.estrategiaBusqueda ;
+        this.maximoSaltosAtras                   = builder.maximoSaltosAtras ;
+        this.busquedaLocal                       = builder.busquedaLocal ;
+        this.iteracionesBusquedaLocal            = builder.iteracionesBusquedaLocal ;
+        this.ordenSesiones                       = builder.ordenSesiones ;
+        this.propagacionRestricciones            = builder.propagacionRestricciones ;
+        this.idGenerador                         = builder.idGenerador ;
+        this.eventosGenerador                    = builder.eventosGenerador ;
+        this.semilla                             = builder.semilla ;
     }
 
     /**
@@ -53,11 +97,11 @@ public class HorarioThreadParams
     }
 
     /**
-     * @return asignatura service
+     * @return índice de los bloques de optativas de las asignaturas de las sesiones
      */
-    public AsignaturaService getAsignaturaService()
+    public IndiceBloquesOptativas getIndiceBloquesOptativas()
     {
-        return this.asignaturaService ;
+        return this.indiceBloquesOptativas ;
     }
 
     /**
@@ -76,6 +120,94 @@ public class HorarioThreadParams
         return this.umbralMinimoSolucion ;
     }
 
+    /**
+     * @return estado compartido por todos los hilos del generador
+     */
+    public ControlHilosGenerador getControlHilosGenerador()
+    {
+        return this.controlHilosGenerador ;
+    }
+
+    /**
+     * @return número de profesores que participan en la generación
+     */
+    public int getNumeroProfesores()
+    {
+        return this.numeroProfesores ;
+    }
+
+    /**
+     * @return estrategia de búsqueda ante un callejón sin salida
+     */
+    public String getEstrategiaBusqueda()
+    {
+        return this.estrategiaBusqueda ;
+    }
+
+    /**
+     * @return número máximo de saltos atrás en un mismo intento antes de comenzar de nuevo
+     */
+    public int getMaximoSaltosAtras()
+    {
+        return this.maximoSaltosAtras ;
+    }
+
+    /**
+     * @return búsqueda local que mejora cada solución encontrada antes de puntuarla
+     */
+    public String getBusquedaLocal()
+    {
+        return this.busquedaLocal ;
+    }
+
+    /**
+     * @return número de movimientos que prueba la búsqueda local en cada matriz de asignaciones
+     */
+    public int getIteracionesBusquedaLocal()
+    {
+        return this.iteracionesBusquedaLocal ;
+    }
+
+    /**
+     * @return orden en el que se eligen las sesiones pendientes de asignar
+     */
+    public String getOrdenSesiones()
+    {
+        return this.ordenSesiones ;
+    }
+
+    /**
+     * @return true si tras cada asignación se comprueba que ninguna sesión pendiente afectada se queda sin huecos
+     */
+    public boolean isPropagacionRestricciones()
+    {
+        return this.propagacionRestricciones ;
+    }
+
+    /**
+     * @return identificador del generador en BBDD al que pertenecen las soluciones que encuentren los hilos
+     */
+    public int getIdGenerador()
+    {
+        return this.idGenerador ;
+    }
+
+    /**
+     * @return receptor de los eventos de los hilos (null si nadie los escucha)
+     */
+    public IEventosGenerador getEventosGenerador()
+    {
+        return this.eventosGenerador ;
+    }
+
+    /**
+     * @return semilla de la generación, de la que cada hilo obtiene la de su propio generador de números aleatorios
+     */
+    public long getSemilla()
+    {
+        return this.semilla ;
+    }
+
     /**
      * Clase estática interna Builder
      */
@@ -87,8 +219,8 @@ public class HorarioThreadParams
         /** Mapa que correlaciona los nombres de los cursos vespertinos con el índice que ocupan en la matriz de sesiones */
         private Map<String, Integer> mapCorrelacionadorCursosVespertinos;
 
-        /** Asignatura service */
-        private AsignaturaService asignaturaService ;
+        /** Índice de los bloques de optativas de las asignaturas de las sesiones */
+        private IndiceBloquesOptativas indiceBloquesOptativas ;
 
         /** Generador service */
         private GeneradorService generadorService ;
@@ -96,6 +228,39 @@ public class HorarioThreadParams
         /** Umbral mínimo para considerar una solución válida */
         private int umbralMinimoSolucion ;
 
+        /** Estado compartido por todos los hilos del generador */
+        private ControlHilosGenerador controlHilosGenerador ;
+
+        /** Número de profesores que participan en la generación */
+        private int numeroProfesores ;
+
+        /** Estrategia de búsqueda ante un callejón sin salida */
+        private String estrategiaBusqueda ;
+
+        /** Número máximo de saltos atrás en un mismo intento antes de comenzar de nuevo */
+        private int maximoSaltosAtras ;
+
+        /** Búsqueda local que mejora cada solución encontrada antes de puntuarla */
+        private String busquedaLocal ;
+
+        /** Número de movimientos que prueba la búsqueda local en cada matriz de asignaciones */
+        private int iteracionesBusquedaLocal ;
+
+        /** Orden en el que se eligen las sesiones pendientes de asignar */
+        private String ordenSesiones ;
+
+        /** True si tras cada asignación se comprueba que ninguna sesión pendiente afectada se queda sin huecos */
+        private boolean propagacionRestricciones ;
+
+        /** Identificador del generador en BBDD al que pertenecen las soluciones que encuentren los hilos */
+        private int idGenerador ;
+
+        /** Receptor de los eventos de los hilos (null si nadie los escucha) */
+        private IEventosGenerador eventosGenerador ;
+
+        /** Semilla de la generación, de la que cada hilo obtiene la de su propio generador de números aleatorios */
+        private long semilla ;
+
         /**
          * @param mapa que correlaciona los nombres de los cursos matutinos con el índice que ocupan en la matriz de sesiones
          * @return builder
@@ -119,12 +284,12 @@ public class HorarioThreadParams
         }
 
         /**
-         * @param asignaturaService asignatura service
+         * @param indiceBloquesOptativas índice de los bloques de optativas de las asignaturas de las sesiones
          * @return builder
          */
-        public Builder setAsignaturaService(AsignaturaService asignaturaService)
+        public Builder setIndiceBloquesOptativas(IndiceBloquesOptativas indiceBloquesOptativas)
         {
-            this.asignaturaService = asignaturaService ;
+            this.indiceBloquesOptativas = indiceBloquesOptativas ;
             
             return this ;
         }
@@ -151,6 +316,127 @@ public class HorarioThreadParams
             return this ;
         }
 
+        /**
+         * @param controlHilosGenerador estado compartido por todos los hilos del generador
+         * @return builder
+         */
+        public Builder setControlHilosGenerador(ControlHilosGenerador controlHilosGenerador)
+        {
+            this.controlHilosGenerador = controlHilosGenerador ;
+
+            return this ;
+        }
+
+        /**
+         * @param numeroProfesores número de profesores que participan en la generación
+         * @return builder
+         */
+        public Builder setNumeroProfesores(int numeroProfesores)
+        {
+            this.numeroProfesores = numeroProfesores ;
+
+            return this ;
+        }
+
+        /**
+         * @param estrategiaBusqueda estrategia de búsqueda ante un callejón sin salida
+         * @return builder
+         */
+        public Builder setEstrategiaBusqueda(String estrategiaBusqueda)
+        {
+            this.estrategiaBusqueda = estrategiaBusqueda ;
+
+            return this ;
+        }
+
+        /**
+         * @param maximoSaltosAtras número máximo de saltos atrás en un mismo intento antes de comenzar de nuevo
+         * @return builder
+         */
+        public Builder setMaximoSaltosAtras(int maximoSaltosAtras)
+        {
+            this.maximoSaltosAtras = maximoSaltosAtras ;
+
+            return this ;
+        }
+
+        /**
+         * @param busquedaLocal búsqueda local que mejora cada solución encontrada antes de puntuarla
+         * @return builder
+         */
+        public Builder setBusquedaLocal(String busquedaLocal)
+        {
+            this.busquedaLocal = busquedaLocal ;
+
+            return this ;
+        }
+
+        /**
+         * @param iteracionesBusquedaLocal número de movimientos que prueba la búsqueda local en cada matriz de asignaciones
+         * @return builder
+         */
+        public Builder setIteracionesBusquedaLocal(int iteracionesBusquedaLocal)
+        {
+            this.iteracionesBusquedaLocal = iteracionesBusquedaLocal ;
+
+            return this ;
+        }
+
+        /**
+         * @param ordenSesiones orden en el que se eligen las sesiones pendientes de asignar
+         * @return builder
+         */
+        public Builder setOrdenSesiones(String ordenSesiones)
+        {
+            this.ordenSesiones = ordenSesiones ;
+
+            return this ;
+        }
+
+        /**
+         * @param propagacionRestricciones true si tras cada asignación se comprueba que ninguna sesión pendiente afectada se queda sin huecos
+         * @return builder
+         */
+        public Builder setPropagacionRestricciones(boolean propagacionRestricciones)
+        {
+            this.propagacionRestricciones = propagacionRestricciones ;
+
+            return this ;
+        }
+
+        /**
+         * @param idGenerador identificador del generador en BBDD al que pertenecen las soluciones que encuentren los hilos
+         * @return builder
+         */
+        public Builder setIdGenerador(int idGenerador)
+        {
+            this.idGenerador = idGenerador ;
+
+            return this ;
+        }
+
+        /**
+         * @param eventosGenerador receptor de los eventos de los hilos
+         * @return builder
+         */
+        public Builder setEventosGenerador(IEventosGenerador eventosGenerador)
+        {
+            this.eventosGenerador = eventosGenerador ;
+
+            return this ;
+        }
+
+        /**
+         * @param semilla semilla de la generación, de la que cada hilo obtiene la de su propio generador de números aleatorios
+         * @return builder
+         */
+        public Builder setSemilla(long semilla)
+        {
+            this.semilla = semilla ;
+
+            return this ;
+        }
+
         /**
          * Método build que construye el objeto final
          * @return una instancia de HorarioThreadParams
@@ -0,0 +1,14 @@
+package es.iesjandula.reaktor.school_manager_server.generator.threads;
+
+/**
+ * Receptor de los eventos que producen los hilos del generador mientras buscan.
+ * <p>En el servidor los reparte EventosGeneradorService entre los clientes suscritos. Los hilos no deben bloquearse al notificarlos.</p>
+ */
+public interface IEventosGenerador
+{
+    /**
+     * @param idGenerador identificador del generador en BBDD
+     * @param puntuacion puntuación de la solución aceptada (supera el umbral o está entre las mejores encontradas)
+     */
+    void solucionEncontrada(int idGenerador, int puntuacion) ;
+}
@@ -0,0 +1,430 @@
+package es.iesjandula.reaktor.school_manager_server.generator.threads;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionAsignatura;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
+
+/**
+ * Matriz de asignaciones de un tipo de horario, con una fila por curso y día y una columna por tramo.
+ * <p>Cada celda guarda en un único array de enteros el índice de su primera sesión, en lugar de una asignación con su propia
+ * lista de sesiones. Las celdas de los bloques de optativas tienen varias sesiones, así que cada sesión guarda el índice de la
+ * siguiente de su celda, en el orden en el que se asignaron. Vaciar la matriz al comenzar un intento es rellenar un array
+ * y copiarla para guardar una solución es copiar tres, sin crear ningún objeto por celda.</p>
+ * <p>Las sesiones se obtienen por su índice de la tabla de sesiones de la generación, que comparten la matriz matutina,
+ * la vespertina y sus copias.</p>
+ */
+public class MatrizAsignaciones
+{
+    /** Valor de una celda vacía y de la última sesión de una celda */
+    public static final int SIN_SESION = -1 ;
+
+    /** Número de filas de la matriz, una por curso y día */
+    private final int numeroCursosDias ;
+
+    /** Sesiones de la generación, indexadas por el índice de la sesión */
+    private final SesionBase[] sesiones ;
+
+    /** Índice de la primera sesión de cada celda, indexado por curso, día y tramo */
+    private final int[] celdas ;
+
+    /** True si la celda es de un bloque de optativas, indexado por curso, día y tramo */
+    private final boolean[] celdasOptativas ;
+
+    /** Índice de la siguiente sesión de la misma celda, indexado por el índice de la sesión */
+    private final int[] siguientesSesiones ;
+
+    /**
+     * @param numeroCursos número de cursos del tipo de horario
+     * @param sesiones sesiones de la generación, indexadas por el índice de la sesión
+     */
+    public MatrizAsignaciones(int numeroCursos, SesionBase[] sesiones)
+    {
+        this.numeroCursosDias   = numeroCursos * Constants.NUMERO_DIAS_SEMANA ;
+        this.sesiones           = sesiones ;
+        this.celdas             = new int[this.numeroCursosDias * Constants.NUMERO_TRAMOS_HORARIOS] ;
+        this.celdasOptativas    = new boolean[this.celdas.length] ;
+        this.siguientesSesiones = new int[sesiones.length] ;
+
+        this.vaciar() ;
+    }
+
+    /**
+     * @param matrizAsignaciones matriz de asignaciones que se copia
+     */
+    private MatrizAsignaciones(MatrizAsignaciones matrizAsignaciones)
+    {
+        this.numeroCursosDias   = matrizAsignaciones.numeroCursosDias ;
+        this.sesiones           = matrizAsignaciones.sesiones ;
+        this.celdas             = matrizAsignaciones.celdas.clone() ;
+        this.celdasOptativas    = matrizAsignaciones.celdasOptativas.clone() ;
+        this.siguientesSesiones = matrizAsignaciones.siguientesSesiones.clone() ;
+    }
+
+    /**
+     * @param listaDeListaSesiones sesiones de la generación, cada una con su índice
+     * @return sesiones indexadas por el índice de la sesión
+     */
+    public static SesionBase[] indexarSesiones(List<List<SesionBase>> listaDeListaSesiones)
+    {
+        int numeroSesiones = 0 ;
+        for (List<SesionBase> sublista : listaDeListaSesiones)
+        {
+            for (SesionBase sesion : sublista)
+            {
+                numeroSesiones = Math.max(numeroSesiones, sesion.getIndiceSesion() + 1) ;
+            }
+        }
+
+        SesionBase[] outcome = new SesionBase[numeroSesiones] ;
+        for (List<SesionBase> sublista : listaDeListaSesiones)
+        {
+            for (SesionBase sesion : sublista)
+            {
+                outcome[sesion.getIndiceSesion()] = sesion ;
+            }
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * Vacía todas las celdas (al comenzar un nuevo intento)
+     */
+    public void vaciar()
+    {
+        Arrays.fill(this.celdas, SIN_SESION) ;
+        Arrays.fill(this.celdasOptativas, false) ;
+    }
+
+    /**
+     * @return copia de la matriz que no cambia aunque se siga asignando sobre esta
+     */
+    public MatrizAsignaciones copiar()
+    {
+        return new MatrizAsignaciones(this) ;
+    }
+
+    /**
+     * Devuelve la matriz a una copia suya anterior
+     *
+     * @param matrizAsignaciones copia anterior de la matriz
+     */
+    public void restaurar(MatrizAsignaciones matrizAsignaciones)
+    {
+        System.arraycopy(matrizAsignaciones.celdas, 0, this.celdas, 0, this.celdas.length) ;
+        System.arraycopy(matrizAsignaciones.celdasOptativas, 0, this.celdasOptativas, 0, this.celdasOptativas.length) ;
+        System.arraycopy(matrizAsignaciones.siguientesSesiones, 0, this.siguientesSesiones, 0, this.siguientesSesiones.length) ;
+    }
+
+    /**
+     * @return número de filas de la matriz, una por curso y día
+     */
+    public int getNumeroCursosDias()
+    {
+        return this.numeroCursosDias ;
+    }
+
+    /**
+     * @param indiceCursoDia índice del curso y día
+     * @param tramo tramo horario (0-5)
+     * @return true si no hay ninguna sesión en la celda
+     */
+    public boolean celdaVacia(int indiceCursoDia, int tramo)
+    {
+        return this.celdas[MatrizAsignaciones.obtenerIndiceCelda(indiceCursoDia, tramo)] == SIN_SESION ;
+    }
+
+    /**
+     * @param indiceCursoDia índice del curso y día
+     * @param tramo tramo horario (0-5)
+     * @return true si la celda es de un bloque de optativas
+     */
+    public boolean isOptativas(int indiceCursoDia, int tramo)
+    {
+        return this.celdasOptativas[MatrizAsignaciones.obtenerIndiceCelda(indiceCursoDia, tramo)] ;
+    }
+
+    /**
+     * @param indiceCursoDia índice del curso y día
+     * @param tramo tramo horario (0-5)
+     * @return índice de la primera sesión de la celda, o SIN_SESION si está vacía
+     */
+    public int obtenerPrimeraSesion(int indiceCursoDia, int tramo)
+    {
+        return this.celdas[MatrizAsignaciones.obtenerIndiceCelda(indiceCursoDia, tramo)] ;
+    }
+
+    /**
+     * @param indiceSesion índice de una sesión asignada
+     * @return índice de la siguiente sesión de su celda, o SIN_SESION si es la última
+     */
+    public int obtenerSiguienteSesion(int indiceSesion)
+    {
+        return this.siguientesSesiones[indiceSesion] ;
+    }
+
+    /**
+     * @param indiceSesion índice de la sesión
+     * @return sesión
+     */
+    public SesionBase obtenerSesion(int indiceSesion)
+    {
+        return this.sesiones[indiceSesion] ;
+    }
+
+    /**
+     * @param indiceCursoDia índice del curso y día
+     * @param tramo tramo horario (0-5)
+     * @return nueva lista con las sesiones de la celda, en el orden en el que se asignaron
+     */
+    public List<SesionBase> obtenerSesiones(int indiceCursoDia, int tramo)
+    {
+        List<SesionBase> outcome = new ArrayList<SesionBase>() ;
+
+        int indiceSesion = this.obtenerPrimeraSesion(indiceCursoDia, tramo) ;
+        while (indiceSesion != SIN_SESION)
+        {
+            outcome.add(this.sesiones[indiceSesion]) ;
+
+            indiceSesion = this.siguientesSesiones[indiceSesion] ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @param indiceCursoDia índice del curso y día
+     * @param tramo tramo horario (0-5)
+     * @param indiceAsignatura índice de la asignatura
+     * @return true si alguna sesión de la celda es de la asignatura
+     */
+    public boolean contieneAsignatura(int indiceCursoDia, int tramo, int indiceAsignatura)
+    {
+        boolean outcome = false ;
+
+        int indiceSesion = this.obtenerPrimeraSesion(indiceCursoDia, tramo) ;
+        while (indiceSesion != SIN_SESION && !outcome)
+        {
+            // Comparamos los índices, sin el equals de la entidad
+            SesionBase sesion = this.sesiones[indiceSesion] ;
+            outcome = sesion instanceof SesionAsignatura && ((SesionAsignatura) sesion).getIndiceAsignatura() == indiceAsignatura ;
+
+            indiceSesion = this.siguientesSesiones[indiceSesion] ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @param indiceCursoDia índice del curso y día
+     * @param tramo tramo horario (0-5)
+     * @param indiceProfesor índice del profesor
+     * @return true si alguna sesión de la celda es del profesor
+     */
+    public boolean contieneProfesor(int indiceCursoDia, int tramo, int indiceProfesor)
+    {
+        boolean outcome = false ;
+
+        int indiceSesion = this.obtenerPrimeraSesion(indiceCursoDia, tramo) ;
+        while (indiceSesion != SIN_SESION && !outcome)
+        {
+            outcome      = this.sesiones[indiceSesion].getIndiceProfesor() == indiceProfesor ;
+            indiceSesion = this.siguientesSesiones[indiceSesion] ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * Añade la sesión al final de la celda. Si es una asignatura, la celda pasa a ser de optativas según lo sea la sesión
+     *
+     * @param indiceCursoDia índice del curso y día
+     * @param tramo tramo horario (0-5)
+     * @param sesion sesión a asignar
+     */
+    public void asignar(int indiceCursoDia, int tramo, SesionBase sesion)
+    {
+        int indiceCelda = MatrizAsignaciones.obtenerIndiceCelda(indiceCursoDia, tramo) ;
+
+        this.siguientesSesiones[sesion.getIndiceSesion()] = SIN_SESION ;
+
+        if (this.celdas[indiceCelda] == SIN_SESION)
+        {
+            this.celdas[indiceCelda] = sesion.getIndiceSesion() ;
+        }
+        else
+        {
+            this.siguientesSesiones[this.obtenerUltimaSesion(indiceCelda)] = sesion.getIndiceSesion() ;
+        }
+
+        if (sesion instanceof SesionAsignatura)
+        {
+            this.celdasOptativas[indiceCelda] = ((SesionAsignatura) sesion).isOptativa() ;
+        }
+    }
+
+    /**
+     * Quita la última sesión de la celda, que es la última que se asignó, y recalcula si la celda es de optativas
+     * igual que se hizo al asignar cada sesión
+     *
+     * @param indiceCursoDia índice del curso y día
+     * @param tramo tramo horario (0-5)
+     */
+    public void quitarUltimaSesion(int indiceCursoDia, int tramo)
+    {
+        int indiceCelda = MatrizAsignaciones.obtenerIndiceCelda(indiceCursoDia, tramo) ;
+
+        this.celdasOptativas[indiceCelda] = false ;
+
+        int anterior     = SIN_SESION ;
+        int indiceSesion = this.celdas[indiceCelda] ;
+        while (this.siguientesSesiones[indiceSesion] != SIN_SESION)
+        {
+            if (this.sesiones[indiceSesion] instanceof SesionAsignatura)
+            {
+                this.celdasOptativas[indiceCelda] = ((SesionAsignatura) this.sesiones[indiceSesion]).isOptativa() ;
+            }
+
+            anterior     = indiceSesion ;
+            indiceSesion = this.siguientesSesiones[indiceSesion] ;
+        }
+
+        if (anterior == SIN_SESION)
+        {
+            this.celdas[indiceCelda] = SIN_SESION ;
+        }
+        else
+        {
+            this.siguientesSesiones[anterior] = SIN_SESION ;
+        }
+    }
+
+    /**
+     * Intercambia el contenido de dos celdas, con todas sus sesiones
+     *
+     * @param indiceCursoDiaOrigen índice del curso y día de la celda de origen
+     * @param tramoOrigen tramo de la celda de origen
+     * @param indiceCursoDiaDestino índice del curso y día de la celda de destino
+     * @param tramoDestino tramo de la celda de destino
+     */
+    public void intercambiarCeldas(int indiceCursoDiaOrigen, int tramoOrigen, int indiceCursoDiaDestino, int tramoDestino)
+    {
+        int indiceCeldaOrigen  = MatrizAsignaciones.obtenerIndiceCelda(indiceCursoDiaOrigen, tramoOrigen) ;
+        int indiceCeldaDestino = MatrizAsignaciones.obtenerIndiceCelda(indiceCursoDiaDestino, tramoDestino) ;
+
+        int primeraSesion               = this.celdas[indiceCeldaOrigen] ;
+        this.celdas[indiceCeldaOrigen]  = this.celdas[indiceCeldaDestino] ;
+        this.celdas[indiceCeldaDestino] = primeraSesion ;
+
+        boolean optativas                        = this.celdasOptativas[indiceCeldaOrigen] ;
+        this.celdasOptativas[indiceCeldaOrigen]  = this.celdasOptativas[indiceCeldaDestino] ;
+        this.celdasOptativas[indiceCeldaDestino] = optativas ;
+    }
+
+    /**
+     * @param indiceCelda índice de una celda ocupada
+     * @return índice de la última sesión de la celda
+     */
+    private int obtenerUltimaSesion(int indiceCelda)
+    {
+        int outcome = this.celdas[indiceCelda] ;
+
+        while (this.siguientesSesiones[outcome] != SIN_SESION)
+        {
+            outcome = this.siguientesSesiones[outcome] ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @param indiceCursoDia índice del curso y día
+     * @param tramo tramo horario (0-5)
+     * @return índice de la celda en el array de celdas
+     */
+    private static int obtenerIndiceCelda(int indiceCursoDia, int tramo)
+    {
+        return indiceCursoDia * Constants.NUMERO_TRAMOS_HORARIOS + tramo ;
+    }
+
+    /**
+     * @param indiceCursoDia índice del curso y día
+     * @param tramo tramo horario (0-5)
+     * @return texto de la celda con sus sesiones, o null si está vacía
+     */
+    public String celdaToString(int indiceCursoDia, int tramo)
+    {
+        String outcome = null ;
+
+        if (!this.celdaVacia(indiceCursoDia, tramo))
+        {
+            StringBuilder builder = new StringBuilder("[") ;
+
+            int indiceSesion = this.obtenerPrimeraSesion(indiceCursoDia, tramo) ;
+            while (indiceSesion != SIN_SESION)
+            {
+                builder.append(this.sesiones[indiceSesion]) ;
+
+                indiceSesion = this.siguientesSesiones[indiceSesion] ;
+                if (indiceSesion != SIN_SESION)
+                {
+                    builder.append("-") ;
+                }
+            }
+
+            outcome = builder.append("]").toString() ;
+        }
+
+        return outcome ;
+    }
+
+    @Override
+    public boolean equals(Object object)
+    {
+        if (this == object)
+        {
+            return true ;
+        }
+        else if (object == null || this.getClass() != object.getClass())
+        {
+            return false ;
+        }
+
+        MatrizAsignaciones matrizAsignaciones = (MatrizAsignaciones) object ;
+
+        // Solo cuentan las sesiones de cada celda, no lo que quede en la tabla de siguientes sesiones de las que no están asignadas
+        boolean outcome = this.numeroCursosDias == matrizAsignaciones.numeroCursosDias &&
+                          Arrays.equals(this.celdas, matrizAsignaciones.celdas) &&
+                          Arrays.equals(this.celdasOptativas, matrizAsignaciones.celdasOptativas) ;
+
+        int indiceCelda = 0 ;
+        while (outcome && indiceCelda < this.celdas.length)
+        {
+            // Las primeras sesiones ya son iguales, así que recorremos las dos celdas a la vez
+            int indiceSesion     = this.celdas[indiceCelda] ;
+            int indiceSesionOtra = matrizAsignaciones.celdas[indiceCelda] ;
+
+            while (outcome && indiceSesion != SIN_SESION)
+            {
+                indiceSesion     = this.siguientesSesiones[indiceSesion] ;
+                indiceSesionOtra = matrizAsignaciones.siguientesSesiones[indiceSesionOtra] ;
+
+                outcome = indiceSesion == indiceSesionOtra ;
+            }
+
+            indiceCelda++ ;
+        }
+
+        return outcome ;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Arrays.hashCode(this.celdas) ;
+    }
+}
@@ -0,0 +1,78 @@
+package es.iesjandula.reaktor.school_manager_server.generator.threads;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Las mejores soluciones encontradas por todos los hilos en el modo de optimización por tiempo.
+ * <p>Es una cola de prioridad acotada que tiene en la cabeza la peor de las soluciones guardadas (según {@code Horario.compareTo}),
+ * de forma que cada nueva solución solo se compara con ella y, si la mejora, la sustituye.</p>
+ */
+public class MejoresSoluciones
+{
+    /** Ordena las soluciones por su horario, de la peor a la mejor */
+    private static final Comparator<SolucionGenerador> COMPARADOR_SOLUCIONES =
+                                (solucion1, solucion2) -> solucion1.getHorario().compareTo(solucion2.getHorario()) ;
+
+    /** Número máximo de soluciones que se guardan */
+    private final int capacidad ;
+
+    /** Soluciones guardadas, con la peor en la cabeza */
+    private final PriorityQueue<SolucionGenerador> soluciones ;
+
+    /**
+     * @param capacidad número máximo de soluciones que se guardan
+     */
+    public MejoresSoluciones(int capacidad)
+    {
+        this.capacidad  = Math.max(1, capacidad) ;
+        this.soluciones = new PriorityQueue<SolucionGenerador>(this.capacidad, COMPARADOR_SOLUCIONES) ;
+    }
+
+    /**
+     * Trata de agregar una solución. Si ya están todas las plazas ocupadas, solo entra si mejora a la peor, que se descarta
+     *
+     * @param solucionGenerador solución encontrada
+     * @return true si la solución se ha agregado
+     */
+    public synchronized boolean agregar(SolucionGenerador solucionGenerador)
+    {
+        boolean outcome = this.soluciones.size() < this.capacidad ;
+
+        if (!outcome && solucionGenerador.getHorario().compareTo(this.soluciones.peek().getHorario()) > 0)
+        {
+            // Descartamos la peor solución para dejar sitio a la nueva
+            this.soluciones.poll() ;
+            outcome = true ;
+        }
+
+        if (outcome)
+        {
+            this.soluciones.add(solucionGenerador) ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @return número de soluciones guardadas
+     */
+    public synchronized int size()
+    {
+        return this.soluciones.size() ;
+    }
+
+    /**
+     * @return soluciones guardadas, de la mejor a la peor
+     */
+    public synchronized List<SolucionGenerador> obtenerSoluciones()
+    {
+        List<SolucionGenerador> outcome = new ArrayList<SolucionGenerador>(this.soluciones) ;
+
+        outcome.sort(COMPARADOR_SOLUCIONES.reversed()) ;
+
+        return outcome ;
+    }
+}
@@ -0,0 +1,94 @@
+package es.iesjandula.reaktor.school_manager_server.generator.threads;
+
+import java.util.Arrays;
+
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
+
+/**
+ * Índice de ocupación de los cursos de un hilo del generador.
+ * <p>Cada curso tiene un long donde cada bit representa un día y tramo de su semana, con la misma disposición que las
+ * restricciones horarias (día * 6 + tramo). Así, saber cuántos huecos libres le quedan a una sesión es una operación con bits,
+ * sin recorrer la matriz de asignaciones.</p>
+ */
+public class OcupacionCursos
+{
+    /** Ocupación de cada curso matutino, indexada por el número de curso en la matriz */
+    private final long[] ocupacionMatutina ;
+
+    /** Ocupación de cada curso vespertino, indexada por el número de curso en la matriz */
+    private final long[] ocupacionVespertina ;
+
+    /**
+     * @param numeroCursosMatutinos número de cursos matutinos
+     * @param numeroCursosVespertinos número de cursos vespertinos
+     */
+    public OcupacionCursos(int numeroCursosMatutinos, int numeroCursosVespertinos)
+    {
+        this.ocupacionMatutina   = new long[numeroCursosMatutinos] ;
+        this.ocupacionVespertina = new long[numeroCursosVespertinos] ;
+    }
+
+    /**
+     * Libera la ocupación de todos los cursos (al comenzar un nuevo intento)
+     */
+    public void limpiar()
+    {
+        Arrays.fill(this.ocupacionMatutina, 0L) ;
+        Arrays.fill(this.ocupacionVespertina, 0L) ;
+    }
+
+    /**
+     * @param tipoHorarioMatutino true si es horario matutino
+     * @param indiceCursoDia índice del curso y día
+     * @param tramo tramo horario (0-5)
+     */
+    public void ocupar(boolean tipoHorarioMatutino, int indiceCursoDia, int tramo)
+    {
+        long[] ocupacion = this.obtenerOcupacionTipoHorario(tipoHorarioMatutino) ;
+        int curso        = indiceCursoDia / Constants.NUMERO_DIAS_SEMANA ;
+
+        ocupacion[curso] = ocupacion[curso] | this.obtenerMascara(indiceCursoDia, tramo) ;
+    }
+
+    /**
+     * @param tipoHorarioMatutino true si es horario matutino
+     * @param indiceCursoDia índice del curso y día
+     * @param tramo tramo horario (0-5)
+     */
+    public void liberar(boolean tipoHorarioMatutino, int indiceCursoDia, int tramo)
+    {
+        long[] ocupacion = this.obtenerOcupacionTipoHorario(tipoHorarioMatutino) ;
+        int curso        = indiceCursoDia / Constants.NUMERO_DIAS_SEMANA ;
+
+        ocupacion[curso] = ocupacion[curso] & ~this.obtenerMascara(indiceCursoDia, tramo) ;
+    }
+
+    /**
+     * @param tipoHorarioMatutino true si es horario matutino
+     * @param indiceCursoDiaInicial índice del curso y día inicial
+     * @return máscara con los días y tramos ocupados de la semana del curso
+     */
+    public long obtenerOcupacion(boolean tipoHorarioMatutino, int indiceCursoDiaInicial)
+    {
+        return this.obtenerOcupacionTipoHorario(tipoHorarioMatutino)[indiceCursoDiaInicial / Constants.NUMERO_DIAS_SEMANA] ;
+    }
+
+    /**
+     * @param tipoHorarioMatutino true si es horario matutino
+     * @return ocupación de los cursos del tipo de horario
+     */
+    private long[] obtenerOcupacionTipoHorario(boolean tipoHorarioMatutino)
+    {
+        return tipoHorarioMatutino ? this.ocupacionMatutina : this.ocupacionVespertina ;
+    }
+
+    /**
+     * @param indiceCursoDia índice del curso y día
+     * @param tramo tramo horario (0-5)
+     * @return máscara con el bit del día y tramo dentro de la semana del curso
+     */
+    private long obtenerMascara(int indiceCursoDia, int tramo)
+    {
+        return 1L << (((indiceCursoDia % Constants.NUMERO_DIAS_SEMANA) * Constants.NUMERO_TRAMOS_HORARIOS) + tramo) ;
+    }
+}
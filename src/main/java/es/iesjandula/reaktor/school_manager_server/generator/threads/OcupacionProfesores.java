@@ -0,0 +1,105 @@
+package es.iesjandula.reaktor.school_manager_server.generator.threads;
+
+import java.util.Arrays;
+
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
+
+/**
+ * Índice de ocupación de los profesores de un hilo del generador.
+ * <p>Cada profesor tiene un long donde cada bit representa un día y tramo: los 30 primeros bits para el horario matutino
+ * y los 30 siguientes para el vespertino. Así, saber si un profesor ya tiene clase a una hora es una operación
+ * con bits, sin recorrer la matriz de asignaciones ni comparar profesores.</p>
+ */
+public class OcupacionProfesores
+{
+    /** Número de bits que ocupa cada tipo de horario (días * tramos) */
+    private static final int BITS_TIPO_HORARIO = Constants.NUMERO_DIAS_SEMANA * Constants.NUMERO_TRAMOS_HORARIOS ;
+
+    /** Ocupación de cada profesor, indexada por el índice del profesor */
+    private final long[] ocupacion ;
+
+    /**
+     * @param numeroProfesores número de profesores que participan en la generación
+     */
+    public OcupacionProfesores(int numeroProfesores)
+    {
+        this.ocupacion = new long[numeroProfesores] ;
+    }
+
+    /**
+     * Libera la ocupación de todos los profesores (al comenzar un nuevo intento)
+     */
+    public void limpiar()
+    {
+        Arrays.fill(this.ocupacion, 0L) ;
+    }
+
+    /**
+     * @param indiceProfesor índice del profesor
+     * @param tipoHorarioMatutino true si es horario matutino
+     * @param dia día de la semana (0-4)
+     * @param tramo tramo horario (0-5)
+     * @return true si el profesor ya tiene una sesión asignada en ese día y tramo
+     */
+    public boolean profesorOcupado(int indiceProfesor, boolean tipoHorarioMatutino, int dia, int tramo)
+    {
+        return (this.ocupacion[indiceProfesor] & this.obtenerMascara(tipoHorarioMatutino, dia, tramo)) != 0L ;
+    }
+
+    /**
+     * @param indiceProfesor índice del profesor
+     * @param tipoHorarioMatutino true si es horario matutino
+     * @param dia día de la semana (0-4)
+     * @param tramo tramo horario (0-5)
+     */
+    public void ocupar(int indiceProfesor, boolean tipoHorarioMatutino, int dia, int tramo)
+    {
+        this.ocupacion[indiceProfesor] = this.ocupacion[indiceProfesor] | this.obtenerMascara(tipoHorarioMatutino, dia, tramo) ;
+    }
+
+    /**
+     * @param indiceProfesor índice del profesor
+     * @param tipoHorarioMatutino true si es horario matutino
+     * @param dia día de la semana (0-4)
+     * @param tramo tramo horario (0-5)
+     */
+    public void liberar(int indiceProfesor, boolean tipoHorarioMatutino, int dia, int tramo)
+    {
+        this.ocupacion[indiceProfesor] = this.ocupacion[indiceProfesor] & ~this.obtenerMascara(tipoHorarioMatutino, dia, tramo) ;
+    }
+
+    /**
+     * @param indiceProfesor índice del profesor
+     * @param tipoHorarioMatutino true si es horario matutino
+     * @return máscara con los días y tramos ocupados del tipo de horario, con la misma disposición que las restricciones horarias
+     */
+    public long obtenerOcupacion(int indiceProfesor, boolean tipoHorarioMatutino)
+    {
+        long ocupacionProfesor = this.ocupacion[indiceProfesor] ;
+
+        if (!tipoHorarioMatutino)
+        {
+            ocupacionProfesor = ocupacionProfesor >>> BITS_TIPO_HORARIO ;
+        }
+
+        return ocupacionProfesor & ((1L << BITS_TIPO_HORARIO) - 1L) ;
+    }
+
+    /**
+     * @param tipoHorarioMatutino true si es horario matutino
+     * @param dia día de la semana (0-4)
+     * @param tramo tramo horario (0-5)
+     * @return máscara con el bit del día y tramo
+     */
+    private long obtenerMascara(boolean tipoHorarioMatutino, int dia, int tramo)
+    {
+        int desplazamiento = (dia * Constants.NUMERO_TRAMOS_HORARIOS) + tramo ;
+
+        if (!tipoHorarioMatutino)
+        {
+            desplazamiento = desplazamiento + BITS_TIPO_HORARIO ;
+        }
+
+        return 1L << desplazamiento ;
+    }
+}
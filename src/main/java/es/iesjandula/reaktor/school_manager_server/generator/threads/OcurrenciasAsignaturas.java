@@ -0,0 +1,104 @@
+package es.iesjandula.reaktor.school_manager_server.generator.threads;
+
+import java.util.Arrays;
+
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionAsignatura;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
+
+/**
+ * Índice de ocurrencias de las asignaturas de un hilo del generador: en cuántos tramos de cada curso y día está cada asignatura.
+ * <p>El asignador lo mantiene al día con cada asignación, así que comprobar el número máximo de ocurrencias por día de una
+ * asignatura es leer un contador, sin recorrer los tramos del día ni las sesiones de cada celda. Un tramo cuenta una vez
+ * aunque tenga varias sesiones de la misma asignatura.</p>
+ */
+public class OcurrenciasAsignaturas
+{
+    /** Número de asignaturas que participan en la generación */
+    private final int numeroAsignaturas ;
+
+    /** Ocurrencias en los cursos matutinos, indexadas por curso y día y por asignatura */
+    private final byte[] ocurrenciasMatutinas ;
+
+    /** Ocurrencias en los cursos vespertinos, indexadas por curso y día y por asignatura */
+    private final byte[] ocurrenciasVespertinas ;
+
+    /**
+     * @param numeroCursosMatutinos número de cursos matutinos
+     * @param numeroCursosVespertinos número de cursos vespertinos
+     * @param numeroAsignaturas número de asignaturas que participan en la generación
+     */
+    public OcurrenciasAsignaturas(int numeroCursosMatutinos, int numeroCursosVespertinos, int numeroAsignaturas)
+    {
+        this.numeroAsignaturas      = numeroAsignaturas ;
+        this.ocurrenciasMatutinas   = new byte[numeroCursosMatutinos * Constants.NUMERO_DIAS_SEMANA * numeroAsignaturas] ;
+        this.ocurrenciasVespertinas = new byte[numeroCursosVespertinos * Constants.NUMERO_DIAS_SEMANA * numeroAsignaturas] ;
+    }
+
+    /**
+     * Pone a cero todas las ocurrencias (al comenzar un nuevo intento)
+     */
+    public void limpiar()
+    {
+        Arrays.fill(this.ocurrenciasMatutinas, (byte) 0) ;
+        Arrays.fill(this.ocurrenciasVespertinas, (byte) 0) ;
+    }
+
+    /**
+     * @param tipoHorarioMatutino true si es horario matutino
+     * @param indiceCursoDia índice del curso y día
+     * @param indiceAsignatura índice de la asignatura, que acaba de aparecer en un tramo del día
+     */
+    public void incrementar(boolean tipoHorarioMatutino, int indiceCursoDia, int indiceAsignatura)
+    {
+        this.obtenerOcurrenciasTipoHorario(tipoHorarioMatutino)[indiceCursoDia * this.numeroAsignaturas + indiceAsignatura]++ ;
+    }
+
+    /**
+     * @param tipoHorarioMatutino true si es horario matutino
+     * @param indiceCursoDia índice del curso y día
+     * @param indiceAsignatura índice de la asignatura, que acaba de desaparecer de un tramo del día
+     */
+    public void decrementar(boolean tipoHorarioMatutino, int indiceCursoDia, int indiceAsignatura)
+    {
+        this.obtenerOcurrenciasTipoHorario(tipoHorarioMatutino)[indiceCursoDia * this.numeroAsignaturas + indiceAsignatura]-- ;
+    }
+
+    /**
+     * Las reducciones tienen un día y tramo concreto, así que no se limitan sus ocurrencias por día
+     *
+     * @param indiceCursoDia índice del curso y día
+     * @param sesion sesión
+     * @return true si la asignatura de la sesión todavía no ha alcanzado el número máximo de ocurrencias en el día
+     */
+    public boolean sesionSinMasXOcurrenciasElMismoDia(int indiceCursoDia, SesionBase sesion)
+    {
+        boolean outcome = true ;
+
+        if (sesion instanceof SesionAsignatura)
+        {
+            // Por defecto, el número máximo de ocurrencias por día es el de FP
+            int numeroMaximoOcurrenciasPorDia = Constants.NUMERO_MAXIMO_OCURRENCIAS_POR_DIA_FP ;
+            if (sesion.isEsoBachillerato())
+            {
+                // Si es una asignatura de ESO o BACH, el número máximo de ocurrencias por día es el de ESO o BACH
+                numeroMaximoOcurrenciasPorDia = Constants.NUMERO_MAXIMO_OCURRENCIAS_POR_DIA_ESO_BACH ;
+            }
+
+            byte[] ocurrencias = this.obtenerOcurrenciasTipoHorario(sesion.isTipoHorarioMatutino()) ;
+
+            outcome = ocurrencias[indiceCursoDia * this.numeroAsignaturas + ((SesionAsignatura) sesion).getIndiceAsignatura()] < numeroMaximoOcurrenciasPorDia ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @param tipoHorarioMatutino true si es horario matutino
+     * @return ocurrencias de los cursos del tipo de horario
+     */
+    private byte[] obtenerOcurrenciasTipoHorario(boolean tipoHorarioMatutino)
+    {
+        return tipoHorarioMatutino ? this.ocurrenciasMatutinas : this.ocurrenciasVespertinas ;
+    }
+}
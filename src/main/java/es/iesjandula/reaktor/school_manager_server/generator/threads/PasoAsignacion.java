@@ -0,0 +1,63 @@
+package es.iesjandula.reaktor.school_manager_server.generator.threads;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
+import lombok.Data;
+
+/**
+ * Paso del rastro de asignaciones de un intento, con lo necesario para deshacerlo:
+ * la sesión, dónde se asignó y de qué sublista de sesiones pendientes se sacó
+ */
+@Data
+public class PasoAsignacion
+{
+    /** Sesión asignada */
+    private SesionBase sesion ;
+
+    /** Sublista de sesiones pendientes de la que se sacó la sesión */
+    private List<SesionBase> sublistaSesiones ;
+
+    /** Índice de la sublista dentro de la lista de sesiones pendientes */
+    private int indiceSublista ;
+
+    /** True si la sublista se quedó vacía y se eliminó de la lista de sesiones pendientes */
+    private boolean sublistaEliminada ;
+
+    /** Última asignación realizada (null mientras la sesión no se haya asignado) */
+    private UltimaAsignacion ultimaAsignacion ;
+
+    /** Sesiones pendientes a las que se quitó un hueco mientras este era el paso más reciente (null si no hay ninguna) */
+    private List<SesionBase> sesionesPodadas ;
+
+    /**
+     * @param sesion sesión asignada
+     * @param sublistaSesiones sublista de sesiones pendientes de la que se sacó la sesión
+     * @param indiceSublista índice de la sublista dentro de la lista de sesiones pendientes
+     * @param sublistaEliminada true si la sublista se quedó vacía y se eliminó
+     */
+    public PasoAsignacion(SesionBase sesion, List<SesionBase> sublistaSesiones, int indiceSublista, boolean sublistaEliminada)
+    {
+        this.sesion            = sesion ;
+        this.sublistaSesiones  = sublistaSesiones ;
+        this.indiceSublista    = indiceSublista ;
+        this.sublistaEliminada = sublistaEliminada ;
+    }
+
+    /**
+     * Registra una sesión pendiente a la que se ha quitado un hueco por dejar sin huecos a otra sesión con este paso asignado,
+     * para devolverle sus restricciones cuando se deshaga este paso
+     * 
+     * @param sesion sesión pendiente
+     */
+    public void agregarSesionPodada(SesionBase sesion)
+    {
+        if (this.sesionesPodadas == null)
+        {
+            this.sesionesPodadas = new ArrayList<SesionBase>() ;
+        }
+
+        this.sesionesPodadas.add(sesion) ;
+    }
+}
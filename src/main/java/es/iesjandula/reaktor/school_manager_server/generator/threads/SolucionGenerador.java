@@ -0,0 +1,64 @@
+package es.iesjandula.reaktor.school_manager_server.generator.threads;
+
+import es.iesjandula.reaktor.school_manager_server.generator.Horario;
+import es.iesjandula.reaktor.school_manager_server.generator.puntuacion.PuntuacionHorario;
+
+/**
+ * Solución encontrada por el generador junto con el desglose de su puntuación, pendiente de guardar en BBDD
+ */
+public class SolucionGenerador
+{
+    /** Horario de la solución, con su puntuación total */
+    private final Horario horario ;
+
+    /** Desglose de la puntuación del horario */
+    private final PuntuacionHorario puntuacionHorario ;
+
+    /** Semilla del hilo que encontró la solución (null si se desconoce) */
+    private final Long semilla ;
+
+    /**
+     * @param horario horario de la solución, con su puntuación total
+     * @param puntuacionHorario desglose de la puntuación del horario
+     */
+    public SolucionGenerador(Horario horario, PuntuacionHorario puntuacionHorario)
+    {
+        this(horario, puntuacionHorario, null) ;
+    }
+
+    /**
+     * @param horario horario de la solución, con su puntuación total
+     * @param puntuacionHorario desglose de la puntuación del horario
+     * @param semilla semilla del hilo que encontró la solución (null si se desconoce)
+     */
+    public SolucionGenerador(Horario horario, PuntuacionHorario puntuacionHorario, Long semilla)
+    {
+        this.horario           = horario ;
+        this.puntuacionHorario = puntuacionHorario ;
+        this.semilla           = semilla ;
+    }
+
+    /**
+     * @return horario de la solución, con su puntuación total
+     */
+    public Horario getHorario()
+    {
+        return this.horario ;
+    }
+
+    /**
+     * @return desglose de la puntuación del horario
+     */
+    public PuntuacionHorario getPuntuacionHorario()
+    {
+        return this.puntuacionHorario ;
+    }
+
+    /**
+     * @return semilla del hilo que encontró la solución (null si se desconoce)
+     */
+    public Long getSemilla()
+    {
+        return this.semilla ;
+    }
+}
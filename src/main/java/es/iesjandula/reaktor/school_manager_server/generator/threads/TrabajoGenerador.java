@@ -0,0 +1,281 @@
+package es.iesjandula.reaktor.school_manager_server.generator.threads;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorEstadisticasDto;
+import es.iesjandula.reaktor.school_manager_server.models.Impartir;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
+
+/**
+ * Trabajo del generador: una generación lanzada para un Generador de BBDD, con sus propios hilos y su propio estado compartido.
+ * <p>Los hilos y su ControlHilosGenerador no se crean hasta que el planificador arranca el trabajo, para que un trabajo que
+ * ha esperado en cola no empiece con el tiempo de optimización ya consumido.</p>
+ */
+public class TrabajoGenerador
+{
+    /** Identificador del generador en BBDD */
+    private final int idGenerador ;
+
+    /** Curso académico con cuyos datos se lanzó el trabajo */
+    private final String cursoAcademico ;
+
+    /** Número de hilos (y de núcleos) que usa el trabajo */
+    private final int numeroHilos ;
+
+    /** Builder de los parámetros de los hilos, a falta del estado compartido que se crea al arrancar */
+    private final HorarioThreadParams.Builder horarioThreadParamsBuilder ;
+
+    /** Sesiones de la generación, que cada hilo copia al crearse */
+    private final List<List<SesionBase>> listaDeListaSesiones ;
+
+    /** Modo del generador: primera solución que supera el umbral u optimización por tiempo */
+    private final String modo ;
+
+    /** Segundos que dura la búsqueda en el modo de optimización por tiempo */
+    private final long segundosOptimizacion ;
+
+    /** Número de mejores soluciones que se guardan en el modo de optimización por tiempo */
+    private final int numeroMejoresSoluciones ;
+
+    /** Huella de las sesiones de la generación, que se guarda en cada punto de control */
+    private final String huellaProblema ;
+
+    /** Semilla de la generación. El hilo i usa la semilla + i, así que la generación se repite igual con la misma semilla */
+    private final long semilla ;
+
+    /** Impartir del curso académico por asignatura, curso, etapa, grupo y profesor, para guardar las soluciones sin consultar la BBDD */
+    private final Map<String, Impartir> mapImpartir ;
+
+    /** Fecha en la que se lanzó el trabajo */
+    private final Date fechaLanzamiento ;
+
+    /** Mejores soluciones del punto de control desde el que se reanuda el trabajo (vacía si no se reanuda) */
+    private List<SolucionGenerador> solucionesReanudadas ;
+
+    /** Contadores de la búsqueda del punto de control desde el que se reanuda el trabajo (null si no se reanuda) */
+    private GeneradorEstadisticasDto estadisticasReanudadas ;
+
+    /** Estado del trabajo (en cola, en curso, finalizado o detenido) */
+    private volatile String estado ;
+
+    /** Estado compartido por los hilos del trabajo (null mientras está en cola) */
+    private volatile ControlHilosGenerador controlHilosGenerador ;
+
+    /** Hilos del trabajo que todavía no han terminado */
+    private final AtomicInteger hilosPendientes ;
+
+    /**
+     * @param idGenerador identificador del generador en BBDD
+     * @param cursoAcademico curso académico con cuyos datos se lanzó el trabajo
+     * @param numeroHilos número de hilos que usa el trabajo
+     * @param horarioThreadParamsBuilder builder de los parámetros de los hilos
+     * @param listaDeListaSesiones sesiones de la generación
+     * @param modo modo del generador
+     * @param segundosOptimizacion segundos que dura la búsqueda en el modo de optimización por tiempo
+     * @param numeroMejoresSoluciones número de mejores soluciones que se guardan en el modo de optimización por tiempo
+     * @param huellaProblema huella de las sesiones de la generación
+     * @param semilla semilla de la generación
+     * @param mapImpartir Impartir del curso académico precargados para guardar las soluciones
+     */
+    public TrabajoGenerador(int idGenerador, String cursoAcademico, int numeroHilos,
+                            HorarioThreadParams.Builder horarioThreadParamsBuilder, List<List<SesionBase>> listaDeListaSesiones,
+                            String modo, long segundosOptimizacion, int numeroMejoresSoluciones, String huellaProblema, long semilla,
+                            Map<String, Impartir> mapImpartir)
+    {
+        this.idGenerador                = idGenerador ;
+        this.cursoAcademico             = cursoAcademico ;
+        this.numeroHilos                = numeroHilos ;
+        this.horarioThreadParamsBuilder = horarioThreadParamsBuilder ;
+        this.listaDeListaSesiones       = listaDeListaSesiones ;
+        this.modo                       = modo ;
+        this.segundosOptimizacion       = segundosOptimizacion ;
+        this.numeroMejoresSoluciones    = numeroMejoresSoluciones ;
+        this.huellaProblema             = huellaProblema ;
+        this.semilla                    = semilla ;
+        this.mapImpartir                = mapImpartir ;
+        this.fechaLanzamiento           = new Date() ;
+        this.solucionesReanudadas       = new ArrayList<SolucionGenerador>() ;
+        this.estado                     = Constants.ESTADO_GENERADOR_EN_COLA ;
+        this.hilosPendientes            = new AtomicInteger(numeroHilos) ;
+    }
+
+    /**
+     * Indica lo encontrado antes del punto de control desde el que se reanuda el trabajo, que se restaura al arrancarlo
+     *
+     * @param solucionesReanudadas mejores soluciones del punto de control
+     * @param estadisticasReanudadas contadores de la búsqueda del punto de control
+     */
+    public void reanudarDesde(List<SolucionGenerador> solucionesReanudadas, GeneradorEstadisticasDto estadisticasReanudadas)
+    {
+        this.solucionesReanudadas   = solucionesReanudadas ;
+        this.estadisticasReanudadas = estadisticasReanudadas ;
+    }
+
+    /**
+     * Crea el estado compartido y los hilos del trabajo. Solo se llama una vez, al arrancarlo
+     *
+     * @return hilos del trabajo, cada uno con sus propias copias de las sesiones
+     */
+    public List<HorarioThread> crearHilos()
+    {
+        if (Constants.MODO_GENERADOR_OPTIMIZACION_POR_TIEMPO.equals(this.modo))
+        {
+            this.controlHilosGenerador = new ControlHilosGenerador(this.numeroHilos, this.segundosOptimizacion, this.numeroMejoresSoluciones) ;
+        }
+        else
+        {
+            this.controlHilosGenerador = new ControlHilosGenerador(this.numeroHilos) ;
+        }
+
+        // Si se reanuda desde un punto de control, partimos de lo que ya se había encontrado
+        this.controlHilosGenerador.restaurar(this.solucionesReanudadas, this.estadisticasReanudadas) ;
+
+        HorarioThreadParams horarioThreadParams = this.horarioThreadParamsBuilder.setControlHilosGenerador(this.controlHilosGenerador)
+                                                                                 .setIdGenerador(this.idGenerador)
+                                                                                 .setSemilla(this.semilla)
+                                                                                 .build() ;
+
+        List<HorarioThread> horarioThreads = new ArrayList<HorarioThread>() ;
+        for (int i = 0 ; i < this.numeroHilos ; i++)
+        {
+            horarioThreads.add(new HorarioThread(horarioThreadParams, this.listaDeListaSesiones, i)) ;
+        }
+
+        return horarioThreads ;
+    }
+
+    /**
+     * @param semilla semilla de la generación
+     * @param numeroHilo número de hilo dentro del trabajo
+     * @return semilla del generador de números aleatorios del hilo. Con un único hilo, es la propia semilla de la generación,
+     * así que la semilla guardada con una solución basta para repetir el hilo que la encontró
+     */
+    public static long obtenerSemillaHilo(long semilla, int numeroHilo)
+    {
+        return semilla + numeroHilo ;
+    }
+
+    /**
+     * Indica a los hilos del trabajo que deben detenerse (si ya ha arrancado)
+     */
+    public void detener()
+    {
+        ControlHilosGenerador controlHilosGeneradorActual = this.controlHilosGenerador ;
+
+        if (controlHilosGeneradorActual != null)
+        {
+            controlHilosGeneradorActual.detenerHilos() ;
+        }
+    }
+
+    /**
+     * Cada hilo del trabajo debe llamar a este método una única vez, cuando termina
+     *
+     * @return true si es el último hilo del trabajo en terminar
+     */
+    public boolean finalizarHilo()
+    {
+        return this.hilosPendientes.decrementAndGet() == 0 ;
+    }
+
+    /**
+     * @return identificador del generador en BBDD
+     */
+    public int getIdGenerador()
+    {
+        return this.idGenerador ;
+    }
+
+    /**
+     * @return curso académico con cuyos datos se lanzó el trabajo
+     */
+    public String getCursoAcademico()
+    {
+        return this.cursoAcademico ;
+    }
+
+    /**
+     * @return número de hilos que usa el trabajo
+     */
+    public int getNumeroHilos()
+    {
+        return this.numeroHilos ;
+    }
+
+    /**
+     * @return modo del generador
+     */
+    public String getModo()
+    {
+        return this.modo ;
+    }
+
+    /**
+     * @return número de mejores soluciones que se guardan en el modo de optimización por tiempo
+     */
+    public int getNumeroMejoresSoluciones()
+    {
+        return this.numeroMejoresSoluciones ;
+    }
+
+    /**
+     * @return huella de las sesiones de la generación
+     */
+    public String getHuellaProblema()
+    {
+        return this.huellaProblema ;
+    }
+
+    /**
+     * @return semilla de la generación
+     */
+    public long getSemilla()
+    {
+        return this.semilla ;
+    }
+
+    /**
+     * @return Impartir del curso académico precargados para guardar las soluciones
+     */
+    public Map<String, Impartir> getMapImpartir()
+    {
+        return this.mapImpartir ;
+    }
+
+    /**
+     * @return fecha en la que se lanzó el trabajo
+     */
+    public Date getFechaLanzamiento()
+    {
+        return this.fechaLanzamiento ;
+    }
+
+    /**
+     * @return estado del trabajo
+     */
+    public String getEstado()
+    {
+        return this.estado ;
+    }
+
+    /**
+     * @param estado estado del trabajo
+     */
+    public void setEstado(String estado)
+    {
+        this.estado = estado ;
+    }
+
+    /**
+     * @return estado compartido por los hilos del trabajo (null mientras está en cola)
+     */
+    public ControlHilosGenerador getControlHilosGenerador()
+    {
+        return this.controlHilosGenerador ;
+    }
+}
@@ -1,6 +1,6 @@
 package es.iesjandula.reaktor.school_manager_server.generator.threads;
 
-import es.iesjandula.reaktor.school_manager_server.models.no_jpa.Asignacion;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -11,6 +11,6 @@ public class UltimaAsignacion
     /** Indices de asignación de sesión */
     private IndicesAsignacionSesion indicesAsignacionSesion ;
 
-    /** Asignación */
-    private Asignacion asignacion ;
+    /** Primera sesión de la celda donde se ha asignado la sesión */
+    private SesionBase primeraSesion ;
 }
@@ -48,6 +48,69 @@ public class Generador
     @Column(name = "estado")
     private String estado ;
 
+    /**
+     * Curso académico de la generación.
+     * <p>Representa el curso académico con cuyos datos se lanzó la generación (null en las generaciones anteriores a su registro).</p>
+     */
+    @Column(name = "cursoAcademico", length = 9)
+    private String cursoAcademico ;
+
+    /**
+     * Semilla de la generación.
+     * <p>Representa la semilla de la que cada hilo obtiene la de su generador de números aleatorios, para poder repetir la generación
+     * (null en las generaciones anteriores a su registro).</p>
+     */
+    @Column(name = "semilla")
+    private Long semilla ;
+
+    /**
+     * Umbral mínimo de solución de la generación.
+     * <p>Representa la puntuación que debía superar una solución al lanzar la generación, que hay que repetir junto con la semilla
+     * (null en las generaciones anteriores a su registro).</p>
+     */
+    @Column(name = "umbralMinimoSolucion")
+    private Integer umbralMinimoSolucion ;
+
+    /**
+     * Modo de la generación.
+     * <p>Representa el modo del generador con el que se lanzó la generación, que hay que repetir junto con la semilla
+     * (null en las generaciones anteriores a su registro).</p>
+     */
+    @Column(name = "modo", length = 30)
+    private String modo ;
+
+    /**
+     * Número de hilos de la generación.
+     * <p>Representa el número de hilos que buscaron en paralelo, cada uno con la semilla de la generación más su número de hilo
+     * (null en las generaciones anteriores a su registro).</p>
+     */
+    @Column(name = "numeroHilos")
+    private Integer numeroHilos ;
+
+    /**
+     * Segundos de optimización de la generación.
+     * <p>Representa los segundos que duró la búsqueda en el modo de optimización por tiempo
+     * (null en las generaciones anteriores a su registro).</p>
+     */
+    @Column(name = "segundosOptimizacion")
+    private Long segundosOptimizacion ;
+
+    /**
+     * Número de mejores soluciones de la generación.
+     * <p>Representa el número de mejores soluciones que se guardaron en el modo de optimización por tiempo
+     * (null en las generaciones anteriores a su registro).</p>
+     */
+    @Column(name = "numeroMejoresSoluciones")
+    private Integer numeroMejoresSoluciones ;
+
+    /**
+     * Indica si la generación es la repetición de otra.
+     * <p>Las soluciones de una repetición sirven para comprobar que se vuelve a obtener el mismo horario, así que ni se
+     * seleccionan al guardarlas ni se pueden seleccionar después (null en las generaciones anteriores a su registro).</p>
+     */
+    @Column(name = "repeticion")
+    private Boolean repeticion ;
+
     /**
      * Lista de instancias del generador.
      * <p>Representa la lista de instancias del generador.</p>
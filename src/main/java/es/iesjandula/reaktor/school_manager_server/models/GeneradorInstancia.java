@@ -55,6 +55,14 @@ public class GeneradorInstancia
     @Column(name = "solucionElegida")
     private Boolean solucionElegida ;
 
+    /**
+     * Semilla del hilo que encontró la solución.
+     * <p>Representa la semilla con la que un único hilo vuelve a recorrer los mismos intentos hasta esta solución
+     * (null si se desconoce).</p>
+     */
+    @Column(name = "semilla")
+    private Long semilla ;
+
     /**
      * Generador al que pertenece la instancia.
      * Relación de muchos a uno con la entidad {@link Generador}.
@@ -0,0 +1,148 @@
+package es.iesjandula.reaktor.school_manager_server.models.no_jpa;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import es.iesjandula.reaktor.school_manager_server.dtos.DiaDto;
+import es.iesjandula.reaktor.school_manager_server.dtos.TramoDto;
+import es.iesjandula.reaktor.school_manager_server.models.DiaTramoTipoHorario;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
+
+/**
+ * Índice inmutable de la tabla DiaTramoTipoHorario.
+ * <p>La tabla no cambia una vez cargada desde el CSV, así que se construye una única vez y se resuelve en memoria,
+ * por tipo de horario, día y tramo o por sus descripciones, sin ninguna consulta a BBDD.</p>
+ */
+public class IndiceDiasTramosTipoHorario
+{
+    /** Días y tramos por tipo de horario (0 matutino, 1 vespertino), día y tramo */
+    private final DiaTramoTipoHorario[][][] diasTramosTipoHorario ;
+
+    /** Días y tramos por descripción del día y del tramo */
+    private final Map<String, DiaTramoTipoHorario> diasTramosTipoHorarioPorDescripcion ;
+
+    /** Días de la semana distintos, ordenados por día */
+    private final List<DiaDto> diasSemana ;
+
+    /** Tramos horarios distintos, ordenados por tramo */
+    private final List<TramoDto> tramosHorarios ;
+
+    /**
+     * @param diasTramosTipoHorarioList todos los días y tramos de tipo horario de BBDD
+     */
+    public IndiceDiasTramosTipoHorario(List<DiaTramoTipoHorario> diasTramosTipoHorarioList)
+    {
+        this.diasTramosTipoHorario               = new DiaTramoTipoHorario[2][Constants.NUMERO_DIAS_SEMANA][Constants.NUMERO_TRAMOS_HORARIOS] ;
+        this.diasTramosTipoHorarioPorDescripcion = new HashMap<String, DiaTramoTipoHorario>() ;
+
+        Set<DiaDto> diasSemanaDistintos       = new LinkedHashSet<DiaDto>() ;
+        Set<TramoDto> tramosHorariosDistintos = new LinkedHashSet<TramoDto>() ;
+
+        for (DiaTramoTipoHorario diaTramoTipoHorario : diasTramosTipoHorarioList)
+        {
+            int dia   = diaTramoTipoHorario.getDia() ;
+            int tramo = diaTramoTipoHorario.getTramo() ;
+
+            // Solo los días y tramos con tipo de horario forman parte de la matriz de asignaciones
+            if (diaTramoTipoHorario.getHorarioMatutino() != null && this.estaEnRango(dia, tramo) &&
+                this.diasTramosTipoHorario[this.obtenerIndiceTipoHorario(diaTramoTipoHorario.getHorarioMatutino())][dia][tramo] == null)
+            {
+                this.diasTramosTipoHorario[this.obtenerIndiceTipoHorario(diaTramoTipoHorario.getHorarioMatutino())][dia][tramo] = diaTramoTipoHorario ;
+            }
+
+            this.diasTramosTipoHorarioPorDescripcion.putIfAbsent(this.obtenerClaveDescripcion(diaTramoTipoHorario.getDiaDesc(), diaTramoTipoHorario.getTramoDesc()),
+                                                                 diaTramoTipoHorario) ;
+
+            diasSemanaDistintos.add(new DiaDto(dia, diaTramoTipoHorario.getDiaDesc())) ;
+            tramosHorariosDistintos.add(new TramoDto(tramo, diaTramoTipoHorario.getTramoDesc())) ;
+        }
+
+        List<DiaDto> diasSemanaOrdenados = new ArrayList<DiaDto>(diasSemanaDistintos) ;
+        diasSemanaOrdenados.sort(Comparator.comparing(DiaDto::getDia)) ;
+
+        List<TramoDto> tramosHorariosOrdenados = new ArrayList<TramoDto>(tramosHorariosDistintos) ;
+        tramosHorariosOrdenados.sort(Comparator.comparing(TramoDto::getTramo)) ;
+
+        this.diasSemana     = Collections.unmodifiableList(diasSemanaOrdenados) ;
+        this.tramosHorarios = Collections.unmodifiableList(tramosHorariosOrdenados) ;
+    }
+
+    /**
+     * @param dia día de la semana (0-4)
+     * @param tramo tramo horario (0-5)
+     * @param horarioMatutino true si es horario matutino, false si es vespertino
+     * @return día y tramo de tipo horario, o null si no existe
+     */
+    public DiaTramoTipoHorario obtenerDiaTramoTipoHorario(int dia, int tramo, Boolean horarioMatutino)
+    {
+        DiaTramoTipoHorario outcome = null ;
+
+        if (horarioMatutino != null && this.estaEnRango(dia, tramo))
+        {
+            outcome = this.diasTramosTipoHorario[this.obtenerIndiceTipoHorario(horarioMatutino)][dia][tramo] ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @param diaDesc descripción del día
+     * @param tramoDesc descripción del tramo
+     * @return día y tramo de tipo horario, o null si no existe
+     */
+    public DiaTramoTipoHorario buscarPorDiaDescTramoDesc(String diaDesc, String tramoDesc)
+    {
+        return this.diasTramosTipoHorarioPorDescripcion.get(this.obtenerClaveDescripcion(diaDesc, tramoDesc)) ;
+    }
+
+    /**
+     * @return días de la semana distintos, ordenados por día
+     */
+    public List<DiaDto> getDiasSemana()
+    {
+        return this.diasSemana ;
+    }
+
+    /**
+     * @return tramos horarios distintos, ordenados por tramo
+     */
+    public List<TramoDto> getTramosHorarios()
+    {
+        return this.tramosHorarios ;
+    }
+
+    /**
+     * @param dia día de la semana
+     * @param tramo tramo horario
+     * @return true si el día y tramo forman parte de la matriz de asignaciones
+     */
+    private boolean estaEnRango(int dia, int tramo)
+    {
+        return dia >= 0 && dia < Constants.NUMERO_DIAS_SEMANA && tramo >= 0 && tramo < Constants.NUMERO_TRAMOS_HORARIOS ;
+    }
+
+    /**
+     * @param horarioMatutino true si es horario matutino, false si es vespertino
+     * @return índice del tipo de horario
+     */
+    private int obtenerIndiceTipoHorario(boolean horarioMatutino)
+    {
+        return horarioMatutino ? 0 : 1 ;
+    }
+
+    /**
+     * @param diaDesc descripción del día
+     * @param tramoDesc descripción del tramo
+     * @return clave de las descripciones del día y del tramo
+     */
+    private String obtenerClaveDescripcion(String diaDesc, String tramoDesc)
+    {
+        return diaDesc + "|" + tramoDesc ;
+    }
+}
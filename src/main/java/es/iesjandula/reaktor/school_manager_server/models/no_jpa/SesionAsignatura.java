@@ -16,6 +16,12 @@ public class SesionAsignatura extends SesionBase
 	/** Asignatura impartida en la sesion */
     private final Asignatura asignatura ;
 
+    /** True si la asignatura es optativa, para no consultar la entidad en cada comprobación del generador */
+    private final boolean optativa ;
+
+    /** Índice de la asignatura dentro de las asignaturas de la generación (-1 si no se ha asignado) */
+    private int indiceAsignatura ;
+
     /**
      * Constructor que inicializa la lista de restricciones horarias
      * 
@@ -30,9 +36,24 @@ public class SesionAsignatura extends SesionBase
     {      
         super(cursoEtapaGrupo, profesor, tipoHorarioMatutino, cursoEtapaGrupo.getEsoBachillerato(), restriccionHorariaInit) ;
 
-        this.asignatura = asignatura ;
+        this.asignatura       = asignatura ;
+        this.optativa         = asignatura.isOptativa() ;
+        this.indiceAsignatura = -1 ;
     }
     
+    @Override
+    public SesionBase copiar()
+    {
+        SesionAsignatura copia = new SesionAsignatura(this.getCursoEtapaGrupo(), this.asignatura, this.getProfesor(),
+                                                      this.isTipoHorarioMatutino(), this.getRestriccionHorariaInit()) ;
+
+        copia.setIndiceProfesor(this.getIndiceProfesor()) ;
+        copia.setIndiceSesion(this.getIndiceSesion()) ;
+        copia.setIndiceAsignatura(this.indiceAsignatura) ;
+
+        return copia ;
+    }
+
     @Override
     public String toString()
     {
@@ -29,6 +29,12 @@ public abstract class SesionBase
     /** Propuesta de restricciones horarias iteracion */
     private RestriccionHorariaThread restriccionHorariaThread ;
 
+    /** Índice del profesor dentro de los profesores de la generación (-1 si no se ha asignado) */
+    private int indiceProfesor ;
+
+    /** Índice de la sesión dentro de las sesiones de la generación (-1 si no se ha asignado) */
+    private int indiceSesion ;
+
     /**
      * Constructor que inicializa la lista de restricciones horarias
      * 
@@ -46,6 +52,8 @@ public abstract class SesionBase
         this.tipoHorarioMatutino    = tipoHorarioMatutino ;
         this.esoBachillerato        = esoBachillerato ;
         this.restriccionHorariaInit = restriccionHorariaInit ;
+        this.indiceProfesor         = -1 ;
+        this.indiceSesion           = -1 ;
     }
 
     /**
@@ -57,11 +65,26 @@ public abstract class SesionBase
     }
 
     /**
-     * Inicializa la restricción horaria iteracion
+     * Inicializa la restricción horaria iteracion (en los siguientes intentos se reinicia la existente sin crear una nueva)
      */
     public void inicializarRestriccionHorariaThread()
     {
-        this.restriccionHorariaThread = new RestriccionHorariaThread(this.restriccionHorariaInit) ;
+        if (this.restriccionHorariaThread == null)
+        {
+            this.restriccionHorariaThread = new RestriccionHorariaThread(this.restriccionHorariaInit) ;
+        }
+        else
+        {
+            this.restriccionHorariaThread.reiniciar() ;
+        }
     }
+
+    /**
+     * Crea una copia de la sesión que comparte la restricción horaria inicial (inmutable durante la generación)
+     * pero que tendrá su propia restricción horaria thread, para que cada hilo del generador trabaje con sus propias sesiones
+     * 
+     * @return una copia de la sesión
+     */
+    public abstract SesionBase copiar() ;
 }
 
@@ -33,6 +33,18 @@ public class SesionReduccion extends SesionBase
         this.reduccion = reduccion ;
     }
     
+    @Override
+    public SesionBase copiar()
+    {
+        SesionBase copia = new SesionReduccion(this.getCursoEtapaGrupo(), this.reduccion, this.getProfesor(),
+                                               this.isTipoHorarioMatutino(), this.getRestriccionHorariaInit()) ;
+
+        copia.setIndiceProfesor(this.getIndiceProfesor()) ;
+        copia.setIndiceSesion(this.getIndiceSesion()) ;
+
+        return copia ;
+    }
+
     @Override
     public String toString()
     {
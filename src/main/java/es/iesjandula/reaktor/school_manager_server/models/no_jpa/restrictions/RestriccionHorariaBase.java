@@ -1,51 +1,139 @@
 package es.iesjandula.reaktor.school_manager_server.models.no_jpa.restrictions;
 
-import java.util.Iterator;
-import java.util.List;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
 
 /**
- * Clase base para las restricciones horarias
+ * Clase base para las restricciones horarias.
+ * <p>Las restricciones se guardan como máscaras de 30 bits (5 días x 6 tramos), donde el bit (día * 6 + tramo)
+ * indica si la sesión todavía puede asignarse a ese día y tramo. El día es relativo al índice curso/día inicial.</p>
  */
 public class RestriccionHorariaBase
 {
+    /** Número de posiciones de la semana (días * tramos) */
+    protected static final int NUMERO_POSICIONES_SEMANA = Constants.NUMERO_DIAS_SEMANA * Constants.NUMERO_TRAMOS_HORARIOS ;
+
+    /** Máscara con todas las posiciones de la semana */
+    protected static final long MASCARA_SEMANA = (1L << NUMERO_POSICIONES_SEMANA) - 1L ;
+
+    /** Máscaras con las posiciones de cada día de la semana */
+    private static final long[] MASCARAS_DIAS = new long[Constants.NUMERO_DIAS_SEMANA] ;
+
+    /** Máscaras con las posiciones de cada tramo horario */
+    private static final long[] MASCARAS_TRAMOS = new long[Constants.NUMERO_TRAMOS_HORARIOS] ;
+
+    static
+    {
+        for (int dia = 0 ; dia < Constants.NUMERO_DIAS_SEMANA ; dia++)
+        {
+            for (int tramo = 0 ; tramo < Constants.NUMERO_TRAMOS_HORARIOS ; tramo++)
+            {
+                long bit = 1L << ((dia * Constants.NUMERO_TRAMOS_HORARIOS) + tramo) ;
+
+                MASCARAS_DIAS[dia]     = MASCARAS_DIAS[dia]     | bit ;
+                MASCARAS_TRAMOS[tramo] = MASCARAS_TRAMOS[tramo] | bit ;
+            }
+        }
+    }
+
+    /** Índice del curso y día inicial (primera columna de la matriz del curso) */
+    private final int indiceCursoDiaInicial ;
+
+    /** Items de cada posición de la semana, compartidos por todas las restricciones de la misma sesión */
+    private final RestriccionHorariaItem[] restriccionesHorariasItems ;
+
     /** Restricciones horarias no evitables */
-    private final List<RestriccionHorariaItem> restriccionesHorariasNoEvitables ;
+    private long restriccionesHorariasNoEvitables ;
 
     /** Restricciones horarias evitables */
-    private final List<RestriccionHorariaItem> restriccionesHorariasEvitables ;
+    private long restriccionesHorariasEvitables ;
 
     /**
      * Constructor
-     * 
+     *
+     * @param indiceCursoDiaInicial índice del curso y día inicial
+     * @param restriccionesHorariasItems items de cada posición de la semana
      * @param restriccionesHorariasNoEvitables restricciones horarias no evitables
      * @param restriccionesHorariasEvitables restricciones horarias evitables
      */
-    protected RestriccionHorariaBase(final List<RestriccionHorariaItem> restriccionesHorariasNoEvitables,
-                                     final List<RestriccionHorariaItem> restriccionesHorariasEvitables)
+    protected RestriccionHorariaBase(int indiceCursoDiaInicial,
+                                     RestriccionHorariaItem[] restriccionesHorariasItems,
+                                     long restriccionesHorariasNoEvitables,
+                                     long restriccionesHorariasEvitables)
     {
+        this.indiceCursoDiaInicial            = indiceCursoDiaInicial ;
+        this.restriccionesHorariasItems       = restriccionesHorariasItems ;
         this.restriccionesHorariasNoEvitables = restriccionesHorariasNoEvitables ;
         this.restriccionesHorariasEvitables   = restriccionesHorariasEvitables ;
     }
 
     /**
-     * @return restricciones horarias no evitables
+     * @return índice del curso y día inicial
+     */
+    public int getIndiceCursoDiaInicial()
+    {
+        return this.indiceCursoDiaInicial ;
+    }
+
+    /**
+     * @return máscara con las restricciones horarias no evitables
      */
-    public List<RestriccionHorariaItem> getRestriccionesHorariasNoEvitables()
+    public long getRestriccionesHorariasNoEvitables()
     {
         return this.restriccionesHorariasNoEvitables ;
     }
 
     /**
-     * @return restricciones horarias evitables
+     * @param restriccionesHorariasNoEvitables máscara con las restricciones horarias no evitables
      */
-    public List<RestriccionHorariaItem> getRestriccionesHorariasEvitables()
+    protected void setRestriccionesHorariasNoEvitables(long restriccionesHorariasNoEvitables)
+    {
+        this.restriccionesHorariasNoEvitables = restriccionesHorariasNoEvitables ;
+    }
+
+    /**
+     * @return máscara con las restricciones horarias evitables
+     */
+    public long getRestriccionesHorariasEvitables()
     {
         return this.restriccionesHorariasEvitables ;
     }
 
+    /**
+     * @param restriccionesHorariasEvitables máscara con las restricciones horarias evitables
+     */
+    protected void setRestriccionesHorariasEvitables(long restriccionesHorariasEvitables)
+    {
+        this.restriccionesHorariasEvitables = restriccionesHorariasEvitables ;
+    }
+
+    /**
+     * @return máscara con todas las restricciones horarias (no evitables y evitables)
+     */
+    public long getRestriccionesHorarias()
+    {
+        return this.restriccionesHorariasNoEvitables | this.restriccionesHorariasEvitables ;
+    }
+
+    /**
+     * @return items de cada posición de la semana
+     */
+    protected RestriccionHorariaItem[] getRestriccionesHorariasItems()
+    {
+        return this.restriccionesHorariasItems ;
+    }
+
+    /**
+     * @param posicion posición de la semana (día * 6 + tramo)
+     * @return item de la restricción horaria de esa posición
+     */
+    public RestriccionHorariaItem getRestriccionHorariaItem(int posicion)
+    {
+        return this.restriccionesHorariasItems[posicion] ;
+    }
+
     /**
      * Este método se debe llamar cuando se configura el generador de horarios antes de lanzarlo
-     * 
+     *
      * @param indiceCursoDia índice del curso y día
      * @param indiceTramoHorario índice del tramo horario
      */
@@ -56,36 +144,62 @@ public class RestriccionHorariaBase
 
     /**
      * Hace coincidir el tramo horario con el día
-     * 
+     *
      * @param indiceCursoDia índice del curso y día
      * @param indiceTramoHorario índice del tramo horario
      */
     protected void hacerCoincidirEnDiaHora(int indiceCursoDia, int indiceTramoHorario)
     {
-        // Primero eliminamos de las no evitables
-        Iterator<RestriccionHorariaItem> iterator = this.restriccionesHorariasNoEvitables.iterator() ;
-        while (iterator.hasNext())
-        {
-            RestriccionHorariaItem restriccionHorariaItem = iterator.next() ;
+        // Nos quedamos únicamente con la posición del día y tramo (si está fuera del curso, no queda ninguna)
+        long mascara = this.obtenerMascaraPosicion(indiceCursoDia, indiceTramoHorario) ;
 
-            if (restriccionHorariaItem.getIndiceDia() != indiceCursoDia || restriccionHorariaItem.getTramoHorario() != indiceTramoHorario)
-            {
-                // La eliminamos de la lista de no evitables
-                iterator.remove() ;
-            }
-        }
+        this.restriccionesHorariasNoEvitables = this.restriccionesHorariasNoEvitables & mascara ;
+        this.restriccionesHorariasEvitables   = this.restriccionesHorariasEvitables   & mascara ;
+    }
+
+    /**
+     * @param indiceCursoDia índice del curso y día
+     * @param indiceTramoHorario índice del tramo horario
+     * @return máscara con la posición del día y tramo, o 0 si no pertenece a la semana de este curso
+     */
+    public long obtenerMascaraPosicion(int indiceCursoDia, int indiceTramoHorario)
+    {
+        long outcome = 0L ;
+
+        int dia = indiceCursoDia - this.indiceCursoDiaInicial ;
 
-        // Ahora eliminamos de las evitables
-        iterator = this.restriccionesHorariasEvitables.iterator() ;
-        while (iterator.hasNext())
+        if (dia >= 0 && dia < Constants.NUMERO_DIAS_SEMANA && indiceTramoHorario >= 0 && indiceTramoHorario < Constants.NUMERO_TRAMOS_HORARIOS)
         {
-            RestriccionHorariaItem restriccionHorariaItem = iterator.next() ;
+            outcome = 1L << ((dia * Constants.NUMERO_TRAMOS_HORARIOS) + indiceTramoHorario) ;
+        }
 
-            if (restriccionHorariaItem.getIndiceDia() != indiceCursoDia || restriccionHorariaItem.getTramoHorario() != indiceTramoHorario)
-            {
-                // La eliminamos de la lista de evitables
-                iterator.remove() ;
-            }
+        return outcome ;
+    }
+
+    /**
+     * @param indiceCursoDia índice del curso y día
+     * @return máscara con las posiciones del día, o 0 si no pertenece a la semana de este curso
+     */
+    public long obtenerMascaraDia(int indiceCursoDia)
+    {
+        long outcome = 0L ;
+
+        int dia = indiceCursoDia - this.indiceCursoDiaInicial ;
+
+        if (dia >= 0 && dia < Constants.NUMERO_DIAS_SEMANA)
+        {
+            outcome = MASCARAS_DIAS[dia] ;
         }
+
+        return outcome ;
+    }
+
+    /**
+     * @param indiceTramoHorario índice del tramo horario
+     * @return máscara con las posiciones del tramo en todos los días de la semana
+     */
+    protected static long obtenerMascaraTramo(int indiceTramoHorario)
+    {
+        return MASCARAS_TRAMOS[indiceTramoHorario] ;
     }
 }
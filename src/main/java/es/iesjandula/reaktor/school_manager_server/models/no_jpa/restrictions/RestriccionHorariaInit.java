@@ -1,6 +1,5 @@
 package es.iesjandula.reaktor.school_manager_server.models.no_jpa.restrictions;
 
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -18,16 +17,29 @@ public class RestriccionHorariaInit extends RestriccionHorariaBase
      */
     public RestriccionHorariaInit(int indiceCursoDiaInicial)
     {
-        super(new ArrayList<RestriccionHorariaItem>(), new ArrayList<RestriccionHorariaItem>()) ;
-
         // Por defecto, damos de alta todas las posibilidades en las no evitables
-        for (int i = indiceCursoDiaInicial ; i < (indiceCursoDiaInicial + Constants.NUMERO_DIAS_SEMANA) ; i++)
+        super(indiceCursoDiaInicial, RestriccionHorariaInit.crearRestriccionesHorariasItems(indiceCursoDiaInicial), MASCARA_SEMANA, 0L) ;
+    }
+
+    /**
+     * Crea los items de cada posición de la semana, que se comparten con todas las restricciones de los hilos
+     * 
+     * @param indiceCursoDiaInicial Índice Día curso inicial
+     * @return items de cada posición de la semana
+     */
+    private static RestriccionHorariaItem[] crearRestriccionesHorariasItems(int indiceCursoDiaInicial)
+    {
+        RestriccionHorariaItem[] restriccionesHorariasItems = new RestriccionHorariaItem[NUMERO_POSICIONES_SEMANA] ;
+
+        for (int i = 0 ; i < Constants.NUMERO_DIAS_SEMANA ; i++)
         {
             for (int j = Constants.TRAMO_HORARIO_PRIMERA_HORA ; j < Constants.NUMERO_TRAMOS_HORARIOS ; j++)
             {
-                this.getRestriccionesHorariasNoEvitables().add(new RestriccionHorariaItem(i, j)) ;
+                restriccionesHorariasItems[(i * Constants.NUMERO_TRAMOS_HORARIOS) + j] = new RestriccionHorariaItem(indiceCursoDiaInicial + i, j) ;
             }
         }
+
+        return restriccionesHorariasItems ;
     }
 
     /**
@@ -35,21 +47,7 @@ public class RestriccionHorariaInit extends RestriccionHorariaBase
      */
     public void tratarEvitarClasePrimeraHora()
     {
-        Iterator<RestriccionHorariaItem> iterator = this.getRestriccionesHorariasNoEvitables().iterator() ;
-
-        while (iterator.hasNext())
-        {
-            RestriccionHorariaItem restriccionHorariaItem = iterator.next() ;
-
-            if (restriccionHorariaItem.getTramoHorario() == Constants.TRAMO_HORARIO_PRIMERA_HORA)
-            {
-                // La eliminamos de la lista de no evitables
-                iterator.remove() ;
-
-                // Añadimos la restricción horaria a la lista de evitables
-                this.getRestriccionesHorariasEvitables().add(restriccionHorariaItem) ;
-            }
-        }
+        this.moverAEvitables(obtenerMascaraTramo(Constants.TRAMO_HORARIO_PRIMERA_HORA)) ;
     }
 
     /**
@@ -57,21 +55,7 @@ public class RestriccionHorariaInit extends RestriccionHorariaBase
      */
     public void tratarEvitarClaseUltimaHora()
     {
-        Iterator<RestriccionHorariaItem> iterator = this.getRestriccionesHorariasNoEvitables().iterator() ;
-
-        while (iterator.hasNext())
-        {
-            RestriccionHorariaItem restriccionHorariaItem = iterator.next() ;
-
-            if (restriccionHorariaItem.getTramoHorario() == Constants.TRAMO_HORARIO_SEXTA_HORA)
-            {
-                // La eliminamos de la lista de no evitables
-                iterator.remove() ;
-
-                // Añadimos la restricción horaria a la lista de evitables
-                this.getRestriccionesHorariasEvitables().add(restriccionHorariaItem) ;
-            }
-        }
+        this.moverAEvitables(obtenerMascaraTramo(Constants.TRAMO_HORARIO_SEXTA_HORA)) ;
     }
 
     /**
@@ -81,22 +65,39 @@ public class RestriccionHorariaInit extends RestriccionHorariaBase
      */
     public void tratarEvitarClaseTramoHorario(List<PreferenciasHorariasProfesor> preferenciasHorariasProfesores)
     {
-        Iterator<RestriccionHorariaItem> iterator = this.getRestriccionesHorariasNoEvitables().iterator() ;
+        long mascara = 0L ;
 
-        while (iterator.hasNext())
+        // Recorremos las posiciones que siguen siendo no evitables
+        long pendientes = this.getRestriccionesHorariasNoEvitables() ;
+        while (pendientes != 0L)
         {
-            RestriccionHorariaItem restriccionHorariaItem = iterator.next() ;
+            int posicion = Long.numberOfTrailingZeros(pendientes) ;
+            pendientes   = pendientes & (pendientes - 1L) ;
+
+            RestriccionHorariaItem restriccionHorariaItem = this.getRestriccionHorariaItem(posicion) ;
 
             // Si se ha encontrado, se establece que se desea evitar
             if (this.buscarPreferenciaHorariaProfesor(restriccionHorariaItem.getIndiceDia(), restriccionHorariaItem.getTramoHorario(), preferenciasHorariasProfesores))
             {
-                // La eliminamos de la lista de no evitables
-                iterator.remove() ;
-
-                // Añadimos la restricción horaria a la lista de evitables
-                this.getRestriccionesHorariasEvitables().add(restriccionHorariaItem) ;
+                mascara = mascara | (1L << posicion) ;
             }
         }
+
+        this.moverAEvitables(mascara) ;
+    }
+
+    /**
+     * Mueve de las no evitables a las evitables las posiciones de la máscara
+     * 
+     * @param mascara posiciones a mover
+     */
+    private void moverAEvitables(long mascara)
+    {
+        long posiciones = this.getRestriccionesHorariasNoEvitables() & mascara ;
+
+        // La eliminamos de las no evitables y la añadimos a las evitables
+        this.setRestriccionesHorariasNoEvitables(this.getRestriccionesHorariasNoEvitables() & ~posiciones) ;
+        this.setRestriccionesHorariasEvitables(this.getRestriccionesHorariasEvitables() | posiciones) ;
     }
 
     /**
@@ -134,31 +135,7 @@ public class RestriccionHorariaInit extends RestriccionHorariaBase
      */
     public void sinClasePrimeraHora()
     {
-        // Primero eliminamos de las no evitables
-        Iterator<RestriccionHorariaItem> iterator = this.getRestriccionesHorariasNoEvitables().iterator() ;
-        while (iterator.hasNext())
-        {
-            RestriccionHorariaItem restriccionHorariaItem = iterator.next() ;
-
-            if (restriccionHorariaItem.getTramoHorario() == Constants.TRAMO_HORARIO_PRIMERA_HORA)
-            {
-                // La eliminamos de la lista de no evitables
-                iterator.remove() ;
-            }
-        }
-
-        // Ahora eliminamos de las evitables
-        iterator = this.getRestriccionesHorariasEvitables().iterator() ;
-        while (iterator.hasNext())
-        {
-            RestriccionHorariaItem restriccionHorariaItem = iterator.next() ;
-
-            if (restriccionHorariaItem.getTramoHorario() == Constants.TRAMO_HORARIO_PRIMERA_HORA)
-            {
-                // La eliminamos de la lista de evitables
-                iterator.remove() ;
-            }
-        }
+        this.eliminarPosiciones(obtenerMascaraTramo(Constants.TRAMO_HORARIO_PRIMERA_HORA)) ;
     }
 
     /**
@@ -166,30 +143,17 @@ public class RestriccionHorariaInit extends RestriccionHorariaBase
      */
     public void sinClaseUltimaHora()
     {
-        // Primero eliminamos de las no evitables
-        Iterator<RestriccionHorariaItem> iterator = this.getRestriccionesHorariasNoEvitables().iterator() ;
-        while (iterator.hasNext())
-        {
-            RestriccionHorariaItem restriccionHorariaItem = iterator.next() ;
-
-            if (restriccionHorariaItem.getTramoHorario() == Constants.TRAMO_HORARIO_SEXTA_HORA)
-            {
-                // La eliminamos de la lista de no evitables
-                iterator.remove() ;
-            }
-        }
-
-        // Ahora eliminamos de las evitables
-        iterator = this.getRestriccionesHorariasEvitables().iterator() ;
-        while (iterator.hasNext())
-        {
-            RestriccionHorariaItem restriccionHorariaItem = iterator.next() ;
+        this.eliminarPosiciones(obtenerMascaraTramo(Constants.TRAMO_HORARIO_SEXTA_HORA)) ;
+    }
 
-            if (restriccionHorariaItem.getTramoHorario() == Constants.TRAMO_HORARIO_SEXTA_HORA)
-            {
-                // La eliminamos de la lista de evitables
-                iterator.remove() ;
-            }
-        }
+    /**
+     * Elimina las posiciones de la máscara de las no evitables y de las evitables
+     * 
+     * @param mascara posiciones a eliminar
+     */
+    private void eliminarPosiciones(long mascara)
+    {
+        this.setRestriccionesHorariasNoEvitables(this.getRestriccionesHorariasNoEvitables() & ~mascara) ;
+        this.setRestriccionesHorariasEvitables(this.getRestriccionesHorariasEvitables() & ~mascara) ;
     }
 }
@@ -1,8 +1,6 @@
 package es.iesjandula.reaktor.school_manager_server.models.no_jpa.restrictions;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
+import java.util.SplittableRandom;
 
 import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
 import es.iesjandula.reaktor.school_manager_server.utils.Constants;
@@ -14,13 +12,29 @@ import lombok.extern.slf4j.Slf4j;
 @Getter
 public class RestriccionHorariaThread extends RestriccionHorariaBase
 {
+    /** Restricción horaria inicial de la que parte este hilo */
+    private final RestriccionHorariaInit restriccionHorariaInit ;
+
     /**
      * @param restriccionHorariaInit Restricción horaria inicial
      */
     public RestriccionHorariaThread(RestriccionHorariaInit restriccionHorariaInit)
     {
-        super(new ArrayList<RestriccionHorariaItem>(restriccionHorariaInit.getRestriccionesHorariasNoEvitables()), new ArrayList<RestriccionHorariaItem>(restriccionHorariaInit.getRestriccionesHorariasEvitables())) ;
-        
+        super(restriccionHorariaInit.getIndiceCursoDiaInicial(),
+              restriccionHorariaInit.getRestriccionesHorariasItems(),
+              restriccionHorariaInit.getRestriccionesHorariasNoEvitables(),
+              restriccionHorariaInit.getRestriccionesHorariasEvitables()) ;
+
+        this.restriccionHorariaInit = restriccionHorariaInit ;
+    }
+
+    /**
+     * Vuelve a la restricción horaria inicial (al comenzar un nuevo intento) sin crear nuevos objetos
+     */
+    public void reiniciar()
+    {
+        this.setRestriccionesHorariasNoEvitables(this.restriccionHorariaInit.getRestriccionesHorariasNoEvitables()) ;
+        this.setRestriccionesHorariasEvitables(this.restriccionHorariaInit.getRestriccionesHorariasEvitables()) ;
     }
 
     /**
@@ -54,31 +68,10 @@ public class RestriccionHorariaThread extends RestriccionHorariaBase
      */
     public void asignarUnDiaConcreto(int diaDeLaSemana)
     {
-        // Primero eliminamos de las no evitables
-        Iterator<RestriccionHorariaItem> iterator = this.getRestriccionesHorariasNoEvitables().iterator() ;
-        while (iterator.hasNext())
-        {
-            RestriccionHorariaItem restriccionHorariaItem = iterator.next() ;
-
-            if (restriccionHorariaItem.getIndiceDia() != diaDeLaSemana)
-            {
-                // La eliminamos de la lista de no evitables
-                iterator.remove() ;
-            }
-        }
+        long mascara = this.obtenerMascaraDia(diaDeLaSemana) ;
 
-        // Ahora eliminamos de las evitables
-        iterator = this.getRestriccionesHorariasEvitables().iterator() ;
-        while (iterator.hasNext())
-        {
-            RestriccionHorariaItem restriccionHorariaItem = iterator.next() ;
-
-            if (restriccionHorariaItem.getIndiceDia() != diaDeLaSemana)
-            {
-                // La eliminamos de la lista de evitables
-                iterator.remove() ;
-            }
-        }
+        this.setRestriccionesHorariasNoEvitables(this.getRestriccionesHorariasNoEvitables() & mascara) ;
+        this.setRestriccionesHorariasEvitables(this.getRestriccionesHorariasEvitables() & mascara) ;
     }
 
     /** 
@@ -88,48 +81,35 @@ public class RestriccionHorariaThread extends RestriccionHorariaBase
      */
     public void eliminarRestriccionHorariaItem(RestriccionHorariaItem restriccionHorariaItem)
     {
-        // Si el item está en las no evitables, lo eliminamos de las no evitables
-        if (this.getRestriccionesHorariasNoEvitables().contains(restriccionHorariaItem))
-        {
-            this.getRestriccionesHorariasNoEvitables().remove(restriccionHorariaItem) ;
-        }
-        // Si el item está en las evitables, lo eliminamos de las evitables
-        else if (this.getRestriccionesHorariasEvitables().contains(restriccionHorariaItem))
-        {
-            this.getRestriccionesHorariasEvitables().remove(restriccionHorariaItem) ;
-        }
+        this.eliminarDiaTramo(restriccionHorariaItem.getIndiceDia(), restriccionHorariaItem.getTramoHorario()) ;
     }
 
     /**
-     * Elimina un día concreto de la restricción horaria de las no evitables y las evitables
+     * Elimina un día y tramo de la restricción horaria sin necesidad de su item
      * 
      * @param indiceCursoDia índice del curso y día
+     * @param indiceTramoHorario índice del tramo horario
      */
-    public void eliminarDiaConcreto(int indiceCursoDia)
+    public void eliminarDiaTramo(int indiceCursoDia, int indiceTramoHorario)
     {
-        Iterator<RestriccionHorariaItem> iterator = this.getRestriccionesHorariasNoEvitables().iterator() ;
-        while (iterator.hasNext())
-        {
-            RestriccionHorariaItem restriccionHorariaItem = iterator.next() ;
+        // Un día y tramo solo puede estar en las no evitables o en las evitables, así que lo quitamos de ambas
+        long mascara = this.obtenerMascaraPosicion(indiceCursoDia, indiceTramoHorario) ;
 
-            if (restriccionHorariaItem.getIndiceDia() == indiceCursoDia)
-            {
-                // La eliminamos de la lista de no evitables
-                iterator.remove() ;
-            }
-        }
+        this.setRestriccionesHorariasNoEvitables(this.getRestriccionesHorariasNoEvitables() & ~mascara) ;
+        this.setRestriccionesHorariasEvitables(this.getRestriccionesHorariasEvitables() & ~mascara) ;
+    }
 
-        iterator = this.getRestriccionesHorariasEvitables().iterator() ;
-        while (iterator.hasNext())
-        {
-            RestriccionHorariaItem restriccionHorariaItem = iterator.next() ;
+    /**
+     * Elimina un día concreto de la restricción horaria de las no evitables y las evitables
+     * 
+     * @param indiceCursoDia índice del curso y día
+     */
+    public void eliminarDiaConcreto(int indiceCursoDia)
+    {
+        long mascara = this.obtenerMascaraDia(indiceCursoDia) ;
 
-            if (restriccionHorariaItem.getIndiceDia() == indiceCursoDia)
-            {
-                // La eliminamos de la lista de evitables
-                iterator.remove() ;
-            }
-        }
+        this.setRestriccionesHorariasNoEvitables(this.getRestriccionesHorariasNoEvitables() & ~mascara) ;
+        this.setRestriccionesHorariasEvitables(this.getRestriccionesHorariasEvitables() & ~mascara) ;
     }
 
     /**
@@ -143,26 +123,11 @@ public class RestriccionHorariaThread extends RestriccionHorariaBase
     {
         RestriccionHorariaItem restriccionHorariaItem = null ;
 
-        Iterator<RestriccionHorariaItem> iterator = this.getRestriccionesHorariasNoEvitables().iterator() ;
-        while (iterator.hasNext() && restriccionHorariaItem == null)
-        {
-            RestriccionHorariaItem restriccionHorariaItemNoEvitable = iterator.next() ;
-
-            if (restriccionHorariaItemNoEvitable.getIndiceDia() == indiceDia && restriccionHorariaItemNoEvitable.getTramoHorario() == indiceTramoHorario)
-            {
-                restriccionHorariaItem = restriccionHorariaItemNoEvitable ;
-            }
-        }
+        long mascara = this.obtenerMascaraPosicion(indiceDia, indiceTramoHorario) ;
 
-        iterator = this.getRestriccionesHorariasEvitables().iterator() ;
-        while (iterator.hasNext() && restriccionHorariaItem == null)
+        if ((this.getRestriccionesHorarias() & mascara) != 0L)
         {
-            RestriccionHorariaItem restriccionHorariaItemEvitable = iterator.next() ;
-
-            if (restriccionHorariaItemEvitable.getIndiceDia() == indiceDia && restriccionHorariaItemEvitable.getTramoHorario() == indiceTramoHorario)
-            {
-                restriccionHorariaItem = restriccionHorariaItemEvitable ;
-            }
+            restriccionHorariaItem = this.getRestriccionHorariaItem(Long.numberOfTrailingZeros(mascara)) ;
         }
 
         return restriccionHorariaItem ;
@@ -172,12 +137,13 @@ public class RestriccionHorariaThread extends RestriccionHorariaBase
      * Método que comprueba si existe hueco para una sesión
      * 
      * @param sesionBase sesión base
+     * @param random generador de números aleatorios del hilo
      * @return true si existe hueco, false en caso contrario
      * @throws SchoolManagerServerException si no hay más intervalo para asignar la sesión  
      */
-    public RestriccionHorariaItem obtenerRestriccionHorariaItem(SesionBase sesionBase) throws SchoolManagerServerException
+    public RestriccionHorariaItem obtenerRestriccionHorariaItem(SesionBase sesionBase, SplittableRandom random) throws SchoolManagerServerException
     {
-        if (this.getRestriccionesHorariasNoEvitables().isEmpty() && this.getRestriccionesHorariasEvitables().isEmpty())
+        if (this.getRestriccionesHorariasNoEvitables() == 0L && this.getRestriccionesHorariasEvitables() == 0L)
         {
 			// Logueamos y lanzamos una excepción para cortar esta generación de horario
 			// ya que no hay más items de la semana para asignar la sesión
@@ -188,27 +154,41 @@ public class RestriccionHorariaThread extends RestriccionHorariaBase
 			throw new SchoolManagerServerException(Constants.ERR_CODE_HORARIO_NO_MAS_AMPLIABLE, debugString) ;		
         }
 
-        RestriccionHorariaItem restriccionHorariaItem = null ;
+        int posicion = -1 ;
 
         // Primero vemos si podemos obtener una restricción horaria no evitable
-        if (!this.getRestriccionesHorariasNoEvitables().isEmpty())
+        if (this.getRestriccionesHorariasNoEvitables() != 0L)
         {
-            // Mezclamos la lista para que tenga cierta aleatoriedad
-            Collections.shuffle(this.getRestriccionesHorariasNoEvitables()) ;
-
-            // Obtenemos el primer item de la lista
-            restriccionHorariaItem = this.getRestriccionesHorariasNoEvitables().remove(0) ;
+            posicion = RestriccionHorariaThread.obtenerPosicionAleatoria(this.getRestriccionesHorariasNoEvitables(), random) ;
         }
         else
         {
-            // Mezclamos la lista para que tenga cierta aleatoriedad
-            Collections.shuffle(this.getRestriccionesHorariasEvitables()) ;
-
-            // Obtenemos el primer item de la lista
-            restriccionHorariaItem = this.getRestriccionesHorariasEvitables().remove(0) ;
+            posicion = RestriccionHorariaThread.obtenerPosicionAleatoria(this.getRestriccionesHorariasEvitables(), random) ;
         }
 
-        // Eliminamos aleatoriamente un item de la restricción horaria
+        // Eliminamos el item elegido de la restricción horaria
+        RestriccionHorariaItem restriccionHorariaItem = this.getRestriccionHorariaItem(posicion) ;
+        this.eliminarRestriccionHorariaItem(restriccionHorariaItem) ;
+
         return restriccionHorariaItem ;
     }
+
+    /**
+     * @param mascara máscara con al menos una posición
+     * @param random generador de números aleatorios del hilo
+     * @return una de las posiciones de la máscara elegida aleatoriamente
+     */
+    private static int obtenerPosicionAleatoria(long mascara, SplittableRandom random)
+    {
+        long pendientes = mascara ;
+
+        // Descartamos tantas posiciones (las de menor índice) como indique el número aleatorio
+        int saltos = random.nextInt(Long.bitCount(pendientes)) ;
+        for (int i = 0 ; i < saltos ; i++)
+        {
+            pendientes = pendientes & (pendientes - 1L) ;
+        }
+
+        return Long.numberOfTrailingZeros(pendientes) ;
+    }
 }
@@ -101,6 +101,16 @@ public interface IImpartirRepository extends JpaRepository<Impartir, IdImpartir>
             "WHERE i.asignatura.idAsignatura.cursoEtapaGrupo.idCursoEtapaGrupo.cursoAcademico = :cursoAcademico")
     Optional<List<Impartir>> findAllWithPreferenciasHorarias(@Param("cursoAcademico") String cursoAcademico);
 
+    /**
+     * Método que devuelve todos los registros de Impartir del curso académico activo
+     * @param cursoAcademico - El curso académico activo.
+     * @return Lista de todos los registros de Impartir del curso académico
+     */
+    @Query("SELECT i " +
+            "FROM Impartir i " +
+            "WHERE i.asignatura.idAsignatura.cursoEtapaGrupo.idCursoEtapaGrupo.cursoAcademico = :cursoAcademico")
+    List<Impartir> buscarImpartirPorCursoAcademico(@Param("cursoAcademico") String cursoAcademico);
+
     @Query("""
         SELECT i
         FROM Impartir i
@@ -115,20 +125,4 @@ public interface IImpartirRepository extends JpaRepository<Impartir, IdImpartir>
                                                                           @Param("curso") int curso,
                                                                           @Param("etapa") String etapa,
                                                                           @Param("grupo") String grupo);  
-    @Query("""
-        SELECT i
-        FROM Impartir i
-        WHERE i.idImpartir.asignatura.idAsignatura.nombre = :nombre 
-          AND i.asignatura.idAsignatura.cursoEtapaGrupo.idCursoEtapaGrupo.cursoAcademico = :cursoAcademico
-          AND i.asignatura.idAsignatura.cursoEtapaGrupo.idCursoEtapaGrupo.curso = :curso
-          AND i.asignatura.idAsignatura.cursoEtapaGrupo.idCursoEtapaGrupo.etapa = :etapa
-          AND i.asignatura.idAsignatura.cursoEtapaGrupo.idCursoEtapaGrupo.grupo = :grupo
-          AND i.idImpartir.profesor.email = :profesor
-        """)
-    Optional<Impartir> buscarPorNombreAndCursoAndEtapaAndGrupoAndProfesor(@Param("cursoAcademico") String cursoAcademico,
-                                                                          @Param("nombre") String nombre,
-                                                                          @Param("curso") int curso,
-                                                                          @Param("etapa") String etapa,
-                                                                          @Param("grupo") String grupo,
-                                                                          @Param("profesor") String email);
 }
@@ -13,11 +13,9 @@ import org.springframework.transaction.annotation.Transactional;
 import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorAsignadaImpartirCursoEtapaGrupoDto;
 import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorAsignadaImpartirProfesorDto;
 import es.iesjandula.reaktor.school_manager_server.models.CursoEtapaGrupo;
-import es.iesjandula.reaktor.school_manager_server.models.GeneradorInstancia;
 import es.iesjandula.reaktor.school_manager_server.models.GeneradorAsignadaImpartir;
 import es.iesjandula.reaktor.school_manager_server.models.Profesor;
 import es.iesjandula.reaktor.school_manager_server.models.ids.IdGeneradorAsignadaImpartir;
-import es.iesjandula.reaktor.school_manager_server.utils.Constants;
 
 @Repository
 public interface IGeneradorAsignadaImpartirRepository extends JpaRepository<GeneradorAsignadaImpartir, IdGeneradorAsignadaImpartir>
@@ -65,91 +63,4 @@ public interface IGeneradorAsignadaImpartirRepository extends JpaRepository<Gene
            "AND gai.generadorInstancia.solucionElegida = true " +
            "ORDER BY gai.diaTramoTipoHorario.dia, gai.diaTramoTipoHorario.tramo")
     Optional<List<GeneradorAsignadaImpartirCursoEtapaGrupoDto>> buscarHorarioCursoEtapaGrupoSolucionElegida(CursoEtapaGrupo cursoEtapaGrupo);
-
-    /**
-     * Método que cuenta cuántos huecos hay entre sesiones de un profesor, teniendo en cuenta
-     * que se considera un hueco aquel en el que el profesor ya ha tenido clase previamente pero no tiene clase
-     * para posteriormente tenerla de nuevo
-     * 
-     * @param generadorInstancia - Generador instancia
-     * @param profesor - Profesor
-     * @param esMatutino - Indica si es matutino
-     * @return - Número de huecos entre sesiones
-     */
-    @Query(value = "SELECT COALESCE(SUM(huecos),0) FROM ( " +
-           "  SELECT (MAX(dtth.tramo) - MIN(dtth.tramo) + 1) - COUNT(gai.impartir_profesor_email) AS huecos " +
-           "  FROM dia_tramo_tipo_horario dtth " +
-           "  JOIN generador_asignada_impartir gai ON gai.dia_tramo_tipo_horario_id = dtth.id " +
-           "  WHERE gai.impartir_profesor_curso_academico = :cursoAcademico " +
-           "    AND gai.impartir_profesor_email = :email " +
-           "    AND gai.generador_instancia_id = :generadorInstanciaId " +
-           "    AND dtth.horario_matutino = :esMatutino " +
-           "    AND dtth.dia != -1 AND dtth.tramo != -1 " +
-           "  GROUP BY dtth.dia " +
-           ") AS subconsulta", nativeQuery = true)
-    Integer contarHuecosEntreSesiones(@Param("generadorInstanciaId") Integer generadorInstanciaId, @Param("cursoAcademico") String cursoAcademico, @Param("email") String profesorId, @Param("esMatutino") Boolean esMatutino);
-
-    /**
-     * Método que busca todos los profesores que tengan horario matutino o vespertino
-     * @param esMatutino - Indica si es matutino
-     * @return - Lista de profesores
-     */
-    @Query("SELECT DISTINCT p FROM GeneradorAsignadaImpartir gai " +
-           "JOIN gai.impartir.profesor p " +
-           "LEFT JOIN FETCH p.preferenciasHorariasProfesor " +
-           "LEFT JOIN FETCH p.observacionesAdicionales " +
-           "WHERE gai.generadorInstancia = :generadorInstancia " +
-             "AND gai.diaTramoTipoHorario.horarioMatutino = :esMatutino")
-    List<Profesor> buscarProfesoresTipoHorario(GeneradorInstancia generadorInstancia, Boolean esMatutino);
-
-    /**
-     * Método que cuenta cuántas veces se ha asignado una sesión a un profesor en la instancia elegida como solución
-     * @param generadorInstancia - Generador instancia
-     * @param profesor - Profesor
-     * @param esMatutino - Indica si es matutino
-     * @return - Número de veces que se ha asignado una sesión a un profesor
-     */
-    @Query(value = "SELECT COUNT(*) " +
-                   "FROM GeneradorAsignadaImpartir gai " +
-                   "WHERE gai.impartir.profesor.cursoAcademico = :cursoAcademico " +
-                     "AND gai.impartir.profesor.email = :profesorEmail " + 
-                     "AND gai.generadorInstancia.id = :generadorInstanciaId " +
-                     "AND gai.diaTramoTipoHorario.horarioMatutino = :esMatutino " +
-                     "AND gai.diaTramoTipoHorario.tramo = " + Constants.TRAMO_HORARIO_PRIMERA_HORA)
-    Integer contarPreferenciasDiariasPrimeraHora(@Param("generadorInstanciaId") Integer generadorInstanciaId, @Param("cursoAcademico") String cursoAcademico, @Param("profesorEmail") String profesorEmail, @Param("esMatutino") Boolean esMatutino);
-
-    /**
-     * Método que cuenta cuántas veces se ha asignado una sesión a un profesor en la instancia elegida como solución
-     * @param generadorInstancia - Generador instancia
-     * @param profesor - Profesor
-     * @param esMatutino - Indica si es matutino o vespertino
-     * @return - Número de veces que se ha asignado una sesión a un profesor
-     */
-    @Query(value = "SELECT COUNT(*) " +
-                   "FROM GeneradorAsignadaImpartir gai " +
-                   "WHERE gai.impartir.profesor.cursoAcademico = :cursoAcademico " +
-                     "AND gai.impartir.profesor.email = :profesorEmail " + 
-                     "AND gai.generadorInstancia.id = :generadorInstanciaId " +
-                     "AND gai.diaTramoTipoHorario.horarioMatutino = :esMatutino " +
-                     "AND gai.diaTramoTipoHorario.tramo = " + Constants.TRAMO_HORARIO_SEXTA_HORA)
-    Integer contarPreferenciasDiariasUltimaHora(@Param("generadorInstanciaId") Integer generadorInstanciaId, @Param("cursoAcademico") String cursoAcademico, @Param("profesorEmail") String profesorEmail, @Param("esMatutino") Boolean esMatutino);
-
-    /**
-     * Método que cuenta cuántas veces se ha asignado una sesión a un profesor en la instancia elegida como solución
-     * @param generadorInstancia - Generador instancia
-     * @param profesor - Profesor
-     * @param esMatutino - Indica si es matutino o vespertino
-     * @param tramo - Tramo
-     * @param dia - Día
-     * @return - Número de veces que se ha asignado una sesión a un profesor
-     */
-    @Query(value = "SELECT CASE WHEN COUNT(gai) > 0 THEN 0 ELSE 1 END  " +
-                   "FROM GeneradorAsignadaImpartir gai " +
-                   "WHERE gai.impartir.profesor.cursoAcademico = :cursoAcademico " +
-                     "AND gai.impartir.profesor.email = :profesorEmail " +   
-                     "AND gai.generadorInstancia.id = :generadorInstanciaId " +
-                     "AND gai.diaTramoTipoHorario.horarioMatutino = :esMatutino " +
-                     "AND gai.diaTramoTipoHorario.tramo = :tramo " +
-                     "AND gai.diaTramoTipoHorario.dia = :dia")
-    Integer contarPreferenciasConcretas(@Param("generadorInstanciaId") Integer generadorInstanciaId, @Param("cursoAcademico") String cursoAcademico, @Param("profesorEmail") String profesorEmail, @Param("esMatutino") Boolean esMatutino, @Param("dia") Integer dia, @Param("tramo") Integer tramo);
 }
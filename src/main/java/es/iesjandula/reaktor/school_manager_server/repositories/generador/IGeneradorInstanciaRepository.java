@@ -6,6 +6,7 @@ import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import es.iesjandula.reaktor.school_manager_server.models.GeneradorInstancia;
 import es.iesjandula.reaktor.school_manager_server.utils.Constants;
@@ -14,24 +15,33 @@ import jakarta.transaction.Transactional;
 public interface IGeneradorInstanciaRepository extends JpaRepository<GeneradorInstancia, Integer>
 {
     /**
-     * Método que busca la máxima puntuación de soluciones
-     * @return Optional con la máxima puntuación de soluciones
+     * Método que busca la máxima puntuación de las soluciones de un curso académico, sin las de las repeticiones
+     * @param cursoAcademico curso académico de los generadores
+     * @return Optional con la máxima puntuación de las soluciones del curso académico
      */
-    @Query("SELECT MAX(gi.puntuacion) FROM GeneradorInstancia gi WHERE gi.estado = '" + Constants.ESTADO_GENERADOR_FINALIZADO + "'")
-    Optional<Integer> buscarMaximaPuntuacionSolucion();
+    @Query("SELECT MAX(gi.puntuacion) FROM GeneradorInstancia gi " +
+           "WHERE gi.estado = '" + Constants.ESTADO_GENERADOR_FINALIZADO + "' AND gi.generador.cursoAcademico = :cursoAcademico " +
+           "AND (gi.generador.repeticion IS NULL OR gi.generador.repeticion = false)")
+    Optional<Integer> buscarMaximaPuntuacionSolucionPorCursoAcademico(@Param("cursoAcademico") String cursoAcademico);
 
     /**
-     * Método que deselecciona todas las soluciones
+     * Método que deselecciona todas las soluciones de un curso académico
+     * @param cursoAcademico curso académico de los generadores
      */
     @Modifying
     @Transactional
-    @Query("UPDATE GeneradorInstancia gi SET gi.solucionElegida = false WHERE gi.estado = '" + Constants.ESTADO_GENERADOR_FINALIZADO + "'")
-    void deseleccionarSoluciones();
+    @Query("UPDATE GeneradorInstancia gi SET gi.solucionElegida = false " +
+           "WHERE gi.estado = '" + Constants.ESTADO_GENERADOR_FINALIZADO + "' " +
+           "AND gi.generador.id IN (SELECT g.id FROM Generador g WHERE g.cursoAcademico = :cursoAcademico)")
+    void deseleccionarSolucionesPorCursoAcademico(@Param("cursoAcademico") String cursoAcademico);
 
     /**
-     * Método que obtiene todas las posibles soluciones
-     * @return List con todas las posibles soluciones
+     * Método que obtiene todas las posibles soluciones de un curso académico
+     * @param cursoAcademico curso académico de los generadores
+     * @return List con todas las posibles soluciones del curso académico
      */
-    @Query("SELECT gi FROM GeneradorInstancia gi WHERE gi.estado = '" + Constants.ESTADO_GENERADOR_FINALIZADO + "' ORDER BY gi.puntuacion DESC")
-    Optional<List<GeneradorInstancia>> obtenerTodasLasPosiblesSoluciones();
+    @Query("SELECT gi FROM GeneradorInstancia gi " +
+           "WHERE gi.estado = '" + Constants.ESTADO_GENERADOR_FINALIZADO + "' AND gi.generador.cursoAcademico = :cursoAcademico " +
+           "ORDER BY gi.puntuacion DESC")
+    Optional<List<GeneradorInstancia>> obtenerTodasLasPosiblesSolucionesPorCursoAcademico(@Param("cursoAcademico") String cursoAcademico);
 }
@@ -5,12 +5,14 @@ import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import es.iesjandula.reaktor.school_manager_server.models.GeneradorInstanciaSolucionInfoGeneral;
 import es.iesjandula.reaktor.school_manager_server.models.ids.IdGeneradorInstanciaSolucionInfoGeneral;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
 
 @Repository
 public interface IGeneradorInstanciaSolucionInfoGeneral extends JpaRepository<GeneradorInstanciaSolucionInfoGeneral, IdGeneradorInstanciaSolucionInfoGeneral>
@@ -24,6 +26,16 @@ public interface IGeneradorInstanciaSolucionInfoGeneral extends JpaRepository<Ge
     @Query("SELECT gisig FROM GeneradorInstanciaSolucionInfoGeneral gisig WHERE gisig.idGeneradorInstanciaSolucionInfoGeneral.generadorInstancia.id = :id")
     Optional<List<GeneradorInstanciaSolucionInfoGeneral>> buscarPorGeneradorInstancia(int id);
 
+    /**
+     * Método que busca de una vez las puntuaciones generales de todas las posibles soluciones de un curso académico, junto con su instancia
+     * @param cursoAcademico curso académico de los generadores
+     * @return List con las puntuaciones generales de las instancias de GeneradorInstancia finalizadas del curso académico
+     */
+    @Query("SELECT gisig FROM GeneradorInstanciaSolucionInfoGeneral gisig " +
+           "JOIN FETCH gisig.idGeneradorInstanciaSolucionInfoGeneral.generadorInstancia gi " +
+           "WHERE gi.estado = '" + Constants.ESTADO_GENERADOR_FINALIZADO + "' AND gi.generador.cursoAcademico = :cursoAcademico")
+    List<GeneradorInstanciaSolucionInfoGeneral> buscarPorPosiblesSolucionesPorCursoAcademico(@Param("cursoAcademico") String cursoAcademico);
+
     /**
      * Método que borra todas las puntuaciones generales de una instancia de GeneradorInstancia
      * @param id - Id de la instancia de GeneradorInstancia
@@ -6,11 +6,13 @@ import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import es.iesjandula.reaktor.school_manager_server.models.GeneradorInstanciaSolucionInfoProfesor;
 import es.iesjandula.reaktor.school_manager_server.models.ids.IdGeneradorInstanciaSolucionInfoProfesor;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
 
 @Repository
 public interface IGeneradorInstanciaSolucionInfoProfesor extends JpaRepository<GeneradorInstanciaSolucionInfoProfesor, IdGeneradorInstanciaSolucionInfoProfesor>
@@ -23,6 +25,17 @@ public interface IGeneradorInstanciaSolucionInfoProfesor extends JpaRepository<G
     @Query("SELECT gisip FROM GeneradorInstanciaSolucionInfoProfesor gisip WHERE gisip.idGeneradorInstanciaSolucionInfoProfesor.generadorInstancia.id = :id")
     Optional<List<GeneradorInstanciaSolucionInfoProfesor>> buscarPorGeneradorInstancia(int id);
 
+    /**
+     * Método que busca de una vez las puntuaciones de profesores de todas las posibles soluciones de un curso académico, junto con su instancia y su profesor
+     * @param cursoAcademico curso académico de los generadores
+     * @return List con las puntuaciones de profesores de las instancias de GeneradorInstancia finalizadas del curso académico
+     */
+    @Query("SELECT gisip FROM GeneradorInstanciaSolucionInfoProfesor gisip " +
+           "JOIN FETCH gisip.idGeneradorInstanciaSolucionInfoProfesor.generadorInstancia gi " +
+           "JOIN FETCH gisip.idGeneradorInstanciaSolucionInfoProfesor.profesor " +
+           "WHERE gi.estado = '" + Constants.ESTADO_GENERADOR_FINALIZADO + "' AND gi.generador.cursoAcademico = :cursoAcademico")
+    List<GeneradorInstanciaSolucionInfoProfesor> buscarPorPosiblesSolucionesPorCursoAcademico(@Param("cursoAcademico") String cursoAcademico);
+
     /**
      * Método que borra todas las puntuaciones de profesores de una instancia de GeneradorInstancia
      * @param id - Id de la instancia de GeneradorInstancia
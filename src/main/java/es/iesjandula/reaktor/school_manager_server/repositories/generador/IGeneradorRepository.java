@@ -3,6 +3,7 @@ package es.iesjandula.reaktor.school_manager_server.repositories.generador;
 import org.springframework.data.jpa.repository.JpaRepository;
 import es.iesjandula.reaktor.school_manager_server.models.Generador;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,13 +13,15 @@ import org.springframework.data.repository.query.Param;
 public interface IGeneradorRepository extends JpaRepository<Generador, Integer>
 {
     /**
-     * Método que obtiene el último generador creado
-     * @return - Generador
+     * Método que obtiene los generadores en un estado, del último lanzado al primero
+     * @param estado - Estado de los generadores
+     * @return - Generadores en el estado
      */
     @Query("SELECT g " + 
            "FROM Generador g " + 
-           "WHERE g.estado = :estado")
-    Optional<Generador> buscarGeneradorPorEstado(@Param("estado") String estado) ;
+           "WHERE g.estado = :estado " +
+           "ORDER BY g.fechaInicio DESC")
+    List<Generador> buscarGeneradoresPorEstado(@Param("estado") String estado) ;
 
     /**
      * Método que obtiene el último generador lanzado usando la fecha de inicio
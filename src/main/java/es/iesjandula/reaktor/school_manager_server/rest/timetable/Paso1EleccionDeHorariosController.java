@@ -6,6 +6,7 @@ import es.iesjandula.reaktor.school_manager_server.dtos.*;
 import es.iesjandula.reaktor.school_manager_server.models.*;
 import es.iesjandula.reaktor.school_manager_server.models.ids.*;
 import es.iesjandula.reaktor.school_manager_server.repositories.*;
+import es.iesjandula.reaktor.school_manager_server.services.manager.DiaTramoTipoHorarioService;
 import es.iesjandula.reaktor.school_manager_server.services.manager.ProfesorService;
 import es.iesjandula.reaktor.school_manager_server.services.manager.ValidacionesGlobales;
 import es.iesjandula.reaktor.school_manager_server.utils.Constants;
@@ -52,6 +53,9 @@ public class Paso1EleccionDeHorariosController
     @Autowired
     private IDiaTramoTipoHorarioRepository iDiaTramoTipoHorarioRepository;
 
+    @Autowired
+    private DiaTramoTipoHorarioService diaTramoTipoHorarioService;
+
     @Autowired
     private IPreferenciasHorariasRepository iPreferenciasHorariasRepository;
 
@@ -506,7 +510,7 @@ public class Paso1EleccionDeHorariosController
             PreferenciasHorariasProfesor preferenciasHorariasProfesor = this.obtenerPreferenciasHorarias(email, idSeleccion) ;
 
             // Buscamos la instancia de diaTramoTipoHorario 
-            DiaTramoTipoHorario diaTramoTipoHorario = this.iDiaTramoTipoHorarioRepository.buscarPorDiaDescTramoDesc(diaDesc, tramoDesc) ;
+            DiaTramoTipoHorario diaTramoTipoHorario = this.diaTramoTipoHorarioService.buscarPorDiaDescTramoDesc(diaDesc, tramoDesc) ;
 
             // Construimos el id de las preferencias horarias
             IdPreferenciasHorariasProfesor idPreferenciasHorariasProfesor = new IdPreferenciasHorariasProfesor() ;
@@ -8,6 +8,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -15,9 +16,18 @@ import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import es.iesjandula.reaktor.base.utils.BaseConstants;
+import es.iesjandula.reaktor.school_manager_server.dtos.ErroresDatosDto;
 import es.iesjandula.reaktor.school_manager_server.dtos.ValidadorDatosDto;
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorCheckpointDto;
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorEventoDto;
 import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorInfoDto;
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorInstantaneaDto;
 import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorRestriccionBaseDto;
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorTrabajoDto;
+import es.iesjandula.reaktor.school_manager_server.generator.configuracion.ConfiguracionGenerador;
+import es.iesjandula.reaktor.school_manager_server.generator.factibilidad.AnalizadorFactibilidadGenerador;
+import es.iesjandula.reaktor.school_manager_server.generator.sesiones.IndiceBloquesOptativas;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.TrabajoGenerador;
 import es.iesjandula.reaktor.school_manager_server.models.Generador;
 import es.iesjandula.reaktor.school_manager_server.models.GeneradorInstancia;
 import es.iesjandula.reaktor.school_manager_server.models.GeneradorRestriccionesImpartir;
@@ -27,15 +37,18 @@ import es.iesjandula.reaktor.school_manager_server.models.ids.IdGeneradorRestric
 import es.iesjandula.reaktor.school_manager_server.models.ids.IdGeneradorRestriccionesReduccion;
 import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
 import es.iesjandula.reaktor.school_manager_server.models.ProfesorReduccion;
-import es.iesjandula.reaktor.school_manager_server.repositories.IDiaTramoTipoHorarioRepository;
 import es.iesjandula.reaktor.school_manager_server.repositories.IImpartirRepository;
 import es.iesjandula.reaktor.school_manager_server.repositories.IProfesorReduccionRepository;
 import es.iesjandula.reaktor.school_manager_server.repositories.generador.IGeneradorInstanciaRepository;
 import es.iesjandula.reaktor.school_manager_server.repositories.generador.IGeneradorRepository;
 import es.iesjandula.reaktor.school_manager_server.repositories.generador.IGeneradorRestriccionesImpartirRepository;
 import es.iesjandula.reaktor.school_manager_server.repositories.generador.IGeneradorRestriccionesReduccionRepository;
+import es.iesjandula.reaktor.school_manager_server.services.manager.DiaTramoTipoHorarioService;
+import es.iesjandula.reaktor.school_manager_server.services.timetable.CheckpointGeneradorService;
+import es.iesjandula.reaktor.school_manager_server.services.timetable.EventosGeneradorService;
 import es.iesjandula.reaktor.school_manager_server.services.timetable.GeneradorConfigService;
 import es.iesjandula.reaktor.school_manager_server.services.timetable.GeneradorService;
+import es.iesjandula.reaktor.school_manager_server.services.timetable.PlanificadorGeneradorService;
 import es.iesjandula.reaktor.school_manager_server.services.timetable.ValidadorDatosService;
 import es.iesjandula.reaktor.school_manager_server.utils.Constants;
 import es.iesjandula.reaktor.school_manager_server.utils.SchoolManagerServerException;
@@ -57,7 +70,7 @@ public class Paso3GeneradorController
     private IProfesorReduccionRepository profesorReduccionRepository ;
 
     @Autowired
-    private IDiaTramoTipoHorarioRepository diaTramoTipoHorarioRepository ;
+    private DiaTramoTipoHorarioService diaTramoTipoHorarioService ;
 
     @Autowired
     private IImpartirRepository impartirRepository ;
@@ -77,6 +90,15 @@ public class Paso3GeneradorController
     @Autowired
     private GeneradorService generadorService ;
 
+    @Autowired
+    private PlanificadorGeneradorService planificadorGeneradorService ;
+
+    @Autowired
+    private CheckpointGeneradorService checkpointGeneradorService ;
+
+    @Autowired
+    private EventosGeneradorService eventosGeneradorService ;
+
     @Autowired
     private es.iesjandula.reaktor.school_manager_server.services.manager.CursoAcademicoResolver cursoAcademicoResolver ;
 
@@ -104,7 +126,73 @@ public class Paso3GeneradorController
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(schoolManagerServerException.getBodyExceptionMessage());
         }
     }
-    
+
+    @PreAuthorize("hasRole('" + BaseConstants.ROLE_DIRECCION + "')")
+    @RequestMapping(method = RequestMethod.GET, value = "/eventos")
+    public ResponseEntity<?> suscribirEventosGenerador()
+    {
+        try
+        {
+            String cursoAcademico = this.cursoAcademicoResolver.resolver() ;
+
+            // El cliente recibe primero el estado actual de los trabajos del curso académico, y después sus eventos según se producen
+            List<GeneradorEventoDto> eventosIniciales = new ArrayList<GeneradorEventoDto>() ;
+            for (TrabajoGenerador trabajoGenerador : this.planificadorGeneradorService.obtenerTrabajos(cursoAcademico))
+            {
+                String tipo = Constants.ESTADO_GENERADOR_EN_COLA.equals(trabajoGenerador.getEstado()) ? Constants.EVENTO_GENERADOR_EN_COLA :
+                                                                                                         Constants.EVENTO_GENERADOR_PROGRESO ;
+
+                eventosIniciales.add(this.eventosGeneradorService.crearEvento(tipo, trabajoGenerador, trabajoGenerador.getEstado(), null)) ;
+            }
+
+            // Devolvemos el flujo text/event-stream
+            return ResponseEntity.ok(this.eventosGeneradorService.suscribir(cursoAcademico, eventosIniciales)) ;
+        }
+        catch (SchoolManagerServerException schoolManagerServerException)
+        {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(schoolManagerServerException.getBodyExceptionMessage());
+        }
+        catch (Exception exception)
+        {
+            String mensajeError = "ERROR - No se pudo suscribir a los eventos del generador";
+
+            log.error(mensajeError, exception) ;
+
+            // Devolver la excepción personalizada con código genérico, el mensaje de error y la excepción general
+            SchoolManagerServerException schoolManagerServerException =  new SchoolManagerServerException(Constants.ERROR_GENERICO, mensajeError, exception);
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(schoolManagerServerException.getBodyExceptionMessage());
+        }
+    }
+
+    @PreAuthorize("hasRole('" + BaseConstants.ROLE_DIRECCION + "')")
+    @RequestMapping(method = RequestMethod.GET, value = "/instantanea")
+    public ResponseEntity<?> exportarInstantaneaGenerador()
+    {
+        try
+        {
+            // Exportamos los datos de entrada del generador, con los profesores anonimizados, para el banco de pruebas del generador
+            GeneradorInstantaneaDto generadorInstantaneaDto = this.generadorConfigService.exportarInstantanea() ;
+
+            return ResponseEntity.ok(generadorInstantaneaDto) ;
+        }
+        catch (SchoolManagerServerException schoolManagerServerException)
+        {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(schoolManagerServerException.getBodyExceptionMessage());
+        }
+        catch (Exception exception)
+        {
+            String mensajeError = "ERROR - No se pudo exportar la instantánea de los datos del generador";
+
+            log.error(mensajeError, exception) ;
+
+            // Devolver la excepción personalizada con código genérico, el mensaje de error y la excepción general
+            SchoolManagerServerException schoolManagerServerException =  new SchoolManagerServerException(Constants.ERROR_GENERICO, mensajeError, exception);
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(schoolManagerServerException.getBodyExceptionMessage());
+        }
+    }
+
     @PreAuthorize("hasRole('" + BaseConstants.ROLE_DIRECCION + "')")
     @RequestMapping(method = RequestMethod.POST, value = "/restricciones_impartir")
     public ResponseEntity<?> actualizarRestriccionesImpartir(@RequestHeader(value = "email") String email,
@@ -133,7 +221,7 @@ public class Paso3GeneradorController
             }
 
             // Obtenemos las restricciones de tipo de horario de la asignatura
-            DiaTramoTipoHorario diaTramoTipoHorario = this.diaTramoTipoHorarioRepository.buscarPorDiaDescTramoDesc(diaDesc, tramoDesc) ;
+            DiaTramoTipoHorario diaTramoTipoHorario = this.diaTramoTipoHorarioService.buscarPorDiaDescTramoDesc(diaDesc, tramoDesc) ;
 
             if (!Constants.SIN_SELECCIONAR.equals(diaDesc) && !Constants.SIN_SELECCIONAR.equals(tramoDesc))
             {
@@ -216,7 +304,7 @@ public class Paso3GeneradorController
             }
 
             // Obtenemos las restricciones de tipo de horario de la asignatura
-            DiaTramoTipoHorario diaTramoTipoHorario = this.diaTramoTipoHorarioRepository.buscarPorDiaDescTramoDesc(diaDesc, tramoDesc) ;
+            DiaTramoTipoHorario diaTramoTipoHorario = this.diaTramoTipoHorarioService.buscarPorDiaDescTramoDesc(diaDesc, tramoDesc) ;
 
             if (!Constants.SIN_SELECCIONAR.equals(diaDesc) && !Constants.SIN_SELECCIONAR.equals(tramoDesc))
             {
@@ -406,22 +494,33 @@ public class Paso3GeneradorController
             // Realizamos una serie de validaciones previas 
             this.arrancarGeneradorValidacionesPrevias() ;
 
-            // Creamos un nuevo generador en la base de datos
+            // Configuramos el generador. Usamos la configuración devuelta, ya que se pueden lanzar otras generaciones a la vez
+            ConfiguracionGenerador configuracionGenerador = this.generadorConfigService.configurarGenerador() ;
+
+            // Antes de gastar hilos, comprobamos que con estas sesiones puede existir algún horario
+            this.arrancarGeneradorAnalisisFactibilidad(configuracionGenerador) ;
+
+            // Creamos un nuevo generador del curso académico activo en la base de datos
             Generador generador = new Generador() ;
+            generador.setCursoAcademico(this.cursoAcademicoResolver.resolver()) ;
             this.generadorRepository.saveAndFlush(generador) ;
 
-            // Configuramos el generador
-            this.generadorConfigService.configurarGenerador() ;
-
             // Obtenemos las sesiones
-            List<List<SesionBase>> listaDeListaSesiones = this.generadorConfigService.getCreadorSesiones().getListaDeListaSesiones();
+            List<List<SesionBase>> listaDeListaSesiones = configuracionGenerador.getCreadorSesiones().getListaDeListaSesiones();
 
             // Obtenemos los mapas de correlacionador de cursos
-            Map<String, Integer> mapCorrelacionadorCursosMatutinos = this.generadorConfigService.getMapCorrelacionadorCursosMatutinos() ;
-            Map<String, Integer> mapCorrelacionadorCursosVespertinos = this.generadorConfigService.getMapCorrelacionadorCursosVespertinos() ;
+            Map<String, Integer> mapCorrelacionadorCursosMatutinos = configuracionGenerador.getMapCorrelacionadorCursosMatutinos() ;
+            Map<String, Integer> mapCorrelacionadorCursosVespertinos = configuracionGenerador.getMapCorrelacionadorCursosVespertinos() ;
+
+            // Obtenemos el número de profesores que participan en la generación
+            int numeroProfesores = configuracionGenerador.getCreadorSesiones().getNumeroProfesores() ;
 
-            // Llamamos al método que lanza el thread del generador
-            this.generadorService.lanzarThreadGenerador(mapCorrelacionadorCursosMatutinos, mapCorrelacionadorCursosVespertinos, listaDeListaSesiones) ;
+            // Obtenemos el índice de los bloques de optativas
+            IndiceBloquesOptativas indiceBloquesOptativas = configuracionGenerador.getIndiceBloquesOptativas() ;
+
+            // Llamamos al método que lanza la generación, que arranca ya o espera en la cola del planificador
+            this.generadorService.lanzarThreadGenerador(generador, mapCorrelacionadorCursosMatutinos, mapCorrelacionadorCursosVespertinos,
+                                                        listaDeListaSesiones, numeroProfesores, indiceBloquesOptativas) ;
 
             // Devolvemos un OK
             return ResponseEntity.ok().build();
@@ -458,30 +557,252 @@ public class Paso3GeneradorController
         {
             throw new SchoolManagerServerException(Constants.ERROR_VALIDACIONES_DATOS_INCORRECTOS, validadorDatosDto.getErroresDatos().toString()) ;
         }
+    }
+
+    /**
+     * Método que comprueba que con las sesiones configuradas puede existir algún horario, para no lanzar
+     * un generador que buscaría indefinidamente
+     * @param configuracionGenerador - Configuración del generador
+     * @throws SchoolManagerServerException - Excepción personalizada con las entidades en conflicto
+     */
+    private void arrancarGeneradorAnalisisFactibilidad(ConfiguracionGenerador configuracionGenerador) throws SchoolManagerServerException
+    {
+        List<ErroresDatosDto> erroresFactibilidad = AnalizadorFactibilidadGenerador.analizar(configuracionGenerador.getCreadorSesiones().getListaDeListaSesiones()) ;
+
+        // Si hay conflictos, devolvemos un error
+        if (!erroresFactibilidad.isEmpty())
+        {
+            log.error("No puede existir ningún horario con los datos actuales: {}", erroresFactibilidad) ;
+            throw new SchoolManagerServerException(Constants.ERROR_CODE_GENERADOR_SIN_HORARIO_POSIBLE, erroresFactibilidad.toString()) ;
+        }
+    }
+
+    @PreAuthorize("hasRole('" + BaseConstants.ROLE_DIRECCION + "')")
+    @RequestMapping(method = RequestMethod.POST, value = "/reanudar")
+    public ResponseEntity<?> reanudarGenerador(@RequestHeader(value = "idGenerador", required = false) Integer idGenerador)
+    {
+        try
+        {
+            // Realizamos las mismas validaciones previas que al lanzar el generador
+            this.arrancarGeneradorValidacionesPrevias() ;
+
+            // Buscamos el generador interrumpido del curso académico activo
+            Generador generador = this.buscarGeneradorInterrumpido(idGenerador) ;
+
+            // Leemos su punto de control
+            GeneradorCheckpointDto generadorCheckpointDto = this.checkpointGeneradorService.leerCheckpoint(generador.getId()) ;
+
+            // Volvemos a crear las sesiones a partir de la BBDD
+            ConfiguracionGenerador configuracionGenerador = this.generadorConfigService.configurarGenerador() ;
+
+            // Los datos pueden haber cambiado desde que se interrumpió, así que volvemos a comprobar que puede existir algún horario
+            this.arrancarGeneradorAnalisisFactibilidad(configuracionGenerador) ;
 
-        // Validamos si ya hay un generador en curso
-        Optional<Generador> generadorEnCurso = this.generadorRepository.buscarGeneradorPorEstado(Constants.ESTADO_GENERADOR_EN_CURSO) ;
+            // El generador vuelve a estar en curso (el planificador lo pasará a en cola si tiene que esperar)
+            generador.setEstado(Constants.ESTADO_GENERADOR_EN_CURSO) ;
+            generador.setFechaFin(null) ;
+            this.generadorRepository.saveAndFlush(generador) ;
+
+            try
+            {
+                // Reanudamos la generación con el mismo generador
+                this.generadorService.reanudarThreadGenerador(generador,
+                                                              configuracionGenerador.getMapCorrelacionadorCursosMatutinos(),
+                                                              configuracionGenerador.getMapCorrelacionadorCursosVespertinos(),
+                                                              configuracionGenerador.getCreadorSesiones().getListaDeListaSesiones(),
+                                                              configuracionGenerador.getCreadorSesiones().getNumeroProfesores(),
+                                                              configuracionGenerador.getIndiceBloquesOptativas(),
+                                                              generadorCheckpointDto) ;
+            }
+            catch (SchoolManagerServerException schoolManagerServerException)
+            {
+                // No se ha podido reanudar, así que sigue interrumpido
+                generador.pararGenerador(Constants.ESTADO_GENERADOR_INTERRUMPIDO) ;
+                this.generadorRepository.saveAndFlush(generador) ;
+
+                throw schoolManagerServerException ;
+            }
 
-        if (generadorEnCurso.isPresent())
+            // Devolvemos un OK
+            return ResponseEntity.ok().build();
+        }
+        catch (SchoolManagerServerException schoolManagerServerException) 
         {
-            String mensajeError = "Hay un generador en curso que fue lanzado el " + generadorEnCurso.get().getFechaInicio() ;
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(schoolManagerServerException.getBodyExceptionMessage());
+        } 
+        catch (Exception exception) 
+        {
+            String mensajeError = "ERROR - No se pudo reanudar el generador";
+
+            // Logueamos el error
+            log.error(mensajeError, exception) ;
+
+            // Devolver la excepción personalizada con código genérico, el mensaje de error y la excepción general
+            SchoolManagerServerException schoolManagerServerException =  new SchoolManagerServerException(Constants.ERROR_GENERICO, mensajeError, exception);
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(schoolManagerServerException.getBodyExceptionMessage());
+        }
+    }
+
+    @PreAuthorize("hasRole('" + BaseConstants.ROLE_DIRECCION + "')")
+    @RequestMapping(method = RequestMethod.POST, value = "/repetir")
+    public ResponseEntity<?> repetirGenerador(@RequestHeader(value = "idGeneradorInstancia", required = false) Integer idGeneradorInstancia,
+                                              @RequestHeader(value = "semilla", required = false) Long semilla)
+    {
+        try
+        {
+            // Realizamos las mismas validaciones previas que al lanzar el generador
+            this.arrancarGeneradorValidacionesPrevias() ;
+
+            // Con una solución se relanza su generación con la misma semilla y configuración, para volver a obtenerla.
+            // Con una semilla suelta se busca la primera solución completa, lo que sirve para perfilar y comparar versiones
+            long semillaRepeticion       = 0L ;
+            Generador generadorRepetido  = null ;
+
+            if (idGeneradorInstancia != null)
+            {
+                GeneradorInstancia generadorInstancia = this.buscarGeneradorInstanciaConSemilla(idGeneradorInstancia) ;
+
+                semillaRepeticion = generadorInstancia.getSemilla() ;
+                generadorRepetido = generadorInstancia.getGenerador() ;
+            }
+            else if (semilla != null)
+            {
+                semillaRepeticion = semilla ;
+            }
+            else
+            {
+                String mensajeError = "Indica la solución (idGeneradorInstancia) o la semilla que se quiere repetir" ;
+
+                log.error(mensajeError) ;
+                throw new SchoolManagerServerException(Constants.ERROR_CODE_SEMILLA_GENERADOR_INCORRECTA, mensajeError) ;
+            }
+
+            // Configuramos el generador
+            ConfiguracionGenerador configuracionGenerador = this.generadorConfigService.configurarGenerador() ;
+
+            // Comprobamos que con estas sesiones puede existir algún horario
+            this.arrancarGeneradorAnalisisFactibilidad(configuracionGenerador) ;
+
+            // Creamos un nuevo generador del curso académico activo en la base de datos
+            Generador generador = new Generador() ;
+            generador.setCursoAcademico(this.cursoAcademicoResolver.resolver()) ;
+            this.generadorRepository.saveAndFlush(generador) ;
+
+            // Llamamos al método que repite la generación, que arranca ya o espera en la cola del planificador
+            this.generadorService.repetirThreadGenerador(generador,
+                                                         configuracionGenerador.getMapCorrelacionadorCursosMatutinos(),
+                                                         configuracionGenerador.getMapCorrelacionadorCursosVespertinos(),
+                                                         configuracionGenerador.getCreadorSesiones().getListaDeListaSesiones(),
+                                                         configuracionGenerador.getCreadorSesiones().getNumeroProfesores(),
+                                                         configuracionGenerador.getIndiceBloquesOptativas(),
+                                                         semillaRepeticion, generadorRepetido) ;
+
+            // Devolvemos un OK
+            return ResponseEntity.ok().build();
+        }
+        catch (SchoolManagerServerException schoolManagerServerException) 
+        {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(schoolManagerServerException.getBodyExceptionMessage());
+        } 
+        catch (Exception exception) 
+        {
+            String mensajeError = "ERROR - No se pudo repetir el generador";
+
+            // Logueamos el error
+            log.error(mensajeError, exception) ;
+
+            // Devolver la excepción personalizada con código genérico, el mensaje de error y la excepción general
+            SchoolManagerServerException schoolManagerServerException =  new SchoolManagerServerException(Constants.ERROR_GENERICO, mensajeError, exception);
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(schoolManagerServerException.getBodyExceptionMessage());
+        }
+    }
+
+    /**
+     * Método que busca la solución cuya semilla se quiere repetir
+     * @param idGeneradorInstancia - Identificador de la instancia del generador
+     * @return GeneradorInstancia - Instancia del generador con semilla
+     * @throws SchoolManagerServerException - Excepción personalizada
+     */
+    private GeneradorInstancia buscarGeneradorInstanciaConSemilla(int idGeneradorInstancia) throws SchoolManagerServerException
+    {
+        Optional<GeneradorInstancia> generadorInstanciaOptional = this.generadorInstanciaRepository.findById(idGeneradorInstancia) ;
+
+        if (!generadorInstanciaOptional.isPresent())
+        {
+            String mensajeError = "La instancia del generador con id " + idGeneradorInstancia + " no existe" ;
+
+            log.error(mensajeError) ;
+            throw new SchoolManagerServerException(Constants.ERROR_CODE_GENERADOR_INSTANCIA_NO_ENCONTRADA, mensajeError) ;
+        }
+
+        if (generadorInstanciaOptional.get().getSemilla() == null)
+        {
+            String mensajeError = "La instancia del generador con id " + idGeneradorInstancia + " se guardó sin semilla, así que no se puede repetir" ;
 
             log.error(mensajeError) ;
-            throw new SchoolManagerServerException(Constants.ERROR_CODE_GENERADOR_EN_CURSO, mensajeError) ;
+            throw new SchoolManagerServerException(Constants.ERROR_CODE_SEMILLA_GENERADOR_INCORRECTA, mensajeError) ;
         }
+
+        return generadorInstanciaOptional.get() ;
+    }
+
+    /**
+     * Método que busca el generador interrumpido que se quiere reanudar
+     * @param idGenerador - Identificador del generador (null para el último interrumpido del curso académico activo)
+     * @return Generador - Generador interrumpido
+     * @throws SchoolManagerServerException - Excepción personalizada
+     */
+    private Generador buscarGeneradorInterrumpido(Integer idGenerador) throws SchoolManagerServerException
+    {
+        String cursoAcademico = this.cursoAcademicoResolver.resolver() ;
+
+        Generador outcome = null ;
+
+        // Los generadores interrumpidos vienen ordenados del más reciente al más antiguo
+        for (Generador generador : this.generadorRepository.buscarGeneradoresPorEstado(Constants.ESTADO_GENERADOR_INTERRUMPIDO))
+        {
+            if (outcome == null && cursoAcademico.equals(generador.getCursoAcademico()) &&
+                (idGenerador == null || idGenerador.intValue() == generador.getId()))
+            {
+                outcome = generador ;
+            }
+        }
+
+        if (outcome == null)
+        {
+            String mensajeError = idGenerador == null ? "No hay un generador interrumpido en el curso académico " + cursoAcademico :
+                                                        "El generador " + idGenerador + " no está interrumpido en el curso académico " + cursoAcademico ;
+
+            log.error(mensajeError) ;
+            throw new SchoolManagerServerException(Constants.ERROR_CODE_NO_GENERADOR_INTERRUMPIDO, mensajeError) ;
+        }
+
+        return outcome ;
     }
 
     @PreAuthorize("hasRole('" + BaseConstants.ROLE_DIRECCION + "')")
     @RequestMapping(method = RequestMethod.POST, value = "/forzarDetencion")
-    public ResponseEntity<?> forzarDetencion()
+    public ResponseEntity<?> forzarDetencion(@RequestHeader(value = "idGenerador", required = false) Integer idGenerador)
     {
         try
         {
-            // Buscamos el generador
-            Optional<Generador> optionalGenerador = this.generadorRepository.buscarGeneradorPorEstado(Constants.ESTADO_GENERADOR_EN_CURSO) ;
+            boolean detenido = false ;
 
-            // Si no existe, lanzamos una excepción
-            if (!optionalGenerador.isPresent())
+            if (idGenerador != null)
+            {
+                // Detenemos solo esa generación, esté en cola o en curso
+                detenido = this.planificadorGeneradorService.detenerTrabajo(idGenerador) ;
+            }
+            else
+            {
+                // Detenemos todas las generaciones del curso académico activo
+                detenido = this.planificadorGeneradorService.detenerTrabajosCursoAcademico(this.cursoAcademicoResolver.resolver()) > 0 ;
+            }
+
+            // Si no había nada que detener, lanzamos una excepción
+            if (!detenido)
             {
                 String mensajeError = "No hay un generador en curso" ;
 
@@ -489,19 +810,54 @@ public class Paso3GeneradorController
                 throw new SchoolManagerServerException(Constants.ERROR_CODE_NO_GENERADOR_EN_CURSO, mensajeError) ;
             }
 
-            // Obtenemos el generador
-            Generador generador = optionalGenerador.get() ;
+            return ResponseEntity.ok().build();
+        }
+        catch (SchoolManagerServerException schoolManagerServerException)
+        {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(schoolManagerServerException.getBodyExceptionMessage());
+        }
+        catch (Exception exception)
+        {
+            String mensajeError = "ERROR - No se pudo forzar la detención del generador";
+
+            log.error(mensajeError, exception) ;
+
+            // Devolver la excepción personalizada con código genérico, el mensaje de error y la excepción general
+            SchoolManagerServerException schoolManagerServerException =  new SchoolManagerServerException(Constants.ERROR_GENERICO, mensajeError, exception);
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(schoolManagerServerException.getBodyExceptionMessage());
+        }
+    }
 
-            // Detenemos el generador, guardamos en la BBDD
-            generador.pararGenerador(Constants.ESTADO_GENERADOR_DETENIDO) ;
+    @PreAuthorize("hasRole('" + BaseConstants.ROLE_DIRECCION + "')")
+    @RequestMapping(method = RequestMethod.GET, value = "/trabajos")
+    public ResponseEntity<?> obtenerTrabajosGenerador()
+    {
+        try
+        {
+            List<GeneradorTrabajoDto> trabajos = new ArrayList<GeneradorTrabajoDto>() ;
 
-            // Guardamos el generador en la BBDD
-            this.generadorRepository.saveAndFlush(generador);
+            // Generaciones en cola y en curso del curso académico activo
+            for (TrabajoGenerador trabajoGenerador : this.planificadorGeneradorService.obtenerTrabajos(this.cursoAcademicoResolver.resolver()))
+            {
+                GeneradorTrabajoDto generadorTrabajoDto = new GeneradorTrabajoDto() ;
 
-            // Forzamos la detención del hilo del generador
-            this.generadorService.forzarDetencionThreadGenerador() ;
+                generadorTrabajoDto.setIdGenerador(trabajoGenerador.getIdGenerador()) ;
+                generadorTrabajoDto.setCursoAcademico(trabajoGenerador.getCursoAcademico()) ;
+                generadorTrabajoDto.setEstado(trabajoGenerador.getEstado()) ;
+                generadorTrabajoDto.setNumeroHilos(trabajoGenerador.getNumeroHilos()) ;
+                generadorTrabajoDto.setFechaLanzamiento(trabajoGenerador.getFechaLanzamiento()) ;
+                generadorTrabajoDto.setSemilla(trabajoGenerador.getSemilla()) ;
 
-            return ResponseEntity.ok().build();
+                if (trabajoGenerador.getControlHilosGenerador() != null)
+                {
+                    generadorTrabajoDto.setEstadisticas(trabajoGenerador.getControlHilosGenerador().getEstadisticasGenerador().obtenerEstadisticas()) ;
+                }
+
+                trabajos.add(generadorTrabajoDto) ;
+            }
+
+            return ResponseEntity.ok(trabajos) ;
         }
         catch (SchoolManagerServerException schoolManagerServerException)
         {
@@ -509,7 +865,7 @@ public class Paso3GeneradorController
         }
         catch (Exception exception)
         {
-            String mensajeError = "ERROR - No se pudo forzar la detención del generador";
+            String mensajeError = "ERROR - No se pudieron obtener los trabajos del generador";
 
             log.error(mensajeError, exception) ;
 
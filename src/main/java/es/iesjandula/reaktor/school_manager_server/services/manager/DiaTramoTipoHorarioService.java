@@ -1,7 +1,7 @@
 package es.iesjandula.reaktor.school_manager_server.services.manager;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -9,6 +9,7 @@ import org.springframework.stereotype.Service;
 import es.iesjandula.reaktor.school_manager_server.dtos.DiaDto;
 import es.iesjandula.reaktor.school_manager_server.dtos.TramoDto;
 import es.iesjandula.reaktor.school_manager_server.models.DiaTramoTipoHorario;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.IndiceDiasTramosTipoHorario;
 import es.iesjandula.reaktor.school_manager_server.repositories.IDiaTramoTipoHorarioRepository;
 import es.iesjandula.reaktor.school_manager_server.utils.Constants;
 import es.iesjandula.reaktor.school_manager_server.utils.SchoolManagerServerException;
@@ -21,6 +22,18 @@ public class DiaTramoTipoHorarioService
     @Autowired
     private IDiaTramoTipoHorarioRepository diaTramoTipoHorarioRepository ;
 
+    /** Índice en memoria de la tabla DiaTramoTipoHorario. Se sustituye entero cada vez que se recarga */
+    private volatile IndiceDiasTramosTipoHorario indiceDiasTramosTipoHorario = new IndiceDiasTramosTipoHorario(new ArrayList<DiaTramoTipoHorario>()) ;
+
+    /**
+     * Método que construye el índice en memoria de los días y tramos de tipo horario a partir de la BBDD.
+     * Se debe llamar al arrancar y cada vez que se carguen de nuevo desde el CSV
+     */
+    public void recargarIndiceDiasTramosTipoHorario()
+    {
+        this.indiceDiasTramosTipoHorario = new IndiceDiasTramosTipoHorario(this.diaTramoTipoHorarioRepository.findAll()) ;
+    }
+
     /**
      * Método que obtiene un día y tramo de tipo horario
      * @param dia - Día
@@ -31,11 +44,11 @@ public class DiaTramoTipoHorarioService
      */
     public DiaTramoTipoHorario obtenerDiaTramoTipoHorario(int dia, int tramo, Boolean horarioMatutino) throws SchoolManagerServerException
     {
-        // Buscamos DiasTramosHorarios por IdDiasTramosTipoHorario
-        Optional<DiaTramoTipoHorario> diasTramosTipoHorarioOptional = this.diaTramoTipoHorarioRepository.findByDiaAndTramoAndHorarioMatutino(dia, tramo, horarioMatutino) ;
+        // Buscamos el día y tramo de tipo horario en el índice en memoria
+        DiaTramoTipoHorario diaTramoTipoHorario = this.indiceDiasTramosTipoHorario.obtenerDiaTramoTipoHorario(dia, tramo, horarioMatutino) ;
 
         // Si no existe, lanzamos una excepción
-        if (!diasTramosTipoHorarioOptional.isPresent())
+        if (diaTramoTipoHorario == null)
         {
             String mensajeError = "El día " + dia + " y el tramo " + tramo + " no existe" ;
 
@@ -43,7 +56,18 @@ public class DiaTramoTipoHorarioService
             throw new SchoolManagerServerException(Constants.DIA_TRAMO_NO_ENCONTRADO, mensajeError) ;
         }   
 
-        return diasTramosTipoHorarioOptional.get() ;
+        return diaTramoTipoHorario ;
+    }
+
+    /**
+     * Método que busca un día y tramo de tipo horario por la descripción del día y del tramo
+     * @param diaDesc - Descripción del día
+     * @param tramoDesc - Descripción del tramo
+     * @return - Día y tramo de tipo horario, o null si no existe
+     */
+    public DiaTramoTipoHorario buscarPorDiaDescTramoDesc(String diaDesc, String tramoDesc)
+    {
+        return this.indiceDiasTramosTipoHorario.buscarPorDiaDescTramoDesc(diaDesc, tramoDesc) ;
     }
 
     /**
@@ -53,11 +77,11 @@ public class DiaTramoTipoHorarioService
      */
     public List<String> obtenerDiasSemana() throws SchoolManagerServerException
     {
-        // Devolvemos una lista de los días de la semana (distinct) de la BBDD
-        Optional<List<DiaDto>> diasTramosTipoHorarioListOptional = this.diaTramoTipoHorarioRepository.obtenerDiasSemana() ;
+        // Obtenemos los días de la semana (distinct) del índice en memoria
+        List<DiaDto> diasSemana = this.indiceDiasTramosTipoHorario.getDiasSemana() ;
 
         // Si no existe, lanzamos una excepción
-        if (!diasTramosTipoHorarioListOptional.isPresent())
+        if (diasSemana.isEmpty())
         {
             String mensajeError = "No se han encontrado días de la semana" ;
             log.error(mensajeError) ;
@@ -65,7 +89,7 @@ public class DiaTramoTipoHorarioService
         }
 
         // Extrae solo los valores de texto de los DTOs y mantiene el orden
-        return diasTramosTipoHorarioListOptional.get().stream()
+        return diasSemana.stream()
                 .sorted((d1, d2) -> Integer.compare(d1.getDia(), d2.getDia()))
                 .map(DiaDto::getDiaDesc)
                 .toList();
@@ -78,11 +102,11 @@ public class DiaTramoTipoHorarioService
      */
     public List<String> obtenerTramosHorarios() throws SchoolManagerServerException
     {
-        // Devolvemos una lista de los tramos horarios (distinct) de la BBDD
-        Optional<List<TramoDto>> tramosHorariosListOptional = this.diaTramoTipoHorarioRepository.obtenerTramosHorarios() ;
+        // Obtenemos los tramos horarios (distinct) del índice en memoria
+        List<TramoDto> tramosHorarios = this.indiceDiasTramosTipoHorario.getTramosHorarios() ;
 
         // Si no existe, lanzamos una excepción
-        if (!tramosHorariosListOptional.isPresent())
+        if (tramosHorarios.isEmpty())
         {
             String mensajeError = "No se han encontrado tramos horarios" ;
             log.error(mensajeError) ;
@@ -90,7 +114,7 @@ public class DiaTramoTipoHorarioService
         }
 
         // Extrae solo los valores de texto de los DTOs y ordena por hora
-        return tramosHorariosListOptional.get().stream()
+        return tramosHorarios.stream()
                 .sorted((t1, t2) -> compararHoras(t1.getTramoDesc(), t2.getTramoDesc()))
                 .map(TramoDto::getTramoDesc)
                 .toList();
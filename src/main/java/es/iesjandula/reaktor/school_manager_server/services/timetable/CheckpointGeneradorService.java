@@ -0,0 +1,180 @@
+package es.iesjandula.reaktor.school_manager_server.services.timetable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorCheckpointDto;
+import es.iesjandula.reaktor.school_manager_server.generator.checkpoint.CheckpointGeneradorUtils;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.ControlHilosGenerador;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.SolucionGenerador;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.TrabajoGenerador;
+import es.iesjandula.reaktor.school_manager_server.models.Generador;
+import es.iesjandula.reaktor.school_manager_server.repositories.generador.IGeneradorRepository;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
+import es.iesjandula.reaktor.school_manager_server.utils.SchoolManagerServerException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Puntos de control de los trabajos del generador en curso, guardados como un fichero JSON por generador.
+ * <p>Al arrancar el servidor, los generadores que seguían en curso o en cola en BBDD han perdido sus hilos, así que se marcan
+ * como interrumpidos. Los que tengan punto de control se pueden reanudar desde él en lugar de empezar de cero.</p>
+ */
+@Slf4j
+@Service
+public class CheckpointGeneradorService
+{
+    @Autowired
+    private IGeneradorRepository generadorRepository ;
+
+    /** Carpeta donde se guardan los puntos de control */
+    @Value("${" + Constants.PARAM_YAML_GENERADOR_CHECKPOINT_DIRECTORIO + ":" + Constants.VALOR_GENERADOR_CHECKPOINT_DIRECTORIO + "}")
+    private String directorio ;
+
+    /** Conversor de los puntos de control a JSON */
+    private final ObjectMapper objectMapper = new ObjectMapper() ;
+
+    /**
+     * Marca como interrumpidos los generadores que quedaron en curso o en cola en la anterior ejecución del servidor
+     */
+    @PostConstruct
+    public void marcarGeneradoresInterrumpidos()
+    {
+        this.marcarGeneradoresInterrumpidos(this.generadorRepository.buscarGeneradoresPorEstado(Constants.ESTADO_GENERADOR_EN_CURSO)) ;
+        this.marcarGeneradoresInterrumpidos(this.generadorRepository.buscarGeneradoresPorEstado(Constants.ESTADO_GENERADOR_EN_COLA)) ;
+    }
+
+    /**
+     * Guarda el punto de control de un trabajo en curso. Un error al guardarlo no detiene el trabajo
+     *
+     * @param trabajoGenerador trabajo en curso
+     */
+    public void guardarCheckpoint(TrabajoGenerador trabajoGenerador)
+    {
+        ControlHilosGenerador controlHilosGenerador = trabajoGenerador.getControlHilosGenerador() ;
+
+        if (controlHilosGenerador != null)
+        {
+            GeneradorCheckpointDto generadorCheckpointDto = new GeneradorCheckpointDto() ;
+
+            generadorCheckpointDto.setIdGenerador(trabajoGenerador.getIdGenerador()) ;
+            generadorCheckpointDto.setCursoAcademico(trabajoGenerador.getCursoAcademico()) ;
+            generadorCheckpointDto.setModo(trabajoGenerador.getModo()) ;
+            generadorCheckpointDto.setNumeroHilos(trabajoGenerador.getNumeroHilos()) ;
+            generadorCheckpointDto.setSegundosRestantes(controlHilosGenerador.obtenerSegundosRestantes()) ;
+            generadorCheckpointDto.setNumeroMejoresSoluciones(trabajoGenerador.getNumeroMejoresSoluciones()) ;
+            generadorCheckpointDto.setHuellaProblema(trabajoGenerador.getHuellaProblema()) ;
+            generadorCheckpointDto.setEstadisticas(controlHilosGenerador.getEstadisticasGenerador().obtenerEstadisticas()) ;
+            generadorCheckpointDto.setFechaCheckpoint(new Date()) ;
+
+            // Las mejores soluciones solo se quedan en memoria en el modo de optimización por tiempo. En el otro modo, la solución ya está en BBDD
+            if (controlHilosGenerador.isOptimizacionPorTiempo())
+            {
+                for (SolucionGenerador solucionGenerador : controlHilosGenerador.getMejoresSoluciones().obtenerSoluciones())
+                {
+                    generadorCheckpointDto.getSoluciones().add(CheckpointGeneradorUtils.exportarSolucion(solucionGenerador)) ;
+                }
+            }
+
+            try
+            {
+                Path ficheroCheckpoint = this.obtenerFicheroCheckpoint(trabajoGenerador.getIdGenerador()) ;
+                Files.createDirectories(ficheroCheckpoint.getParent()) ;
+
+                // Escribimos primero en un fichero temporal para no dejar a medias el punto de control anterior si el servidor se para ahora
+                Path ficheroTemporal = ficheroCheckpoint.resolveSibling(ficheroCheckpoint.getFileName() + ".tmp") ;
+                this.objectMapper.writeValue(ficheroTemporal.toFile(), generadorCheckpointDto) ;
+
+                Files.move(ficheroTemporal, ficheroCheckpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE) ;
+
+                log.debug("Punto de control del generador {} guardado con {} soluciones", trabajoGenerador.getIdGenerador(), generadorCheckpointDto.getSoluciones().size()) ;
+            }
+            catch (IOException ioException)
+            {
+                log.error("ERROR - No se pudo guardar el punto de control del generador " + trabajoGenerador.getIdGenerador(), ioException) ;
+            }
+        }
+    }
+
+    /**
+     * @param idGenerador identificador del generador
+     * @return punto de control del generador
+     * @throws SchoolManagerServerException si no existe o no se puede leer
+     */
+    public GeneradorCheckpointDto leerCheckpoint(int idGenerador) throws SchoolManagerServerException
+    {
+        Path ficheroCheckpoint = this.obtenerFicheroCheckpoint(idGenerador) ;
+
+        if (!Files.exists(ficheroCheckpoint))
+        {
+            String mensajeError = "El generador " + idGenerador + " no tiene punto de control desde el que reanudar" ;
+
+            log.error(mensajeError) ;
+            throw new SchoolManagerServerException(Constants.ERROR_CODE_CHECKPOINT_GENERADOR_INCORRECTO, mensajeError) ;
+        }
+
+        try
+        {
+            return this.objectMapper.readValue(ficheroCheckpoint.toFile(), GeneradorCheckpointDto.class) ;
+        }
+        catch (IOException ioException)
+        {
+            String mensajeError = "ERROR - No se pudo leer el punto de control del generador " + idGenerador ;
+
+            log.error(mensajeError, ioException) ;
+            throw new SchoolManagerServerException(Constants.ERROR_CODE_CHECKPOINT_GENERADOR_INCORRECTO, mensajeError, ioException) ;
+        }
+    }
+
+    /**
+     * Borra el punto de control de un generador que ha terminado o se ha detenido
+     *
+     * @param idGenerador identificador del generador
+     */
+    public void borrarCheckpoint(int idGenerador)
+    {
+        try
+        {
+            Files.deleteIfExists(this.obtenerFicheroCheckpoint(idGenerador)) ;
+        }
+        catch (IOException ioException)
+        {
+            log.error("ERROR - No se pudo borrar el punto de control del generador " + idGenerador, ioException) ;
+        }
+    }
+
+    /**
+     * @param generadores generadores que seguían en curso o en cola en BBDD al arrancar el servidor
+     */
+    private void marcarGeneradoresInterrumpidos(List<Generador> generadores)
+    {
+        for (Generador generador : generadores)
+        {
+            generador.pararGenerador(Constants.ESTADO_GENERADOR_INTERRUMPIDO) ;
+            this.generadorRepository.saveAndFlush(generador) ;
+
+            log.warn("Generador {} del curso académico {} interrumpido por la parada del servidor ({})", generador.getId(), generador.getCursoAcademico(),
+                     Files.exists(this.obtenerFicheroCheckpoint(generador.getId())) ? "se puede reanudar desde su punto de control" : "sin punto de control") ;
+        }
+    }
+
+    /**
+     * @param idGenerador identificador del generador
+     * @return fichero del punto de control del generador
+     */
+    private Path obtenerFicheroCheckpoint(int idGenerador)
+    {
+        return Paths.get(this.directorio, "generador_" + idGenerador + ".json") ;
+    }
+}
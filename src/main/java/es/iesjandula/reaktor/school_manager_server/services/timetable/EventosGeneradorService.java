@@ -0,0 +1,250 @@
+package es.iesjandula.reaktor.school_manager_server.services.timetable;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorEventoDto;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.ControlHilosGenerador;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.IEventosGenerador;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.TrabajoGenerador;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bus de eventos en memoria de los trabajos del generador, que los reparte entre los clientes suscritos a su curso académico
+ * mediante Server-Sent Events.
+ * <p>Quien publica un evento solo lo deja en la cola de un único hilo repartidor, de forma que ni los hilos del generador ni el
+ * planificador esperan a la red. Cada evento se construye una vez y se envía a todos los suscriptores sin consultar la BBDD.</p>
+ * <p>Las suscripciones caducan pasado un tiempo y el cliente reconecta, recibiendo de nuevo el estado actual de los trabajos.
+ * Mientras tanto, el latido periódico descubre a los clientes que se han desconectado sin cerrar la conexión.</p>
+ */
+@Slf4j
+@Service
+public class EventosGeneradorService implements IEventosGenerador
+{
+    /** Milisegundos que dura una suscripción antes de que el cliente tenga que reconectar */
+    @Value("${" + Constants.PARAM_YAML_GENERADOR_EVENTOS_MILISEGUNDOS_SUSCRIPCION + ":" + Constants.VALOR_GENERADOR_EVENTOS_MILISEGUNDOS_SUSCRIPCION + "}")
+    private long milisegundosSuscripcion ;
+
+    /** Clientes suscritos por curso académico */
+    private final Map<String, List<SseEmitter>> suscriptoresPorCursoAcademico = new ConcurrentHashMap<String, List<SseEmitter>>() ;
+
+    /** Trabajos en cola o en curso de los que se han publicado eventos, por el identificador de su generador */
+    private final Map<Integer, TrabajoGenerador> trabajosPorIdGenerador = new ConcurrentHashMap<Integer, TrabajoGenerador>() ;
+
+    /** Hilo que envía los eventos a los suscriptores, en el mismo orden en el que se publican */
+    private final ExecutorService repartidorEventos = Executors.newSingleThreadExecutor(runnable ->
+                                                      {
+                                                          Thread thread = new Thread(runnable, "generador-eventos") ;
+                                                          thread.setDaemon(true) ;
+                                                          return thread ;
+                                                      }) ;
+
+    /**
+     * Suscribe un cliente a los eventos de los trabajos de un curso académico
+     *
+     * @param cursoAcademico curso académico
+     * @param eventosIniciales eventos con el estado actual de los trabajos del curso académico, que solo recibe este cliente
+     * @return emisor de los eventos, que caduca pasados los milisegundos de la suscripción
+     */
+    public SseEmitter suscribir(String cursoAcademico, List<GeneradorEventoDto> eventosIniciales)
+    {
+        SseEmitter sseEmitter = new SseEmitter(this.milisegundosSuscripcion) ;
+
+        // Lo añadimos dentro de compute para que no se pierda si a la vez se quita la lista vacía del curso académico
+        this.suscriptoresPorCursoAcademico.compute(cursoAcademico, (clave, suscriptores) ->
+        {
+            List<SseEmitter> outcome = suscriptores != null ? suscriptores : new CopyOnWriteArrayList<SseEmitter>() ;
+            outcome.add(sseEmitter) ;
+            return outcome ;
+        }) ;
+
+        // Al terminar, caducar o fallar la conexión, el cliente deja de recibir eventos. Al caducar cerramos la respuesta
+        // para que el cliente reconecte en lugar de recibir un error
+        sseEmitter.onCompletion(() -> this.desuscribir(cursoAcademico, sseEmitter)) ;
+        sseEmitter.onTimeout(() ->
+        {
+            this.desuscribir(cursoAcademico, sseEmitter) ;
+            sseEmitter.complete() ;
+        }) ;
+        sseEmitter.onError(throwable -> this.desuscribir(cursoAcademico, sseEmitter)) ;
+
+        for (GeneradorEventoDto generadorEventoDto : eventosIniciales)
+        {
+            this.repartidorEventos.execute(() -> this.enviar(sseEmitter, cursoAcademico, SseEmitter.event().name(generadorEventoDto.getTipo())
+                                                                                                              .data(generadorEventoDto, MediaType.APPLICATION_JSON))) ;
+        }
+
+        return sseEmitter ;
+    }
+
+    /**
+     * @return true si hay algún cliente suscrito
+     */
+    public boolean haySuscriptores()
+    {
+        boolean outcome = false ;
+
+        for (List<SseEmitter> suscriptores : this.suscriptoresPorCursoAcademico.values())
+        {
+            outcome = outcome || !suscriptores.isEmpty() ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * Envía un comentario SSE a todos los suscriptores, que el cliente ignora. Mantiene viva la conexión en los proxies
+     * y, si el cliente ya no está, el envío falla y deja de estar suscrito
+     */
+    public void enviarLatido()
+    {
+        if (!this.repartidorEventos.isShutdown())
+        {
+            this.repartidorEventos.execute(() ->
+            {
+                for (Map.Entry<String, List<SseEmitter>> entry : this.suscriptoresPorCursoAcademico.entrySet())
+                {
+                    for (SseEmitter sseEmitter : entry.getValue())
+                    {
+                        this.enviar(sseEmitter, entry.getKey(), SseEmitter.event().comment(Constants.EVENTO_GENERADOR_LATIDO)) ;
+                    }
+                }
+            }) ;
+        }
+    }
+
+    /**
+     * Publica un evento de un trabajo
+     *
+     * @param tipo tipo de evento
+     * @param trabajoGenerador trabajo del generador
+     * @param estado estado del trabajo al producirse el evento
+     */
+    public void publicar(String tipo, TrabajoGenerador trabajoGenerador, String estado)
+    {
+        // Recordamos el trabajo mientras no termine, para completar los eventos de sus hilos
+        if (Constants.EVENTO_GENERADOR_TERMINADO.equals(tipo))
+        {
+            this.trabajosPorIdGenerador.remove(trabajoGenerador.getIdGenerador()) ;
+        }
+        else
+        {
+            this.trabajosPorIdGenerador.put(trabajoGenerador.getIdGenerador(), trabajoGenerador) ;
+        }
+
+        this.publicar(this.crearEvento(tipo, trabajoGenerador, estado, null)) ;
+    }
+
+    @Override
+    public void solucionEncontrada(int idGenerador, int puntuacion)
+    {
+        TrabajoGenerador trabajoGenerador = this.trabajosPorIdGenerador.get(idGenerador) ;
+
+        if (trabajoGenerador != null)
+        {
+            this.publicar(this.crearEvento(Constants.EVENTO_GENERADOR_SOLUCION, trabajoGenerador, trabajoGenerador.getEstado(), puntuacion)) ;
+        }
+    }
+
+    /**
+     * @param tipo tipo de evento
+     * @param trabajoGenerador trabajo del generador
+     * @param estado estado del trabajo al producirse el evento
+     * @param puntuacion puntuación de la solución encontrada (null si no es un evento de solución)
+     * @return evento con una foto de los contadores de la búsqueda del trabajo en este momento
+     */
+    public GeneradorEventoDto crearEvento(String tipo, TrabajoGenerador trabajoGenerador, String estado, Integer puntuacion)
+    {
+        ControlHilosGenerador controlHilosGenerador = trabajoGenerador.getControlHilosGenerador() ;
+
+        return new GeneradorEventoDto(tipo, trabajoGenerador.getIdGenerador(), trabajoGenerador.getCursoAcademico(), estado, puntuacion,
+                                      controlHilosGenerador != null ? controlHilosGenerador.getEstadisticasGenerador().obtenerEstadisticas() : null,
+                                      new Date()) ;
+    }
+
+    /**
+     * Cierra las suscripciones al parar el servidor
+     */
+    @PreDestroy
+    public void detenerEventos()
+    {
+        this.repartidorEventos.shutdown() ;
+
+        for (List<SseEmitter> suscriptores : this.suscriptoresPorCursoAcademico.values())
+        {
+            for (SseEmitter sseEmitter : suscriptores)
+            {
+                sseEmitter.complete() ;
+            }
+        }
+    }
+
+    /**
+     * @param generadorEventoDto evento a repartir entre los suscriptores de su curso académico
+     */
+    private void publicar(GeneradorEventoDto generadorEventoDto)
+    {
+        List<SseEmitter> suscriptores = this.suscriptoresPorCursoAcademico.get(generadorEventoDto.getCursoAcademico()) ;
+
+        if (suscriptores != null && !suscriptores.isEmpty() && !this.repartidorEventos.isShutdown())
+        {
+            this.repartidorEventos.execute(() ->
+            {
+                for (SseEmitter sseEmitter : suscriptores)
+                {
+                    this.enviar(sseEmitter, generadorEventoDto.getCursoAcademico(), SseEmitter.event().name(generadorEventoDto.getTipo())
+                                                                                                      .data(generadorEventoDto, MediaType.APPLICATION_JSON)) ;
+                }
+            }) ;
+        }
+    }
+
+    /**
+     * Envía un evento a un suscriptor. Si ya no está conectado, deja de estar suscrito
+     *
+     * @param sseEmitter emisor del suscriptor
+     * @param cursoAcademico curso académico al que está suscrito
+     * @param sseEventBuilder evento
+     */
+    private void enviar(SseEmitter sseEmitter, String cursoAcademico, SseEmitter.SseEventBuilder sseEventBuilder)
+    {
+        try
+        {
+            sseEmitter.send(sseEventBuilder) ;
+        }
+        catch (IOException | IllegalStateException exception)
+        {
+            log.debug("Suscriptor a los eventos del generador desconectado: {}", exception.getMessage()) ;
+
+            this.desuscribir(cursoAcademico, sseEmitter) ;
+        }
+    }
+
+    /**
+     * Quita un suscriptor y, si era el último de su curso académico, también la lista del curso académico
+     *
+     * @param cursoAcademico curso académico al que está suscrito
+     * @param sseEmitter emisor del suscriptor
+     */
+    private void desuscribir(String cursoAcademico, SseEmitter sseEmitter)
+    {
+        this.suscriptoresPorCursoAcademico.computeIfPresent(cursoAcademico, (clave, suscriptores) ->
+        {
+            suscriptores.remove(sseEmitter) ;
+            return suscriptores.isEmpty() ? null : suscriptores ;
+        }) ;
+    }
+}
@@ -1,22 +1,45 @@
 package es.iesjandula.reaktor.school_manager_server.services.timetable;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 import lombok.extern.slf4j.Slf4j;
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorCheckpointDto;
+import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorCheckpointSolucionDto;
 import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorInfoDto;
 import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorInstanciaDto;
 import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorInstanciaSolucionInfoGeneralDto;
 import es.iesjandula.reaktor.school_manager_server.dtos.generador.GeneradorInstanciaSolucionInfoProfesorDto;
 import es.iesjandula.reaktor.school_manager_server.generator.Horario;
-import es.iesjandula.reaktor.school_manager_server.generator.threads.HorarioThread;
+import es.iesjandula.reaktor.school_manager_server.generator.checkpoint.CheckpointGeneradorUtils;
+import es.iesjandula.reaktor.school_manager_server.generator.sesiones.IndiceBloquesOptativas;
+import es.iesjandula.reaktor.school_manager_server.generator.puntuacion.CalculadorPuntuacion;
+import es.iesjandula.reaktor.school_manager_server.generator.puntuacion.PuntuacionHorario;
+import es.iesjandula.reaktor.school_manager_server.generator.puntuacion.PuntuacionHorarioInfo;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.ControlHilosGenerador;
 import es.iesjandula.reaktor.school_manager_server.generator.threads.HorarioThreadParams;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.SolucionGenerador;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.TrabajoGenerador;
 import es.iesjandula.reaktor.school_manager_server.models.Constantes;
 import es.iesjandula.reaktor.school_manager_server.models.CursoEtapaGrupo;
 import es.iesjandula.reaktor.school_manager_server.models.DiaTramoTipoHorario;
@@ -27,13 +50,13 @@ import es.iesjandula.reaktor.school_manager_server.models.GeneradorInstancia;
 import es.iesjandula.reaktor.school_manager_server.models.GeneradorInstanciaSolucionInfoGeneral;
 import es.iesjandula.reaktor.school_manager_server.models.GeneradorInstanciaSolucionInfoProfesor;
 import es.iesjandula.reaktor.school_manager_server.models.Impartir;
-import es.iesjandula.reaktor.school_manager_server.models.PreferenciasHorariasProfesor;
 import es.iesjandula.reaktor.school_manager_server.models.Profesor;
+import es.iesjandula.reaktor.school_manager_server.models.ids.IdAsignatura;
+import es.iesjandula.reaktor.school_manager_server.models.ids.IdCursoEtapaGrupo;
 import es.iesjandula.reaktor.school_manager_server.models.ids.IdGeneradorAsignadaImpartir;
 import es.iesjandula.reaktor.school_manager_server.models.ids.IdGeneradorAsignadaReduccion;
 import es.iesjandula.reaktor.school_manager_server.models.ids.IdGeneradorInstanciaSolucionInfoGeneral;
 import es.iesjandula.reaktor.school_manager_server.models.ids.IdGeneradorInstanciaSolucionInfoProfesor;
-import es.iesjandula.reaktor.school_manager_server.models.no_jpa.Asignacion;
 import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionAsignatura;
 import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
 import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionReduccion;
@@ -45,7 +68,7 @@ import es.iesjandula.reaktor.school_manager_server.repositories.generador.IGener
 import es.iesjandula.reaktor.school_manager_server.repositories.generador.IGeneradorInstanciaSolucionInfoGeneral;
 import es.iesjandula.reaktor.school_manager_server.repositories.generador.IGeneradorInstanciaSolucionInfoProfesor;
 import es.iesjandula.reaktor.school_manager_server.repositories.generador.IGeneradorRepository;
-import es.iesjandula.reaktor.school_manager_server.services.manager.AsignaturaService;
+import es.iesjandula.reaktor.school_manager_server.services.manager.CursoAcademicoResolver;
 import es.iesjandula.reaktor.school_manager_server.services.manager.DiaTramoTipoHorarioService;
 import es.iesjandula.reaktor.school_manager_server.utils.Constants;
 import es.iesjandula.reaktor.school_manager_server.utils.SchoolManagerServerException;
@@ -75,32 +98,92 @@ public class GeneradorService
     @Autowired
     private IConstantesRepository constantesRepository ;
 
-    @Autowired
-    private AsignaturaService asignaturaService ;
-
     @Autowired
     private DiaTramoTipoHorarioService diaTramoTipoHorarioService ;
 
     @Autowired
     private IImpartirRepository impartirRepository ;
 
-    /** Referencia al hilo del generador */
-    private HorarioThread horarioThread ;
+    @Autowired
+    private CursoAcademicoResolver cursoAcademicoResolver ;
+
+    @PersistenceContext
+    private EntityManager entityManager ;
+
+    /** Este mismo servicio a través del proxy de Spring, para que los hilos guarden las soluciones dentro de una transacción */
+    @Lazy
+    @Autowired
+    private GeneradorService generadorServiceTransaccional ;
+
+    /** Número de hilos del generador que buscan soluciones en paralelo (0 o menos para usar todos los procesadores) */
+    @Value("${" + Constants.PARAM_YAML_GENERADOR_NUMERO_HILOS + ":" + Constants.VALOR_GENERADOR_NUMERO_HILOS + "}")
+    private int numeroHilos ;
+
+    /** Estrategia de búsqueda de los hilos del generador ante un callejón sin salida */
+    @Value("${" + Constants.PARAM_YAML_GENERADOR_ESTRATEGIA_BUSQUEDA + ":" + Constants.VALOR_GENERADOR_ESTRATEGIA_BUSQUEDA + "}")
+    private String estrategiaBusqueda ;
+
+    /** Número máximo de saltos atrás en un mismo intento antes de comenzar de nuevo */
+    @Value("${" + Constants.PARAM_YAML_GENERADOR_MAXIMO_SALTOS_ATRAS + ":" + Constants.VALOR_GENERADOR_MAXIMO_SALTOS_ATRAS + "}")
+    private int maximoSaltosAtras ;
+
+    /** Modo del generador: primera solución que supera el umbral u optimización por tiempo */
+    @Value("${" + Constants.PARAM_YAML_GENERADOR_MODO + ":" + Constants.VALOR_GENERADOR_MODO + "}")
+    private String modo ;
+
+    /** Segundos que dura la búsqueda en el modo de optimización por tiempo */
+    @Value("${" + Constants.PARAM_YAML_GENERADOR_SEGUNDOS_OPTIMIZACION + ":" + Constants.VALOR_GENERADOR_SEGUNDOS_OPTIMIZACION + "}")
+    private long segundosOptimizacion ;
+
+    /** Número de mejores soluciones que se guardan en el modo de optimización por tiempo */
+    @Value("${" + Constants.PARAM_YAML_GENERADOR_NUMERO_MEJORES_SOLUCIONES + ":" + Constants.VALOR_GENERADOR_NUMERO_MEJORES_SOLUCIONES + "}")
+    private int numeroMejoresSoluciones ;
+
+    /** Búsqueda local que mejora cada solución encontrada antes de puntuarla */
+    @Value("${" + Constants.PARAM_YAML_GENERADOR_BUSQUEDA_LOCAL + ":" + Constants.VALOR_GENERADOR_BUSQUEDA_LOCAL + "}")
+    private String busquedaLocal ;
+
+    /** Número de movimientos que prueba la búsqueda local en cada matriz de asignaciones */
+    @Value("${" + Constants.PARAM_YAML_GENERADOR_ITERACIONES_BUSQUEDA_LOCAL + ":" + Constants.VALOR_GENERADOR_ITERACIONES_BUSQUEDA_LOCAL + "}")
+    private int iteracionesBusquedaLocal ;
+
+    /** Orden en el que los hilos eligen las sesiones pendientes de asignar */
+    @Value("${" + Constants.PARAM_YAML_GENERADOR_ORDEN_SESIONES + ":" + Constants.VALOR_GENERADOR_ORDEN_SESIONES + "}")
+    private String ordenSesiones ;
+
+    /** True si los hilos comprueban hacia delante los dominios de las sesiones pendientes tras cada asignación */
+    @Value("${" + Constants.PARAM_YAML_GENERADOR_PROPAGACION_RESTRICCIONES + ":" + Constants.VALOR_GENERADOR_PROPAGACION_RESTRICCIONES + "}")
+    private boolean propagacionRestricciones ;
+
+    /** Planificador de los trabajos del generador, que pueden estar en curso a la vez */
+    @Autowired
+    private PlanificadorGeneradorService planificadorGeneradorService ;
+
+    /** Bus de eventos del generador, al que los hilos notifican las soluciones que encuentran */
+    @Autowired
+    private EventosGeneradorService eventosGeneradorService ;
+
+    /** Resumen de las soluciones de cada curso académico, junto con la generación en la que se empezó a construir */
+    private final Map<String, ResumenSoluciones> resumenSoluciones = new ConcurrentHashMap<String, ResumenSoluciones>() ;
+
+    /** Generación del resumen de las soluciones, que se incrementa al añadir, seleccionar o eliminar alguna */
+    private final AtomicLong generacionResumenSoluciones = new AtomicLong() ;
 
     /**
      * Método que crea una instancia de GeneradorInstancia
+     * @param idGenerador - Identificador del generador al que pertenece la instancia
      * @return GeneradorInstancia - Instancia de GeneradorInstancia
      * @throws SchoolManagerServerException con un error
      */
-    public GeneradorInstancia crearGeneradorInstancia() throws SchoolManagerServerException
+    public GeneradorInstancia crearGeneradorInstancia(int idGenerador) throws SchoolManagerServerException
     {
-        // Obtenemos el generador en curso
-        Optional<Generador> optionalGenerador = this.generadorRepository.buscarGeneradorPorEstado(Constants.ESTADO_GENERADOR_EN_CURSO) ;
+        // Obtenemos el generador del trabajo
+        Optional<Generador> optionalGenerador = this.generadorRepository.findById(idGenerador) ;
 
-        // Si no hay generador en curso, lanzamos una excepción
+        // Si no existe el generador, lanzamos una excepción
         if (!optionalGenerador.isPresent())
         {
-            String mensajeError = "ERROR - No hay generador en curso" ; 
+            String mensajeError = "ERROR - No existe el generador " + idGenerador ; 
 
             log.error(mensajeError) ;
             throw new SchoolManagerServerException(Constants.ERROR_GENERICO, mensajeError, null);
@@ -123,35 +206,340 @@ public class GeneradorService
     }
 
     /**
-     * Método que lanza el thread del generador
+     * Método que lanza una generación como un nuevo trabajo del planificador, que arranca en cuanto haya núcleos libres
+     * @param generador - Generador en BBDD de la generación, con su curso académico
      * @throws SchoolManagerServerException con un error
      */
-    public void lanzarThreadGenerador(Map<String, Integer> mapCorrelacionadorCursosMatutinos, 
+    public void lanzarThreadGenerador(Generador generador,
+                                      Map<String, Integer> mapCorrelacionadorCursosMatutinos, 
                                       Map<String, Integer> mapCorrelacionadorCursosVespertinos, 
-                                      List<List<SesionBase>> listaDeListaSesiones) throws SchoolManagerServerException
+                                      List<List<SesionBase>> listaDeListaSesiones,
+                                      int numeroProfesores,
+                                      IndiceBloquesOptativas indiceBloquesOptativas) throws SchoolManagerServerException
     {
-        // Obtenemos el umbral mínimo de soluciones
-        int umbralMinimoSolucion = this.obtenerUmbralMinimoSolucion() ;
+        // Guardamos en el generador la semilla, el umbral mínimo de solución y la configuración de la generación, con los que se puede repetir
+        generador.setSemilla(this.generarSemilla()) ;
+        generador.setUmbralMinimoSolucion(this.obtenerUmbralMinimoSolucion(generador.getCursoAcademico())) ;
+        generador.setModo(this.modo) ;
+        generador.setNumeroHilos(this.obtenerNumeroHilos()) ;
+        generador.setSegundosOptimizacion(this.segundosOptimizacion) ;
+        generador.setNumeroMejoresSoluciones(this.numeroMejoresSoluciones) ;
+        this.generadorRepository.saveAndFlush(generador) ;
+
+        TrabajoGenerador trabajoGenerador = this.crearTrabajoGenerador(generador, mapCorrelacionadorCursosMatutinos, mapCorrelacionadorCursosVespertinos,
+                                                                       listaDeListaSesiones, numeroProfesores, indiceBloquesOptativas,
+                                                                       generador.getModo(), generador.getSegundosOptimizacion(), generador.getNumeroMejoresSoluciones(),
+                                                                       CheckpointGeneradorUtils.calcularHuellaProblema(listaDeListaSesiones), generador.getNumeroHilos()) ;
+
+        // Entregamos el trabajo al planificador, que lo arranca ya o lo deja en cola
+        this.planificadorGeneradorService.lanzarTrabajo(trabajoGenerador) ;
+    }
 
-        HorarioThreadParams horarioThreadParams = 
+    /**
+     * Método que repite una generación con una semilla conocida, como un nuevo trabajo del planificador. Si la semilla es la de un
+     * hilo de la generación que se repite, se relanza esa generación con su semilla, su número de hilos, su modo y su umbral mínimo
+     * de solución, así que cada hilo recorre los mismos intentos que entonces, siempre que los datos y la configuración del generador
+     * no hayan cambiado. Si no, se busca la primera solución con un único hilo y la semilla indicada, sin umbral.
+     * <p>Las soluciones de la repetición se guardan sin seleccionarlas, para no cambiar el horario elegido del curso académico.</p>
+     * @param generador - Generador en BBDD de la repetición, con su curso académico
+     * @param semilla - Semilla del hilo que se repite
+     * @param generadorRepetido - Generador de la solución que se repite (null si se repite una semilla suelta)
+     * @throws SchoolManagerServerException con un error
+     */
+    public void repetirThreadGenerador(Generador generador,
+                                       Map<String, Integer> mapCorrelacionadorCursosMatutinos, 
+                                       Map<String, Integer> mapCorrelacionadorCursosVespertinos, 
+                                       List<List<SesionBase>> listaDeListaSesiones,
+                                       int numeroProfesores,
+                                       IndiceBloquesOptativas indiceBloquesOptativas,
+                                       long semilla,
+                                       Generador generadorRepetido) throws SchoolManagerServerException
+    {
+        // Por defecto, un único hilo con la propia semilla hasta la primera solución completa
+        generador.setRepeticion(true) ;
+        generador.setSemilla(semilla) ;
+        generador.setUmbralMinimoSolucion(0) ;
+        generador.setModo(Constants.MODO_GENERADOR_PRIMERA_SOLUCION) ;
+        generador.setNumeroHilos(1) ;
+        generador.setSegundosOptimizacion(0L) ;
+        generador.setNumeroMejoresSoluciones(0) ;
+
+        if (generadorRepetido != null)
+        {
+            this.repetirThreadGeneradorConfiguracion(generador, semilla, generadorRepetido) ;
+        }
+        this.generadorRepository.saveAndFlush(generador) ;
+
+        log.info("Repitiendo la semilla {} con el umbral mínimo de solución {} en el generador {}", generador.getSemilla(), generador.getUmbralMinimoSolucion(), generador.getId()) ;
+
+        TrabajoGenerador trabajoGenerador = this.crearTrabajoGenerador(generador, mapCorrelacionadorCursosMatutinos, mapCorrelacionadorCursosVespertinos,
+                                                                       listaDeListaSesiones, numeroProfesores, indiceBloquesOptativas,
+                                                                       generador.getModo(), generador.getSegundosOptimizacion(), generador.getNumeroMejoresSoluciones(),
+                                                                       CheckpointGeneradorUtils.calcularHuellaProblema(listaDeListaSesiones), generador.getNumeroHilos()) ;
+
+        // Entregamos el trabajo al planificador, que lo arranca ya o lo deja en cola
+        this.planificadorGeneradorService.lanzarTrabajo(trabajoGenerador) ;
+    }
+
+    /**
+     * Método que copia en la repetición el umbral mínimo de solución y, si la semilla es la de uno de sus hilos, la semilla y la
+     * configuración de la generación que se repite. Una generación reanudada cambió de semilla, así que las semillas de sus
+     * soluciones anteriores al punto de control se repiten con un único hilo
+     * @param generador - Generador en BBDD de la repetición
+     * @param semilla - Semilla del hilo que se repite
+     * @param generadorRepetido - Generador de la solución que se repite
+     */
+    private void repetirThreadGeneradorConfiguracion(Generador generador, long semilla, Generador generadorRepetido)
+    {
+        if (generadorRepetido.getUmbralMinimoSolucion() != null)
+        {
+            generador.setUmbralMinimoSolucion(generadorRepetido.getUmbralMinimoSolucion()) ;
+        }
+
+        // Las generaciones anteriores al registro de su configuración no se pueden relanzar enteras
+        if (generadorRepetido.getSemilla() != null && generadorRepetido.getModo() != null && generadorRepetido.getNumeroHilos() != null)
+        {
+            long numeroHilo = semilla - generadorRepetido.getSemilla() ;
+
+            if (numeroHilo >= 0 && numeroHilo < generadorRepetido.getNumeroHilos())
+            {
+                generador.setSemilla(generadorRepetido.getSemilla()) ;
+                generador.setModo(generadorRepetido.getModo()) ;
+                generador.setNumeroHilos(generadorRepetido.getNumeroHilos()) ;
+                generador.setSegundosOptimizacion(generadorRepetido.getSegundosOptimizacion() != null ? generadorRepetido.getSegundosOptimizacion() : 0L) ;
+                generador.setNumeroMejoresSoluciones(generadorRepetido.getNumeroMejoresSoluciones() != null ? generadorRepetido.getNumeroMejoresSoluciones() : 0) ;
+
+                // Un trabajo con más hilos que núcleos no arrancaría nunca
+                int maximoNucleos = this.planificadorGeneradorService.obtenerMaximoNucleos() ;
+
+                if (generador.getNumeroHilos() > maximoNucleos)
+                {
+                    log.warn("La generación {} usó {} hilos y el planificador solo tiene {} núcleos: la repetición usará {} hilos y puede no encontrar la misma solución",
+                             generadorRepetido.getId(), generador.getNumeroHilos(), maximoNucleos, maximoNucleos) ;
+
+                    generador.setNumeroHilos(maximoNucleos) ;
+                }
+            }
+        }
+    }
+
+    /**
+     * Método que reanuda una generación interrumpida desde su punto de control, como un nuevo trabajo del planificador
+     * con el mismo generador. Las sesiones se han creado de nuevo a partir de la BBDD
+     * @param generador - Generador interrumpido en BBDD
+     * @param generadorCheckpointDto - Punto de control del generador
+     * @throws SchoolManagerServerException si los datos han cambiado desde el punto de control o con un error
+     */
+    public void reanudarThreadGenerador(Generador generador,
+                                        Map<String, Integer> mapCorrelacionadorCursosMatutinos, 
+                                        Map<String, Integer> mapCorrelacionadorCursosVespertinos, 
+                                        List<List<SesionBase>> listaDeListaSesiones,
+                                        int numeroProfesores,
+                                        IndiceBloquesOptativas indiceBloquesOptativas,
+                                        GeneradorCheckpointDto generadorCheckpointDto) throws SchoolManagerServerException
+    {
+        // Si las sesiones no son las mismas, las soluciones del punto de control no tienen sentido con los datos actuales
+        String huellaProblema = CheckpointGeneradorUtils.calcularHuellaProblema(listaDeListaSesiones) ;
+
+        if (!huellaProblema.equals(generadorCheckpointDto.getHuellaProblema()))
+        {
+            String mensajeError = "Los datos del generador " + generador.getId() + " han cambiado desde su punto de control. Lanza una nueva generación" ;
+
+            log.error(mensajeError) ;
+            throw new SchoolManagerServerException(Constants.ERROR_CODE_CHECKPOINT_GENERADOR_INCORRECTO, mensajeError) ;
+        }
+
+        // Volvemos a crear las mejores soluciones con las nuevas sesiones y las puntuamos de nuevo
+        CalculadorPuntuacion calculadorPuntuacion = new CalculadorPuntuacion() ;
+        List<SolucionGenerador> solucionesReanudadas = new ArrayList<SolucionGenerador>() ;
+
+        for (GeneradorCheckpointSolucionDto generadorCheckpointSolucionDto : generadorCheckpointDto.getSoluciones())
+        {
+            Horario horario = CheckpointGeneradorUtils.importarSolucion(generadorCheckpointSolucionDto, listaDeListaSesiones,
+                                                                        mapCorrelacionadorCursosMatutinos.size(), mapCorrelacionadorCursosVespertinos.size()) ;
+
+            if (horario != null)
+            {
+                PuntuacionHorario puntuacionHorario = calculadorPuntuacion.calcularPuntuacion(horario) ;
+                horario.setPuntuacion(puntuacionHorario.getPuntuacionTotal()) ;
+
+                solucionesReanudadas.add(new SolucionGenerador(horario, puntuacionHorario, generadorCheckpointSolucionDto.getSemilla())) ;
+            }
+        }
+
+        log.info("Reanudando el generador {} desde su punto de control del {}: {} de {} soluciones recuperadas y {} segundos de búsqueda restantes",
+                 generador.getId(), generadorCheckpointDto.getFechaCheckpoint(), solucionesReanudadas.size(), generadorCheckpointDto.getSoluciones().size(),
+                 generadorCheckpointDto.getSegundosRestantes()) ;
+
+        // Con la misma semilla se repetirían los intentos ya hechos antes del punto de control, así que se continúa con otra
+        generador.setSemilla(this.generarSemilla()) ;
+        if (generador.getUmbralMinimoSolucion() == null)
+        {
+            generador.setUmbralMinimoSolucion(this.obtenerUmbralMinimoSolucion(generador.getCursoAcademico())) ;
+        }
+        generador.setModo(generadorCheckpointDto.getModo()) ;
+        generador.setNumeroHilos(this.obtenerNumeroHilos()) ;
+        generador.setSegundosOptimizacion(generadorCheckpointDto.getSegundosRestantes()) ;
+        generador.setNumeroMejoresSoluciones(generadorCheckpointDto.getNumeroMejoresSoluciones()) ;
+        this.generadorRepository.saveAndFlush(generador) ;
+
+        TrabajoGenerador trabajoGenerador = this.crearTrabajoGenerador(generador, mapCorrelacionadorCursosMatutinos, mapCorrelacionadorCursosVespertinos,
+                                                                       listaDeListaSesiones, numeroProfesores, indiceBloquesOptativas,
+                                                                       generador.getModo(), generador.getSegundosOptimizacion(),
+                                                                       generador.getNumeroMejoresSoluciones(), huellaProblema, generador.getNumeroHilos()) ;
+
+        trabajoGenerador.reanudarDesde(solucionesReanudadas, generadorCheckpointDto.getEstadisticas()) ;
+
+        // Entregamos el trabajo al planificador, que lo arranca ya o lo deja en cola
+        this.planificadorGeneradorService.lanzarTrabajo(trabajoGenerador) ;
+    }
+
+    /**
+     * Método que crea el trabajo del planificador de una generación
+     * @param generador - Generador en BBDD de la generación, con su curso académico, su semilla y su umbral mínimo de solución
+     * @param modoGenerador - Modo del generador
+     * @param segundosOptimizacionGenerador - Segundos que dura la búsqueda en el modo de optimización por tiempo
+     * @param numeroMejoresSolucionesGenerador - Número de mejores soluciones que se guardan en el modo de optimización por tiempo
+     * @param huellaProblema - Huella de las sesiones de la generación
+     * @param numeroHilosGenerador - Número de hilos que se lanzarán en paralelo
+     * @return Trabajo del planificador
+     */
+    private TrabajoGenerador crearTrabajoGenerador(Generador generador,
+                                                   Map<String, Integer> mapCorrelacionadorCursosMatutinos, 
+                                                   Map<String, Integer> mapCorrelacionadorCursosVespertinos, 
+                                                   List<List<SesionBase>> listaDeListaSesiones,
+                                                   int numeroProfesores,
+                                                   IndiceBloquesOptativas indiceBloquesOptativas,
+                                                   String modoGenerador,
+                                                   long segundosOptimizacionGenerador,
+                                                   int numeroMejoresSolucionesGenerador,
+                                                   String huellaProblema,
+                                                   int numeroHilosGenerador)
+    {
+        String cursoAcademico = generador.getCursoAcademico() ;
+
+        // Precargamos lo necesario para guardar las soluciones sin consultar la BBDD por cada sesión asignada.
+        // Lo guarda el propio trabajo, así que se libera con él y no lo ve ninguna otra generación
+        Map<String, Impartir> mapImpartir = this.precargarDatosGuardadoSoluciones(cursoAcademico) ;
+
+        // El estado compartido por los hilos lo crea el trabajo al arrancar
+        HorarioThreadParams.Builder horarioThreadParamsBuilder = 
                               new HorarioThreadParams.Builder()
-                                                     .setGeneradorService(this)
+                                                     .setGeneradorService(this.generadorServiceTransaccional)
                                                      .setMapCorrelacionadorCursosMatutinos(mapCorrelacionadorCursosMatutinos)
                                                      .setMapCorrelacionadorCursosVespertinos(mapCorrelacionadorCursosVespertinos)
-                                                     .setAsignaturaService(this.asignaturaService)
-                                                     .setUmbralMinimoSolucion(umbralMinimoSolucion)
-                                                     .build() ;
+                                                     .setIndiceBloquesOptativas(indiceBloquesOptativas)
+                                                     .setUmbralMinimoSolucion(generador.getUmbralMinimoSolucion())
+                                                     .setNumeroProfesores(numeroProfesores)
+                                                     .setEstrategiaBusqueda(this.estrategiaBusqueda)
+                                                     .setMaximoSaltosAtras(this.maximoSaltosAtras)
+                                                     .setBusquedaLocal(this.busquedaLocal)
+                                                     .setIteracionesBusquedaLocal(this.iteracionesBusquedaLocal)
+                                                     .setOrdenSesiones(this.ordenSesiones)
+                                                     .setPropagacionRestricciones(this.propagacionRestricciones)
+                                                     .setEventosGenerador(this.eventosGeneradorService) ;
+
+        log.info("Lanzando el generador {} del curso académico {} con {} hilos en paralelo, estrategia de búsqueda {}, orden de sesiones {}, búsqueda local {} y semilla {}",
+                 generador.getId(), cursoAcademico, numeroHilosGenerador, this.estrategiaBusqueda, this.ordenSesiones, this.busquedaLocal, generador.getSemilla()) ;
+
+        if (Constants.MODO_GENERADOR_OPTIMIZACION_POR_TIEMPO.equals(modoGenerador))
+        {
+            log.info("Modo de optimización por tiempo: se buscará durante {} segundos y se guardarán las {} mejores soluciones",
+                     segundosOptimizacionGenerador, numeroMejoresSolucionesGenerador) ;
+        }
 
-        // Lanzamos el generador
-        this.horarioThread = new HorarioThread(horarioThreadParams, listaDeListaSesiones) ;
-        this.horarioThread.start() ;
+        return new TrabajoGenerador(generador.getId(), cursoAcademico, numeroHilosGenerador,
+                                    horarioThreadParamsBuilder, listaDeListaSesiones,
+                                    modoGenerador, segundosOptimizacionGenerador, numeroMejoresSolucionesGenerador, huellaProblema,
+                                    generador.getSemilla(), mapImpartir) ;
+    }
+
+    /**
+     * Método que genera la semilla de una nueva generación
+     * @return Semilla de la generación
+     */
+    private long generarSemilla()
+    {
+        return new SplittableRandom().nextLong() ;
+    }
+
+    /**
+     * Método que precarga los Impartir del curso académico
+     * @param cursoAcademico - Curso académico de la generación
+     * @return Impartir del curso académico por asignatura, curso, etapa, grupo y profesor
+     */
+    private Map<String, Impartir> precargarDatosGuardadoSoluciones(String cursoAcademico)
+    {
+        Map<String, Impartir> mapImpartirPrecargados = new HashMap<String, Impartir>() ;
+        for (Impartir impartir : this.impartirRepository.buscarImpartirPorCursoAcademico(cursoAcademico))
+        {
+            mapImpartirPrecargados.putIfAbsent(this.obtenerClaveImpartir(impartir.getAsignatura().getIdAsignatura(), impartir.getProfesor().getEmail()), impartir) ;
+        }
+
+        return mapImpartirPrecargados ;
+    }
+
+    /**
+     * Método que obtiene los Impartir precargados por el trabajo de una generación
+     * @param idGenerador - Identificador del generador del trabajo
+     * @return Impartir del curso académico del trabajo por asignatura, curso, etapa, grupo y profesor
+     * @throws SchoolManagerServerException si el trabajo ya no está en el planificador
+     */
+    private Map<String, Impartir> obtenerImpartirPrecargados(int idGenerador) throws SchoolManagerServerException
+    {
+        TrabajoGenerador trabajoGenerador = this.planificadorGeneradorService.obtenerTrabajo(idGenerador) ;
+
+        if (trabajoGenerador == null)
+        {
+            String mensajeError = "ERROR - El generador " + idGenerador + " no tiene ningún trabajo en el planificador" ;
+
+            log.error(mensajeError) ;
+            throw new SchoolManagerServerException(Constants.ERROR_GENERICO, mensajeError, null) ;
+        }
+
+        return trabajoGenerador.getMapImpartir() ;
+    }
+
+    /**
+     * Método que obtiene la clave de un Impartir en el mapa de Impartir precargados
+     * @param idAsignatura - Id de la asignatura
+     * @param email - Email del profesor
+     * @return Clave del Impartir
+     */
+    private String obtenerClaveImpartir(IdAsignatura idAsignatura, String email)
+    {
+        IdCursoEtapaGrupo idCursoEtapaGrupo = idAsignatura.getCursoEtapaGrupo().getIdCursoEtapaGrupo() ;
+
+        return idAsignatura.getNombre() + "|" + idCursoEtapaGrupo.getCursoAcademico() + "|" + idCursoEtapaGrupo.getCurso() + "|" +
+               idCursoEtapaGrupo.getEtapa() + "|" + idCursoEtapaGrupo.getGrupo() + "|" + email ;
+    }
+
+    /**
+     * Método que obtiene el número de hilos que se lanzarán en paralelo
+     * @return Número de hilos del generador
+     */
+    private int obtenerNumeroHilos()
+    {
+        int numeroHilosGenerador = this.numeroHilos ;
+
+        // Un trabajo no puede usar más núcleos que todos los trabajos juntos
+        int maximoNucleos = this.planificadorGeneradorService.obtenerMaximoNucleos() ;
+
+        // Si no se ha configurado un número válido, usamos todos los núcleos del planificador
+        if (numeroHilosGenerador <= 0 || numeroHilosGenerador > maximoNucleos)
+        {
+            numeroHilosGenerador = maximoNucleos ;
+        }
+
+        return numeroHilosGenerador ;
     }
 
     /**
      * Método que obtiene el umbral mínimo de soluciones
+     * @param cursoAcademico - Curso académico de la generación
      * @return Umbral mínimo de soluciones
      */
-    private int obtenerUmbralMinimoSolucion()
+    private int obtenerUmbralMinimoSolucion(String cursoAcademico)
     {
         int umbralMinimoSolucion = 0 ;
 
@@ -163,8 +551,8 @@ public class GeneradorService
             umbralMinimoSolucion = Integer.parseInt(optionalUmbralMinimoSolucion.get().getValor()) ;
         }
 
-        // Obtenemos el umbral mínimo de soluciones de BBDD
-        Optional<Integer> optionalMaximaPuntuacionSolucion = this.generadorInstanciaRepository.buscarMaximaPuntuacionSolucion() ;
+        // Obtenemos el umbral mínimo de soluciones de BBDD, solo con las soluciones del curso académico
+        Optional<Integer> optionalMaximaPuntuacionSolucion = this.generadorInstanciaRepository.buscarMaximaPuntuacionSolucionPorCursoAcademico(cursoAcademico) ;
 
         // Si hay umbral mínimo de soluciones, lo asignamos
         if (optionalMaximaPuntuacionSolucion.isPresent() && optionalMaximaPuntuacionSolucion.get() > umbralMinimoSolucion)
@@ -189,8 +577,8 @@ public class GeneradorService
             generadorInstancia.pararGeneradorInstancia(Constants.ESTADO_GENERADOR_FINALIZADO, puntuacionObtenida, mensajeInformacion) ;
             this.generadorInstanciaRepository.saveAndFlush(generadorInstancia) ;
 
-            // Seleccionamos la solución
-            this.seleccionarSolucionInternal(generadorInstancia) ;
+            // Seleccionamos la solución, salvo si es de una repetición
+            this.seleccionarSolucionNueva(generadorInstancia) ;
 
             // Actualizamos el Generador con el estado a finalizado
             Generador generador = generadorInstancia.getGenerador() ;
@@ -206,13 +594,82 @@ public class GeneradorService
     }
 
     /**
-     * Método que forza la detención del hilo del generador
+     * Método que guarda una solución en una única transacción: crea la instancia del generador, guarda el horario
+     * y el desglose de su puntuación y da por finalizado el generador. Si algo falla, no queda nada guardado
+     * @param idGenerador - Identificador del generador del trabajo que encontró la solución
+     * @param horario - Horario
+     * @param puntuacionHorario - Puntuación del horario calculada en memoria
+     * @param semilla - Semilla del hilo que encontró la solución
+     * @return GeneradorInstancia - Instancia del generador creada para la solución
+     * @throws SchoolManagerServerException - Excepción personalizada
+     */
+    @Transactional(rollbackFor = SchoolManagerServerException.class)
+    public GeneradorInstancia guardarSolucion(int idGenerador, Horario horario, PuntuacionHorario puntuacionHorario, Long semilla) throws SchoolManagerServerException
+    {
+        // Obtenemos los Impartir precargados por el trabajo antes de escribir nada en BBDD
+        Map<String, Impartir> mapImpartir = this.obtenerImpartirPrecargados(idGenerador) ;
+
+        // Creamos la instancia del generador en la base de datos, con la semilla del hilo que encontró la solución
+        GeneradorInstancia generadorInstancia = this.crearGeneradorInstancia(idGenerador) ;
+        generadorInstancia.setSemilla(semilla) ;
+
+        // Guardamos el horario y el desglose de su puntuación
+        this.guardarHorariosEnGeneradorSesionAsignada(generadorInstancia, horario, mapImpartir) ;
+        this.guardarPuntuacion(generadorInstancia, puntuacionHorario) ;
+
+        // Actualizamos el GeneradorInstancia y el Generador en BBDD
+        this.actualizarGeneradorYgeneradorInstancia(generadorInstancia, Constants.MENSAJE_SOLUCION_ENCONTRADA, horario.getPuntuacion()) ;
+
+        return generadorInstancia ;
+    }
+
+    /**
+     * Método que guarda en una única transacción las mejores soluciones encontradas en el modo de optimización por tiempo.
+     * Se selecciona la mejor de ellas y se da por finalizado el generador, aunque no se haya encontrado ninguna
+     * @param idGenerador - Identificador del generador del trabajo que encontró las soluciones
+     * @param soluciones - Soluciones encontradas, de la mejor a la peor
+     * @throws SchoolManagerServerException - Excepción personalizada
      */
-    public void forzarDetencionThreadGenerador()
+    @Transactional(rollbackFor = SchoolManagerServerException.class)
+    public void guardarMejoresSoluciones(int idGenerador, List<SolucionGenerador> soluciones) throws SchoolManagerServerException
     {
-        if (this.horarioThread != null)
+        GeneradorInstancia mejorGeneradorInstancia = null ;
+        Map<String, Impartir> mapImpartir          = this.obtenerImpartirPrecargados(idGenerador) ;
+
+        for (SolucionGenerador solucionGenerador : soluciones)
+        {
+            // Creamos la instancia del generador en la base de datos, con la semilla del hilo que encontró la solución
+            GeneradorInstancia generadorInstancia = this.crearGeneradorInstancia(idGenerador) ;
+            generadorInstancia.setSemilla(solucionGenerador.getSemilla()) ;
+
+            // Guardamos el horario y el desglose de su puntuación
+            this.guardarHorariosEnGeneradorSesionAsignada(generadorInstancia, solucionGenerador.getHorario(), mapImpartir) ;
+            this.guardarPuntuacion(generadorInstancia, solucionGenerador.getPuntuacionHorario()) ;
+
+            // Finalizamos la instancia con su puntuación
+            generadorInstancia.pararGeneradorInstancia(Constants.ESTADO_GENERADOR_FINALIZADO, solucionGenerador.getHorario().getPuntuacion(), Constants.MENSAJE_SOLUCION_ENCONTRADA) ;
+            this.generadorInstanciaRepository.saveAndFlush(generadorInstancia) ;
+
+            // La primera es la mejor solución
+            if (mejorGeneradorInstancia == null)
+            {
+                mejorGeneradorInstancia = generadorInstancia ;
+            }
+        }
+
+        // Seleccionamos la mejor solución, salvo si es de una repetición
+        if (mejorGeneradorInstancia != null)
+        {
+            this.seleccionarSolucionNueva(mejorGeneradorInstancia) ;
+        }
+
+        // Actualizamos el Generador con el estado a finalizado
+        Optional<Generador> optionalGenerador = this.generadorRepository.findById(idGenerador) ;
+        if (optionalGenerador.isPresent())
         {
-            this.horarioThread.forzarDetencion() ;
+            Generador generador = optionalGenerador.get() ;
+            generador.pararGenerador(Constants.ESTADO_GENERADOR_FINALIZADO) ;
+            this.generadorRepository.saveAndFlush(generador) ;
         }
     }
 
@@ -220,20 +677,24 @@ public class GeneradorService
      * Método que guarda los horarios en la tabla de asignación de sesiones
      * @param generadorInstancia - Generador instancia
      * @param horario - Horario
+     * @param mapImpartir - Impartir precargados por el trabajo de la generación
      * @throws SchoolManagerServerException - Excepción personalizada
      */
-    public void guardarHorariosEnGeneradorSesionAsignada(GeneradorInstancia generadorInstancia, Horario horario) throws SchoolManagerServerException  
+    private void guardarHorariosEnGeneradorSesionAsignada(GeneradorInstancia generadorInstancia, Horario horario, Map<String, Impartir> mapImpartir) throws SchoolManagerServerException  
     {
+        // Sesiones asignadas que insertaremos en lote al terminar de recorrer las matrices
+        SesionesAsignadasPendientes sesionesAsignadasPendientes = new SesionesAsignadasPendientes(mapImpartir) ;
+
         // Si hay horario matutino, recorremos la matriz de asignaciones matutinas para insertar las sesiones asignadas
         if (horario.getMatrizAsignacionesMatutinas() != null)
         {
-            for (int i = 0; i < horario.getMatrizAsignacionesMatutinas().length; i++)
+            for (int i = 0; i < horario.getMatrizAsignacionesMatutinas().getNumeroCursosDias(); i++)
             {
-                for (int j = 0; j < horario.getMatrizAsignacionesMatutinas()[i].length; j++)
+                for (int j = 0; j < Constants.NUMERO_TRAMOS_HORARIOS; j++)
                 {
-                    if (horario.getMatrizAsignacionesMatutinas()[i][j] != null)
+                    if (!horario.getMatrizAsignacionesMatutinas().celdaVacia(i, j))
                     {
-                        this.actualizarGeneradorSesionAsignadaInternal(horario.getMatrizAsignacionesMatutinas()[i][j], i, j, true, generadorInstancia) ;
+                        this.actualizarGeneradorSesionAsignadaInternal(horario.getMatrizAsignacionesMatutinas().obtenerSesiones(i, j), i, j, true, generadorInstancia, sesionesAsignadasPendientes) ;
                     }
                 }
             }   
@@ -242,28 +703,44 @@ public class GeneradorService
         // Si hay horario vespertino, recorremos la matriz de asignaciones vespertinas para insertar las sesiones asignadas
         if (horario.getMatrizAsignacionesVespertinas() != null)
         {
-            for (int i = 0; i < horario.getMatrizAsignacionesVespertinas().length; i++)
+            for (int i = 0; i < horario.getMatrizAsignacionesVespertinas().getNumeroCursosDias(); i++)
             {
-                for (int j = 0; j < horario.getMatrizAsignacionesVespertinas()[i].length; j++)
+                for (int j = 0; j < Constants.NUMERO_TRAMOS_HORARIOS; j++)
                 {
-                    if (horario.getMatrizAsignacionesVespertinas()[i][j] != null)
+                    if (!horario.getMatrizAsignacionesVespertinas().celdaVacia(i, j))
                     {
-                        this.actualizarGeneradorSesionAsignadaInternal(horario.getMatrizAsignacionesVespertinas()[i][j], i, j, false, generadorInstancia) ;
+                        this.actualizarGeneradorSesionAsignadaInternal(horario.getMatrizAsignacionesVespertinas().obtenerSesiones(i, j), i, j, false, generadorInstancia, sesionesAsignadasPendientes) ;
                     }
                 }
             }
         }
+
+        // Insertamos todas las sesiones asignadas de una vez. Usamos persist en lugar de save porque los ids ya vienen
+        // asignados y save haría un SELECT previo por cada fila. Hibernate agrupa los INSERT en lotes (jdbc.batch_size)
+        for (GeneradorAsignadaImpartir generadorAsignadaImpartir : sesionesAsignadasPendientes.generadorAsignadasImpartir)
+        {
+            this.entityManager.persist(generadorAsignadaImpartir) ;
+        }
+
+        for (GeneradorAsignadaReduccion generadorAsignadaReduccion : sesionesAsignadasPendientes.generadorAsignadasReduccion)
+        {
+            this.entityManager.persist(generadorAsignadaReduccion) ;
+        }
+
+        this.entityManager.flush() ;
     }
 
     /**
      * Método que guarda un horario
-     * @param asignacion - Asignación
+     * @param listaSesiones - Sesiones de la celda
      * @param i - Día
      * @param tramo - Tramo
      * @param horarioMatutino - True si es horario matutino, false si es horario vespertino
      * @param generadorInstancia - Generador instancia
+     * @param sesionesAsignadasPendientes - Sesiones asignadas pendientes de insertar
      */
-    private void actualizarGeneradorSesionAsignadaInternal(Asignacion asignacion, int i, int tramo, boolean horarioMatutino, GeneradorInstancia generadorInstancia) throws SchoolManagerServerException
+    private void actualizarGeneradorSesionAsignadaInternal(List<SesionBase> listaSesiones, int i, int tramo, boolean horarioMatutino, GeneradorInstancia generadorInstancia,
+                                                           SesionesAsignadasPendientes sesionesAsignadasPendientes) throws SchoolManagerServerException
     {
         // Aplicamos el módulo 5 al día
         int dia = i % Constants.NUMERO_DIAS_SEMANA ;
@@ -271,16 +748,16 @@ public class GeneradorService
         // Obtenemos el día y tramo de tipo horario
         DiaTramoTipoHorario diaTramoTipoHorario = this.diaTramoTipoHorarioService.obtenerDiaTramoTipoHorario(dia, tramo, horarioMatutino) ;
 
-        // Iteramos por cada sesión de la asignación
-        for (SesionBase sesion : asignacion.getListaSesiones())
+        // Iteramos por cada sesión de la celda
+        for (SesionBase sesion : listaSesiones)
         {
             if (sesion instanceof SesionAsignatura)
             {
-                this.actualizarGeneradorSesionAsignadaInternalAsignatura(generadorInstancia, diaTramoTipoHorario, (SesionAsignatura) sesion) ;
+                this.actualizarGeneradorSesionAsignadaInternalAsignatura(generadorInstancia, diaTramoTipoHorario, (SesionAsignatura) sesion, sesionesAsignadasPendientes) ;
             }
             else // Si es una sesión de reducción
             {
-                this.actualizarGeneradorSesionAsignadaInternalReduccion(generadorInstancia, diaTramoTipoHorario, (SesionReduccion) sesion) ;
+                this.actualizarGeneradorSesionAsignadaInternalReduccion(generadorInstancia, diaTramoTipoHorario, (SesionReduccion) sesion, sesionesAsignadasPendientes) ;
             }
 
         }
@@ -291,30 +768,19 @@ public class GeneradorService
      * @param generadorInstancia - Generador instancia
      * @param diaTramoTipoHorario - Día y tramo de tipo horario
      * @param sesionAsignatura - Sesión de asignatura
+     * @param sesionesAsignadasPendientes - Sesiones asignadas pendientes de insertar
      * @throws SchoolManagerServerException - Excepción personalizada
      */
     private void actualizarGeneradorSesionAsignadaInternalAsignatura(GeneradorInstancia generadorInstancia,
                                                                      DiaTramoTipoHorario diaTramoTipoHorario,
-                                                                     SesionAsignatura sesionAsignatura) throws SchoolManagerServerException
+                                                                     SesionAsignatura sesionAsignatura,
+                                                                     SesionesAsignadasPendientes sesionesAsignadasPendientes) throws SchoolManagerServerException
     {
-        // Creamos una instancia de Id GeneradorAsignadaImpartir
-        IdGeneradorAsignadaImpartir idGeneradorAsignadaImpartir = new IdGeneradorAsignadaImpartir() ;
+        // Buscamos la instancia de Impartir relacionada con la sesión de asignatura entre las precargadas
+        String claveImpartir = this.obtenerClaveImpartir(sesionAsignatura.getAsignatura().getIdAsignatura(), sesionAsignatura.getProfesor().getEmail()) ;
+        Impartir impartir    = sesionesAsignadasPendientes.mapImpartir.get(claveImpartir) ;
 
-        // Obtenemos el curso, etapa y grupo de la sesión de asignatura, junto con el nombre e email del profesor
-        CursoEtapaGrupo cursoEtapaGrupo = sesionAsignatura.getAsignatura().getIdAsignatura().getCursoEtapaGrupo() ;
-        
-        String cursoAcademico = cursoEtapaGrupo.getIdCursoEtapaGrupo().getCursoAcademico() ;
-        int curso     = cursoEtapaGrupo.getIdCursoEtapaGrupo().getCurso() ;
-        String etapa  = cursoEtapaGrupo.getIdCursoEtapaGrupo().getEtapa() ;
-        String grupo  = cursoEtapaGrupo.getIdCursoEtapaGrupo().getGrupo() ;
-        String nombre = sesionAsignatura.getAsignatura().getIdAsignatura().getNombre() ;
-        String email  = sesionAsignatura.getProfesor().getEmail() ;
-
-        // Buscamos la instancia de Impartir relacionada con la sesión de asignatura
-        Optional<Impartir> optionalImpartir =
-            this.impartirRepository.buscarPorNombreAndCursoAndEtapaAndGrupoAndProfesor(cursoAcademico, nombre, curso, etapa, grupo, email) ;
-
-        if (!optionalImpartir.isPresent())
+        if (impartir == null)
         {
             String mensajeError = "ERROR - No se encontró la instancia de Impartir relacionada con la sesión de asignatura" ;
             log.error(mensajeError) ;
@@ -322,25 +788,29 @@ public class GeneradorService
             throw new SchoolManagerServerException(Constants.IMPARTIR_NO_ENCONTRADA, mensajeError, null) ;
         }
 
-        // Obtenemos la instancia de Impartir
-        Impartir impartir = optionalImpartir.get() ;
+        // Si la misma asignatura y profesor ya está en este día y tramo (optativas de varios grupos), es la misma fila
+        if (sesionesAsignadasPendientes.clavesImpartir.add(claveImpartir + "|" + diaTramoTipoHorario.getId()))
+        {
+            // Creamos una instancia de Id GeneradorAsignadaImpartir
+            IdGeneradorAsignadaImpartir idGeneradorAsignadaImpartir = new IdGeneradorAsignadaImpartir() ;
 
-        // Asignamos los valores a la instancia
-        idGeneradorAsignadaImpartir.setIdGeneradorInstancia(generadorInstancia.getId()) ;
-        idGeneradorAsignadaImpartir.setImpartir(impartir) ;
-        idGeneradorAsignadaImpartir.setDiaTramoTipoHorario(diaTramoTipoHorario) ;
+            // Asignamos los valores a la instancia
+            idGeneradorAsignadaImpartir.setIdGeneradorInstancia(generadorInstancia.getId()) ;
+            idGeneradorAsignadaImpartir.setImpartir(impartir) ;
+            idGeneradorAsignadaImpartir.setDiaTramoTipoHorario(diaTramoTipoHorario) ;
 
-        // Creamos una instancia de GeneradorAsignadaImpartir
-        GeneradorAsignadaImpartir generadorAsignadaImpartir = new GeneradorAsignadaImpartir() ;
-        generadorAsignadaImpartir.setIdGeneradorAsignadaImpartir(idGeneradorAsignadaImpartir) ;
+            // Creamos una instancia de GeneradorAsignadaImpartir
+            GeneradorAsignadaImpartir generadorAsignadaImpartir = new GeneradorAsignadaImpartir() ;
+            generadorAsignadaImpartir.setIdGeneradorAsignadaImpartir(idGeneradorAsignadaImpartir) ;
 
-        // Asignamos los valores a la instancia
-        generadorAsignadaImpartir.setGeneradorInstancia(generadorInstancia) ;
-        generadorAsignadaImpartir.setImpartir(impartir) ;
-        generadorAsignadaImpartir.setDiaTramoTipoHorario(diaTramoTipoHorario) ;
+            // Asignamos los valores a la instancia
+            generadorAsignadaImpartir.setGeneradorInstancia(generadorInstancia) ;
+            generadorAsignadaImpartir.setImpartir(impartir) ;
+            generadorAsignadaImpartir.setDiaTramoTipoHorario(diaTramoTipoHorario) ;
 
-        // Guardamos la instancia en la base de datos
-        this.generadorAsignadaImpartirRepository.saveAndFlush(generadorAsignadaImpartir) ;
+            // La añadimos a las pendientes de insertar
+            sesionesAsignadasPendientes.generadorAsignadasImpartir.add(generadorAsignadaImpartir) ;
+        }
     }
 
     /**
@@ -348,11 +818,12 @@ public class GeneradorService
      * @param generadorInstancia - Generador instancia
      * @param diaTramoTipoHorario - Día y tramo de tipo horario
      * @param sesionReduccion - Sesión de reducción
-     * @throws SchoolManagerServerException - Excepción personalizada
+     * @param sesionesAsignadasPendientes - Sesiones asignadas pendientes de insertar
      */
     private void actualizarGeneradorSesionAsignadaInternalReduccion(GeneradorInstancia generadorInstancia, 
                                                                      DiaTramoTipoHorario diaTramoTipoHorario,
-                                                                     SesionReduccion sesionReduccion) throws SchoolManagerServerException
+                                                                     SesionReduccion sesionReduccion,
+                                                                     SesionesAsignadasPendientes sesionesAsignadasPendientes)
     {
         // Creamos una instancia de Id GeneradorAsignadaReduccion
         IdGeneradorAsignadaReduccion idGeneradorAsignadaReduccion = new IdGeneradorAsignadaReduccion() ;
@@ -373,8 +844,56 @@ public class GeneradorService
         generadorAsignadaReduccion.setProfesor(sesionReduccion.getProfesor()) ;
         generadorAsignadaReduccion.setDiaTramoTipoHorario(diaTramoTipoHorario) ;
 
-        // Guardamos la instancia en la base de datos
-        this.generadorAsignadaReduccionRepository.saveAndFlush(generadorAsignadaReduccion) ;
+        // La añadimos a las pendientes de insertar
+        sesionesAsignadasPendientes.generadorAsignadasReduccion.add(generadorAsignadaReduccion) ;
+    }
+
+    /**
+     * Resumen de las soluciones de un curso académico y generación en la que se empezó a construir
+     */
+    private static class ResumenSoluciones
+    {
+        /** Generación del resumen al comenzar a construirlo */
+        private final long generacion ;
+
+        /** Información de las soluciones, de la mejor a la peor */
+        private final List<GeneradorInstanciaDto> soluciones ;
+
+        /**
+         * @param generacion generación del resumen al comenzar a construirlo
+         * @param soluciones información de las soluciones
+         */
+        private ResumenSoluciones(long generacion, List<GeneradorInstanciaDto> soluciones)
+        {
+            this.generacion = generacion ;
+            this.soluciones = soluciones ;
+        }
+    }
+
+    /**
+     * Sesiones asignadas de una solución pendientes de insertar en lote
+     */
+    private static class SesionesAsignadasPendientes
+    {
+        /** Sesiones asignadas de asignaturas */
+        private final List<GeneradorAsignadaImpartir> generadorAsignadasImpartir = new ArrayList<GeneradorAsignadaImpartir>() ;
+
+        /** Sesiones asignadas de reducciones */
+        private final List<GeneradorAsignadaReduccion> generadorAsignadasReduccion = new ArrayList<GeneradorAsignadaReduccion>() ;
+
+        /** Claves (Impartir, día y tramo) de las sesiones asignadas de asignaturas ya añadidas */
+        private final Set<String> clavesImpartir = new HashSet<String>() ;
+
+        /** Impartir precargados por el trabajo de la generación */
+        private final Map<String, Impartir> mapImpartir ;
+
+        /**
+         * @param mapImpartir Impartir precargados por el trabajo de la generación
+         */
+        private SesionesAsignadasPendientes(Map<String, Impartir> mapImpartir)
+        {
+            this.mapImpartir = mapImpartir ;
+        }
     }
 
     /**
@@ -397,20 +916,33 @@ public class GeneradorService
     
             // Eliminamos el GeneradorInstancia
             this.generadorInstanciaRepository.delete(generadorInstancia) ;
+
+            // La solución ya no debe aparecer en el resumen
+            this.invalidarResumenSoluciones() ;
         }
     }
 
     /**
      * Método que obtiene el estado del generador
      * @return GeneradorInfoDto - DTO con el estado del generador
+     * @throws SchoolManagerServerException - Excepción personalizada
      */
-    public GeneradorInfoDto obtenerEstadoGenerador()
+    public GeneradorInfoDto obtenerEstadoGenerador() throws SchoolManagerServerException
     {
         // Obtenemos el estado del generador y sus detalles generales
         GeneradorInfoDto generadorInfoDto = this.obtenerEstadoGeneradorDetallesGenerales() ;
 
-        // Ahora obtenemos la información de las soluciones (si existieran)
-        this.obtenerEstadoGeneradorInfoSoluciones(generadorInfoDto) ;
+        String cursoAcademico = this.cursoAcademicoResolver.resolver() ;
+
+        // Ahora obtenemos la información de las soluciones del curso académico activo (si existieran)
+        this.obtenerEstadoGeneradorInfoSoluciones(generadorInfoDto, cursoAcademico) ;
+
+        // Por último, las estadísticas de la búsqueda de la última generación arrancada del curso académico activo (si existiera)
+        ControlHilosGenerador controlHilosGenerador = this.planificadorGeneradorService.obtenerControlHilosUltimoTrabajo(cursoAcademico) ;
+        if (controlHilosGenerador != null)
+        {
+            generadorInfoDto.setEstadisticas(controlHilosGenerador.getEstadisticasGenerador().obtenerEstadisticas()) ;
+        }
 
        return generadorInfoDto ;
     }
@@ -423,14 +955,14 @@ public class GeneradorService
     {
         GeneradorInfoDto generadorInfoDto = new GeneradorInfoDto() ;
 
-        // Verificamos si hay un generador en curso
-        Optional<Generador> optionalGeneradorEnCurso = this.generadorRepository.buscarGeneradorPorEstado(Constants.ESTADO_GENERADOR_EN_CURSO) ;
+        // Verificamos si hay generadores en curso (puede haber varios a la vez)
+        List<Generador> generadoresEnCurso = this.generadorRepository.buscarGeneradoresPorEstado(Constants.ESTADO_GENERADOR_EN_CURSO) ;
 
-        // Si hay un generador en curso, seteamos el estado y la fecha de inicio
-        if (optionalGeneradorEnCurso.isPresent())
+        // Si hay un generador en curso, seteamos el estado y la fecha de inicio del último lanzado
+        if (!generadoresEnCurso.isEmpty())
         {
-            // Obtenemos el generador en curso
-            Generador generadorEnCurso = optionalGeneradorEnCurso.get() ;
+            // Obtenemos el último generador en curso
+            Generador generadorEnCurso = generadoresEnCurso.get(0) ;
 
             // Seteamos el estado del generador
             generadorInfoDto.setEstado(generadorEnCurso.getEstado()) ;
@@ -474,40 +1006,105 @@ public class GeneradorService
     }
 
     /**
-     * Método que obtiene la información de las soluciones
+     * Método que obtiene la información de las soluciones. Se sirve del resumen en memoria mientras no se añada, seleccione o elimine
+     * ninguna solución
      * @param generadorInfoDto - DTO con el estado del generador y sus detalles generales
+     * @param cursoAcademico - Curso académico de las soluciones
+     */
+    private void obtenerEstadoGeneradorInfoSoluciones(GeneradorInfoDto generadorInfoDto, String cursoAcademico)
+    {
+        // Leemos la generación antes de consultar, así que un resumen construido antes de una invalidación nunca se sirve después
+        long generacion = this.generacionResumenSoluciones.get() ;
+
+        ResumenSoluciones resumen = this.resumenSoluciones.get(cursoAcademico) ;
+
+        if (resumen == null || resumen.generacion != generacion)
+        {
+            resumen = new ResumenSoluciones(generacion, this.obtenerResumenSoluciones(cursoAcademico)) ;
+
+            this.resumenSoluciones.put(cursoAcademico, resumen) ;
+        }
+
+        // Seteamos la lista de soluciones
+        generadorInfoDto.setSoluciones(resumen.soluciones) ;
+    }
+
+    /**
+     * Método que construye el resumen de las soluciones con tres consultas, sea cual sea el número de soluciones y de profesores
+     * @param cursoAcademico - Curso académico de las soluciones
+     * @return List con la información de las soluciones, de la mejor a la peor
      */
-    private void obtenerEstadoGeneradorInfoSoluciones(GeneradorInfoDto generadorInfoDto)
+    private List<GeneradorInstanciaDto> obtenerResumenSoluciones(String cursoAcademico)
     {
-        // Buscamos todas aquellas instancias del generador que tengan una solución
-        Optional<List<GeneradorInstancia>> optionalGeneradorInstancias = this.generadorInstanciaRepository.obtenerTodasLasPosiblesSoluciones() ;
+        // Buscamos todas aquellas instancias del generador del curso académico que tengan una solución
+        Optional<List<GeneradorInstancia>> optionalGeneradorInstancias = this.generadorInstanciaRepository.obtenerTodasLasPosiblesSolucionesPorCursoAcademico(cursoAcademico) ;
 
         // Creamos una lista de soluciones
         List<GeneradorInstanciaDto> soluciones = new ArrayList<GeneradorInstanciaDto>() ;
 
         // Si hay soluciones, seteamos la información de las soluciones
-        if (optionalGeneradorInstancias.isPresent())
+        if (optionalGeneradorInstancias.isPresent() && !optionalGeneradorInstancias.get().isEmpty())
         {
-            // Obtenemos las soluciones
-            List<GeneradorInstancia> generadorInstancias = optionalGeneradorInstancias.get() ;
+            // Buscamos de una vez las puntuaciones generales y de profesores de todas las soluciones y las agrupamos por instancia
+            Map<Integer, List<GeneradorInstanciaSolucionInfoGeneral>> infoGeneralPorInstancia = new HashMap<Integer, List<GeneradorInstanciaSolucionInfoGeneral>>() ;
+            for (GeneradorInstanciaSolucionInfoGeneral generadorInstanciaSolucionInfoGeneral : this.generadorInstanciaSolucionInfoGeneralRepository.buscarPorPosiblesSolucionesPorCursoAcademico(cursoAcademico))
+            {
+                infoGeneralPorInstancia.computeIfAbsent(generadorInstanciaSolucionInfoGeneral.getIdGeneradorInstanciaSolucionInfoGeneral().getGeneradorInstancia().getId(),
+                                                        id -> new ArrayList<GeneradorInstanciaSolucionInfoGeneral>()).add(generadorInstanciaSolucionInfoGeneral) ;
+            }
+
+            Map<Integer, List<GeneradorInstanciaSolucionInfoProfesor>> infoProfesorPorInstancia = new HashMap<Integer, List<GeneradorInstanciaSolucionInfoProfesor>>() ;
+            for (GeneradorInstanciaSolucionInfoProfesor generadorInstanciaSolucionInfoProfesor : this.generadorInstanciaSolucionInfoProfesorRepository.buscarPorPosiblesSolucionesPorCursoAcademico(cursoAcademico))
+            {
+                infoProfesorPorInstancia.computeIfAbsent(generadorInstanciaSolucionInfoProfesor.getIdGeneradorInstanciaSolucionInfoProfesor().getGeneradorInstancia().getId(),
+                                                         id -> new ArrayList<GeneradorInstanciaSolucionInfoProfesor>()).add(generadorInstanciaSolucionInfoProfesor) ;
+            }
 
             // Iteramos por cada solución
-            for (GeneradorInstancia generadorInstancia : generadorInstancias)
+            for (GeneradorInstancia generadorInstancia : optionalGeneradorInstancias.get())
             {
-                this.obtenerEstadoGeneradorInfoSolucionesInternal(soluciones, generadorInstancia) ;                
+                this.obtenerEstadoGeneradorInfoSolucionesInternal(soluciones, generadorInstancia,
+                                                                  infoGeneralPorInstancia.getOrDefault(generadorInstancia.getId(), List.of()),
+                                                                  infoProfesorPorInstancia.getOrDefault(generadorInstancia.getId(), List.of())) ;
             }
         }
 
-        // Seteamos la lista de soluciones
-        generadorInfoDto.setSoluciones(soluciones) ;
+        return Collections.unmodifiableList(soluciones) ;
+    }
+
+    /**
+     * Método que invalida el resumen en memoria de las soluciones. Si hay una transacción en curso, se vuelve a invalidar al terminar,
+     * para que ninguna consulta concurrente deje en el resumen los datos de antes de confirmarla
+     */
+    private void invalidarResumenSoluciones()
+    {
+        this.generacionResumenSoluciones.incrementAndGet() ;
+        this.resumenSoluciones.clear() ;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCompletion(int status)
+                {
+                    GeneradorService.this.generacionResumenSoluciones.incrementAndGet() ;
+                    GeneradorService.this.resumenSoluciones.clear() ;
+                }
+            }) ;
+        }
     }
 
     /**
      * Método que obtiene la información de una solución
      * @param soluciones - Lista de soluciones
      * @param generadorInstancia - Generador instancia
+     * @param generadorInstanciaSolucionInfoGenerals - Puntuaciones generales de la instancia
+     * @param generadorInstanciaSolucionInfoProfesors - Puntuaciones de profesores de la instancia
      */
-    private void obtenerEstadoGeneradorInfoSolucionesInternal(List<GeneradorInstanciaDto> soluciones, GeneradorInstancia generadorInstancia)
+    private void obtenerEstadoGeneradorInfoSolucionesInternal(List<GeneradorInstanciaDto> soluciones, GeneradorInstancia generadorInstancia,
+                                                              List<GeneradorInstanciaSolucionInfoGeneral> generadorInstanciaSolucionInfoGenerals,
+                                                              List<GeneradorInstanciaSolucionInfoProfesor> generadorInstanciaSolucionInfoProfesors)
     {
         // Creamos una instancia de GeneradorInstanciaDto
         GeneradorInstanciaDto generadorInstanciaDto = new GeneradorInstanciaDto() ;
@@ -516,12 +1113,14 @@ public class GeneradorService
         generadorInstanciaDto.setIdGeneradorInstancia(generadorInstancia.getId()) ;
         generadorInstanciaDto.setPuntuacion(generadorInstancia.getPuntuacion()) ;
         generadorInstanciaDto.setSolucionElegida(generadorInstancia.getSolucionElegida()) ;
+        generadorInstanciaDto.setSemilla(generadorInstancia.getSemilla()) ;
+        generadorInstanciaDto.setRepeticion(Boolean.TRUE.equals(generadorInstancia.getGenerador().getRepeticion())) ;
 
         // Obtenemos la información de las puntuaciones generales
-        this.obtenerEstadoGeneradorInfoSolucionesInternalGeneral(generadorInstanciaDto, generadorInstancia) ;
+        this.obtenerEstadoGeneradorInfoSolucionesInternalGeneral(generadorInstanciaDto, generadorInstanciaSolucionInfoGenerals) ;
 
         // Obtenemos la información de las puntuaciones de profesores
-        this.obtenerEstadoGeneradorInfoSolucionesInternalProfesores(generadorInstanciaDto, generadorInstancia) ;
+        this.obtenerEstadoGeneradorInfoSolucionesInternalProfesores(generadorInstanciaDto, generadorInstanciaSolucionInfoProfesors) ;
 
         // Añadimos la instancia a la lista de soluciones
         soluciones.add(generadorInstanciaDto) ;
@@ -530,106 +1129,84 @@ public class GeneradorService
     /**
      * Método que obtiene la información de las puntuaciones generales
      * @param generadorInstanciaDto - Generador instancia DTO
-     * @param generadorInstancia - Generador instancia
+     * @param generadorInstanciaSolucionInfoGenerals - Puntuaciones generales de la instancia
      */
-    private void obtenerEstadoGeneradorInfoSolucionesInternalGeneral(GeneradorInstanciaDto generadorInstanciaDto, GeneradorInstancia generadorInstancia)
+    private void obtenerEstadoGeneradorInfoSolucionesInternalGeneral(GeneradorInstanciaDto generadorInstanciaDto,
+                                                                     List<GeneradorInstanciaSolucionInfoGeneral> generadorInstanciaSolucionInfoGenerals)
     {
-        // Buscamos para esta instancia todos los tipos de puntuaciones generales
-        Optional<List<GeneradorInstanciaSolucionInfoGeneral>> optionalGeneradorInstanciaSolucionInfoGenerals = 
-        this.generadorInstanciaSolucionInfoGeneralRepository.buscarPorGeneradorInstancia(generadorInstancia.getId()) ;
-
-        // Si hay puntuaciones generales, seteamos la información de las puntuaciones generales
-        if (optionalGeneradorInstanciaSolucionInfoGenerals.isPresent())
+        // Iteramos por cada puntuación general
+        for (GeneradorInstanciaSolucionInfoGeneral generadorInstanciaSolucionInfoGeneral : generadorInstanciaSolucionInfoGenerals)
         {
-            // Obtenemos las puntuaciones generales
-            List<GeneradorInstanciaSolucionInfoGeneral> generadorInstanciaSolucionInfoGenerals = 
-                                    optionalGeneradorInstanciaSolucionInfoGenerals.get() ;
-
-            // Iteramos por cada puntuación general
-            for (GeneradorInstanciaSolucionInfoGeneral generadorInstanciaSolucionInfoGeneral : generadorInstanciaSolucionInfoGenerals)
+            // Creamos una instancia de GeneradorInstanciaSolucionInfoGeneralDto
+            GeneradorInstanciaSolucionInfoGeneralDto generadorInstanciaSolucionInfoGeneralDto = 
+                                new GeneradorInstanciaSolucionInfoGeneralDto() ;
+
+            // Seteamos los valores de la instancia
+            generadorInstanciaSolucionInfoGeneralDto.setTipo(generadorInstanciaSolucionInfoGeneral.getIdGeneradorInstanciaSolucionInfoGeneral().getTipo()) ;
+            generadorInstanciaSolucionInfoGeneralDto.setPuntuacion(generadorInstanciaSolucionInfoGeneral.getPuntuacionMatutina() + 
+                                                            generadorInstanciaSolucionInfoGeneral.getPuntuacionVespertina()) ;
+            
+            double porcentajeTotal = generadorInstanciaSolucionInfoGeneral.getPorcentajeMatutina() ;
+            if (generadorInstanciaSolucionInfoGeneral.getPorcentajeMatutina() != 0 && generadorInstanciaSolucionInfoGeneral.getPorcentajeVespertina() != 0)
             {
-                // Creamos una instancia de GeneradorInstanciaSolucionInfoGeneralDto
-                GeneradorInstanciaSolucionInfoGeneralDto generadorInstanciaSolucionInfoGeneralDto = 
-                                    new GeneradorInstanciaSolucionInfoGeneralDto() ;
-
-                // Seteamos los valores de la instancia
-                generadorInstanciaSolucionInfoGeneralDto.setTipo(generadorInstanciaSolucionInfoGeneral.getIdGeneradorInstanciaSolucionInfoGeneral().getTipo()) ;
-                generadorInstanciaSolucionInfoGeneralDto.setPuntuacion(generadorInstanciaSolucionInfoGeneral.getPuntuacionMatutina() + 
-                                                                generadorInstanciaSolucionInfoGeneral.getPuntuacionVespertina()) ;
-                
-                double porcentajeTotal = generadorInstanciaSolucionInfoGeneral.getPorcentajeMatutina() ;
-                if (generadorInstanciaSolucionInfoGeneral.getPorcentajeMatutina() != 0 && generadorInstanciaSolucionInfoGeneral.getPorcentajeVespertina() != 0)
-                {
-                    porcentajeTotal = (double) (generadorInstanciaSolucionInfoGeneral.getPorcentajeMatutina() + generadorInstanciaSolucionInfoGeneral.getPorcentajeVespertina()) / 2 ;
-                }
-                else if (generadorInstanciaSolucionInfoGeneral.getPorcentajeVespertina() != 0)
-                {
-                    porcentajeTotal = generadorInstanciaSolucionInfoGeneral.getPorcentajeVespertina() ;
-                }
+                porcentajeTotal = (double) (generadorInstanciaSolucionInfoGeneral.getPorcentajeMatutina() + generadorInstanciaSolucionInfoGeneral.getPorcentajeVespertina()) / 2 ;
+            }
+            else if (generadorInstanciaSolucionInfoGeneral.getPorcentajeVespertina() != 0)
+            {
+                porcentajeTotal = generadorInstanciaSolucionInfoGeneral.getPorcentajeVespertina() ;
+            }
 
-                // Seteamos el porcentaje
-                generadorInstanciaSolucionInfoGeneralDto.setPorcentaje(porcentajeTotal) ;
+            // Seteamos el porcentaje
+            generadorInstanciaSolucionInfoGeneralDto.setPorcentaje(porcentajeTotal) ;
 
-                // Añadimos la puntuación general a la instancia
-                generadorInstanciaDto.getPuntuacionesDesglosadas().add(generadorInstanciaSolucionInfoGeneralDto) ;
-            }
+            // Añadimos la puntuación general a la instancia
+            generadorInstanciaDto.getPuntuacionesDesglosadas().add(generadorInstanciaSolucionInfoGeneralDto) ;
         }
     }
 
     /**
      * Método que obtiene la información de las puntuaciones de profesores
      * @param generadorInstanciaDto - Generador instancia DTO
-     * @param generadorInstancia - Generador instancia
+     * @param generadorInstanciaSolucionInfoProfesors - Puntuaciones de profesores de la instancia
      */
-    private void obtenerEstadoGeneradorInfoSolucionesInternalProfesores(GeneradorInstanciaDto generadorInstanciaDto, GeneradorInstancia generadorInstancia)
+    private void obtenerEstadoGeneradorInfoSolucionesInternalProfesores(GeneradorInstanciaDto generadorInstanciaDto,
+                                                                        List<GeneradorInstanciaSolucionInfoProfesor> generadorInstanciaSolucionInfoProfesors)
     {
-        // Buscamos para esta instancia todos los tipos de puntuaciones de profesores
-        Optional<List<GeneradorInstanciaSolucionInfoProfesor>> optionalGeneradorInstanciaSolucionInfoProfesors = 
-        this.generadorInstanciaSolucionInfoProfesorRepository.buscarPorGeneradorInstancia(generadorInstancia.getId()) ;
-
-        // Si hay puntuaciones de profesores, seteamos la información de las puntuaciones de profesores
-        if (optionalGeneradorInstanciaSolucionInfoProfesors.isPresent())
+        // Iteramos por cada puntuación de profesor
+        for (GeneradorInstanciaSolucionInfoProfesor generadorInstanciaSolucionInfoProfesor : generadorInstanciaSolucionInfoProfesors)
         {
-            // Obtenemos las puntuaciones de profesores
-            List<GeneradorInstanciaSolucionInfoProfesor> generadorInstanciaSolucionInfoProfesors = 
-                            optionalGeneradorInstanciaSolucionInfoProfesors.get() ;
+            // Creamos una instancia de GeneradorInstanciaSolucionInfoProfesorDto
+            GeneradorInstanciaSolucionInfoProfesorDto generadorInstanciaSolucionInfoProfesorDto =
+                        new GeneradorInstanciaSolucionInfoProfesorDto() ;
 
-            // Iteramos por cada puntuación de profesor
-            for (GeneradorInstanciaSolucionInfoProfesor generadorInstanciaSolucionInfoProfesor : generadorInstanciaSolucionInfoProfesors)
+            // Seteamos los valores de la instancia
+            generadorInstanciaSolucionInfoProfesorDto.setEmailProfesor(generadorInstanciaSolucionInfoProfesor.getIdGeneradorInstanciaSolucionInfoProfesor().getProfesor().getEmail()) ;
+            generadorInstanciaSolucionInfoProfesorDto.setTipo(generadorInstanciaSolucionInfoProfesor.getIdGeneradorInstanciaSolucionInfoProfesor().getTipo()) ;
+            
+            double puntuacionTotal = generadorInstanciaSolucionInfoProfesor.getPuntuacionMatutina() ;
+            if (generadorInstanciaSolucionInfoProfesor.getPuntuacionVespertina() != 0)
             {
-                // Creamos una instancia de GeneradorInstanciaSolucionInfoProfesorDto
-                GeneradorInstanciaSolucionInfoProfesorDto generadorInstanciaSolucionInfoProfesorDto =
-                            new GeneradorInstanciaSolucionInfoProfesorDto() ;
-
-                // Seteamos los valores de la instancia
-                generadorInstanciaSolucionInfoProfesorDto.setEmailProfesor(generadorInstanciaSolucionInfoProfesor.getIdGeneradorInstanciaSolucionInfoProfesor().getProfesor().getEmail()) ;
-                generadorInstanciaSolucionInfoProfesorDto.setTipo(generadorInstanciaSolucionInfoProfesor.getIdGeneradorInstanciaSolucionInfoProfesor().getTipo()) ;
-                
-                double puntuacionTotal = generadorInstanciaSolucionInfoProfesor.getPuntuacionMatutina() ;
-                if (generadorInstanciaSolucionInfoProfesor.getPuntuacionVespertina() != 0)
-                {
-                    puntuacionTotal += generadorInstanciaSolucionInfoProfesor.getPuntuacionVespertina() ;
-                }
+                puntuacionTotal += generadorInstanciaSolucionInfoProfesor.getPuntuacionVespertina() ;
+            }
 
-                // Seteamos la puntuación
-                generadorInstanciaSolucionInfoProfesorDto.setPuntuacion(puntuacionTotal) ;
+            // Seteamos la puntuación
+            generadorInstanciaSolucionInfoProfesorDto.setPuntuacion(puntuacionTotal) ;
 
-                double porcentajeTotal = generadorInstanciaSolucionInfoProfesor.getPorcentajeMatutina() ;   
-                if (generadorInstanciaSolucionInfoProfesor.getPorcentajeMatutina() != 0 && generadorInstanciaSolucionInfoProfesor.getPorcentajeVespertina() != 0)
-                {
-                    porcentajeTotal = (double) (generadorInstanciaSolucionInfoProfesor.getPorcentajeMatutina() + generadorInstanciaSolucionInfoProfesor.getPorcentajeVespertina()) / 2 ;
-                }
-                else if (generadorInstanciaSolucionInfoProfesor.getPorcentajeVespertina() != 0)
-                {
-                    porcentajeTotal = generadorInstanciaSolucionInfoProfesor.getPorcentajeVespertina() ;
-                }
+            double porcentajeTotal = generadorInstanciaSolucionInfoProfesor.getPorcentajeMatutina() ;   
+            if (generadorInstanciaSolucionInfoProfesor.getPorcentajeMatutina() != 0 && generadorInstanciaSolucionInfoProfesor.getPorcentajeVespertina() != 0)
+            {
+                porcentajeTotal = (double) (generadorInstanciaSolucionInfoProfesor.getPorcentajeMatutina() + generadorInstanciaSolucionInfoProfesor.getPorcentajeVespertina()) / 2 ;
+            }
+            else if (generadorInstanciaSolucionInfoProfesor.getPorcentajeVespertina() != 0)
+            {
+                porcentajeTotal = generadorInstanciaSolucionInfoProfesor.getPorcentajeVespertina() ;
+            }
 
-                // Seteamos el porcentaje
-                generadorInstanciaSolucionInfoProfesorDto.setPorcentaje(porcentajeTotal) ;
+            // Seteamos el porcentaje
+            generadorInstanciaSolucionInfoProfesorDto.setPorcentaje(porcentajeTotal) ;
 
-                // Añadimos la puntuación de profesor a la instancia
-                generadorInstanciaDto.getPuntuacionesDesglosadas().add(generadorInstanciaSolucionInfoProfesorDto) ;
-            }
+            // Añadimos la puntuación de profesor a la instancia
+            generadorInstanciaDto.getPuntuacionesDesglosadas().add(generadorInstanciaSolucionInfoProfesorDto) ;
         }
     }
 
@@ -655,387 +1232,121 @@ public class GeneradorService
         // Actualizamos la instancia del generador
         GeneradorInstancia generadorInstancia = generadorInstanciaOptional.get() ;
 
-        // Seleccionamos la solución
-        this.seleccionarSolucionInternal(generadorInstancia) ;
-    }
-
-    /**
-     * Método que selecciona una solución
-     * @param generadorInstancia - Generador instancia
-     */
-    private void seleccionarSolucionInternal(GeneradorInstancia generadorInstancia)
-    {
-        // Cualquier solución que haya sido elegida, la deseleccionamos
-        this.generadorInstanciaRepository.deseleccionarSoluciones() ;
-
-        // Actualizamos la instancia del generador
-        generadorInstancia.setSolucionElegida(true) ;
-
-        // Guardamos la instancia en la base de datos
-        this.generadorInstanciaRepository.saveAndFlush(generadorInstancia) ;
-    }
-
-    /**
-     * Método que calcula la puntuación de una solución
-     * @param generadorInstancia - Generador instancia
-     * @return Puntuación de la solución
-     */
-    public int calcularPuntuacion(GeneradorInstancia generadorInstancia)
-    {
-        // Calculamos la puntuación total matutina
-        int puntuacionTotal = this.calcularPuntuacionTipoHorario(generadorInstancia, true) ;
-
-        // Añadimos la puntuación total vespertina
-        puntuacionTotal     = puntuacionTotal + this.calcularPuntuacionTipoHorario(generadorInstancia, false) ;
-
-        return puntuacionTotal ;
-    }
-
-    /**
-     * Método que calcula la puntuación de un tipo de horario
-     * @param generadorInstancia - Generador instancia
-     * @param esMatutino - Indica si es matutino
-     * @return Puntuación de un tipo de horario
-     */
-    private int calcularPuntuacionTipoHorario(GeneradorInstancia generadorInstancia, boolean esMatutino)
-    {
-        int puntuacionTotal = 0 ;
-
-        // Huecos entre sesiones generales
-        Integer generalHuecosEntreSesiones      = 0 ;
-
-        // Aciertos en las preferencias diarias de no tener clase a primera hora o no tener clase a última hora
-        Integer generalHitsPreferenciasDiarias = 0 ;
-
-        // Aciertos en las preferencias concretas de no tener clase en unas horas determinadas
-        Integer generalHitsPreferenciasConcretas = 0 ;
-
-        // Obtenemos todos los profesores que según el tipo de horario
-        List<Profesor> profesores = this.generadorAsignadaImpartirRepository.buscarProfesoresTipoHorario(generadorInstancia, esMatutino) ;
-
-        // Si hay profesores, calculamos la puntuación
-        if (!profesores.isEmpty())
+        // Las soluciones de una repetición no pueden sustituir al horario elegido
+        if (Boolean.TRUE.equals(generadorInstancia.getGenerador().getRepeticion()))
         {
-            // Obtenemos el número de profesores
-            int numeroProfesores = profesores.size() ;
-
-            // Iteramos por cada profesor
-            for (Profesor profesor : profesores)
-            {
-                // Calculamos los huecos entre sesiones de un profesor
-                Integer profesorHuecosEntreSesiones       = this.calcularHuecosEntreSesionesProfesor(generadorInstancia, profesor, esMatutino) ;
+            String mensajeError = "La instancia del generador con id " + idGeneradorInstancia + " es de una repetición y no se puede seleccionar" ;
 
-                // Calculamos la preferencias diarias de no tener clase a primera hora o no tener clase a última hora de un profesor
-                Integer profesorHitsPreferenciasDiarias   = this.calcularHitsPreferenciasDiariasProfesor(generadorInstancia, profesor, esMatutino) ;
-
-                // Calculamos la preferencias concreta de no tener clase en unas horas determinadas de un profesor
-                Integer profesorHitsPreferenciasConcretas = this.calcularHitsPreferenciasConcretasProfesor(generadorInstancia, profesor, esMatutino) ;
-
-                // Incrementamos la puntuación total de cada tipo
-                generalHuecosEntreSesiones       = generalHuecosEntreSesiones       + profesorHuecosEntreSesiones ;
-                generalHitsPreferenciasDiarias   = generalHitsPreferenciasDiarias   + profesorHitsPreferenciasDiarias ;
-                generalHitsPreferenciasConcretas = generalHitsPreferenciasConcretas + profesorHitsPreferenciasConcretas ;
-            }
-
-            // Calculamos la puntuación total basada en los huecos entre sesiones
-            Integer puntuacionTotalHuecosEntreSesiones      = this.calcularPuntuacionTipoHorarioHuecosEntreSesionesGeneral(generadorInstancia, esMatutino, numeroProfesores, generalHuecosEntreSesiones) ;
-
-            // Calculamos la puntuación total basada en la preferencia de no tener clase a primera hora o no tener clase a última hora
-            Integer puntuacionTotalHitsPreferenciasDiarias = this.calcularPuntuacionTipoHorarioHitsPreferenciasDiariasGeneral(generadorInstancia, esMatutino, numeroProfesores, generalHitsPreferenciasDiarias) ;
-
-            // Calculamos la puntuación total basada en la preferencia de no tener clase en unas horas determinadas
-            Integer puntuacionTotalHitsPreferenciasConcretas = this.calcularPuntuacionTipoHorarioHitsPreferenciasConcretasGeneral(generadorInstancia, esMatutino, numeroProfesores, generalHitsPreferenciasConcretas) ;
-
-            // La puntuación total es la suma de las puntuaciones totales de los huecos entre sesiones y la preferencia de no tener clase a primera hora o no tener clase a última hora
-            puntuacionTotal = puntuacionTotalHuecosEntreSesiones + puntuacionTotalHitsPreferenciasDiarias + puntuacionTotalHitsPreferenciasConcretas ;
+            log.error(mensajeError) ;
+            throw new SchoolManagerServerException(Constants.ERROR_CODE_SOLUCION_REPETICION_NO_SELECCIONABLE, mensajeError) ;
         }
 
-        return puntuacionTotal ;
-    }
-
-    /**
-     * Método que calcula la puntuación de los huecos entre sesiones
-     * @param generadorInstancia - Generador instancia
-     * @param profesor - Profesor
-     * @param esMatutino - Indica si es matutino
-     * @return Puntuación de los huecos entre sesiones
-     */
-    private int calcularHuecosEntreSesionesProfesor(GeneradorInstancia generadorInstancia, Profesor profesor, boolean esMatutino)
-    {
-        // Obtenemos de la tabla GeneradorSesionAsignada todos los horarios que tengan asignado este profesor    
-        Integer huecosEntreSesionesProfesor = this.generadorAsignadaImpartirRepository.contarHuecosEntreSesiones(generadorInstancia.getId(), profesor.getCursoAcademico(), profesor.getEmail(), esMatutino) ;
-
-        // Obtenemos el numerador de la operación
-        double numeradorOperacionProfesor = (double) huecosEntreSesionesProfesor / Constants.FACTOR_HUECOS ;
-
-        // Calculamos el factor de puntuación
-        double porcentajeHuecosEntreSesionesProfesor = (double) 100.00d * ((double) numeradorOperacionProfesor / Constants.FACTOR_DIVISOR_HUECOS) ;
-
-        // Guardamos la puntuación en la BBDD
-        this.guardarGeneradorInstanciaSolucionInfoProfesor(generadorInstancia, profesor, Constants.SOL_INFO_HUECOS, huecosEntreSesionesProfesor, porcentajeHuecosEntreSesionesProfesor, esMatutino) ;
-        
-        // Devolvemos la puntuación
-        return huecosEntreSesionesProfesor ;
+        // Seleccionamos la solución
+        this.seleccionarSolucionInternal(generadorInstancia) ;
     }
 
     /**
-     * Método que calcula la puntuación de la preferencia diaria de no tener clase a primera hora o no tener clase a última hora
+     * Método que selecciona una solución recién guardada, salvo si es de una repetición, que solo se añade a las soluciones
      * @param generadorInstancia - Generador instancia
-     * @param profesor - Profesor
-     * @param esMatutino - Indica si es matutino
-     * @return Puntuación de la preferencia de no tener clase a primera hora o no tener clase a última hora
      */
-    private int calcularHitsPreferenciasDiariasProfesor(GeneradorInstancia generadorInstancia, Profesor profesor, boolean esMatutino)
+    private void seleccionarSolucionNueva(GeneradorInstancia generadorInstancia)
     {
-        int preferenciasDiariasProfesor = 0 ;
-
-        if (profesor.getObservacionesAdicionales().getSinClasePrimeraHora())
+        if (Boolean.TRUE.equals(generadorInstancia.getGenerador().getRepeticion()))
         {
-            // Obtenemos de la tabla GeneradorSesionAsignada todos los horarios que tengan asignado este profesor    
-            preferenciasDiariasProfesor = this.generadorAsignadaImpartirRepository.contarPreferenciasDiariasPrimeraHora(generadorInstancia.getId(), profesor.getCursoAcademico(), profesor.getEmail(), esMatutino) ;
+            this.invalidarResumenSoluciones() ;
         }
         else
         {
-            // Obtenemos de la tabla GeneradorSesionAsignada todos los horarios que tengan asignado este profesor    
-            preferenciasDiariasProfesor = this.generadorAsignadaImpartirRepository.contarPreferenciasDiariasUltimaHora(generadorInstancia.getId(), profesor.getCursoAcademico(), profesor.getEmail(), esMatutino) ;
-        }
-
-        // Invertimos el valor ya que lo que encuentra es lo que no quería
-        preferenciasDiariasProfesor = Constants.NUMERO_DIAS_SEMANA - preferenciasDiariasProfesor ;
-
-        // Obtenemos la operación
-        double operacionProfesor = (double) preferenciasDiariasProfesor / Constants.NUMERO_DIAS_SEMANA ;
-
-        // Calculamos el factor de puntuación
-        double porcentajePreferenciasDiariasProfesor = (double) 100.00d * operacionProfesor ;
-
-        // Guardamos la puntuación en la BBDD
-        this.guardarGeneradorInstanciaSolucionInfoProfesor(generadorInstancia, profesor, Constants.SOL_INFO_PREFERENCIAS_DIARIAS, preferenciasDiariasProfesor, porcentajePreferenciasDiariasProfesor, esMatutino) ;
-
-        // Devolvemos la puntuación
-        return preferenciasDiariasProfesor ;
-    }
-
-    /**
-     * Método que calcula la puntuación de la preferencia concreta de no tener clase en unas horas determinadas
-     * @param generadorInstancia - Generador instancia
-     * @param profesor - Profesor
-     * @param esMatutino - Indica si es matutino
-     * @return Puntuación de la preferencia de no tener clase en unas horas determinadas
-     */
-    private int calcularHitsPreferenciasConcretasProfesor(GeneradorInstancia generadorInstancia, Profesor profesor, boolean esMatutino)
-    {
-        int hitsPreferenciasConcretasProfesor = 0 ;
-
-        // Obtenemos las preferencias de no tener clase en unas horas determinadas de un profesor
-        List<PreferenciasHorariasProfesor> preferenciasHorariasProfesor = profesor.getPreferenciasHorariasProfesor() ;
-
-        if (!preferenciasHorariasProfesor.isEmpty())
-        {
-            // Iteramos por cada una de ellas para saber cuál se cumple
-            for (PreferenciasHorariasProfesor preferenciaHorariaProfesor : preferenciasHorariasProfesor)
-            {
-                // Si no la encuentra es cuando cuenta como hit
-                hitsPreferenciasConcretasProfesor = hitsPreferenciasConcretasProfesor + 
-                                                    this.generadorAsignadaImpartirRepository.contarPreferenciasConcretas(generadorInstancia.getId(), 
-                                                                                                                         profesor.getCursoAcademico(),
-                                                                                                                         profesor.getEmail(),
-                                                                                                                         esMatutino,
-                                                                                                                         preferenciaHorariaProfesor.getDiaTramoTipoHorario().getDia(),
-                                                                                                                         preferenciaHorariaProfesor.getDiaTramoTipoHorario().getTramo());
-            }
+            this.seleccionarSolucionInternal(generadorInstancia) ;
         }
-
-        // Obtenemos la operación
-        double operacionProfesor = (double) hitsPreferenciasConcretasProfesor / Constants.NUMERO_MAXIMO_PREFERENCIAS_CONCRETAS ;
-
-        // Calculamos el factor de puntuación
-        double porcentajePreferenciasConcretasProfesor = (double) 100.00d * operacionProfesor ;
-
-        // Guardamos la puntuación en la BBDD
-        this.guardarGeneradorInstanciaSolucionInfoProfesor(generadorInstancia, profesor, Constants.SOL_INFO_PREFERENCIAS_CONCRETAS, hitsPreferenciasConcretasProfesor, porcentajePreferenciasConcretasProfesor, esMatutino) ;
-
-        // Devolvemos la puntuación
-        return hitsPreferenciasConcretasProfesor ;
-    }
-
-    /**
-     * Método que calcula la puntuación general basada en los huecos entre sesiones
-     * @param generadorInstancia - Generador instancia
-     * @param esMatutino - Indica si es matutino
-     * @param numeroProfesores - Número de profesores
-     * @param generalHuecosEntreSesiones - Puntuación general de los huecos entre sesiones
-     * @return Puntuación general basada en los huecos entre sesiones
-     */
-    private int calcularPuntuacionTipoHorarioHuecosEntreSesionesGeneral(GeneradorInstancia generadorInstancia, boolean esMatutino, int numeroProfesores, int generalHuecosEntreSesiones)
-    {
-        // Calculamos el numerador
-        double numeradorOperacion = (double) (generalHuecosEntreSesiones / Constants.FACTOR_HUECOS) ;
-
-        // Obtenemos el denominador
-        double denominadorOperacion = Constants.FACTOR_DIVISOR_HUECOS * numeroProfesores ;
-
-        // Calculamos el porcentaje de huecos entre sesiones de entre todos los profesores  
-        double porcentajeHuecosEntreSesionesGeneral = (double) 100.00d * ((double) numeradorOperacion / denominadorOperacion) ;
-
-        // Guardamos la puntuación en la BBDD
-        this.guardarGeneradorInstanciaSolucionInfoGeneral(generadorInstancia, Constants.SOL_INFO_HUECOS, generalHuecosEntreSesiones, porcentajeHuecosEntreSesionesGeneral, esMatutino) ;
-
-        // Devolvemos la puntuación basada en que el peor escenario sería que hubiera 12 huecos entre sesiones de cada profesor
-        return (int) ((Constants.FACTOR_HUECOS * Constants.FACTOR_DIVISOR_HUECOS * numeroProfesores) - generalHuecosEntreSesiones) ;
     }
 
     /**
-     * Método que calcula la puntuación general basada en la preferencia de no tener clase a primera hora o no tener clase a última hora
+     * Método que selecciona una solución
      * @param generadorInstancia - Generador instancia
-     * @param esMatutino - Indica si es matutino
-     * @param numeroProfesores - Número de profesores
-     * @param generalHitsPreferenciasDiarias - Puntuación general de la preferencia de no tener clase a primera hora o no tener clase a última hora
-     * @return Puntuación general basada en la preferencia de no tener clase a primera hora o no tener clase a última hora
      */
-    private int calcularPuntuacionTipoHorarioHitsPreferenciasDiariasGeneral(GeneradorInstancia generadorInstancia, boolean esMatutino, int numeroProfesores, int generalHitsPreferenciasDiarias)
+    private void seleccionarSolucionInternal(GeneradorInstancia generadorInstancia)
     {
-        // Calculamos el numerador
-        double numeradorOperacion = (double) (generalHitsPreferenciasDiarias / Constants.NUMERO_DIAS_SEMANA) ;
+        // Cualquier solución del mismo curso académico que haya sido elegida, la deseleccionamos
+        this.generadorInstanciaRepository.deseleccionarSolucionesPorCursoAcademico(generadorInstancia.getGenerador().getCursoAcademico()) ;
 
-        // Calculamos el porcentaje de preferencia de no tener clase a primera hora o no tener clase a última hora
-        double porcentajePreferenciaNoClasePrimeraUltimaHoraGeneral = 100.00d * ((double) numeradorOperacion / numeroProfesores) ;
+        // Actualizamos la instancia del generador
+        generadorInstancia.setSolucionElegida(true) ;
 
-        // Guardamos la puntuación en la BBDD
-        this.guardarGeneradorInstanciaSolucionInfoGeneral(generadorInstancia, Constants.SOL_INFO_PREFERENCIAS_DIARIAS, generalHitsPreferenciasDiarias, porcentajePreferenciaNoClasePrimeraUltimaHoraGeneral, esMatutino) ;
+        // Guardamos la instancia en la base de datos
+        this.generadorInstanciaRepository.saveAndFlush(generadorInstancia) ;
 
-        // Devolvemos la puntuación
-        return generalHitsPreferenciasDiarias ;
+        // Toda solución nueva que no es de una repetición se selecciona al guardarla, así que también cubre esas soluciones añadidas
+        this.invalidarResumenSoluciones() ;
     }
 
     /**
-     * Método que calcula la puntuación general basada en la preferencia de no tener clase en unas horas determinadas
+     * Método que guarda en BBDD el desglose de la puntuación de una solución calculada en memoria
      * @param generadorInstancia - Generador instancia
-     * @param esMatutino - Indica si es matutino
-     * @param numeroProfesores - Número de profesores
-     * @param generalHitsPreferenciasConcretas - Puntuación general de la preferencia de no tener clase en unas horas determinadas
-     * @return Puntuación general basada en la preferencia de no tener clase en unas horas determinadas 
+     * @param puntuacionHorario - Puntuación de la solución con su desglose general y por profesor
      */
-    private int calcularPuntuacionTipoHorarioHitsPreferenciasConcretasGeneral(GeneradorInstancia generadorInstancia, boolean esMatutino, int numeroProfesores, int generalHitsPreferenciasConcretas)
+    private void guardarPuntuacion(GeneradorInstancia generadorInstancia, PuntuacionHorario puntuacionHorario)
     {
-        // Calculamos el porcentaje de preferencia de no tener clase en unas horas determinadas
-        double porcentajePreferenciasConcretasGeneral = (double) 100.00d * ((double) generalHitsPreferenciasConcretas / (Constants.NUMERO_MAXIMO_PREFERENCIAS_CONCRETAS * numeroProfesores)) ;
-
-        // Guardamos la puntuación en la BBDD
-        this.guardarGeneradorInstanciaSolucionInfoGeneral(generadorInstancia, Constants.SOL_INFO_PREFERENCIAS_CONCRETAS, generalHitsPreferenciasConcretas, porcentajePreferenciasConcretasGeneral, esMatutino) ;
+        List<GeneradorInstanciaSolucionInfoProfesor> generadorInstanciaSolucionInfoProfesores = new ArrayList<GeneradorInstanciaSolucionInfoProfesor>() ;
 
-        // Devolvemos la puntuación
-        return generalHitsPreferenciasConcretas ;
-    }
-
-    /**
-     * Método que guarda la información de la solución de un profesor
-     * @param generadorInstancia - Generador instancia
-     * @param profesor - Profesor
-     * @param tipo - Tipo de información de la solución
-     * @param puntuacion - Puntuación de la solución
-     * @param porcentaje - Porcentaje de la solución
-     */
-    private void guardarGeneradorInstanciaSolucionInfoProfesor(GeneradorInstancia generadorInstancia, Profesor profesor, String tipo, double puntuacion, double porcentaje, boolean esMatutino)
-    {
-        // Creamos una instancia de IdGeneradorInstanciaSolucionInfoProfesor
-        IdGeneradorInstanciaSolucionInfoProfesor idGeneradorInstanciaSolucionInfoProfesor = new IdGeneradorInstanciaSolucionInfoProfesor() ;
-        
-        // Seteamos los valores del ID compuesto
-        idGeneradorInstanciaSolucionInfoProfesor.setGeneradorInstancia(generadorInstancia) ;
-        idGeneradorInstanciaSolucionInfoProfesor.setProfesor(profesor) ;
-        idGeneradorInstanciaSolucionInfoProfesor.setTipo(tipo) ;
+        // Iteramos por cada profesor y tipo de información de la solución
+        for (Map.Entry<Profesor, Map<String, PuntuacionHorarioInfo>> entryProfesor : puntuacionHorario.getInfoProfesores().entrySet())
+        {
+            for (Map.Entry<String, PuntuacionHorarioInfo> entryTipo : entryProfesor.getValue().entrySet())
+            {
+                // Creamos una instancia de IdGeneradorInstanciaSolucionInfoProfesor
+                IdGeneradorInstanciaSolucionInfoProfesor idGeneradorInstanciaSolucionInfoProfesor = new IdGeneradorInstanciaSolucionInfoProfesor() ;
 
-        // Buscamos el generadorInstanciaSolucionInfoProfesor en BBDD
-        Optional<GeneradorInstanciaSolucionInfoProfesor> optionalGeneradorInstanciaSolucionInfoProfesor = 
-            this.generadorInstanciaSolucionInfoProfesorRepository.findById(idGeneradorInstanciaSolucionInfoProfesor) ;
+                // Seteamos los valores del ID compuesto
+                idGeneradorInstanciaSolucionInfoProfesor.setGeneradorInstancia(generadorInstancia) ;
+                idGeneradorInstanciaSolucionInfoProfesor.setProfesor(entryProfesor.getKey()) ;
+                idGeneradorInstanciaSolucionInfoProfesor.setTipo(entryTipo.getKey()) ;
 
-        // Creamos una instancia de GeneradorInstanciaSolucionInfoProfesor
-        GeneradorInstanciaSolucionInfoProfesor generadorInstanciaSolucionInfoProfesor = null ;
+                // Creamos una nueva instancia de GeneradorInstanciaSolucionInfoProfesor
+                GeneradorInstanciaSolucionInfoProfesor generadorInstanciaSolucionInfoProfesor = new GeneradorInstanciaSolucionInfoProfesor() ;
 
-        // Si existe, actualizamos la puntuación y el porcentaje
-        if (optionalGeneradorInstanciaSolucionInfoProfesor.isPresent())
-        {
-            // Obtenemos el generadorInstanciaSolucionInfoProfesor
-            generadorInstanciaSolucionInfoProfesor = optionalGeneradorInstanciaSolucionInfoProfesor.get() ;
-        }   
-        else
-        {
-            // Creamos una nueva instancia de GeneradorInstanciaSolucionInfoProfesor
-            generadorInstanciaSolucionInfoProfesor = new GeneradorInstanciaSolucionInfoProfesor() ;
+                // Seteamos el ID compuesto, las puntuaciones y los porcentajes
+                PuntuacionHorarioInfo puntuacionHorarioInfo = entryTipo.getValue() ;
 
-            // Seteamos el ID compuesto
-            generadorInstanciaSolucionInfoProfesor.setIdGeneradorInstanciaSolucionInfoProfesor(idGeneradorInstanciaSolucionInfoProfesor) ;
-        }
+                generadorInstanciaSolucionInfoProfesor.setIdGeneradorInstanciaSolucionInfoProfesor(idGeneradorInstanciaSolucionInfoProfesor) ;
+                generadorInstanciaSolucionInfoProfesor.setPuntuacionMatutina(puntuacionHorarioInfo.getPuntuacionMatutina()) ;
+                generadorInstanciaSolucionInfoProfesor.setPorcentajeMatutina(puntuacionHorarioInfo.getPorcentajeMatutina()) ;
+                generadorInstanciaSolucionInfoProfesor.setPuntuacionVespertina(puntuacionHorarioInfo.getPuntuacionVespertina()) ;
+                generadorInstanciaSolucionInfoProfesor.setPorcentajeVespertina(puntuacionHorarioInfo.getPorcentajeVespertina()) ;
 
-        // Si es matutino, seteamos la puntuación y el porcentaje
-        if (esMatutino)
-        {
-            generadorInstanciaSolucionInfoProfesor.setPuntuacionMatutina(puntuacion) ;
-            generadorInstanciaSolucionInfoProfesor.setPorcentajeMatutina(porcentaje) ;
-        }
-        else
-        {
-            generadorInstanciaSolucionInfoProfesor.setPuntuacionVespertina(puntuacion) ;        
-            generadorInstanciaSolucionInfoProfesor.setPorcentajeVespertina(porcentaje) ;
+                generadorInstanciaSolucionInfoProfesores.add(generadorInstanciaSolucionInfoProfesor) ;
+            }
         }
 
-        // Guardamos la instancia en la base de datos
-        this.generadorInstanciaSolucionInfoProfesorRepository.saveAndFlush(generadorInstanciaSolucionInfoProfesor) ;
-    }
-
-    /**
-     * Método que guarda la información de la solución general
-     * @param generadorInstancia - Generador instancia
-     * @param tipo - Tipo de información de la solución
-     * @param puntuacion - Puntuación de la solución
-     * @param porcentaje - Porcentaje de la solución        
-     * @param esMatutino - Indica si es matutino
-     */
-    public void guardarGeneradorInstanciaSolucionInfoGeneral(GeneradorInstancia generadorInstancia, String tipo, double puntuacion, double porcentaje, boolean esMatutino)
-    {        
-        // Creamos una instancia de IdGeneradorInstanciaSolucionInfoGeneral
-        IdGeneradorInstanciaSolucionInfoGeneral idGeneradorInstanciaSolucionInfoGeneral = new IdGeneradorInstanciaSolucionInfoGeneral() ;
-        
-        // Seteamos los valores del ID compuesto
-        idGeneradorInstanciaSolucionInfoGeneral.setGeneradorInstancia(generadorInstancia) ;
-        idGeneradorInstanciaSolucionInfoGeneral.setTipo(tipo) ;
+        List<GeneradorInstanciaSolucionInfoGeneral> generadorInstanciaSolucionInfoGenerales = new ArrayList<GeneradorInstanciaSolucionInfoGeneral>() ;
 
-        // Buscamos el generadorInstanciaSolucionInfoGeneral en BBDD
-        Optional<GeneradorInstanciaSolucionInfoGeneral> optionalGeneradorInstanciaSolucionInfoGeneral = 
-            this.generadorInstanciaSolucionInfoGeneralRepository.findById(idGeneradorInstanciaSolucionInfoGeneral) ;
+        // Iteramos por cada tipo de información general de la solución
+        for (Map.Entry<String, PuntuacionHorarioInfo> entryTipo : puntuacionHorario.getInfoGeneral().entrySet())
+        {
+            // Creamos una instancia de IdGeneradorInstanciaSolucionInfoGeneral
+            IdGeneradorInstanciaSolucionInfoGeneral idGeneradorInstanciaSolucionInfoGeneral = new IdGeneradorInstanciaSolucionInfoGeneral() ;
 
-        // Creamos una instancia de GeneradorInstanciaSolucionInfoGeneral
-        GeneradorInstanciaSolucionInfoGeneral generadorInstanciaSolucionInfoGeneral = null ;
+            // Seteamos los valores del ID compuesto
+            idGeneradorInstanciaSolucionInfoGeneral.setGeneradorInstancia(generadorInstancia) ;
+            idGeneradorInstanciaSolucionInfoGeneral.setTipo(entryTipo.getKey()) ;
 
-        // Si existe, actualizamos la puntuación y el porcentaje
-        if (optionalGeneradorInstanciaSolucionInfoGeneral.isPresent())
-        {
-            // Obtenemos el generadorInstanciaSolucionInfoGeneral
-            generadorInstanciaSolucionInfoGeneral = optionalGeneradorInstanciaSolucionInfoGeneral.get() ;
-        }
-        else
-        {
             // Creamos una nueva instancia de GeneradorInstanciaSolucionInfoGeneral
-            generadorInstanciaSolucionInfoGeneral = new GeneradorInstanciaSolucionInfoGeneral() ;
+            GeneradorInstanciaSolucionInfoGeneral generadorInstanciaSolucionInfoGeneral = new GeneradorInstanciaSolucionInfoGeneral() ;
+
+            // Seteamos el ID compuesto, las puntuaciones y los porcentajes
+            PuntuacionHorarioInfo puntuacionHorarioInfo = entryTipo.getValue() ;
 
-            // Seteamos el ID compuesto
             generadorInstanciaSolucionInfoGeneral.setIdGeneradorInstanciaSolucionInfoGeneral(idGeneradorInstanciaSolucionInfoGeneral) ;
-        }
+            generadorInstanciaSolucionInfoGeneral.setPuntuacionMatutina(puntuacionHorarioInfo.getPuntuacionMatutina()) ;
+            generadorInstanciaSolucionInfoGeneral.setPorcentajeMatutina(puntuacionHorarioInfo.getPorcentajeMatutina()) ;
+            generadorInstanciaSolucionInfoGeneral.setPuntuacionVespertina(puntuacionHorarioInfo.getPuntuacionVespertina()) ;
+            generadorInstanciaSolucionInfoGeneral.setPorcentajeVespertina(puntuacionHorarioInfo.getPorcentajeVespertina()) ;
 
-        // Si es matutino, seteamos la puntuación y el porcentaje
-        if (esMatutino)
-        {
-            generadorInstanciaSolucionInfoGeneral.setPuntuacionMatutina(puntuacion) ;
-            generadorInstanciaSolucionInfoGeneral.setPorcentajeMatutina(porcentaje) ;
-        }
-        else    
-        {
-            generadorInstanciaSolucionInfoGeneral.setPuntuacionVespertina(puntuacion) ;
-            generadorInstanciaSolucionInfoGeneral.setPorcentajeVespertina(porcentaje) ;
+            generadorInstanciaSolucionInfoGenerales.add(generadorInstanciaSolucionInfoGeneral) ;
         }
 
-        // Guardamos la instancia en la base de datos
-        this.generadorInstanciaSolucionInfoGeneralRepository.saveAndFlush(generadorInstanciaSolucionInfoGeneral) ;
+        // Guardamos todas las instancias en la base de datos
+        this.generadorInstanciaSolucionInfoProfesorRepository.saveAllAndFlush(generadorInstanciaSolucionInfoProfesores) ;
+        this.generadorInstanciaSolucionInfoGeneralRepository.saveAllAndFlush(generadorInstanciaSolucionInfoGenerales) ;
     }
 }
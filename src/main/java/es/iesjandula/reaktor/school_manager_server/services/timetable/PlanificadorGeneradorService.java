@@ -0,0 +1,481 @@
+package es.iesjandula.reaktor.school_manager_server.services.timetable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import es.iesjandula.reaktor.school_manager_server.generator.threads.ControlHilosGenerador;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.HorarioThread;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.TrabajoGenerador;
+import es.iesjandula.reaktor.school_manager_server.models.Generador;
+import es.iesjandula.reaktor.school_manager_server.repositories.generador.IGeneradorRepository;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
+import es.iesjandula.reaktor.school_manager_server.utils.SchoolManagerServerException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Planificador de los trabajos del generador. Permite lanzar varias generaciones a la vez (por ejemplo, con distintos
+ * umbrales o restricciones) sin superar un número máximo de núcleos entre todas ellas.
+ * <p>Los hilos de todos los trabajos se ejecutan en un único pool de tantos hilos como núcleos máximos. Un trabajo solo
+ * arranca si quedan libres tantos núcleos como hilos usa, y si no, espera en una cola por orden de llegada.
+ * La tabla de trabajos guarda los trabajos en cola y en curso por el identificador de su Generador, junto con su curso
+ * académico, de forma que cada uno se puede detener por separado o todos los de un curso académico a la vez.</p>
+ * <p>Cada cierto tiempo, y también al parar el servidor, se guarda un punto de control de los trabajos en curso para poder
+ * reanudarlos tras un reinicio. El punto de control se borra cuando el trabajo termina con su resultado guardado o se detiene.</p>
+ * <p>Los cambios de estado de los trabajos y, mientras haya clientes suscritos, los contadores de su búsqueda se publican
+ * en el bus de eventos del generador.</p>
+ */
+@Slf4j
+@Service
+public class PlanificadorGeneradorService
+{
+    @Autowired
+    private IGeneradorRepository generadorRepository ;
+
+    @Autowired
+    private CheckpointGeneradorService checkpointGeneradorService ;
+
+    @Autowired
+    private EventosGeneradorService eventosGeneradorService ;
+
+    /** Número máximo de núcleos que usan a la vez todos los trabajos (0 o menos para usar todos los procesadores) */
+    @Value("${" + Constants.PARAM_YAML_GENERADOR_MAXIMO_NUCLEOS + ":" + Constants.VALOR_GENERADOR_MAXIMO_NUCLEOS + "}")
+    private int maximoNucleos ;
+
+    /** Número máximo de trabajos esperando en cola */
+    @Value("${" + Constants.PARAM_YAML_GENERADOR_MAXIMO_TRABAJOS_EN_COLA + ":" + Constants.VALOR_GENERADOR_MAXIMO_TRABAJOS_EN_COLA + "}")
+    private int maximoTrabajosEnCola ;
+
+    /** Trabajos en cola y en curso por el identificador de su generador */
+    private final Map<Integer, TrabajoGenerador> tablaTrabajos = new LinkedHashMap<Integer, TrabajoGenerador>() ;
+
+    /** Trabajos esperando núcleos libres, por orden de llegada */
+    private final Deque<TrabajoGenerador> colaTrabajos = new ArrayDeque<TrabajoGenerador>() ;
+
+    /** Último trabajo arrancado de cada curso académico, para consultar las estadísticas de su búsqueda */
+    private final Map<String, TrabajoGenerador> ultimoTrabajoPorCursoAcademico = new HashMap<String, TrabajoGenerador>() ;
+
+    /** Núcleos que usan los trabajos en curso */
+    private int nucleosEnUso ;
+
+    /** Pool de hilos de todos los trabajos (se crea con el primer trabajo) */
+    private ExecutorService executorService ;
+
+    /** True si se está parando el servidor, para conservar los puntos de control de los trabajos que se detienen */
+    private boolean apagando ;
+
+    /**
+     * @return número máximo de núcleos que usan a la vez todos los trabajos
+     */
+    public int obtenerMaximoNucleos()
+    {
+        int outcome = this.maximoNucleos ;
+
+        // Si no se ha configurado un número válido, usamos todos los procesadores disponibles
+        if (outcome <= 0)
+        {
+            outcome = Runtime.getRuntime().availableProcessors() ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * Añade un trabajo a la tabla de trabajos. Arranca en este momento si no hay otros esperando y quedan núcleos libres,
+     * y si no, se queda en cola
+     *
+     * @param trabajoGenerador trabajo a lanzar
+     * @throws SchoolManagerServerException si la cola de trabajos está llena
+     */
+    public synchronized void lanzarTrabajo(TrabajoGenerador trabajoGenerador) throws SchoolManagerServerException
+    {
+        boolean arrancaYa = this.colaTrabajos.isEmpty() && this.nucleosEnUso + trabajoGenerador.getNumeroHilos() <= this.obtenerMaximoNucleos() ;
+
+        if (!arrancaYa && this.colaTrabajos.size() >= this.maximoTrabajosEnCola)
+        {
+            // El generador ya se creó en BBDD, así que lo damos por erróneo
+            this.actualizarEstadoGenerador(trabajoGenerador.getIdGenerador(), Constants.ESTADO_GENERADOR_ERROR) ;
+
+            String mensajeError = "La cola del generador está llena: hay " + this.colaTrabajos.size() + " generaciones esperando" ;
+
+            log.error(mensajeError) ;
+            throw new SchoolManagerServerException(Constants.ERROR_CODE_COLA_GENERADOR_LLENA, mensajeError) ;
+        }
+
+        this.tablaTrabajos.put(trabajoGenerador.getIdGenerador(), trabajoGenerador) ;
+
+        if (arrancaYa)
+        {
+            this.arrancarTrabajo(trabajoGenerador) ;
+        }
+        else
+        {
+            this.colaTrabajos.addLast(trabajoGenerador) ;
+
+            Optional<Generador> optionalGenerador = this.generadorRepository.findById(trabajoGenerador.getIdGenerador()) ;
+            if (optionalGenerador.isPresent())
+            {
+                optionalGenerador.get().setEstado(Constants.ESTADO_GENERADOR_EN_COLA) ;
+                this.generadorRepository.saveAndFlush(optionalGenerador.get()) ;
+            }
+
+            log.info("Generador {} del curso académico {} en cola: {} núcleos en uso de {}",
+                     trabajoGenerador.getIdGenerador(), trabajoGenerador.getCursoAcademico(), this.nucleosEnUso, this.obtenerMaximoNucleos()) ;
+
+            this.eventosGeneradorService.publicar(Constants.EVENTO_GENERADOR_EN_COLA, trabajoGenerador, trabajoGenerador.getEstado()) ;
+        }
+    }
+
+    /**
+     * Detiene un trabajo: si está en cola, lo quita de ella, y si está en curso, indica a sus hilos que deben detenerse
+     *
+     * @param idGenerador identificador del generador del trabajo
+     * @return true si el trabajo estaba en la tabla de trabajos
+     */
+    public synchronized boolean detenerTrabajo(int idGenerador)
+    {
+        TrabajoGenerador trabajoGenerador = this.tablaTrabajos.get(idGenerador) ;
+
+        boolean outcome = trabajoGenerador != null && !Constants.ESTADO_GENERADOR_DETENIDO.equals(trabajoGenerador.getEstado()) ;
+
+        if (outcome)
+        {
+            if (Constants.ESTADO_GENERADOR_EN_COLA.equals(trabajoGenerador.getEstado()))
+            {
+                // No llegó a arrancar, así que no ocupa núcleos ni tendrá hilos que terminen
+                this.colaTrabajos.remove(trabajoGenerador) ;
+                this.tablaTrabajos.remove(idGenerador) ;
+
+                this.eventosGeneradorService.publicar(Constants.EVENTO_GENERADOR_TERMINADO, trabajoGenerador, Constants.ESTADO_GENERADOR_DETENIDO) ;
+            }
+            else
+            {
+                // Sale de la tabla cuando terminen sus hilos
+                trabajoGenerador.detener() ;
+            }
+
+            trabajoGenerador.setEstado(Constants.ESTADO_GENERADOR_DETENIDO) ;
+            this.actualizarEstadoGenerador(idGenerador, Constants.ESTADO_GENERADOR_DETENIDO) ;
+
+            // Una detención forzada no se reanuda
+            this.checkpointGeneradorService.borrarCheckpoint(idGenerador) ;
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @param cursoAcademico curso académico
+     * @return número de trabajos del curso académico que se han detenido
+     */
+    public synchronized int detenerTrabajosCursoAcademico(String cursoAcademico)
+    {
+        int outcome = 0 ;
+
+        for (TrabajoGenerador trabajoGenerador : this.obtenerTrabajos(cursoAcademico))
+        {
+            if (this.detenerTrabajo(trabajoGenerador.getIdGenerador()))
+            {
+                outcome++ ;
+            }
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @param cursoAcademico curso académico
+     * @return trabajos en cola y en curso del curso académico, por orden de lanzamiento
+     */
+    public synchronized List<TrabajoGenerador> obtenerTrabajos(String cursoAcademico)
+    {
+        List<TrabajoGenerador> outcome = new ArrayList<TrabajoGenerador>() ;
+
+        for (TrabajoGenerador trabajoGenerador : this.tablaTrabajos.values())
+        {
+            if (cursoAcademico.equals(trabajoGenerador.getCursoAcademico()))
+            {
+                outcome.add(trabajoGenerador) ;
+            }
+        }
+
+        return outcome ;
+    }
+
+    /**
+     * @param idGenerador identificador del generador del trabajo
+     * @return trabajo en cola o en curso del generador (null si no está en la tabla de trabajos)
+     */
+    public synchronized TrabajoGenerador obtenerTrabajo(int idGenerador)
+    {
+        return this.tablaTrabajos.get(idGenerador) ;
+    }
+
+    /**
+     * @param cursoAcademico curso académico
+     * @return estado compartido por los hilos del último trabajo arrancado del curso académico (null si no se ha arrancado ninguno)
+     */
+    public synchronized ControlHilosGenerador obtenerControlHilosUltimoTrabajo(String cursoAcademico)
+    {
+        TrabajoGenerador trabajoGenerador = this.ultimoTrabajoPorCursoAcademico.get(cursoAcademico) ;
+
+        return trabajoGenerador != null ? trabajoGenerador.getControlHilosGenerador() : null ;
+    }
+
+    /**
+     * @return núcleos que usan los trabajos en curso
+     */
+    public synchronized int getNucleosEnUso()
+    {
+        return this.nucleosEnUso ;
+    }
+
+    /**
+     * Guarda periódicamente el punto de control de los trabajos en curso
+     */
+    @Scheduled(fixedDelayString   = "${" + Constants.PARAM_YAML_GENERADOR_CHECKPOINT_SEGUNDOS + ":" + Constants.VALOR_GENERADOR_CHECKPOINT_SEGUNDOS + "}",
+               initialDelayString = "${" + Constants.PARAM_YAML_GENERADOR_CHECKPOINT_SEGUNDOS + ":" + Constants.VALOR_GENERADOR_CHECKPOINT_SEGUNDOS + "}",
+               timeUnit           = TimeUnit.SECONDS)
+    public synchronized void guardarCheckpoints()
+    {
+        if (!this.apagando)
+        {
+            this.guardarCheckpointsTrabajosEnCurso() ;
+        }
+    }
+
+    /**
+     * Publica periódicamente los contadores de la búsqueda de los trabajos en curso, solo si hay clientes suscritos.
+     * También envía el latido a los suscriptores, así se detectan los que se han desconectado aunque no haya trabajos en curso
+     */
+    @Scheduled(fixedDelayString = "${" + Constants.PARAM_YAML_GENERADOR_EVENTOS_MILISEGUNDOS_PROGRESO + ":" + Constants.VALOR_GENERADOR_EVENTOS_MILISEGUNDOS_PROGRESO + "}")
+    public synchronized void publicarProgreso()
+    {
+        if (this.eventosGeneradorService.haySuscriptores())
+        {
+            this.eventosGeneradorService.enviarLatido() ;
+
+            for (TrabajoGenerador trabajoGenerador : this.tablaTrabajos.values())
+            {
+                if (Constants.ESTADO_GENERADOR_EN_CURSO.equals(trabajoGenerador.getEstado()))
+                {
+                    this.eventosGeneradorService.publicar(Constants.EVENTO_GENERADOR_PROGRESO, trabajoGenerador, trabajoGenerador.getEstado()) ;
+                }
+            }
+        }
+    }
+
+    /**
+     * Guarda el punto de control de los trabajos en curso y detiene los hilos de todos los trabajos al parar el servidor.
+     * Los generadores se quedan en curso en BBDD y al arrancar de nuevo se marcan como interrumpidos
+     */
+    @PreDestroy
+    public synchronized void detenerPlanificador()
+    {
+        this.apagando = true ;
+
+        this.guardarCheckpointsTrabajosEnCurso() ;
+
+        for (TrabajoGenerador trabajoGenerador : this.tablaTrabajos.values())
+        {
+            trabajoGenerador.detener() ;
+        }
+
+        if (this.executorService != null)
+        {
+            this.executorService.shutdown() ;
+        }
+    }
+
+    /**
+     * Guarda el punto de control de los trabajos en curso (los que están en cola todavía no han encontrado nada)
+     */
+    private void guardarCheckpointsTrabajosEnCurso()
+    {
+        for (TrabajoGenerador trabajoGenerador : this.tablaTrabajos.values())
+        {
+            if (Constants.ESTADO_GENERADOR_EN_CURSO.equals(trabajoGenerador.getEstado()))
+            {
+                this.checkpointGeneradorService.guardarCheckpoint(trabajoGenerador) ;
+            }
+        }
+    }
+
+    /**
+     * Arranca un trabajo, ocupando sus núcleos y entregando sus hilos al pool
+     *
+     * @param trabajoGenerador trabajo a arrancar
+     */
+    private void arrancarTrabajo(TrabajoGenerador trabajoGenerador)
+    {
+        this.nucleosEnUso = this.nucleosEnUso + trabajoGenerador.getNumeroHilos() ;
+
+        trabajoGenerador.setEstado(Constants.ESTADO_GENERADOR_EN_CURSO) ;
+        this.ultimoTrabajoPorCursoAcademico.put(trabajoGenerador.getCursoAcademico(), trabajoGenerador) ;
+
+        log.info("Arrancando el generador {} del curso académico {} con {} hilos: {} núcleos en uso de {}",
+                 trabajoGenerador.getIdGenerador(), trabajoGenerador.getCursoAcademico(), trabajoGenerador.getNumeroHilos(),
+                 this.nucleosEnUso, this.obtenerMaximoNucleos()) ;
+
+        ExecutorService executorServiceTrabajos = this.obtenerExecutorService() ;
+        for (HorarioThread horarioThread : trabajoGenerador.crearHilos())
+        {
+            executorServiceTrabajos.execute(() -> this.ejecutarHilo(trabajoGenerador, horarioThread)) ;
+        }
+
+        this.eventosGeneradorService.publicar(Constants.EVENTO_GENERADOR_ARRANCADO, trabajoGenerador, trabajoGenerador.getEstado()) ;
+    }
+
+    /**
+     * Ejecuta uno de los hilos de un trabajo en el pool. El último hilo del trabajo en terminar libera sus núcleos
+     *
+     * @param trabajoGenerador trabajo al que pertenece el hilo
+     * @param horarioThread hilo del generador
+     */
+    private void ejecutarHilo(TrabajoGenerador trabajoGenerador, HorarioThread horarioThread)
+    {
+        try
+        {
+            horarioThread.run() ;
+        }
+        finally
+        {
+            if (trabajoGenerador.finalizarHilo())
+            {
+                this.finalizarTrabajo(trabajoGenerador) ;
+            }
+        }
+    }
+
+    /**
+     * Saca de la tabla un trabajo cuyos hilos han terminado y arranca los trabajos en cola que quepan en los núcleos liberados
+     *
+     * @param trabajoGenerador trabajo finalizado
+     */
+    private synchronized void finalizarTrabajo(TrabajoGenerador trabajoGenerador)
+    {
+        this.nucleosEnUso = this.nucleosEnUso - trabajoGenerador.getNumeroHilos() ;
+        this.tablaTrabajos.remove(trabajoGenerador.getIdGenerador()) ;
+
+        // Al parar el servidor, los hilos terminan sin haber acabado, así que conservamos el punto de control para reanudarlo
+        boolean conservarCheckpoint = this.apagando ;
+
+        // Si no se ha detenido, fijamos el estado final en BBDD según se haya guardado o no el resultado de la búsqueda
+        if (!this.apagando && Constants.ESTADO_GENERADOR_EN_CURSO.equals(trabajoGenerador.getEstado()))
+        {
+            if (trabajoGenerador.getControlHilosGenerador().isResultadoGuardado())
+            {
+                trabajoGenerador.setEstado(Constants.ESTADO_GENERADOR_FINALIZADO) ;
+            }
+            else
+            {
+                log.error("ERROR - El generador {} del curso académico {} ha terminado sin guardar ninguna solución. Se conserva su punto de control",
+                          trabajoGenerador.getIdGenerador(), trabajoGenerador.getCursoAcademico()) ;
+
+                trabajoGenerador.setEstado(Constants.ESTADO_GENERADOR_ERROR) ;
+                conservarCheckpoint = true ;
+            }
+
+            try
+            {
+                this.actualizarEstadoGenerador(trabajoGenerador.getIdGenerador(), trabajoGenerador.getEstado()) ;
+            }
+            catch (RuntimeException runtimeException)
+            {
+                log.error("ERROR - No se pudo actualizar el estado del generador " + trabajoGenerador.getIdGenerador(), runtimeException) ;
+            }
+        }
+
+        if (!conservarCheckpoint)
+        {
+            this.checkpointGeneradorService.borrarCheckpoint(trabajoGenerador.getIdGenerador()) ;
+        }
+
+        this.eventosGeneradorService.publicar(Constants.EVENTO_GENERADOR_TERMINADO, trabajoGenerador,
+                                              this.apagando ? Constants.ESTADO_GENERADOR_INTERRUMPIDO : trabajoGenerador.getEstado()) ;
+
+        log.info("Generador {} del curso académico {} terminado: {} núcleos en uso de {}",
+                 trabajoGenerador.getIdGenerador(), trabajoGenerador.getCursoAcademico(), this.nucleosEnUso, this.obtenerMaximoNucleos()) ;
+
+        // Arrancamos los trabajos en cola por orden de llegada mientras quepan (salvo que se esté parando el servidor)
+        while (!this.apagando && !this.colaTrabajos.isEmpty() &&
+               this.nucleosEnUso + this.colaTrabajos.peekFirst().getNumeroHilos() <= this.obtenerMaximoNucleos())
+        {
+            TrabajoGenerador trabajoEnCola = this.colaTrabajos.pollFirst() ;
+
+            try
+            {
+                // Ahora comienza realmente la generación
+                Optional<Generador> optionalGenerador = this.generadorRepository.findById(trabajoEnCola.getIdGenerador()) ;
+                if (optionalGenerador.isPresent())
+                {
+                    optionalGenerador.get().setEstado(Constants.ESTADO_GENERADOR_EN_CURSO) ;
+                    this.generadorRepository.saveAndFlush(optionalGenerador.get()) ;
+                }
+
+                this.arrancarTrabajo(trabajoEnCola) ;
+            }
+            catch (RuntimeException runtimeException)
+            {
+                log.error("ERROR - No se pudo arrancar el generador en cola " + trabajoEnCola.getIdGenerador(), runtimeException) ;
+
+                this.tablaTrabajos.remove(trabajoEnCola.getIdGenerador()) ;
+            }
+        }
+    }
+
+    /**
+     * @param idGenerador identificador del generador
+     * @param estado estado final del generador
+     */
+    private void actualizarEstadoGenerador(int idGenerador, String estado)
+    {
+        Optional<Generador> optionalGenerador = this.generadorRepository.findById(idGenerador) ;
+
+        if (optionalGenerador.isPresent())
+        {
+            Generador generador = optionalGenerador.get() ;
+            generador.pararGenerador(estado) ;
+            this.generadorRepository.saveAndFlush(generador) ;
+        }
+    }
+
+    /**
+     * @return pool de hilos de todos los trabajos, con tantos hilos como núcleos máximos
+     */
+    private ExecutorService obtenerExecutorService()
+    {
+        if (this.executorService == null)
+        {
+            int numeroNucleos = this.obtenerMaximoNucleos() ;
+
+            // Los núcleos libres se comprueban antes de arrancar cada trabajo, así que ningún hilo espera en la cola del pool
+            AtomicInteger numeroHilo = new AtomicInteger() ;
+            this.executorService = new ThreadPoolExecutor(numeroNucleos, numeroNucleos, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
+                                                          runnable ->
+                                                          {
+                                                              Thread thread = new Thread(runnable, "generador-" + numeroHilo.incrementAndGet()) ;
+                                                              thread.setDaemon(true) ;
+                                                              return thread ;
+                                                          }) ;
+        }
+
+        return this.executorService ;
+    }
+}
@@ -389,7 +389,47 @@ public class Constants
 	 * Error - No se han encontrado sesiones asignadas
 	 */
 	public static final int ERROR_CODE_SESIONES_ASIGNADAS_NO_ENCONTRADAS = 306;
-	
+
+	/**
+	 * Error - Instantánea de los datos del generador incorrecta
+	 */
+	public static final int ERROR_CODE_INSTANTANEA_GENERADOR_INCORRECTA = 307;
+
+	/**
+	 * Error - Parámetros del centro sintético del banco de pruebas del generador incorrectos
+	 */
+	public static final int ERROR_CODE_CENTRO_SINTETICO_INCORRECTO = 308;
+
+	/**
+	 * Error - La cola de trabajos del generador está llena
+	 */
+	public static final int ERROR_CODE_COLA_GENERADOR_LLENA = 309;
+
+	/**
+	 * Error - No hay un generador interrumpido que reanudar
+	 */
+	public static final int ERROR_CODE_NO_GENERADOR_INTERRUMPIDO = 310;
+
+	/**
+	 * Error - El punto de control del generador no existe, no se puede leer o no corresponde a los datos actuales
+	 */
+	public static final int ERROR_CODE_CHECKPOINT_GENERADOR_INCORRECTO = 311;
+
+	/**
+	 * Error - No se ha indicado una semilla válida con la que repetir el generador
+	 */
+	public static final int ERROR_CODE_SEMILLA_GENERADOR_INCORRECTA = 312;
+
+	/**
+	 * Error - Con los datos actuales no puede existir ningún horario (análisis de factibilidad previo al generador)
+	 */
+	public static final int ERROR_CODE_GENERADOR_SIN_HORARIO_POSIBLE = 313;
+
+	/**
+	 * Error - La solución es de una repetición del generador y no se puede seleccionar
+	 */
+	public static final int ERROR_CODE_SOLUCION_REPETICION_NO_SELECCIONABLE = 314;
+
 	/**
 	 * Constantes/Configuración
 	 */
@@ -583,6 +623,121 @@ public class Constants
 	 */
 	public static final String ESTADO_GENERADOR_DETENIDO   = "DETENIDO" ;
 
+	/**
+	 * Estado del generador - En cola, esperando núcleos libres para arrancar
+	 */
+	public static final String ESTADO_GENERADOR_EN_COLA    = "EN_COLA" ;
+
+	/**
+	 * Estado del generador - Interrumpido por una parada del servidor, se puede reanudar desde su punto de control
+	 */
+	public static final String ESTADO_GENERADOR_INTERRUMPIDO = "INTERRUMPIDO" ;
+
+	/******************************************************/
+	/*************** Eventos del generador ****************/
+	/******************************************************/
+
+	/**
+	 * Evento del generador - El trabajo espera en cola a que haya núcleos libres
+	 */
+	public static final String EVENTO_GENERADOR_EN_COLA    = "EN_COLA" ;
+
+	/**
+	 * Evento del generador - El trabajo ha arrancado sus hilos
+	 */
+	public static final String EVENTO_GENERADOR_ARRANCADO  = "ARRANCADO" ;
+
+	/**
+	 * Evento del generador - Contadores de la búsqueda del trabajo en curso
+	 */
+	public static final String EVENTO_GENERADOR_PROGRESO   = "PROGRESO" ;
+
+	/**
+	 * Evento del generador - Un hilo ha encontrado una solución aceptada
+	 */
+	public static final String EVENTO_GENERADOR_SOLUCION   = "SOLUCION" ;
+
+	/**
+	 * Evento del generador - El trabajo ha terminado (con el estado final del generador: finalizado, detenido o interrumpido)
+	 */
+	public static final String EVENTO_GENERADOR_TERMINADO  = "TERMINADO" ;
+
+	/**
+	 * Comentario del latido que se envía a los suscriptores de los eventos del generador, que el cliente ignora
+	 */
+	public static final String EVENTO_GENERADOR_LATIDO     = "LATIDO" ;
+
+	/******************************************************/
+	/*************** Estrategias de búsqueda **************/
+	/******************************************************/
+
+	/**
+	 * Estrategia de búsqueda - Ante un callejón sin salida se comienza de nuevo con la matriz vacía
+	 */
+	public static final String ESTRATEGIA_BUSQUEDA_REINICIO_ALEATORIO = "REINICIO_ALEATORIO" ;
+
+	/**
+	 * Estrategia de búsqueda - Ante un callejón sin salida se deshacen las últimas asignaciones hasta la que provoca el conflicto
+	 */
+	public static final String ESTRATEGIA_BUSQUEDA_SALTO_ATRAS        = "SALTO_ATRAS" ;
+
+	/******************************************************/
+	/*********** Orden de elección de sesiones ************/
+	/******************************************************/
+
+	/**
+	 * Orden de sesiones - Una al azar de la sublista con más restricciones iniciales
+	 */
+	public static final String ORDEN_SESIONES_RESTRICCIONES_INICIALES = "RESTRICCIONES_INICIALES" ;
+
+	/**
+	 * Orden de sesiones - La sesión con menos huecos libres en ese momento y, a igualdad, la del profesor con más carga (DSatur)
+	 */
+	public static final String ORDEN_SESIONES_MAS_RESTRINGIDA         = "MAS_RESTRINGIDA" ;
+
+	/******************************************************/
+	/**************** Modos del generador *****************/
+	/******************************************************/
+
+	/**
+	 * Modo del generador - Se detiene con la primera solución que supera el umbral mínimo
+	 */
+	public static final String MODO_GENERADOR_PRIMERA_SOLUCION        = "PRIMERA_SOLUCION" ;
+
+	/**
+	 * Modo del generador - Busca durante un tiempo fijo y guarda las mejores soluciones encontradas
+	 */
+	public static final String MODO_GENERADOR_OPTIMIZACION_POR_TIEMPO = "OPTIMIZACION_POR_TIEMPO" ;
+
+	/******************************************************/
+	/******* Búsqueda local sobre las soluciones **********/
+	/******************************************************/
+
+	/**
+	 * Búsqueda local - No se trata de mejorar las soluciones encontradas
+	 */
+	public static final String BUSQUEDA_LOCAL_NINGUNA           = "NINGUNA" ;
+
+	/**
+	 * Búsqueda local - Solo se aceptan los movimientos que no empeoran la puntuación
+	 */
+	public static final String BUSQUEDA_LOCAL_ASCENSO_COLINA    = "ASCENSO_COLINA" ;
+
+	/**
+	 * Búsqueda local - Se aceptan movimientos que empeoran la puntuación con una probabilidad que decrece con la temperatura
+	 */
+	public static final String BUSQUEDA_LOCAL_RECOCIDO_SIMULADO = "RECOCIDO_SIMULADO" ;
+
+	/**
+	 * Temperatura inicial del recocido simulado (un empeoramiento de 1 punto se acepta al principio con una probabilidad del 60%)
+	 */
+	public static final double TEMPERATURA_INICIAL_RECOCIDO_SIMULADO = 2.00d ;
+
+	/**
+	 * Temperatura final del recocido simulado (al final prácticamente no se aceptan empeoramientos)
+	 */
+	public static final double TEMPERATURA_FINAL_RECOCIDO_SIMULADO   = 0.05d ;
+
 	/******************************************************/
 	/******************** Categorías **********************/
 	/******************************************************/
@@ -664,6 +819,166 @@ public class Constants
 	 */
 	public static final String PARAM_YAML_UMBRAL_MINIMO_SOLUCION = "reaktor.constantes.umbralMinimoSolucion";
 
+	/**
+	 * Constante - Parámetros YAML - Número de hilos del generador que buscan soluciones en paralelo
+	 */
+	public static final String PARAM_YAML_GENERADOR_NUMERO_HILOS = "reaktor.generador.numeroHilos";
+
+	/**
+	 * Valor por defecto del número de hilos del generador (0 o menos para usar todos los procesadores disponibles)
+	 */
+	public static final String VALOR_GENERADOR_NUMERO_HILOS = "1";
+
+	/**
+	 * Constante - Parámetros YAML - Estrategia de búsqueda del generador ante un callejón sin salida
+	 */
+	public static final String PARAM_YAML_GENERADOR_ESTRATEGIA_BUSQUEDA = "reaktor.generador.estrategiaBusqueda";
+
+	/**
+	 * Valor por defecto de la estrategia de búsqueda del generador
+	 */
+	public static final String VALOR_GENERADOR_ESTRATEGIA_BUSQUEDA = ESTRATEGIA_BUSQUEDA_REINICIO_ALEATORIO;
+
+	/**
+	 * Constante - Parámetros YAML - Número máximo de saltos atrás en un mismo intento antes de comenzar de nuevo
+	 */
+	public static final String PARAM_YAML_GENERADOR_MAXIMO_SALTOS_ATRAS = "reaktor.generador.maximoSaltosAtras";
+
+	/**
+	 * Valor por defecto del número máximo de saltos atrás en un mismo intento
+	 */
+	public static final String VALOR_GENERADOR_MAXIMO_SALTOS_ATRAS = "1000";
+
+	/**
+	 * Constante - Parámetros YAML - Modo del generador
+	 */
+	public static final String PARAM_YAML_GENERADOR_MODO = "reaktor.generador.modo";
+
+	/**
+	 * Valor por defecto del modo del generador
+	 */
+	public static final String VALOR_GENERADOR_MODO = MODO_GENERADOR_PRIMERA_SOLUCION;
+
+	/**
+	 * Constante - Parámetros YAML - Segundos que dura la búsqueda en el modo de optimización por tiempo
+	 */
+	public static final String PARAM_YAML_GENERADOR_SEGUNDOS_OPTIMIZACION = "reaktor.generador.segundosOptimizacion";
+
+	/**
+	 * Valor por defecto de los segundos que dura la búsqueda en el modo de optimización por tiempo
+	 */
+	public static final String VALOR_GENERADOR_SEGUNDOS_OPTIMIZACION = "300";
+
+	/**
+	 * Constante - Parámetros YAML - Número de mejores soluciones que se guardan en el modo de optimización por tiempo
+	 */
+	public static final String PARAM_YAML_GENERADOR_NUMERO_MEJORES_SOLUCIONES = "reaktor.generador.numeroMejoresSoluciones";
+
+	/**
+	 * Valor por defecto del número de mejores soluciones que se guardan en el modo de optimización por tiempo
+	 */
+	public static final String VALOR_GENERADOR_NUMERO_MEJORES_SOLUCIONES = "5";
+
+	/**
+	 * Constante - Parámetros YAML - Búsqueda local que mejora cada solución encontrada antes de puntuarla
+	 */
+	public static final String PARAM_YAML_GENERADOR_BUSQUEDA_LOCAL = "reaktor.generador.busquedaLocal";
+
+	/**
+	 * Valor por defecto de la búsqueda local que mejora cada solución encontrada
+	 */
+	public static final String VALOR_GENERADOR_BUSQUEDA_LOCAL = BUSQUEDA_LOCAL_ASCENSO_COLINA;
+
+	/**
+	 * Constante - Parámetros YAML - Número de movimientos que prueba la búsqueda local en cada matriz de asignaciones
+	 */
+	public static final String PARAM_YAML_GENERADOR_ITERACIONES_BUSQUEDA_LOCAL = "reaktor.generador.iteracionesBusquedaLocal";
+
+	/**
+	 * Valor por defecto del número de movimientos que prueba la búsqueda local en cada matriz de asignaciones
+	 */
+	public static final String VALOR_GENERADOR_ITERACIONES_BUSQUEDA_LOCAL = "20000";
+
+	/**
+	 * Constante - Parámetros YAML - Orden en el que los hilos eligen las sesiones pendientes de asignar
+	 */
+	public static final String PARAM_YAML_GENERADOR_ORDEN_SESIONES = "reaktor.generador.ordenSesiones";
+
+	/**
+	 * Valor por defecto del orden en el que los hilos eligen las sesiones pendientes de asignar
+	 */
+	public static final String VALOR_GENERADOR_ORDEN_SESIONES = ORDEN_SESIONES_RESTRICCIONES_INICIALES;
+
+	/**
+	 * Constante - Parámetros YAML - Comprobación hacia delante de los dominios de las sesiones pendientes tras cada asignación
+	 */
+	public static final String PARAM_YAML_GENERADOR_PROPAGACION_RESTRICCIONES = "reaktor.generador.propagacionRestricciones";
+
+	/**
+	 * Valor por defecto de la comprobación hacia delante de los dominios de las sesiones pendientes
+	 */
+	public static final String VALOR_GENERADOR_PROPAGACION_RESTRICCIONES = "false";
+
+	/**
+	 * Constante - Parámetros YAML - Número máximo de núcleos que usan a la vez todos los trabajos del generador
+	 */
+	public static final String PARAM_YAML_GENERADOR_MAXIMO_NUCLEOS = "reaktor.generador.maximoNucleos";
+
+	/**
+	 * Valor por defecto del número máximo de núcleos (0 para usar todos los procesadores disponibles)
+	 */
+	public static final String VALOR_GENERADOR_MAXIMO_NUCLEOS = "0";
+
+	/**
+	 * Constante - Parámetros YAML - Número máximo de trabajos del generador esperando en cola
+	 */
+	public static final String PARAM_YAML_GENERADOR_MAXIMO_TRABAJOS_EN_COLA = "reaktor.generador.maximoTrabajosEnCola";
+
+	/**
+	 * Valor por defecto del número máximo de trabajos del generador esperando en cola
+	 */
+	public static final String VALOR_GENERADOR_MAXIMO_TRABAJOS_EN_COLA = "5";
+
+	/**
+	 * Constante - Parámetros YAML - Carpeta donde se guardan los puntos de control de los trabajos del generador
+	 */
+	public static final String PARAM_YAML_GENERADOR_CHECKPOINT_DIRECTORIO = "reaktor.generador.checkpoint.directorio";
+
+	/**
+	 * Valor por defecto de la carpeta de los puntos de control del generador
+	 */
+	public static final String VALOR_GENERADOR_CHECKPOINT_DIRECTORIO = "generador_checkpoints";
+
+	/**
+	 * Constante - Parámetros YAML - Segundos entre dos puntos de control de los trabajos del generador en curso
+	 */
+	public static final String PARAM_YAML_GENERADOR_CHECKPOINT_SEGUNDOS = "reaktor.generador.checkpoint.segundos";
+
+	/**
+	 * Valor por defecto de los segundos entre dos puntos de control del generador
+	 */
+	public static final String VALOR_GENERADOR_CHECKPOINT_SEGUNDOS = "60";
+
+	/**
+	 * Constante - Parámetros YAML - Milisegundos entre dos eventos de progreso de los trabajos del generador en curso
+	 */
+	public static final String PARAM_YAML_GENERADOR_EVENTOS_MILISEGUNDOS_PROGRESO = "reaktor.generador.eventos.milisegundosProgreso";
+
+	/**
+	 * Valor por defecto de los milisegundos entre dos eventos de progreso del generador
+	 */
+	public static final String VALOR_GENERADOR_EVENTOS_MILISEGUNDOS_PROGRESO = "2000";
+
+	/**
+	 * Constante - Parámetros YAML - Milisegundos que dura una suscripción a los eventos del generador antes de que el cliente tenga que reconectar
+	 */
+	public static final String PARAM_YAML_GENERADOR_EVENTOS_MILISEGUNDOS_SUSCRIPCION = "reaktor.generador.eventos.milisegundosSuscripcion";
+
+	/**
+	 * Valor por defecto de los milisegundos que dura una suscripción a los eventos del generador
+	 */
+	public static final String VALOR_GENERADOR_EVENTOS_MILISEGUNDOS_SUSCRIPCION = "1800000";
+
 	/**
 	 * Constante - Parámetros YAML - MODO_INICIALIZAR_SISTEMA
 	 */
@@ -0,0 +1,62 @@
+-- ---------------------------------------------------------------------------------------------------------------------
+-- Migración: añadir la columna curso_academico a la tabla Generador.
+-- ---------------------------------------------------------------------------------------------------------------------
+-- Contexto:
+--   El planificador de trabajos del generador permite lanzar varias generaciones a la vez, así que cada Generador
+--   guarda el curso académico con cuyos datos se lanzó. El umbral mínimo de solución se calcula solo con las
+--   soluciones de ese curso académico y la detención forzada sin identificador solo afecta a sus generaciones.
+--   Con ddl-auto=validate (VPS) Hibernate no crea la columna, por eso hay que añadirla a mano.
+--
+-- Columna real en BBDD (la estrategia de nombres de Spring convierte cursoAcademico -> curso_academico):
+--   * curso_academico VARCHAR(9) NULL
+--
+-- Las generaciones ya existentes se asignan al curso académico seleccionado, que es con el que se lanzaron.
+--
+-- El script es IDEMPOTENTE y SEGURO: solo actúa si la tabla existe y la columna aún no existe. Puede ejecutarse
+-- varias veces sin efecto adverso.
+-- ---------------------------------------------------------------------------------------------------------------------
+
+DELIMITER $$
+
+DROP PROCEDURE IF EXISTS migrar_generador_curso_academico $$
+
+CREATE PROCEDURE migrar_generador_curso_academico()
+BEGIN
+    DECLARE v_tabla_existe   INT DEFAULT 0;
+    DECLARE v_columna_existe INT DEFAULT 0;
+
+    -- 1) Comprobamos que la tabla existe (independiente de mayúsculas/minúsculas del nombre)
+    SELECT COUNT(*) INTO v_tabla_existe
+      FROM information_schema.TABLES
+     WHERE TABLE_SCHEMA = DATABASE()
+       AND LOWER(TABLE_NAME) = 'generador';
+
+    IF v_tabla_existe > 0 THEN
+
+        -- 2) ¿La columna ya existe? Si es así, no hay nada que migrar
+        SELECT COUNT(*) INTO v_columna_existe
+          FROM information_schema.COLUMNS
+         WHERE TABLE_SCHEMA = DATABASE()
+           AND LOWER(TABLE_NAME) = 'generador'
+           AND LOWER(COLUMN_NAME) = 'curso_academico';
+
+        IF v_columna_existe = 0 THEN
+
+            -- 3) Añadimos la columna
+            ALTER TABLE `Generador` ADD COLUMN `curso_academico` VARCHAR(9) NULL;
+
+            -- 4) Asignamos las generaciones existentes al curso académico seleccionado
+            UPDATE `Generador`
+               SET `curso_academico` = (SELECT ca.`curso_academico` FROM `Curso_Academico` ca WHERE ca.`seleccionado` = TRUE LIMIT 1)
+             WHERE `curso_academico` IS NULL;
+
+        END IF;
+
+    END IF;
+END $$
+
+DELIMITER ;
+
+CALL migrar_generador_curso_academico();
+
+DROP PROCEDURE IF EXISTS migrar_generador_curso_academico;
@@ -0,0 +1,78 @@
+-- ---------------------------------------------------------------------------------------------------------------------
+-- Migración: añadir a Generador la semilla y la configuración de la generación y a GeneradorInstancia la semilla.
+-- ---------------------------------------------------------------------------------------------------------------------
+-- Contexto:
+--   Cada hilo del generador usa su propio generador de números aleatorios, creado a partir de la semilla de la generación.
+--   El Generador guarda su semilla y el umbral mínimo de solución con el que se lanzó, y cada GeneradorInstancia la semilla
+--   del hilo que encontró la solución, para poder repetir la búsqueda (POST /schoolManager/generador/repetir). Para repetirla
+--   igual, el Generador guarda también el modo, el número de hilos, los segundos de optimización y el número de mejores
+--   soluciones. Las repeticiones se marcan con repeticion = 1, ya que sus soluciones no se pueden seleccionar.
+--   Con ddl-auto=validate (VPS) Hibernate no crea las columnas, por eso hay que añadirlas a mano.
+--
+-- Columnas reales en BBDD (la estrategia de nombres de Spring convierte GeneradorInstancia -> generador_instancia y
+-- umbralMinimoSolucion -> umbral_minimo_solucion):
+--   * Generador.semilla                     BIGINT      NULL
+--   * Generador.umbral_minimo_solucion      INT         NULL
+--   * Generador.modo                        VARCHAR(30) NULL
+--   * Generador.numero_hilos                INT         NULL
+--   * Generador.segundos_optimizacion       BIGINT      NULL
+--   * Generador.numero_mejores_soluciones   INT         NULL
+--   * Generador.repeticion                  BIT(1)      NULL
+--   * generador_instancia.semilla           BIGINT      NULL
+--
+-- Las generaciones y soluciones ya existentes se quedan sin semilla ni configuración (NULL), ya que se lanzaron sin ellas,
+-- y ninguna es una repetición (NULL equivale a 0).
+--
+-- El script es IDEMPOTENTE y SEGURO: solo actúa si cada tabla existe y la columna aún no existe. Puede ejecutarse
+-- varias veces sin efecto adverso.
+-- ---------------------------------------------------------------------------------------------------------------------
+
+DELIMITER $$
+
+DROP PROCEDURE IF EXISTS migrar_generador_semilla_columna $$
+
+CREATE PROCEDURE migrar_generador_semilla_columna(IN p_tabla VARCHAR(64), IN p_columna VARCHAR(64), IN p_tipo VARCHAR(64))
+BEGIN
+    DECLARE v_tabla_existe   INT DEFAULT 0;
+    DECLARE v_columna_existe INT DEFAULT 0;
+
+    -- 1) Comprobamos que la tabla existe (independiente de mayúsculas/minúsculas del nombre)
+    SELECT COUNT(*) INTO v_tabla_existe
+      FROM information_schema.TABLES
+     WHERE TABLE_SCHEMA = DATABASE()
+       AND LOWER(TABLE_NAME) = LOWER(p_tabla);
+
+    IF v_tabla_existe > 0 THEN
+
+        -- 2) ¿La columna ya existe? Si es así, no hay nada que migrar
+        SELECT COUNT(*) INTO v_columna_existe
+          FROM information_schema.COLUMNS
+         WHERE TABLE_SCHEMA = DATABASE()
+           AND LOWER(TABLE_NAME) = LOWER(p_tabla)
+           AND LOWER(COLUMN_NAME) = LOWER(p_columna);
+
+        IF v_columna_existe = 0 THEN
+
+            -- 3) Añadimos la columna
+            SET @sql_migracion = CONCAT('ALTER TABLE `', p_tabla, '` ADD COLUMN `', p_columna, '` ', p_tipo, ' NULL');
+            PREPARE sentencia FROM @sql_migracion;
+            EXECUTE sentencia;
+            DEALLOCATE PREPARE sentencia;
+
+        END IF;
+
+    END IF;
+END $$
+
+DELIMITER ;
+
+CALL migrar_generador_semilla_columna('Generador', 'semilla', 'BIGINT');
+CALL migrar_generador_semilla_columna('Generador', 'umbral_minimo_solucion', 'INT');
+CALL migrar_generador_semilla_columna('Generador', 'modo', 'VARCHAR(30)');
+CALL migrar_generador_semilla_columna('Generador', 'numero_hilos', 'INT');
+CALL migrar_generador_semilla_columna('Generador', 'segundos_optimizacion', 'BIGINT');
+CALL migrar_generador_semilla_columna('Generador', 'numero_mejores_soluciones', 'INT');
+CALL migrar_generador_semilla_columna('Generador', 'repeticion', 'BIT(1)');
+CALL migrar_generador_semilla_columna('generador_instancia', 'semilla', 'BIGINT');
+
+DROP PROCEDURE IF EXISTS migrar_generador_semilla_columna;
@@ -0,0 +1,84 @@
+package es.iesjandula.reaktor.school_manager_server.generator.busqueda;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import es.iesjandula.reaktor.school_manager_server.generator.puntuacion.CalculadorPuntuacion;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.MatrizAsignaciones;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.OcupacionProfesores;
+import es.iesjandula.reaktor.school_manager_server.models.Asignatura;
+import es.iesjandula.reaktor.school_manager_server.models.CursoEtapaGrupo;
+import es.iesjandula.reaktor.school_manager_server.models.Profesor;
+import es.iesjandula.reaktor.school_manager_server.models.ids.IdAsignatura;
+import es.iesjandula.reaktor.school_manager_server.models.ids.IdCursoEtapaGrupo;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionAsignatura;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.restrictions.RestriccionHorariaInit;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
+
+class BusquedaLocalTest
+{
+    @Test
+    void movimientoPosible_rechazaSacarLaSesionIntermediaDeUnModuloDeFp()
+    {
+        MatrizAsignaciones matrizAsignaciones = crearMatrizConModuloDeFpEnElPrimerDia();
+
+        // Llevar la 2ª hora del lunes al martes deja las sesiones del lunes separadas
+        assertFalse(crearBusquedaLocal().movimientoPosible(matrizAsignaciones, true, 0, 1, 1, 3));
+    }
+
+    @Test
+    void movimientoPosible_permiteSacarLaUltimaSesionDeUnModuloDeFp()
+    {
+        MatrizAsignaciones matrizAsignaciones = crearMatrizConModuloDeFpEnElPrimerDia();
+
+        // Llevar la 3ª hora del lunes al martes deja las del lunes seguidas
+        assertTrue(crearBusquedaLocal().movimientoPosible(matrizAsignaciones, true, 0, 2, 1, 3));
+    }
+
+    private static BusquedaLocal crearBusquedaLocal()
+    {
+        return new BusquedaLocal(Constants.BUSQUEDA_LOCAL_ASCENSO_COLINA, 1, 1, new OcupacionProfesores(1),
+                                 new CalculadorPuntuacion(), new SplittableRandom(1L));
+    }
+
+    /**
+     * Un grupo de FP con un módulo de tres horas seguidas el lunes (1ª, 2ª y 3ª) y el resto de la semana libre
+     */
+    private static MatrizAsignaciones crearMatrizConModuloDeFpEnElPrimerDia()
+    {
+        CursoEtapaGrupo cursoEtapaGrupo = new CursoEtapaGrupo();
+        cursoEtapaGrupo.setIdCursoEtapaGrupo(new IdCursoEtapaGrupo("2025-26", 1, "SMR", "A"));
+        cursoEtapaGrupo.setHorarioMatutino(true);
+        cursoEtapaGrupo.setEsoBachillerato(false);
+
+        Asignatura asignatura = new Asignatura();
+        asignatura.setIdAsignatura(new IdAsignatura(cursoEtapaGrupo, "Redes Locales"));
+        asignatura.setEsoBachillerato(false);
+
+        Profesor profesor = new Profesor();
+        profesor.setCursoAcademico("2025-26");
+        profesor.setEmail("ana@iesjandula.es");
+        profesor.setNombre("Ana");
+        profesor.setApellidos("Pérez");
+
+        SesionBase[] sesiones = new SesionBase[3];
+        MatrizAsignaciones matrizAsignaciones = new MatrizAsignaciones(1, sesiones);
+        for (int tramo = 0; tramo < 3; tramo++)
+        {
+            SesionAsignatura sesion = new SesionAsignatura(cursoEtapaGrupo, asignatura, profesor, true, new RestriccionHorariaInit(0));
+            sesion.setIndiceProfesor(0);
+            sesion.setIndiceAsignatura(0);
+            sesion.setIndiceSesion(tramo);
+
+            sesiones[tramo] = sesion;
+            matrizAsignaciones.asignar(0, tramo, sesion);
+        }
+
+        return matrizAsignaciones;
+    }
+}
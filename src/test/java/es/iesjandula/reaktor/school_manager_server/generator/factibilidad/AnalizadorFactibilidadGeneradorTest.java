@@ -0,0 +1,184 @@
+package es.iesjandula.reaktor.school_manager_server.generator.factibilidad;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import es.iesjandula.reaktor.school_manager_server.dtos.ErroresDatosDto;
+import es.iesjandula.reaktor.school_manager_server.models.Asignatura;
+import es.iesjandula.reaktor.school_manager_server.models.Bloque;
+import es.iesjandula.reaktor.school_manager_server.models.CursoEtapaGrupo;
+import es.iesjandula.reaktor.school_manager_server.models.Profesor;
+import es.iesjandula.reaktor.school_manager_server.models.ids.IdAsignatura;
+import es.iesjandula.reaktor.school_manager_server.models.ids.IdCursoEtapaGrupo;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionAsignatura;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.restrictions.RestriccionHorariaInit;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
+
+class AnalizadorFactibilidadGeneradorTest
+{
+    private static final int HUECOS_SEMANA = Constants.NUMERO_DIAS_SEMANA * Constants.NUMERO_TRAMOS_HORARIOS;
+
+    @Test
+    void analizar_grupoConTodasSusHorasSinConflictos()
+    {
+        CursoEtapaGrupo grupoA = crearCursoEtapaGrupo("A");
+        Asignatura asignatura = crearAsignatura(grupoA, "Matemáticas");
+
+        List<SesionBase> sesiones = new ArrayList<>();
+        for (int i = 0; i < HUECOS_SEMANA; i++)
+        {
+            sesiones.add(crearSesion(grupoA, asignatura, crearProfesor("Profesor" + i), i, new RestriccionHorariaInit(0)));
+        }
+
+        assertTrue(AnalizadorFactibilidadGenerador.analizar(List.of(sesiones)).isEmpty());
+    }
+
+    @Test
+    void analizar_profesorConDosRestriccionesEnElMismoDiaYTramo()
+    {
+        CursoEtapaGrupo grupoA = crearCursoEtapaGrupo("A");
+        CursoEtapaGrupo grupoB = crearCursoEtapaGrupo("B");
+        Profesor profesor = crearProfesor("Ana");
+
+        // Miércoles a 4ª en los dos grupos (el grupo B empieza en el índice curso/día 5)
+        RestriccionHorariaInit restriccionGrupoA = new RestriccionHorariaInit(0);
+        restriccionGrupoA.asignarUnDiaTramoConcreto(2, 3);
+        RestriccionHorariaInit restriccionGrupoB = new RestriccionHorariaInit(5);
+        restriccionGrupoB.asignarUnDiaTramoConcreto(7, 3);
+
+        List<SesionBase> sesiones = List.of(crearSesion(grupoA, crearAsignatura(grupoA, "Lengua"), profesor, 0, restriccionGrupoA),
+                                            crearSesion(grupoB, crearAsignatura(grupoB, "Lengua"), profesor, 0, restriccionGrupoB),
+                                            crearSesion(grupoA, crearAsignatura(grupoA, "Historia"), profesor, 0, new RestriccionHorariaInit(0)));
+
+        List<ErroresDatosDto> errores = AnalizadorFactibilidadGenerador.analizar(List.of(sesiones));
+
+        assertEquals(1, errores.size());
+        assertEquals(List.of("Profesor Ana Pérez (matutino): 2 sesiones solo pueden ir en 1 días y tramos (día 3 tramo 4) - " +
+                             "Lengua en 1 ESO A, Lengua en 1 ESO B"), errores.get(0).getValoresImplicados());
+    }
+
+    @Test
+    void analizar_grupoConMasHorasQueLaSemanaYSesionSinHuecos()
+    {
+        CursoEtapaGrupo grupoA = crearCursoEtapaGrupo("A");
+        Asignatura asignatura = crearAsignatura(grupoA, "Matemáticas");
+
+        List<SesionBase> sesiones = new ArrayList<>();
+        for (int i = 0; i <= HUECOS_SEMANA; i++)
+        {
+            sesiones.add(crearSesion(grupoA, asignatura, crearProfesor("Profesor" + i), i, new RestriccionHorariaInit(0)));
+        }
+
+        // Un día y tramo que no pertenece a la semana del grupo deja la sesión sin ninguno posible
+        RestriccionHorariaInit restriccionFueraDelGrupo = new RestriccionHorariaInit(0);
+        restriccionFueraDelGrupo.asignarUnDiaTramoConcreto(5, 0);
+        sesiones.add(crearSesion(grupoA, crearAsignatura(grupoA, "Música"), crearProfesor("Luis"), HUECOS_SEMANA + 1, restriccionFueraDelGrupo));
+
+        List<ErroresDatosDto> errores = AnalizadorFactibilidadGenerador.analizar(List.of(sesiones));
+
+        assertEquals(2, errores.size());
+        assertEquals(List.of("Música en 1 ESO A con Luis Pérez"), errores.get(0).getValoresImplicados());
+        assertEquals(List.of("Grupo 1 ESO A (matutino): 31 sesiones para 30 días y tramos posibles"), errores.get(1).getValoresImplicados());
+        assertEquals(Constants.ERROR_DATOS_TIPO_ERROR, errores.get(1).getTipo());
+    }
+
+    @Test
+    void analizar_grupoConDosBloquesDeOptativasQueNoCabenEnLaSemana()
+    {
+        // Las optativas de cada bloque van a la vez, pero cada bloque ocupa tantas celdas como horas tienen sus optativas
+        List<ErroresDatosDto> errores = AnalizadorFactibilidadGenerador.analizar(List.of(crearSesionesConDosBloquesDeOptativas(HUECOS_SEMANA - 5)));
+
+        assertEquals(1, errores.size());
+        assertEquals(List.of("Grupo 1 ESO A (matutino): 31 sesiones para 30 días y tramos posibles"), errores.get(0).getValoresImplicados());
+    }
+
+    @Test
+    void analizar_grupoConDosBloquesDeOptativasQueCabenEnLaSemana()
+    {
+        assertTrue(AnalizadorFactibilidadGenerador.analizar(List.of(crearSesionesConDosBloquesDeOptativas(HUECOS_SEMANA - 6))).isEmpty());
+    }
+
+    /**
+     * Un grupo con dos bloques de dos optativas de tres horas y el resto de las sesiones de asignaturas no optativas
+     */
+    private static List<SesionBase> crearSesionesConDosBloquesDeOptativas(int numeroSesionesNoOptativas)
+    {
+        CursoEtapaGrupo grupoA = crearCursoEtapaGrupo("A");
+        Asignatura asignatura = crearAsignatura(grupoA, "Matemáticas");
+
+        List<SesionBase> sesiones = new ArrayList<>();
+        for (int i = 0; i < numeroSesionesNoOptativas; i++)
+        {
+            sesiones.add(crearSesion(grupoA, asignatura, crearProfesor("Profesor" + i), i, new RestriccionHorariaInit(0)));
+        }
+
+        int indiceProfesor = numeroSesionesNoOptativas;
+        long idBloque = 1L;
+        for (String[] bloque : List.of(new String[] { "Francés", "Cultura Clásica" }, new String[] { "Música", "Tecnología" }))
+        {
+            Bloque bloqueOptativas = new Bloque(idBloque, null);
+            idBloque++;
+
+            for (String nombre : bloque)
+            {
+                Asignatura optativa = crearAsignatura(grupoA, nombre);
+                optativa.setBloqueId(bloqueOptativas);
+
+                Profesor profesor = crearProfesor(nombre.replace(" ", ""));
+                for (int hora = 0; hora < 3; hora++)
+                {
+                    sesiones.add(crearSesion(grupoA, optativa, profesor, indiceProfesor, new RestriccionHorariaInit(0)));
+                }
+
+                indiceProfesor++;
+            }
+        }
+
+        return sesiones;
+    }
+
+    private static SesionAsignatura crearSesion(CursoEtapaGrupo cursoEtapaGrupo, Asignatura asignatura, Profesor profesor,
+                                                int indiceProfesor, RestriccionHorariaInit restriccionHorariaInit)
+    {
+        SesionAsignatura sesion = new SesionAsignatura(cursoEtapaGrupo, asignatura, profesor, true, restriccionHorariaInit);
+        sesion.setIndiceProfesor(indiceProfesor);
+
+        return sesion;
+    }
+
+    private static CursoEtapaGrupo crearCursoEtapaGrupo(String grupo)
+    {
+        CursoEtapaGrupo cursoEtapaGrupo = new CursoEtapaGrupo();
+        cursoEtapaGrupo.setIdCursoEtapaGrupo(new IdCursoEtapaGrupo("2025-26", 1, "ESO", grupo));
+        cursoEtapaGrupo.setHorarioMatutino(true);
+        cursoEtapaGrupo.setEsoBachillerato(true);
+
+        return cursoEtapaGrupo;
+    }
+
+    private static Asignatura crearAsignatura(CursoEtapaGrupo cursoEtapaGrupo, String nombre)
+    {
+        Asignatura asignatura = new Asignatura();
+        asignatura.setIdAsignatura(new IdAsignatura(cursoEtapaGrupo, nombre));
+        asignatura.setEsoBachillerato(true);
+
+        return asignatura;
+    }
+
+    private static Profesor crearProfesor(String nombre)
+    {
+        Profesor profesor = new Profesor();
+        profesor.setCursoAcademico("2025-26");
+        profesor.setEmail(nombre.toLowerCase() + "@iesjandula.es");
+        profesor.setNombre(nombre);
+        profesor.setApellidos("Pérez");
+
+        return profesor;
+    }
+}
@@ -0,0 +1,184 @@
+package es.iesjandula.reaktor.school_manager_server.generator.puntuacion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import es.iesjandula.reaktor.school_manager_server.generator.Horario;
+import es.iesjandula.reaktor.school_manager_server.generator.threads.MatrizAsignaciones;
+import es.iesjandula.reaktor.school_manager_server.models.Asignatura;
+import es.iesjandula.reaktor.school_manager_server.models.CursoEtapaGrupo;
+import es.iesjandula.reaktor.school_manager_server.models.DiaTramoTipoHorario;
+import es.iesjandula.reaktor.school_manager_server.models.ObservacionesAdicionales;
+import es.iesjandula.reaktor.school_manager_server.models.PreferenciasHorariasProfesor;
+import es.iesjandula.reaktor.school_manager_server.models.Profesor;
+import es.iesjandula.reaktor.school_manager_server.models.Reduccion;
+import es.iesjandula.reaktor.school_manager_server.models.ids.IdAsignatura;
+import es.iesjandula.reaktor.school_manager_server.models.ids.IdCursoEtapaGrupo;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionAsignatura;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionReduccion;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.restrictions.RestriccionHorariaInit;
+import es.iesjandula.reaktor.school_manager_server.utils.Constants;
+
+/**
+ * Los valores esperados son los que devuelven las consultas SQL de IGeneradorAsignadaImpartirRepository
+ * (y los cálculos que hacía GeneradorService sobre ellas) para el mismo horario guardado en BBDD
+ */
+class CalculadorPuntuacionTest
+{
+    private static final double DELTA = 0.0001d;
+
+    private static final int MAXIMO_SESIONES = 10;
+
+    @Test
+    void calcularPuntuacion_coincideConLasConsultasSqlEnHorarioMatutino()
+    {
+        CursoEtapaGrupo cursoEtapaGrupo = crearCursoEtapaGrupo();
+        Asignatura asignatura = crearAsignatura(cursoEtapaGrupo);
+
+        // Profesor A: prefiere no tener clase a primera hora, no quiere clase el lunes a 1ª ni el miércoles a 4ª
+        Profesor profesorA = crearProfesor("a@iesjandula.es", true, 0, 0, 2, 3);
+
+        // Profesor B: prefiere no tener clase a última hora y no tiene preferencias concretas
+        Profesor profesorB = crearProfesor("b@iesjandula.es", false);
+
+        // Profesor C: solo tiene una reducción, que no cuenta para la puntuación
+        Profesor profesorC = crearProfesor("c@iesjandula.es", true, 0, 0);
+
+        SesionBase[] sesiones = new SesionBase[MAXIMO_SESIONES];
+        MatrizAsignaciones matriz = new MatrizAsignaciones(1, sesiones);
+
+        // Lunes: 1ª, 3ª y 4ª (un hueco). Martes: 6ª
+        asignar(matriz, sesiones, 0, 0, new SesionAsignatura(cursoEtapaGrupo, asignatura, profesorA, true, new RestriccionHorariaInit(0)));
+        asignar(matriz, sesiones, 0, 2, new SesionAsignatura(cursoEtapaGrupo, asignatura, profesorA, true, new RestriccionHorariaInit(0)));
+        asignar(matriz, sesiones, 0, 3, new SesionAsignatura(cursoEtapaGrupo, asignatura, profesorA, true, new RestriccionHorariaInit(0)));
+        asignar(matriz, sesiones, 1, 5, new SesionAsignatura(cursoEtapaGrupo, asignatura, profesorA, true, new RestriccionHorariaInit(0)));
+
+        // Miércoles: 2ª y 5ª (dos huecos)
+        asignar(matriz, sesiones, 2, 1, new SesionAsignatura(cursoEtapaGrupo, asignatura, profesorB, true, new RestriccionHorariaInit(0)));
+        asignar(matriz, sesiones, 2, 4, new SesionAsignatura(cursoEtapaGrupo, asignatura, profesorB, true, new RestriccionHorariaInit(0)));
+
+        asignar(matriz, sesiones, 4, 2, new SesionReduccion(cursoEtapaGrupo, new Reduccion(), profesorC, true, new RestriccionHorariaInit(0)));
+
+        PuntuacionHorario puntuacionHorario = new CalculadorPuntuacion().calcularPuntuacion(new Horario(matriz, null));
+
+        // Huecos: 24 - 3 = 21, preferencias diarias: 4 + 5 = 9, preferencias concretas: 1 + 0 = 1
+        assertEquals(31, puntuacionHorario.getPuntuacionTotal());
+
+        Map<String, PuntuacionHorarioInfo> infoGeneral = puntuacionHorario.getInfoGeneral();
+        assertEquals(3, infoGeneral.size());
+        assertInfoMatutina(infoGeneral.get(Constants.SOL_INFO_HUECOS), 3, 12.5d);
+        assertInfoMatutina(infoGeneral.get(Constants.SOL_INFO_PREFERENCIAS_DIARIAS), 9, 50.0d);
+        assertInfoMatutina(infoGeneral.get(Constants.SOL_INFO_PREFERENCIAS_CONCRETAS), 1, 100.0d / 6.0d);
+
+        Map<Profesor, Map<String, PuntuacionHorarioInfo>> infoProfesores = puntuacionHorario.getInfoProfesores();
+        assertEquals(2, infoProfesores.size());
+        assertTrue(!infoProfesores.containsKey(profesorC));
+
+        assertInfoMatutina(infoProfesores.get(profesorA).get(Constants.SOL_INFO_HUECOS), 1, 100.0d / 12.0d);
+        assertInfoMatutina(infoProfesores.get(profesorA).get(Constants.SOL_INFO_PREFERENCIAS_DIARIAS), 4, 80.0d);
+        assertInfoMatutina(infoProfesores.get(profesorA).get(Constants.SOL_INFO_PREFERENCIAS_CONCRETAS), 1, 100.0d / 3.0d);
+
+        assertInfoMatutina(infoProfesores.get(profesorB).get(Constants.SOL_INFO_HUECOS), 2, 100.0d / 6.0d);
+        assertInfoMatutina(infoProfesores.get(profesorB).get(Constants.SOL_INFO_PREFERENCIAS_DIARIAS), 5, 100.0d);
+        assertInfoMatutina(infoProfesores.get(profesorB).get(Constants.SOL_INFO_PREFERENCIAS_CONCRETAS), 0, 0.0d);
+    }
+
+    @Test
+    void calcularPuntuacion_sinSesionesDeAsignaturasNoPuntuaNiGeneraDesglose()
+    {
+        CursoEtapaGrupo cursoEtapaGrupo = crearCursoEtapaGrupo();
+        Profesor profesor = crearProfesor("a@iesjandula.es", true);
+
+        SesionBase[] sesiones = new SesionBase[MAXIMO_SESIONES];
+        MatrizAsignaciones matriz = new MatrizAsignaciones(1, sesiones);
+        asignar(matriz, sesiones, 0, 0, new SesionReduccion(cursoEtapaGrupo, new Reduccion(), profesor, false, new RestriccionHorariaInit(0)));
+
+        PuntuacionHorario puntuacionHorario = new CalculadorPuntuacion().calcularPuntuacion(new Horario(null, matriz));
+
+        assertEquals(0, puntuacionHorario.getPuntuacionTotal());
+        assertTrue(puntuacionHorario.getInfoGeneral().isEmpty());
+        assertTrue(puntuacionHorario.getInfoProfesores().isEmpty());
+    }
+
+    private static void assertInfoMatutina(PuntuacionHorarioInfo info, double puntuacion, double porcentaje)
+    {
+        assertEquals(puntuacion, info.getPuntuacionMatutina(), DELTA);
+        assertEquals(porcentaje, info.getPorcentajeMatutina(), DELTA);
+        assertEquals(0.0d, info.getPuntuacionVespertina(), DELTA);
+        assertEquals(0.0d, info.getPorcentajeVespertina(), DELTA);
+    }
+
+    /**
+     * Da a la sesión el primer índice libre de la tabla de sesiones de la matriz y la asigna a la celda
+     */
+    private static void asignar(MatrizAsignaciones matriz, SesionBase[] sesiones, int dia, int tramo, SesionBase sesion)
+    {
+        int indiceSesion = 0;
+        while (sesiones[indiceSesion] != null)
+        {
+            indiceSesion++;
+        }
+
+        sesion.setIndiceSesion(indiceSesion);
+        sesiones[indiceSesion] = sesion;
+
+        matriz.asignar(dia, tramo, sesion);
+    }
+
+    private static CursoEtapaGrupo crearCursoEtapaGrupo()
+    {
+        CursoEtapaGrupo cursoEtapaGrupo = new CursoEtapaGrupo();
+        cursoEtapaGrupo.setIdCursoEtapaGrupo(new IdCursoEtapaGrupo("2025-26", 1, "ESO", "A"));
+        cursoEtapaGrupo.setHorarioMatutino(true);
+        cursoEtapaGrupo.setEsoBachillerato(true);
+
+        return cursoEtapaGrupo;
+    }
+
+    private static Asignatura crearAsignatura(CursoEtapaGrupo cursoEtapaGrupo)
+    {
+        Asignatura asignatura = new Asignatura();
+        asignatura.setIdAsignatura(new IdAsignatura(cursoEtapaGrupo, "Matemáticas"));
+        asignatura.setEsoBachillerato(true);
+
+        return asignatura;
+    }
+
+    /**
+     * @param diasTramosNoDeseados pares día/tramo en los que el profesor prefiere no tener clase
+     */
+    private static Profesor crearProfesor(String email, boolean sinClasePrimeraHora, int... diasTramosNoDeseados)
+    {
+        Profesor profesor = new Profesor();
+        profesor.setCursoAcademico("2025-26");
+        profesor.setEmail(email);
+
+        ObservacionesAdicionales observacionesAdicionales = new ObservacionesAdicionales();
+        observacionesAdicionales.setSinClasePrimeraHora(sinClasePrimeraHora);
+        profesor.setObservacionesAdicionales(observacionesAdicionales);
+
+        List<PreferenciasHorariasProfesor> preferencias = new ArrayList<>();
+        for (int i = 0; i < diasTramosNoDeseados.length; i += 2)
+        {
+            DiaTramoTipoHorario diaTramoTipoHorario = new DiaTramoTipoHorario();
+            diaTramoTipoHorario.setDia(diasTramosNoDeseados[i]);
+            diaTramoTipoHorario.setTramo(diasTramosNoDeseados[i + 1]);
+            diaTramoTipoHorario.setHorarioMatutino(true);
+
+            PreferenciasHorariasProfesor preferencia = new PreferenciasHorariasProfesor();
+            preferencia.setProfesor(profesor);
+            preferencia.setDiaTramoTipoHorario(diaTramoTipoHorario);
+            preferencias.add(preferencia);
+        }
+        profesor.setPreferenciasHorariasProfesor(preferencias);
+
+        return profesor;
+    }
+}
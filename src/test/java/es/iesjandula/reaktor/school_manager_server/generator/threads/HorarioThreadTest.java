@@ -0,0 +1,84 @@
+package es.iesjandula.reaktor.school_manager_server.generator.threads;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+
+import org.junit.jupiter.api.Test;
+
+import es.iesjandula.reaktor.school_manager_server.models.Asignatura;
+import es.iesjandula.reaktor.school_manager_server.models.CursoEtapaGrupo;
+import es.iesjandula.reaktor.school_manager_server.models.Profesor;
+import es.iesjandula.reaktor.school_manager_server.models.ids.IdAsignatura;
+import es.iesjandula.reaktor.school_manager_server.models.ids.IdCursoEtapaGrupo;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionAsignatura;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.SesionBase;
+import es.iesjandula.reaktor.school_manager_server.models.no_jpa.restrictions.RestriccionHorariaInit;
+
+class HorarioThreadTest
+{
+    @Test
+    void buscarNumeroPasosHastaConflicto_saltaLaAsignacionDelMismoCursoEnOtroTramo()
+    {
+        // La sesión fallida solo podía ir el lunes a 1ª hora
+        SesionBase sesionFallida = crearSesion(0, 0);
+        sesionFallida.getRestriccionHorariaInit().asignarUnDiaTramoConcreto(0, 0);
+
+        Deque<PasoAsignacion> rastroAsignaciones = new ArrayDeque<>();
+        rastroAsignaciones.push(crearPaso(crearSesion(1, 1), 0, 0));
+        rastroAsignaciones.push(crearPaso(crearSesion(2, 2), 0, 3));
+
+        // La asignación del lunes a 4ª hora no le quita el hueco, así que se deshace junto con la que ocupa el lunes a 1ª hora
+        assertEquals(2, HorarioThread.buscarNumeroPasosHastaConflicto(rastroAsignaciones, sesionFallida));
+    }
+
+    @Test
+    void buscarNumeroPasosHastaConflicto_paraEnLaMismaAsignaturaElMismoDia()
+    {
+        // La sesión fallida solo podía ir el lunes a 1ª hora
+        SesionBase sesionFallida = crearSesion(0, 0);
+        sesionFallida.getRestriccionHorariaInit().asignarUnDiaTramoConcreto(0, 0);
+
+        Deque<PasoAsignacion> rastroAsignaciones = new ArrayDeque<>();
+        rastroAsignaciones.push(crearPaso(crearSesion(1, 1), 0, 0));
+        rastroAsignaciones.push(crearPaso(crearSesion(2, 0), 0, 3));
+
+        // La misma asignatura el lunes limita sus horas de ese día, así que provoca el conflicto
+        assertEquals(1, HorarioThread.buscarNumeroPasosHastaConflicto(rastroAsignaciones, sesionFallida));
+    }
+
+    /**
+     * Sesión de un grupo de FP matutino, que comienza en el índice curso día 0
+     */
+    private static SesionBase crearSesion(int indiceProfesor, int indiceAsignatura)
+    {
+        CursoEtapaGrupo cursoEtapaGrupo = new CursoEtapaGrupo();
+        cursoEtapaGrupo.setIdCursoEtapaGrupo(new IdCursoEtapaGrupo("2025-26", 1, "SMR", "A"));
+        cursoEtapaGrupo.setHorarioMatutino(true);
+        cursoEtapaGrupo.setEsoBachillerato(false);
+
+        Asignatura asignatura = new Asignatura();
+        asignatura.setIdAsignatura(new IdAsignatura(cursoEtapaGrupo, "Asignatura " + indiceAsignatura));
+        asignatura.setEsoBachillerato(false);
+
+        Profesor profesor = new Profesor();
+        profesor.setCursoAcademico("2025-26");
+        profesor.setEmail("profesor" + indiceProfesor + "@iesjandula.es");
+
+        SesionAsignatura sesion = new SesionAsignatura(cursoEtapaGrupo, asignatura, profesor, true, new RestriccionHorariaInit(0));
+        sesion.setIndiceProfesor(indiceProfesor);
+        sesion.setIndiceAsignatura(indiceAsignatura);
+
+        return sesion;
+    }
+
+    private static PasoAsignacion crearPaso(SesionBase sesion, int indiceCursoDia, int indiceTramoHorario)
+    {
+        PasoAsignacion pasoAsignacion = new PasoAsignacion(sesion, new ArrayList<>(), 0, false);
+        pasoAsignacion.setUltimaAsignacion(new UltimaAsignacion(new IndicesAsignacionSesion(indiceCursoDia, indiceTramoHorario), null));
+
+        return pasoAsignacion;
+    }
+}
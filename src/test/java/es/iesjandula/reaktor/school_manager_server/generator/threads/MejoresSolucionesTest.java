@@ -0,0 +1,61 @@
+package es.iesjandula.reaktor.school_manager_server.generator.threads;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import es.iesjandula.reaktor.school_manager_server.generator.Horario;
+
+class MejoresSolucionesTest
+{
+    @Test
+    void agregar_conservaLasMejoresSolucionesOrdenadasDeMejorAPeor()
+    {
+        MejoresSoluciones mejoresSoluciones = new MejoresSoluciones(3);
+
+        assertTrue(mejoresSoluciones.agregar(crearSolucion(10)));
+        assertTrue(mejoresSoluciones.agregar(crearSolucion(30)));
+        assertTrue(mejoresSoluciones.agregar(crearSolucion(20)));
+
+        // Con las plazas ocupadas, solo entra si mejora a la peor, que se descarta
+        assertFalse(mejoresSoluciones.agregar(crearSolucion(5)));
+        assertFalse(mejoresSoluciones.agregar(crearSolucion(10)));
+        assertTrue(mejoresSoluciones.agregar(crearSolucion(25)));
+
+        List<SolucionGenerador> soluciones = mejoresSoluciones.obtenerSoluciones();
+
+        assertEquals(3, soluciones.size());
+        assertEquals(30, soluciones.get(0).getHorario().getPuntuacion());
+        assertEquals(25, soluciones.get(1).getHorario().getPuntuacion());
+        assertEquals(20, soluciones.get(2).getHorario().getPuntuacion());
+    }
+
+    @Test
+    void registrarSolucionOptimizacion_descartaLasQueNoSuperanElUmbralSinDetenerLosHilos()
+    {
+        ControlHilosGenerador controlHilosGenerador = new ControlHilosGenerador(2, 60L, 2);
+
+        assertFalse(controlHilosGenerador.registrarSolucionOptimizacion(crearSolucion(15), 15));
+        assertTrue(controlHilosGenerador.registrarSolucionOptimizacion(crearSolucion(16), 15));
+
+        assertEquals(16, controlHilosGenerador.getMejorPuntuacion());
+        assertEquals(1, controlHilosGenerador.getMejoresSoluciones().size());
+        assertFalse(controlHilosGenerador.isBusquedaFinalizada());
+
+        // Solo el último hilo en terminar se encarga de guardar las soluciones
+        assertFalse(controlHilosGenerador.finalizarHilo());
+        assertTrue(controlHilosGenerador.finalizarHilo());
+    }
+
+    private static SolucionGenerador crearSolucion(int puntuacion)
+    {
+        Horario horario = new Horario(null, null);
+        horario.setPuntuacion(puntuacion);
+
+        return new SolucionGenerador(horario, null);
+    }
+}